@@ -0,0 +1,95 @@
+/**
+ * A classe `AgregadorEstoque` calcula as estatísticas de preço dos armazenamentos que avaliam as consultas em
+ * memória. Os veículos são percorridos por um stream paralelo (fork-join): cada tarefa acumula os seus grupos
+ * em um mapa próprio, e os mapas parciais são combinados ao final, com somas exatas em `BigDecimal`.
+ */
+package com.example.concessionaria;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+final class AgregadorEstoque {
+    private AgregadorEstoque() {
+    }
+
+    /**
+     * Acumulador das estatísticas de um grupo.
+     */
+    private static final class Acumulador {
+        long quantidade;
+        long comPreco;
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal minimo;
+        BigDecimal maximo;
+
+        void adicionar(BigDecimal preco) {
+            quantidade++;
+            if (preco == null) {
+                return;
+            }
+            comPreco++;
+            total = total.add(preco);
+            minimo = minimo == null || preco.compareTo(minimo) < 0 ? preco : minimo;
+            maximo = maximo == null || preco.compareTo(maximo) > 0 ? preco : maximo;
+        }
+
+        void combinar(Acumulador outro) {
+            quantidade += outro.quantidade;
+            comPreco += outro.comPreco;
+            total = total.add(outro.total);
+            if (outro.minimo != null && (minimo == null || outro.minimo.compareTo(minimo) < 0)) {
+                minimo = outro.minimo;
+            }
+            if (outro.maximo != null && (maximo == null || outro.maximo.compareTo(maximo) > 0)) {
+                maximo = outro.maximo;
+            }
+        }
+
+        EstatisticaPrecos toEstatistica(String chave) {
+            if (comPreco == 0) {
+                return new EstatisticaPrecos(chave, quantidade, null, null, null, null);
+            }
+            BigDecimal media = total.divide(BigDecimal.valueOf(comPreco), MathContext.DECIMAL128);
+            return new EstatisticaPrecos(chave, quantidade, total, media, minimo, maximo);
+        }
+    }
+
+    /**
+     * Agrupa os veículos e calcula as estatísticas de preço de cada grupo.
+     * @param veiculos Os veículos do estoque; o stream é percorrido em paralelo.
+     * @param agrupamento O campo de agrupamento.
+     * @param filtro Os critérios que os veículos devem atender ou `null` para todo o estoque.
+     * @return As estatísticas de cada grupo, em ordem crescente da chave (grupo sem valor por último).
+     */
+    static List<EstatisticaPrecos> agregar(Stream<Veiculo> veiculos, AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        Stream<Veiculo> selecionados = veiculos.parallel();
+        if (filtro != null) {
+            selecionados = selecionados.filter(filtro::aceita);
+        }
+
+        // O HashMap aceita a chave nula, ao contrário de Collectors.groupingBy
+        Map<String, Acumulador> grupos = selecionados.collect(Collector.of(
+                HashMap<String, Acumulador>::new,
+                (parcial, veiculo) -> parcial.computeIfAbsent(agrupamento.valor(veiculo), chave -> new Acumulador()).adicionar(veiculo.preco),
+                (esquerda, direita) -> {
+                    direita.forEach((chave, acumulador) -> esquerda.merge(chave, acumulador, (a, b) -> {
+                        a.combinar(b);
+                        return a;
+                    }));
+                    return esquerda;
+                },
+                Collector.Characteristics.UNORDERED));
+
+        List<EstatisticaPrecos> estatisticas = new ArrayList<>(grupos.size());
+        grupos.forEach((chave, acumulador) -> estatisticas.add(acumulador.toEstatistica(chave)));
+        estatisticas.sort(Comparator.comparing(estatistica -> estatistica.chave, Comparator.nullsLast(Comparator.naturalOrder())));
+        return estatisticas;
+    }
+}
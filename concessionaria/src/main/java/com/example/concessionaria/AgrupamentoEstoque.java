@@ -0,0 +1,36 @@
+/**
+ * A enumeração `AgrupamentoEstoque` define o campo pelo qual as estatísticas de preço do estoque são agrupadas.
+ */
+package com.example.concessionaria;
+
+public enum AgrupamentoEstoque {
+    TIPO("tipo"),
+    MARCA("marca"),
+    MODELO("modelo"),
+    ANO("ano_de_fabricacao");
+
+    // Nome do campo agrupado
+    public final String campo;
+
+    AgrupamentoEstoque(String campo) {
+        this.campo = campo;
+    }
+
+    /**
+     * Obtém o valor do campo agrupado em um veículo.
+     * @param veiculo O veículo.
+     * @return O valor do campo ou `null` se não preenchido.
+     */
+    public String valor(Veiculo veiculo) {
+        switch (this) {
+            case TIPO:
+                return veiculo.getTipo();
+            case MARCA:
+                return veiculo.marca;
+            case MODELO:
+                return veiculo.modelo;
+            default:
+                return veiculo.ano_de_fabricacao;
+        }
+    }
+}
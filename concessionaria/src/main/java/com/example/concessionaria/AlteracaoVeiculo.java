@@ -0,0 +1,279 @@
+/**
+ * A classe `AlteracaoVeiculo` descreve uma alteração parcial de um veículo do estoque: somente os atributos
+ * preenchidos (diferentes de `null`) são alterados. Cada alteração gravada incrementa a versão do veículo, o que
+ * permite o controle de concorrência otimista: a operação informa a versão que leu, e é rejeitada se o veículo
+ * tiver sido alterado por outra operação nesse meio tempo.
+ *
+ * A alteração pode ser aplicada em memória sobre um veículo (`aplicar`) ou convertida em um filtro e uma
+ * atualização do MongoDB (`toFiltro` e `toAtualizacao`), que gravam apenas os campos alterados.
+ */
+package com.example.concessionaria;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+
+public class AlteracaoVeiculo {
+    // Atributos comuns
+    public String marca;
+    public String modelo;
+    public String ano_de_fabricacao;
+    public BigDecimal preco;
+
+    // Atributos específicos; só podem ser alterados no tipo correspondente
+    public Integer numero_de_portas;
+    public Integer cilindradas;
+
+    // `true` registra a venda; um veículo já vendido não pode ser vendido de novo
+    public Boolean vendido;
+
+    /**
+     * Cria a alteração que registra a venda de um veículo.
+     * @return A alteração com `vendido = true`.
+     */
+    public static AlteracaoVeiculo venda() {
+        AlteracaoVeiculo alteracao = new AlteracaoVeiculo();
+        alteracao.vendido = true;
+        return alteracao;
+    }
+
+    /**
+     * Cria a alteração do preço de um veículo.
+     * @param preco O novo preço.
+     * @return A alteração somente do preço.
+     */
+    public static AlteracaoVeiculo preco(BigDecimal preco) {
+        AlteracaoVeiculo alteracao = new AlteracaoVeiculo();
+        alteracao.preco = preco;
+        return alteracao;
+    }
+
+    /**
+     * Cria uma alteração a partir de um documento com os atributos a alterar (por exemplo, o corpo JSON de uma
+     * requisição). Os valores são convertidos como em `Veiculo.fromDocument`.
+     * @param documento O documento com os atributos.
+     * @return A alteração correspondente.
+     * @throws IllegalArgumentException Se o documento trouxer um campo que não pode ser alterado.
+     */
+    public static AlteracaoVeiculo fromDocument(Document documento) {
+        AlteracaoVeiculo alteracao = new AlteracaoVeiculo();
+        for (Map.Entry<String, Object> campo : documento.entrySet()) {
+            Object valor = campo.getValue();
+            switch (campo.getKey()) {
+                case "marca":
+                    alteracao.marca = Veiculo.toText(valor);
+                    break;
+                case "modelo":
+                    alteracao.modelo = Veiculo.toText(valor);
+                    break;
+                case "ano_de_fabricacao":
+                    alteracao.ano_de_fabricacao = Veiculo.toText(valor);
+                    break;
+                case "preco":
+                    alteracao.preco = Veiculo.toBigDecimal(valor);
+                    break;
+                case "numero_de_portas":
+                    alteracao.numero_de_portas = Veiculo.toInteger(valor);
+                    break;
+                case "cilindradas":
+                    alteracao.cilindradas = Veiculo.toInteger(valor);
+                    break;
+                case "vendido":
+                    alteracao.vendido = valor == null ? null : Veiculo.toBoolean(valor);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Campo não pode ser alterado: " + campo.getKey());
+            }
+        }
+        return alteracao;
+    }
+
+    /**
+     * Indica se nenhum atributo foi preenchido.
+     * @return `true` se a alteração não altera nada.
+     */
+    public boolean isVazia() {
+        return marca == null && modelo == null && ano_de_fabricacao == null && preco == null
+                && numero_de_portas == null && cilindradas == null && vendido == null;
+    }
+
+    /**
+     * Verifica os valores da alteração, independentemente do veículo alterado, com as mesmas regras de
+     * `Veiculo.validar` para os atributos preenchidos.
+     * @return A descrição do primeiro problema encontrado ou `null` se a alteração for válida.
+     */
+    public String validar() {
+        if (isVazia()) {
+            return "Nenhum atributo a alterar";
+        }
+        if (marca != null && marca.isBlank()) {
+            return "Marca não informada";
+        }
+        if (modelo != null && modelo.isBlank()) {
+            return "Modelo não informado";
+        }
+        if (ano_de_fabricacao != null && !Veiculo.anoValido(ano_de_fabricacao)) {
+            return "Ano de fabricação inválido: " + ano_de_fabricacao;
+        }
+        if (preco != null && preco.signum() <= 0) {
+            return "Preço deve ser maior que zero: " + preco;
+        }
+        if (Boolean.FALSE.equals(vendido)) {
+            return "Uma venda registrada não pode ser desfeita";
+        }
+        if (numero_de_portas != null && cilindradas != null) {
+            return "Número de portas e cilindradas não se aplicam ao mesmo veículo";
+        }
+        if (numero_de_portas != null) {
+            Carro carro = new Carro();
+            carro.numero_de_portas = numero_de_portas;
+            return carro.validaAtributosEspecificos();
+        }
+        if (cilindradas != null) {
+            Motocicleta moto = new Motocicleta();
+            moto.cilindradas = cilindradas;
+            return moto.validaAtributosEspecificos();
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se a alteração pode ser aplicada ao veículo atual: os atributos específicos precisam ser do seu
+     * tipo, e um veículo já vendido não pode ser vendido de novo.
+     * @param atual O veículo no estoque.
+     * @return A descrição do problema ou `null` se a alteração se aplicar ao veículo.
+     */
+    public String verificar(Veiculo atual) {
+        String erro = validar();
+        if (erro != null) {
+            return erro;
+        }
+        if (numero_de_portas != null && !(atual instanceof Carro)) {
+            return "Número de portas não se aplica a " + atual.getTipo();
+        }
+        if (cilindradas != null && !(atual instanceof Motocicleta)) {
+            return "Cilindradas não se aplicam a " + atual.getTipo();
+        }
+        if (Boolean.TRUE.equals(vendido) && atual.vendido) {
+            return "Veículo já vendido: " + atual.placa;
+        }
+        return null;
+    }
+
+    /**
+     * Aplica a alteração a uma cópia do veículo atual, com a versão incrementada. O veículo atual não é modificado,
+     * pois pode estar sendo lido por outras threads.
+     * @param atual O veículo no estoque.
+     * @return O novo veículo.
+     * @throws IllegalArgumentException Se a alteração não se aplicar ao veículo (ver `verificar`).
+     */
+    public Veiculo aplicar(Veiculo atual) {
+        String erro = verificar(atual);
+        if (erro != null) {
+            throw new IllegalArgumentException(erro);
+        }
+
+        Veiculo novo = atual.copiar();
+        if (marca != null) {
+            novo.marca = marca;
+        }
+        if (modelo != null) {
+            novo.modelo = modelo;
+        }
+        if (ano_de_fabricacao != null) {
+            novo.ano_de_fabricacao = ano_de_fabricacao;
+        }
+        if (preco != null) {
+            novo.preco = preco;
+        }
+        if (numero_de_portas != null) {
+            ((Carro) novo).numero_de_portas = numero_de_portas;
+        }
+        if (cilindradas != null) {
+            ((Motocicleta) novo).cilindradas = cilindradas;
+        }
+        if (vendido != null) {
+            novo.vendido = vendido;
+        }
+        novo.versao = atual.versao + 1;
+        return novo;
+    }
+
+    /**
+     * Converte a alteração em uma atualização do MongoDB: `$set` somente dos campos alterados e `$inc` da versão.
+     * @return A atualização correspondente.
+     */
+    public Bson toAtualizacao() {
+        List<Bson> atualizacoes = new ArrayList<>();
+        if (marca != null) {
+            atualizacoes.add(Updates.set("marca", marca));
+        }
+        if (modelo != null) {
+            atualizacoes.add(Updates.set("modelo", modelo));
+        }
+        if (ano_de_fabricacao != null) {
+            atualizacoes.add(Updates.set("ano_de_fabricacao", ano_de_fabricacao));
+        }
+        if (preco != null) {
+            atualizacoes.add(Updates.set("preco", new Decimal128(preco)));
+        }
+        if (numero_de_portas != null) {
+            atualizacoes.add(Updates.set("numero_de_portas", numero_de_portas));
+        }
+        if (cilindradas != null) {
+            atualizacoes.add(Updates.set("cilindradas", cilindradas));
+        }
+        if (vendido != null) {
+            atualizacoes.add(Updates.set("vendido", vendido));
+        }
+        atualizacoes.add(Updates.inc("versao", 1L));
+        return Updates.combine(atualizacoes);
+    }
+
+    /**
+     * Converte as condições da alteração em um filtro do MongoDB: a placa, a versão esperada, o tipo exigido pelos
+     * atributos específicos e, na venda, que o veículo ainda não tenha sido vendido. Um documento que não atende
+     * ao filtro não é alterado.
+     * @param placa A placa do veículo.
+     * @param versaoEsperada A versão esperada ou `I_Armazenamento.QUALQUER_VERSAO`.
+     * @return O filtro correspondente.
+     */
+    public Bson toFiltro(String placa, long versaoEsperada) {
+        List<Bson> filtros = new ArrayList<>();
+        filtros.add(filtroVersao(placa, versaoEsperada));
+        if (numero_de_portas != null) {
+            filtros.add(Filters.eq("tipo", "Carro"));
+        }
+        if (cilindradas != null) {
+            filtros.add(Filters.eq("tipo", "Motocicleta"));
+        }
+        if (Boolean.TRUE.equals(vendido)) {
+            filtros.add(Filters.ne("vendido", true));
+        }
+        return Filters.and(filtros);
+    }
+
+    /**
+     * Cria o filtro do MongoDB que seleciona a placa na versão esperada. Documentos gravados antes do controle de
+     * versão não têm o campo e são tratados como versão 0.
+     * @param placa A placa do veículo.
+     * @param versaoEsperada A versão esperada ou `I_Armazenamento.QUALQUER_VERSAO`.
+     * @return O filtro correspondente.
+     */
+    public static Bson filtroVersao(String placa, long versaoEsperada) {
+        if (versaoEsperada == I_Armazenamento.QUALQUER_VERSAO) {
+            return Filters.eq("placa", placa);
+        }
+        if (versaoEsperada == 0) {
+            return Filters.and(Filters.eq("placa", placa), Filters.or(Filters.eq("versao", 0), Filters.exists("versao", false)));
+        }
+        return Filters.and(Filters.eq("placa", placa), Filters.eq("versao", versaoEsperada));
+    }
+}
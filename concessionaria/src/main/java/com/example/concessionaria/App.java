@@ -1,10 +1,23 @@
 package com.example.concessionaria;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 
 public class App {
-    public static void main(String[] args) {
-        
+    // Porta padrão do modo servidor
+    private static final int PORTA_PADRAO = 8080;
+
+    public static void main(String[] args) throws IOException {
+        // `--servidor [porta]`: expõe o estoque do banco de dados por HTTP em vez de executar a demonstração
+        if (args.length > 0 && "--servidor".equals(args[0])) {
+            int porta = args.length > 1 ? Integer.parseInt(args[1]) : PORTA_PADRAO;
+            ServidorConcessionaria servidor = new ServidorConcessionaria(new Concessionaria(new BancoDeDadosArmazenamento()), porta);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> servidor.parar(5)));
+            servidor.iniciar();
+            System.out.println("Servidor da concessionária escutando na porta " + servidor.getPorta());
+            return;
+        }
+
         BancoDeDadosArmazenamento bd_mongo = new BancoDeDadosArmazenamento();
         ArquivoArmazenamento arquivo = new ArquivoArmazenamento();
 
@@ -0,0 +1,102 @@
+/**
+ * A classe `ArmazenamentoAssincronoExecutor` adapta qualquer `I_Armazenamento` bloqueante (por exemplo, o
+ * `ArquivoArmazenamento`) para a interface `I_ArmazenamentoAssincrono`, executando as operações em um executor
+ * de I/O dedicado. Assim, as threads de quem chama não ficam bloqueadas durante a leitura ou gravação.
+ */
+package com.example.concessionaria;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class ArmazenamentoAssincronoExecutor implements I_ArmazenamentoAssincrono {
+    // Executor de I/O compartilhado, usado quando nenhum executor é informado (threads daemon)
+    private static final ExecutorService EXECUTOR_PADRAO = criarExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+    // Armazenamento bloqueante adaptado
+    private final I_Armazenamento armazenamento;
+
+    // Executor onde as operações bloqueantes são executadas
+    private final ExecutorService executor;
+
+    /**
+     * Construtor da classe `ArmazenamentoAssincronoExecutor` usando o executor de I/O compartilhado.
+     * @param armazenamento O armazenamento bloqueante a ser adaptado.
+     */
+    public ArmazenamentoAssincronoExecutor(I_Armazenamento armazenamento) {
+        this(armazenamento, EXECUTOR_PADRAO);
+    }
+
+    /**
+     * Construtor da classe `ArmazenamentoAssincronoExecutor`.
+     * @param armazenamento O armazenamento bloqueante a ser adaptado.
+     * @param executor O executor de I/O onde as operações serão executadas.
+     */
+    public ArmazenamentoAssincronoExecutor(I_Armazenamento armazenamento, ExecutorService executor) {
+        this.armazenamento = armazenamento;
+        this.executor = executor;
+    }
+
+    /**
+     * Cria um executor de I/O com o número de threads informado. As threads são daemon para não impedir
+     * o encerramento da aplicação.
+     * @param threads O número de threads do executor.
+     * @return O executor criado.
+     */
+    public static ExecutorService criarExecutor(int threads) {
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, tarefa -> {
+            Thread thread = new Thread(tarefa, "armazenamento-io-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addVeiculoEstoque(Veiculo veiculo) {
+        return CompletableFuture.supplyAsync(() -> armazenamento.addVeiculoEstoque(veiculo), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<ResultadoInsercao>> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        return CompletableFuture.supplyAsync(() -> armazenamento.addVeiculosEstoque(veiculos), executor);
+    }
+
+    @Override
+    public CompletableFuture<Veiculo> findVeiculoTipado(String placa) {
+        return CompletableFuture.supplyAsync(() -> armazenamento.findVeiculoTipado(placa), executor);
+    }
+
+    /**
+     * Publica os veículos lendo o stream do armazenamento no executor de I/O. A entrega ao assinante é feita
+     * por um `SubmissionPublisher`, que bloqueia a leitura quando o buffer do assinante está cheio (contrapressão)
+     * e interrompe a leitura quando a assinatura é cancelada.
+     * @return Um publicador com os veículos do estoque.
+     */
+    @Override
+    public Flow.Publisher<Veiculo> publicarVeiculos() {
+        return assinante -> {
+            SubmissionPublisher<Veiculo> publicador = new SubmissionPublisher<>();
+            publicador.subscribe(assinante);
+
+            executor.execute(() -> {
+                try (Stream<Veiculo> veiculos = armazenamento.streamVeiculosTipados()) {
+                    Iterator<Veiculo> iterador = veiculos.iterator();
+                    while (iterador.hasNext() && publicador.hasSubscribers()) {
+                        publicador.submit(iterador.next());
+                    }
+                    publicador.close();
+                } catch (RuntimeException e) {
+                    publicador.closeExceptionally(e);
+                }
+            });
+        };
+    }
+}
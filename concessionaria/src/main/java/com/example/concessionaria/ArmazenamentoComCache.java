@@ -0,0 +1,198 @@
+/**
+ * A classe `ArmazenamentoComCache` é um decorador de `I_Armazenamento` que coloca um cache de leitura (read-through)
+ * na frente de qualquer armazenamento. As buscas por placa são atendidas por um `CacheLRU` limitado por tamanho e
+ * com expiração por tempo, inclusive para placas inexistentes (cache negativo). As inserções invalidam as placas
+ * afetadas, e as listagens são sempre repassadas ao armazenamento decorado.
+ */
+package com.example.concessionaria;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+
+public class ArmazenamentoComCache implements I_Armazenamento {
+    // Configuração padrão do cache
+    public static final int CAPACIDADE_PADRAO = 10_000;
+    public static final Duration TTL_PADRAO = Duration.ofMinutes(5);
+    public static final Duration TTL_NEGATIVO_PADRAO = Duration.ofSeconds(30);
+
+    // Armazenamento decorado
+    private final I_Armazenamento armazenamento;
+
+    // Caches por placa das duas formas de leitura (documento e veículo tipado)
+    private final CacheLRU<Document> cacheDocumentos;
+    private final CacheLRU<Veiculo> cacheVeiculos;
+
+    /**
+     * Construtor da classe `ArmazenamentoComCache` com a configuração padrão.
+     * @param armazenamento O armazenamento a ser decorado.
+     */
+    public ArmazenamentoComCache(I_Armazenamento armazenamento) {
+        this(armazenamento, CAPACIDADE_PADRAO, TTL_PADRAO, TTL_NEGATIVO_PADRAO);
+    }
+
+    /**
+     * Construtor da classe `ArmazenamentoComCache`.
+     * @param armazenamento O armazenamento a ser decorado.
+     * @param capacidadeMaxima O número máximo de placas mantidas em cada cache.
+     * @param ttl O tempo de vida dos veículos encontrados.
+     * @param ttlNegativo O tempo de vida das placas não encontradas; `Duration.ZERO` desativa o cache negativo.
+     */
+    public ArmazenamentoComCache(I_Armazenamento armazenamento, int capacidadeMaxima, Duration ttl, Duration ttlNegativo) {
+        this.armazenamento = armazenamento;
+        this.cacheDocumentos = new CacheLRU<>(capacidadeMaxima, ttl, ttlNegativo);
+        this.cacheVeiculos = new CacheLRU<>(capacidadeMaxima, ttl, ttlNegativo);
+    }
+
+    /**
+     * Adiciona um veículo ao estoque e invalida a sua placa no cache.
+     * @param veiculo O veículo a ser adicionado.
+     * @return `true` se a adição for bem-sucedida, `false` em caso de erro.
+     */
+    @Override
+    public boolean addVeiculoEstoque(Veiculo veiculo) {
+        try {
+            return armazenamento.addVeiculoEstoque(veiculo);
+        } finally {
+            invalidar(veiculo.placa);
+        }
+    }
+
+    /**
+     * Adiciona um lote de veículos ao estoque e invalida as suas placas no cache.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado da inserção de cada veículo.
+     */
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        try {
+            return armazenamento.addVeiculosEstoque(veiculos);
+        } finally {
+            for (Veiculo veiculo : veiculos) {
+                invalidar(veiculo.placa);
+            }
+        }
+    }
+
+    /**
+     * Encontra um veículo pela placa, consultando o armazenamento somente em caso de falha no cache.
+     * @param placa A placa do veículo.
+     * @return Uma cópia do documento em cache ou `null` se o veículo não existir.
+     */
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        Document documento = cacheDocumentos.get(placa, armazenamento::findVeiculoEstoque);
+        return documento == null ? null : new Document(documento);
+    }
+
+    /**
+     * Encontra um veículo tipado pela placa, consultando o armazenamento somente em caso de falha no cache.
+     * @param placa A placa do veículo.
+     * @return Uma cópia do veículo em cache (alterá-la não altera o cache) ou `null` se o veículo não existir.
+     */
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        Veiculo veiculo = cacheVeiculos.get(placa, armazenamento::findVeiculoTipado);
+        return veiculo == null ? null : veiculo.copiar();
+    }
+
+    @Override
+    public List<Document> getAllVeiculos() {
+        return armazenamento.getAllVeiculos();
+    }
+
+    @Override
+    public Stream<Document> streamVeiculos() {
+        return armazenamento.streamVeiculos();
+    }
+
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        return armazenamento.getAllVeiculosTipados();
+    }
+
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        return armazenamento.streamVeiculosTipados();
+    }
+
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        return armazenamento.listarPagina(tamanhoPagina, ordenacao, tokenRetomada);
+    }
+
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        return armazenamento.consultarVeiculos(consulta);
+    }
+
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        return armazenamento.agregarPrecos(agrupamento, filtro);
+    }
+
+    /**
+     * Altera o veículo no armazenamento decorado e invalida a placa no cache, inclusive quando a alteração é
+     * rejeitada (um conflito de versão indica que a entrada em cache pode estar desatualizada).
+     */
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        try {
+            return armazenamento.atualizarVeiculo(placa, alteracao, versaoEsperada);
+        } finally {
+            invalidar(placa);
+        }
+    }
+
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        try {
+            return armazenamento.removerVeiculo(placa, versaoEsperada);
+        } finally {
+            invalidar(placa);
+        }
+    }
+
+    /**
+     * Remove a placa dos caches, inclusive uma ausência armazenada.
+     * @param placa A placa a ser invalidada.
+     */
+    public void invalidar(String placa) {
+        cacheDocumentos.invalidar(placa);
+        cacheVeiculos.invalidar(placa);
+    }
+
+    /**
+     * Remove todas as placas dos caches.
+     */
+    public void limpar() {
+        cacheDocumentos.limpar();
+        cacheVeiculos.limpar();
+    }
+
+    /**
+     * Obtém o número de buscas atendidas pelo cache.
+     * @return O total de acertos.
+     */
+    public long getAcertos() {
+        return cacheDocumentos.getAcertos() + cacheVeiculos.getAcertos();
+    }
+
+    /**
+     * Obtém o número de buscas que precisaram consultar o armazenamento.
+     * @return O total de falhas.
+     */
+    public long getFalhas() {
+        return cacheDocumentos.getFalhas() + cacheVeiculos.getFalhas();
+    }
+
+    /**
+     * Obtém o número de placas descartadas por exceder a capacidade do cache.
+     * @return O total de expulsões.
+     */
+    public long getExpulsoes() {
+        return cacheDocumentos.getExpulsoes() + cacheVeiculos.getExpulsoes();
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * A classe `ArmazenamentoComMetricas` é um decorador de `I_Armazenamento` que mede cada operação do armazenamento
+ * decorado: registra a latência por operação e conta inserções aceitas e rejeitadas, acertos e falhas das buscas
+ * por placa e os conflitos de versão das alterações e remoções. As placas duplicadas são contadas pelos próprios armazenamentos, em "<prefixo>.insercoes.duplicadas". As métricas têm o prefixo do armazenamento (por exemplo,
+ * "arquivo.findVeiculoTipado" ou "bancodedados.buscas.falhas"). A `Concessionaria` aplica o decorador ao
+ * armazenamento que recebe.
+ *
+ * Nas operações que retornam um stream, a latência vai da abertura ao fechamento do stream e só é registrada
+ * quando ele é fechado.
+ */
+package com.example.concessionaria;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+
+public class ArmazenamentoComMetricas implements I_Armazenamento {
+    // Armazenamento decorado
+    private final I_Armazenamento armazenamento;
+
+    // Latência por operação
+    private final I_RegistroMetricas.Temporizador tempoInsercao;
+    private final I_RegistroMetricas.Temporizador tempoInsercaoLote;
+    private final I_RegistroMetricas.Temporizador tempoBusca;
+    private final I_RegistroMetricas.Temporizador tempoBuscaTipada;
+    private final I_RegistroMetricas.Temporizador tempoListagem;
+    private final I_RegistroMetricas.Temporizador tempoListagemTipada;
+    private final I_RegistroMetricas.Temporizador tempoStream;
+    private final I_RegistroMetricas.Temporizador tempoStreamTipado;
+    private final I_RegistroMetricas.Temporizador tempoPagina;
+    private final I_RegistroMetricas.Temporizador tempoConsulta;
+    private final I_RegistroMetricas.Temporizador tempoAgregacao;
+    private final I_RegistroMetricas.Temporizador tempoAtualizacao;
+    private final I_RegistroMetricas.Temporizador tempoRemocao;
+
+    // Contadores de inserções e buscas
+    private final I_RegistroMetricas.Contador insercoes;
+    private final I_RegistroMetricas.Contador rejeicoes;
+    private final I_RegistroMetricas.Contador conflitos;
+    private final I_RegistroMetricas.Contador acertos;
+    private final I_RegistroMetricas.Contador falhas;
+
+    /**
+     * Aplica o decorador a um armazenamento, a menos que ele já seja medido.
+     * @param armazenamento O armazenamento a ser medido.
+     * @return O armazenamento com métricas.
+     */
+    public static ArmazenamentoComMetricas envolver(I_Armazenamento armazenamento) {
+        if (armazenamento instanceof ArmazenamentoComMetricas) {
+            return (ArmazenamentoComMetricas) armazenamento;
+        }
+        return new ArmazenamentoComMetricas(armazenamento);
+    }
+
+    /**
+     * Construtor da classe `ArmazenamentoComMetricas`, com o prefixo derivado da classe do armazenamento
+     * (`ArquivoArmazenamento` resulta em "arquivo").
+     * @param armazenamento O armazenamento a ser medido.
+     */
+    public ArmazenamentoComMetricas(I_Armazenamento armazenamento) {
+        this(armazenamento, prefixoPadrao(armazenamento), Metricas.getRegistro());
+    }
+
+    /**
+     * Construtor da classe `ArmazenamentoComMetricas`.
+     * @param armazenamento O armazenamento a ser medido.
+     * @param prefixo O prefixo dos nomes das métricas.
+     * @param registro O registro onde as métricas são publicadas.
+     */
+    public ArmazenamentoComMetricas(I_Armazenamento armazenamento, String prefixo, I_RegistroMetricas registro) {
+        this.armazenamento = armazenamento;
+        this.tempoInsercao = registro.temporizador(prefixo + ".addVeiculoEstoque");
+        this.tempoInsercaoLote = registro.temporizador(prefixo + ".addVeiculosEstoque");
+        this.tempoBusca = registro.temporizador(prefixo + ".findVeiculoEstoque");
+        this.tempoBuscaTipada = registro.temporizador(prefixo + ".findVeiculoTipado");
+        this.tempoListagem = registro.temporizador(prefixo + ".getAllVeiculos");
+        this.tempoListagemTipada = registro.temporizador(prefixo + ".getAllVeiculosTipados");
+        this.tempoStream = registro.temporizador(prefixo + ".streamVeiculos");
+        this.tempoStreamTipado = registro.temporizador(prefixo + ".streamVeiculosTipados");
+        this.tempoPagina = registro.temporizador(prefixo + ".listarPagina");
+        this.tempoConsulta = registro.temporizador(prefixo + ".consultarVeiculos");
+        this.tempoAgregacao = registro.temporizador(prefixo + ".agregarPrecos");
+        this.tempoAtualizacao = registro.temporizador(prefixo + ".atualizarVeiculo");
+        this.tempoRemocao = registro.temporizador(prefixo + ".removerVeiculo");
+        this.insercoes = registro.contador(prefixo + ".insercoes");
+        this.rejeicoes = registro.contador(prefixo + ".insercoes.rejeitadas");
+        this.conflitos = registro.contador(prefixo + ".alteracoes.conflitos");
+        this.acertos = registro.contador(prefixo + ".buscas.acertos");
+        this.falhas = registro.contador(prefixo + ".buscas.falhas");
+    }
+
+    private static String prefixoPadrao(I_Armazenamento armazenamento) {
+        String nome = armazenamento.getClass().getSimpleName().replace("Armazenamento", "");
+        return nome.isEmpty() ? "armazenamento" : nome.toLowerCase();
+    }
+
+    /**
+     * Obtém o armazenamento decorado.
+     * @return O armazenamento medido por este decorador.
+     */
+    public I_Armazenamento getArmazenamento() {
+        return armazenamento;
+    }
+
+    @Override
+    public boolean addVeiculoEstoque(Veiculo veiculo) {
+        long inicio = System.nanoTime();
+        boolean inserido = armazenamento.addVeiculoEstoque(veiculo);
+        tempoInsercao.registrar(System.nanoTime() - inicio);
+        (inserido ? insercoes : rejeicoes).incrementar();
+        return inserido;
+    }
+
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        long inicio = System.nanoTime();
+        List<ResultadoInsercao> resultados = armazenamento.addVeiculosEstoque(veiculos);
+        tempoInsercaoLote.registrar(System.nanoTime() - inicio);
+
+        long inseridos = resultados.stream().filter(ResultadoInsercao::isSucesso).count();
+        insercoes.incrementar(inseridos);
+        rejeicoes.incrementar(resultados.size() - inseridos);
+        return resultados;
+    }
+
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        long inicio = System.nanoTime();
+        Document documento = armazenamento.findVeiculoEstoque(placa);
+        tempoBusca.registrar(System.nanoTime() - inicio);
+        (documento != null ? acertos : falhas).incrementar();
+        return documento;
+    }
+
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        long inicio = System.nanoTime();
+        Veiculo veiculo = armazenamento.findVeiculoTipado(placa);
+        tempoBuscaTipada.registrar(System.nanoTime() - inicio);
+        (veiculo != null ? acertos : falhas).incrementar();
+        return veiculo;
+    }
+
+    @Override
+    public List<Document> getAllVeiculos() {
+        long inicio = System.nanoTime();
+        List<Document> veiculos = armazenamento.getAllVeiculos();
+        tempoListagem.registrar(System.nanoTime() - inicio);
+        return veiculos;
+    }
+
+    @Override
+    public Stream<Document> streamVeiculos() {
+        long inicio = System.nanoTime();
+        return armazenamento.streamVeiculos().onClose(() -> tempoStream.registrar(System.nanoTime() - inicio));
+    }
+
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        long inicio = System.nanoTime();
+        List<Veiculo> veiculos = armazenamento.getAllVeiculosTipados();
+        tempoListagemTipada.registrar(System.nanoTime() - inicio);
+        return veiculos;
+    }
+
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        long inicio = System.nanoTime();
+        return armazenamento.streamVeiculosTipados().onClose(() -> tempoStreamTipado.registrar(System.nanoTime() - inicio));
+    }
+
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        long inicio = System.nanoTime();
+        try {
+            return armazenamento.listarPagina(tamanhoPagina, ordenacao, tokenRetomada);
+        } finally {
+            tempoPagina.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        long inicio = System.nanoTime();
+        List<Document> documentos = armazenamento.consultarVeiculos(consulta);
+        tempoConsulta.registrar(System.nanoTime() - inicio);
+        return documentos;
+    }
+
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        long inicio = System.nanoTime();
+        List<EstatisticaPrecos> estatisticas = armazenamento.agregarPrecos(agrupamento, filtro);
+        tempoAgregacao.registrar(System.nanoTime() - inicio);
+        return estatisticas;
+    }
+
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        long inicio = System.nanoTime();
+        ResultadoAtualizacao resultado = armazenamento.atualizarVeiculo(placa, alteracao, versaoEsperada);
+        tempoAtualizacao.registrar(System.nanoTime() - inicio);
+        if (resultado.status == ResultadoAtualizacao.Status.CONFLITO_VERSAO) {
+            conflitos.incrementar();
+        }
+        return resultado;
+    }
+
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        long inicio = System.nanoTime();
+        ResultadoAtualizacao resultado = armazenamento.removerVeiculo(placa, versaoEsperada);
+        tempoRemocao.registrar(System.nanoTime() - inicio);
+        if (resultado.status == ResultadoAtualizacao.Status.CONFLITO_VERSAO) {
+            conflitos.incrementar();
+        }
+        return resultado;
+    }
+}
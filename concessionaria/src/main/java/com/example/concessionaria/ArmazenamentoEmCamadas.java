@@ -0,0 +1,692 @@
+/**
+ * A classe `ArmazenamentoEmCamadas` combina três camadas em um único `I_Armazenamento`:
+ * - uma camada em memória (`EstoqueEmMemoria`), que atende todas as leituras sem sair da JVM;
+ * - um armazenamento primário (por exemplo, `BancoDeDadosArmazenamento`), gravado de forma síncrona;
+ * - um armazenamento secundário (por exemplo, `ArquivoArmazenamento` ou `BinarioArmazenamento`), que guarda uma
+ *   cópia para uso offline e é gravado em segundo plano, sem somar latência às inserções.
+ *
+ * O secundário é gravado por uma única thread, que reúne as inserções pendentes em um só lote. As alterações e
+ * remoções com controle de versão são conferidas e gravadas no primário de forma síncrona; o veículo resultante, com a
+ * versão do primário, é levado ao secundário pela mesma thread, na ordem em relação às inserções. Na criação, as
+ * camadas são reconciliadas (`reconciliar`): o secundário passa a espelhar o primário, as placas com conteúdos
+ * diferentes ficam com o de maior versão, e a camada em memória é carregada do primário.
+ *
+ * O nível de consistência (`NivelConsistencia`) pode ser escolhido por operação nas inserções e nas buscas por
+ * placa; as demais leituras são sempre atendidas pela camada em memória.
+ */
+package com.example.concessionaria;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ArmazenamentoEmCamadas implements I_Armazenamento {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArmazenamentoEmCamadas.class);
+
+    // Camadas
+    private final EstoqueEmMemoria memoria = new EstoqueEmMemoria();
+    private final I_Armazenamento primario;
+    private final I_Armazenamento secundario;
+
+    // Níveis de consistência usados quando a operação não informa um
+    private final NivelConsistencia escritaPadrao;
+    private final NivelConsistencia leituraPadrao;
+
+    // Pedidos de gravação em segundo plano, aplicados em ordem por uma única thread
+    private final Queue<PedidoReplicacao> pendentes = new ConcurrentLinkedQueue<>();
+    private final ExecutorService replicador;
+
+    // Métricas da gravação em segundo plano
+    private final I_RegistroMetricas.Contador falhasPrimario = Metricas.getRegistro().contador("camadas.primario.falhas");
+    private final I_RegistroMetricas.Contador falhasSecundario = Metricas.getRegistro().contador("camadas.secundario.falhas");
+    private final I_RegistroMetricas.Temporizador tempoReplicacao = Metricas.getRegistro().temporizador("camadas.replicacao");
+
+    /**
+     * Pedido de gravação em segundo plano: os veículos, se eles ainda precisam ir ao primário (inserções confirmadas
+     * só em memória) e o resultado da gravação no secundário, por placa. Um pedido de alteração traz, em vez dos
+     * veículos, a placa, a alteração (`null` na remoção) e o veículo gravado no primário.
+     */
+    private static final class PedidoReplicacao {
+        final List<Veiculo> veiculos;
+        final boolean incluirPrimario;
+        final String placa;
+        final AlteracaoVeiculo alteracao;
+        final Veiculo gravado;
+        final CompletableFuture<Map<String, ResultadoInsercao>> resultado = new CompletableFuture<>();
+        final CompletableFuture<ResultadoAtualizacao> resultadoAlteracao = new CompletableFuture<>();
+
+        PedidoReplicacao(List<Veiculo> veiculos, boolean incluirPrimario) {
+            this.veiculos = veiculos;
+            this.incluirPrimario = incluirPrimario;
+            this.placa = null;
+            this.alteracao = null;
+            this.gravado = null;
+        }
+
+        PedidoReplicacao(String placa, AlteracaoVeiculo alteracao, Veiculo gravado) {
+            this.veiculos = List.of();
+            this.incluirPrimario = false;
+            this.placa = placa;
+            this.alteracao = alteracao;
+            this.gravado = gravado;
+        }
+
+        boolean isAlteracao() {
+            return placa != null;
+        }
+    }
+
+    /**
+     * Construtor da classe `ArmazenamentoEmCamadas`: gravações confirmadas pelo primário e buscas na memória.
+     * @param primario O armazenamento gravado de forma síncrona.
+     * @param secundario O armazenamento da cópia, gravado em segundo plano.
+     */
+    public ArmazenamentoEmCamadas(I_Armazenamento primario, I_Armazenamento secundario) {
+        this(primario, secundario, NivelConsistencia.PRIMARIO, NivelConsistencia.MEMORIA);
+    }
+
+    /**
+     * Construtor da classe `ArmazenamentoEmCamadas`. Reconcilia as camadas antes de retornar.
+     * @param primario O armazenamento gravado de forma síncrona.
+     * @param secundario O armazenamento da cópia, gravado em segundo plano.
+     * @param escritaPadrao O nível de consistência das inserções que não informam um.
+     * @param leituraPadrao O nível de consistência das buscas por placa que não informam um.
+     */
+    public ArmazenamentoEmCamadas(I_Armazenamento primario, I_Armazenamento secundario,
+                                  NivelConsistencia escritaPadrao, NivelConsistencia leituraPadrao) {
+        this.primario = primario;
+        this.secundario = secundario;
+        this.escritaPadrao = escritaPadrao;
+        this.leituraPadrao = leituraPadrao;
+        this.replicador = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "armazenamento-secundario");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciliar();
+    }
+
+    /**
+     * Reconcilia o primário e o secundário, tomando o primário como a referência de quais veículos existem: os que só
+     * existem no primário são copiados para o secundário, e os que só existem no secundário (por exemplo, removidos
+     * no primário antes de a remoção chegar ao secundário) são removidos dele, e não restaurados no primário, o que
+     * traria de volta veículos removidos. Quando a mesma placa tem conteúdos diferentes, vale o de maior versão (em
+     * empate, o do primário), que substitui o outro. A camada em memória é recarregada com o primário já reparado.
+     *
+     * Se o primário não puder ser lido, nada é reparado: a camada em memória é carregada do secundário, para que as
+     * leituras continuem a ser atendidas, e a reconciliação deve ser repetida quando o primário voltar.
+     */
+    public void reconciliar() {
+        aguardarReplicacao();
+        long inicio = System.nanoTime();
+
+        Map<String, Veiculo> doSecundario;
+        try {
+            doSecundario = carregarPorPlaca(secundario);
+        } catch (RuntimeException e) {
+            LOGGER.error("Secundário indisponível na reconciliação; camadas não reparadas: erro={}", e.getMessage());
+            falhasSecundario.incrementar();
+            doSecundario = null;
+        }
+        Map<String, Veiculo> doPrimario;
+        try {
+            doPrimario = carregarPorPlaca(primario);
+        } catch (RuntimeException e) {
+            LOGGER.error("Primário indisponível na reconciliação; camada em memória carregada do secundário: erro={}", e.getMessage());
+            falhasPrimario.incrementar();
+            recarregarMemoria(doSecundario == null ? List.of() : doSecundario.values());
+            return;
+        }
+        if (doSecundario == null) {
+            recarregarMemoria(doPrimario.values());
+            return;
+        }
+
+        List<Veiculo> faltamNoSecundario = new ArrayList<>();
+        List<Veiculo> vencidosNoSecundario = new ArrayList<>();
+        List<Veiculo> vencidosNoPrimario = new ArrayList<>();
+        for (Veiculo veiculo : doPrimario.values()) {
+            Veiculo copia = doSecundario.get(veiculo.placa);
+            if (copia == null) {
+                faltamNoSecundario.add(veiculo);
+            } else if (mesmoConteudo(veiculo, copia)) {
+                continue;
+            } else if (copia.versao > veiculo.versao) {
+                vencidosNoPrimario.add(veiculo);
+            } else {
+                vencidosNoSecundario.add(veiculo);
+            }
+        }
+        List<Veiculo> sobramNoSecundario = new ArrayList<>();
+        for (Veiculo veiculo : doSecundario.values()) {
+            if (!doPrimario.containsKey(veiculo.placa)) {
+                sobramNoSecundario.add(veiculo);
+            }
+        }
+
+        long copiados = faltamNoSecundario.isEmpty() ? 0
+                : secundario.addVeiculosEstoque(faltamNoSecundario).stream().filter(ResultadoInsercao::isSucesso).count();
+        int reparadosNoSecundario = 0;
+        for (Veiculo veiculo : vencidosNoSecundario) {
+            if (substituir(secundario, doSecundario.get(veiculo.placa), veiculo)) {
+                reparadosNoSecundario++;
+            }
+        }
+        int reparadosNoPrimario = 0;
+        for (Veiculo veiculo : vencidosNoPrimario) {
+            Veiculo vencedor = doSecundario.get(veiculo.placa);
+            if (substituir(primario, veiculo, vencedor)) {
+                doPrimario.put(vencedor.placa, vencedor);
+                reparadosNoPrimario++;
+            }
+        }
+        int removidosDoSecundario = 0;
+        for (Veiculo veiculo : sobramNoSecundario) {
+            if (secundario.removerVeiculo(veiculo.placa, veiculo.versao).isSucesso()) {
+                removidosDoSecundario++;
+            }
+        }
+
+        recarregarMemoria(doPrimario.values());
+
+        LOGGER.info("Camadas reconciliadas: primario={}, secundario={}, copiadosParaSecundario={}/{}, "
+                        + "reparadosNoSecundario={}/{}, reparadosNoPrimario={}/{}, removidosDoSecundario={}/{}, tempoMs={}",
+                doPrimario.size(), doSecundario.size(), copiados, faltamNoSecundario.size(),
+                reparadosNoSecundario, vencidosNoSecundario.size(), reparadosNoPrimario, vencidosNoPrimario.size(),
+                removidosDoSecundario, sobramNoSecundario.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Substitui, em um armazenamento, o veículo lido dele pelo vencedor (o de maior versão na reconciliação, ou o
+     * gravado no primário na replicação), mantendo a versão do vencedor: o atual é removido (conferindo a versão
+     * lida) e o vencedor é inserido. Se a inserção falhar, o atual é reinserido.
+     * @return `true` se o veículo foi substituído.
+     */
+    private static boolean substituir(I_Armazenamento armazenamento, Veiculo atual, Veiculo vencedor) {
+        try {
+            if (!armazenamento.removerVeiculo(atual.placa, atual.versao).isSucesso()) {
+                return false;
+            }
+            ResultadoInsercao resultado = armazenamento.addVeiculosEstoque(List.of(vencedor)).get(0);
+            if (resultado.isSucesso()) {
+                return true;
+            }
+            LOGGER.warn("Substituição rejeitada; veículo anterior mantido: placa={}, erro={}",
+                    atual.placa, resultado.mensagem);
+            armazenamento.addVeiculosEstoque(List.of(atual));
+            return false;
+        } catch (RuntimeException e) {
+            LOGGER.error("Falha na substituição do veículo: placa={}, erro={}", atual.placa, e.getMessage());
+            return false;
+        }
+    }
+
+    private void recarregarMemoria(Collection<Veiculo> veiculos) {
+        memoria.limpar();
+        for (Veiculo veiculo : veiculos) {
+            memoria.adicionar(veiculo);
+        }
+    }
+
+    private static Map<String, Veiculo> carregarPorPlaca(I_Armazenamento armazenamento) {
+        Map<String, Veiculo> porPlaca = new LinkedHashMap<>();
+        try (Stream<Veiculo> veiculos = armazenamento.streamVeiculosTipados()) {
+            veiculos.filter(veiculo -> veiculo.placa != null).forEach(veiculo -> porPlaca.putIfAbsent(veiculo.placa, veiculo));
+        }
+        return porPlaca;
+    }
+
+    /**
+     * Compara o conteúdo de dois veículos de mesma placa; os preços são comparados pelo valor, sem a escala.
+     */
+    private static boolean mesmoConteudo(Veiculo a, Veiculo b) {
+        Document documentoA = a.toDocument();
+        Document documentoB = b.toDocument();
+        Object precoA = documentoA.remove("preco");
+        Object precoB = documentoB.remove("preco");
+        boolean mesmoPreco = a.preco == null || b.preco == null ? Objects.equals(precoA, precoB) : a.preco.compareTo(b.preco) == 0;
+        return mesmoPreco && documentoA.equals(documentoB);
+    }
+
+    @Override
+    public boolean addVeiculoEstoque(Veiculo veiculo) {
+        return addVeiculoEstoque(veiculo, escritaPadrao);
+    }
+
+    /**
+     * Adiciona um veículo ao estoque com o nível de consistência informado.
+     * @param veiculo O veículo a ser adicionado.
+     * @param nivel Quando a inserção é confirmada (memória, primário ou todas as camadas).
+     * @return `true` se a inserção for confirmada, `false` em caso de placa duplicada ou erro.
+     */
+    public boolean addVeiculoEstoque(Veiculo veiculo, NivelConsistencia nivel) {
+        return addVeiculosEstoque(List.of(veiculo), nivel).get(0).isSucesso();
+    }
+
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        return addVeiculosEstoque(veiculos, escritaPadrao);
+    }
+
+    /**
+     * Adiciona um lote de veículos ao estoque com o nível de consistência informado. As placas que já estão na
+     * camada em memória (ou repetidas no lote) são rejeitadas sem consultar o primário.
+     * @param veiculos Os veículos a serem adicionados.
+     * @param nivel Quando a inserção é confirmada (memória, primário ou todas as camadas).
+     * @return O resultado de cada veículo, na mesma ordem do lote.
+     */
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos, NivelConsistencia nivel) {
+        List<Veiculo> lote = new ArrayList<>(veiculos);
+        List<ResultadoInsercao> resultados = new ArrayList<>(lote.size());
+        List<Veiculo> candidatos = new ArrayList<>(lote.size());
+        List<Integer> posicoes = new ArrayList<>(lote.size());
+        Set<String> placasLote = new HashSet<>();
+
+        for (Veiculo veiculo : lote) {
+            boolean novo = placasLote.add(veiculo.placa) && !memoria.contem(veiculo.placa);
+            // No nível MEMORIA a placa é reservada na própria verificação
+            if (novo && nivel == NivelConsistencia.MEMORIA) {
+                novo = memoria.adicionar(veiculo);
+            }
+            if (novo) {
+                posicoes.add(resultados.size());
+                candidatos.add(veiculo);
+                resultados.add(ResultadoInsercao.inserido(veiculo.placa));
+            } else {
+                resultados.add(ResultadoInsercao.placaDuplicada(veiculo.placa));
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return resultados;
+        }
+
+        if (nivel == NivelConsistencia.MEMORIA) {
+            replicar(new PedidoReplicacao(candidatos, true));
+            return resultados;
+        }
+
+        for (Veiculo veiculo : candidatos) {
+            memoria.iniciarInsercao(veiculo.placa);
+        }
+        List<ResultadoInsercao> resultadosPrimario = primario.addVeiculosEstoque(candidatos);
+        List<Veiculo> gravados = new ArrayList<>(candidatos.size());
+        for (int i = 0; i < candidatos.size(); i++) {
+            ResultadoInsercao resultado = resultadosPrimario.get(i);
+            resultados.set(posicoes.get(i), resultado);
+            if (resultado.isSucesso()) {
+                Veiculo veiculo = candidatos.get(i);
+                // Uma remoção ou alteração concluída enquanto a inserção voltava do primário prevalece; o veículo
+                // já removido não é copiado para o secundário, onde chegaria depois da remoção
+                if (memoria.gravarConfirmado(veiculo)) {
+                    gravados.add(veiculo);
+                }
+            }
+        }
+        if (gravados.isEmpty()) {
+            return resultados;
+        }
+
+        PedidoReplicacao pedido = new PedidoReplicacao(gravados, false);
+        replicar(pedido);
+        if (nivel == NivelConsistencia.TODAS) {
+            Map<String, ResultadoInsercao> copias = pedido.resultado.join();
+            for (int i = 0; i < resultados.size(); i++) {
+                ResultadoInsercao copia = copias.get(resultados.get(i).placa);
+                if (resultados.get(i).isSucesso() && copia != null && !copia.isSucesso()) {
+                    resultados.set(i, ResultadoInsercao.erro(copia.placa,
+                            "Gravado no primário; falha na cópia secundária: " + copia.mensagem));
+                }
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Enfileira um pedido para a thread de gravação em segundo plano.
+     */
+    private void replicar(PedidoReplicacao pedido) {
+        pendentes.add(pedido);
+        // Cada pedido agenda uma execução; a primeira que rodar leva todos os pedidos acumulados até ali
+        replicador.execute(this::gravarPendentes);
+    }
+
+    /**
+     * Aplica todos os pedidos pendentes: primeiro, no primário, as inserções confirmadas só em memória; depois, em
+     * uma única gravação, todas as inserções no secundário. Uma alteração interrompe o lote: as inserções anteriores
+     * a ela são gravadas no secundário antes, para que a alteração encontre o veículo.
+     */
+    private void gravarPendentes() {
+        List<PedidoReplicacao> pedidos = new ArrayList<>();
+        PedidoReplicacao pedido;
+        while ((pedido = pendentes.poll()) != null) {
+            pedidos.add(pedido);
+        }
+        if (pedidos.isEmpty()) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        List<Veiculo> paraSecundario = new ArrayList<>();
+        Map<String, ResultadoInsercao> copias = new HashMap<>();
+        for (PedidoReplicacao p : pedidos) {
+            if (p.isAlteracao()) {
+                copiarParaSecundario(paraSecundario, copias);
+                paraSecundario.clear();
+                p.resultadoAlteracao.complete(alterarNoSecundario(p));
+            } else if (p.incluirPrimario) {
+                paraSecundario.addAll(gravarNoPrimario(p.veiculos));
+            } else {
+                paraSecundario.addAll(p.veiculos);
+            }
+        }
+        copiarParaSecundario(paraSecundario, copias);
+        tempoReplicacao.registrar(System.nanoTime() - inicio);
+
+        for (PedidoReplicacao p : pedidos) {
+            p.resultado.complete(copias);
+        }
+    }
+
+    /**
+     * Grava um lote de inserções no secundário, registrando o resultado de cada placa em `copias`.
+     */
+    private void copiarParaSecundario(List<Veiculo> paraSecundario, Map<String, ResultadoInsercao> copias) {
+        if (!paraSecundario.isEmpty()) {
+            try {
+                for (ResultadoInsercao resultado : secundario.addVeiculosEstoque(paraSecundario)) {
+                    // Uma placa que já está no secundário é uma cópia existente, não uma falha
+                    boolean copiado = resultado.isSucesso() || resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA;
+                    if (!copiado) {
+                        falhasSecundario.incrementar();
+                    }
+                    copias.put(resultado.placa, copiado ? ResultadoInsercao.inserido(resultado.placa) : resultado);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Falha na gravação do armazenamento secundário: veiculos={}, erro={}", paraSecundario.size(), e.getMessage());
+                falhasSecundario.incrementar(paraSecundario.size());
+                for (Veiculo veiculo : paraSecundario) {
+                    copias.put(veiculo.placa, ResultadoInsercao.erro(veiculo.placa, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Leva ao secundário o resultado de uma alteração ou remoção já gravada no primário. A alteração não é repetida:
+     * o veículo gravado no primário, com a sua versão, substitui a cópia do secundário (ou é copiado, se o secundário
+     * não o tiver), para que uma cópia divergente não receba a alteração sobre um conteúdo diferente do primário.
+     */
+    private ResultadoAtualizacao alterarNoSecundario(PedidoReplicacao pedido) {
+        try {
+            ResultadoAtualizacao resultado;
+            if (pedido.alteracao == null) {
+                resultado = secundario.removerVeiculo(pedido.placa, QUALQUER_VERSAO);
+                if (resultado.status == ResultadoAtualizacao.Status.NAO_ENCONTRADO) {
+                    return ResultadoAtualizacao.removido(pedido.gravado);
+                }
+            } else {
+                resultado = copiarGravado(pedido.gravado);
+            }
+            if (!resultado.isSucesso()) {
+                falhasSecundario.incrementar();
+                LOGGER.warn("Alteração gravada no primário rejeitada pelo secundário: placa={}, status={}, erro={}",
+                        pedido.placa, resultado.status, resultado.mensagem);
+            }
+            return resultado;
+        } catch (RuntimeException e) {
+            LOGGER.error("Falha na alteração do armazenamento secundário: placa={}, erro={}", pedido.placa, e.getMessage());
+            falhasSecundario.incrementar();
+            return ResultadoAtualizacao.erro(pedido.placa, e.getMessage());
+        }
+    }
+
+    /**
+     * Faz o secundário ter o veículo gravado no primário, com a mesma versão. Uma cópia de versão maior vem de uma
+     * alteração concluída no primário depois desta e é mantida; na mesma versão, vale o conteúdo do primário.
+     */
+    private ResultadoAtualizacao copiarGravado(Veiculo gravado) {
+        Veiculo copia = secundario.findVeiculoTipado(gravado.placa);
+        if (copia != null && (copia.versao > gravado.versao
+                || copia.versao == gravado.versao && mesmoConteudo(copia, gravado))) {
+            return ResultadoAtualizacao.atualizado(gravado);
+        }
+        if (copia == null) {
+            ResultadoInsercao insercao = secundario.addVeiculosEstoque(List.of(gravado)).get(0);
+            return insercao.isSucesso() ? ResultadoAtualizacao.atualizado(gravado)
+                    : ResultadoAtualizacao.erro(gravado.placa, insercao.mensagem);
+        }
+        return substituir(secundario, copia, gravado) ? ResultadoAtualizacao.atualizado(gravado)
+                : ResultadoAtualizacao.erro(gravado.placa, "Cópia secundária não substituída");
+    }
+
+    /**
+     * Grava no primário as inserções confirmadas só em memória. As rejeitadas pelo primário são desfeitas na
+     * memória; se a placa já existia no primário, a memória passa a ter o veículo do primário.
+     * @param veiculos Os veículos a serem gravados.
+     * @return Os veículos aceitos pelo primário.
+     */
+    private List<Veiculo> gravarNoPrimario(List<Veiculo> veiculos) {
+        List<Veiculo> aceitos = new ArrayList<>(veiculos.size());
+        List<ResultadoInsercao> resultados;
+        try {
+            resultados = primario.addVeiculosEstoque(veiculos);
+        } catch (RuntimeException e) {
+            resultados = new ArrayList<>(veiculos.size());
+            for (Veiculo veiculo : veiculos) {
+                resultados.add(ResultadoInsercao.erro(veiculo.placa, e.getMessage()));
+            }
+        }
+
+        for (int i = 0; i < veiculos.size(); i++) {
+            Veiculo veiculo = veiculos.get(i);
+            ResultadoInsercao resultado = resultados.get(i);
+            if (resultado.isSucesso()) {
+                aceitos.add(veiculo);
+                continue;
+            }
+
+            falhasPrimario.incrementar();
+            LOGGER.warn("Inserção confirmada em memória rejeitada pelo primário: placa={}, status={}, erro={}",
+                    veiculo.placa, resultado.status, resultado.mensagem);
+            Veiculo existente = resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA
+                    ? primario.findVeiculoTipado(veiculo.placa) : null;
+            memoria.remover(veiculo.placa);
+            if (existente != null) {
+                memoria.gravarConfirmado(existente);
+            }
+        }
+        return aceitos;
+    }
+
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        return alterar(placa, alteracao, versaoEsperada);
+    }
+
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        return alterar(placa, null, versaoEsperada);
+    }
+
+    /**
+     * Altera ou remove um veículo: a versão é conferida e a operação gravada no primário, a camada em memória passa
+     * a refletir o resultado e a operação é enfileirada para o secundário. Com o nível de escrita padrão `TODAS`, o
+     * retorno aguarda também a gravação no secundário.
+     * @param placa A placa do veículo.
+     * @param alteracao A alteração ou `null` para remover o veículo.
+     * @param versaoEsperada A versão esperada ou `QUALQUER_VERSAO`.
+     * @return O resultado da operação no primário (ou a falha da cópia secundária, no nível `TODAS`).
+     */
+    private ResultadoAtualizacao alterar(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        ResultadoAtualizacao resultado = alterarNoPrimario(placa, alteracao, versaoEsperada);
+        if (resultado.status == ResultadoAtualizacao.Status.NAO_ENCONTRADO && memoria.contem(placa)) {
+            // O veículo pode ter sido inserido só em memória e ainda estar a caminho do primário
+            aguardarReplicacao();
+            resultado = alterarNoPrimario(placa, alteracao, versaoEsperada);
+        }
+
+        boolean vigente = true;
+        switch (resultado.status) {
+            case ATUALIZADO:
+            case CONFLITO_VERSAO:
+                // Outra alteração pode ter chegado à memória antes desta, com uma versão maior
+                if (resultado.veiculo != null) {
+                    vigente = memoria.gravarConfirmado(resultado.veiculo);
+                }
+                break;
+            case REMOVIDO:
+            case NAO_ENCONTRADO:
+                memoria.registrarRemocao(placa);
+                break;
+            default:
+                break;
+        }
+        // O veículo removido depois desta alteração não é copiado para o secundário, onde chegaria depois da remoção
+        if (!resultado.isSucesso() || !vigente) {
+            return resultado;
+        }
+
+        PedidoReplicacao pedido = new PedidoReplicacao(placa, alteracao, resultado.veiculo);
+        replicar(pedido);
+        if (escritaPadrao == NivelConsistencia.TODAS) {
+            ResultadoAtualizacao copia = pedido.resultadoAlteracao.join();
+            if (!copia.isSucesso()) {
+                return ResultadoAtualizacao.erro(placa, "Gravado no primário; falha na cópia secundária: " + copia.mensagem);
+            }
+        }
+        return resultado;
+    }
+
+    private ResultadoAtualizacao alterarNoPrimario(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        try {
+            return alteracao == null ? primario.removerVeiculo(placa, versaoEsperada)
+                    : primario.atualizarVeiculo(placa, alteracao, versaoEsperada);
+        } catch (RuntimeException e) {
+            falhasPrimario.incrementar();
+            return ResultadoAtualizacao.erro(placa, e.getMessage());
+        }
+    }
+
+    /**
+     * Aguarda a conclusão de todas as gravações em segundo plano enfileiradas até agora.
+     */
+    public void aguardarReplicacao() {
+        CompletableFuture.runAsync(() -> { }, replicador).join();
+    }
+
+    /**
+     * Obtém o número de pedidos aguardando a gravação em segundo plano.
+     * @return O número de pedidos pendentes.
+     */
+    public int getPendentes() {
+        return pendentes.size();
+    }
+
+    /**
+     * Conclui as gravações em segundo plano e encerra a thread de gravação. Os armazenamentos decorados não são
+     * fechados.
+     */
+    public void fechar() {
+        replicador.shutdown();
+        try {
+            if (!replicador.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.error("Tempo esgotado aguardando a gravação do armazenamento secundário: pendentes={}", pendentes.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        return findVeiculoEstoque(placa, leituraPadrao);
+    }
+
+    /**
+     * Busca um veículo pela placa com o nível de consistência informado.
+     * @param placa A placa do veículo.
+     * @param nivel `MEMORIA` para a camada em memória; os demais consultam o primário.
+     * @return Um documento com o veículo ou `null` se ele não existir.
+     */
+    public Document findVeiculoEstoque(String placa, NivelConsistencia nivel) {
+        Veiculo veiculo = findVeiculoTipado(placa, nivel);
+        return veiculo == null ? null : veiculo.toDocument();
+    }
+
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        return findVeiculoTipado(placa, leituraPadrao);
+    }
+
+    /**
+     * Busca um veículo tipado pela placa com o nível de consistência informado. Na busca no primário, o veículo
+     * encontrado atualiza a camada em memória, se for mais novo que o dela.
+     * @param placa A placa do veículo.
+     * @param nivel `MEMORIA` para a camada em memória; os demais consultam o primário.
+     * @return O veículo ou `null` se ele não existir.
+     */
+    public Veiculo findVeiculoTipado(String placa, NivelConsistencia nivel) {
+        if (nivel == NivelConsistencia.MEMORIA) {
+            return memoria.buscar(placa);
+        }
+        Veiculo veiculo = primario.findVeiculoTipado(placa);
+        if (veiculo != null) {
+            memoria.gravarConfirmado(veiculo);
+        }
+        return veiculo;
+    }
+
+    @Override
+    public List<Document> getAllVeiculos() {
+        return memoria.listar().stream().map(Veiculo::toDocument).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Document> streamVeiculos() {
+        return streamVeiculosTipados().map(Veiculo::toDocument);
+    }
+
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        return memoria.listar();
+    }
+
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        return memoria.listar().stream();
+    }
+
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        return memoria.listarPagina(tamanhoPagina, ordenacao, tokenRetomada);
+    }
+
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        return memoria.consultar(consulta);
+    }
+
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        return memoria.agregar(agrupamento, filtro);
+    }
+}
@@ -2,6 +2,21 @@
  * A classe `ArquivoArmazenamento` implementa a interface `I_Armazenamento` para gerenciar o estoque de veículos
  * armazenados em um arquivo Excel (.xlsx). Ela fornece métodos para adicionar veículos ao estoque, encontrar
  * veículos por placa e obter uma lista de todos os veículos no estoque.
+ *
+ * Modelo de concorrência: as leituras são atendidas sem bloqueio a partir de um retrato imutável do estoque
+ * (`EstadoEstoque`), publicado por referência volátil. As inserções são enfileiradas e aplicadas por uma única
+ * thread escritora, que reúne todos os pedidos pendentes em uma só gravação do arquivo. A gravação é feita em um
+ * arquivo temporário, que substitui o original por renomeação atômica, de modo que leitores nunca vejam um
+ * arquivo parcialmente escrito.
+ *
+ * Opcionalmente (ver `ConfiguracaoGravacaoAdiada`), a gravação pode ser adiada: as inserções são confirmadas
+ * quando estão em memória e em um diário (journal) de uma linha JSON por veículo, e o workbook é regravado em
+ * segundo plano quando um limite de inserções ou de tempo é atingido, e no encerramento. Na inicialização, o diário
+ * que sobrou de uma interrupção é reaplicado sobre o arquivo.
+ *
+ * As alterações e remoções com controle de versão passam pela mesma fila e pela mesma gravação das inserções: a
+ * linha do veículo é regravada no próprio lugar no workbook residente (ou removida), sem reconstruir as demais, e
+ * na gravação adiada o diário recebe o veículo alterado, com a nova versão, ou o registro da remoção.
  */
 package com.example.concessionaria;
 
@@ -9,224 +24,1089 @@ import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.bson.Document;
 
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.text.Normalizer;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ArquivoArmazenamento implements I_Armazenamento {
-    private Set<String> placasExistentes = new HashSet<>();
-    private List<Veiculo> estoque = new ArrayList<>();
-    private static final String FILE_NAME = "estoque.xlsx"; // Nome do arquivo de Excel
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArquivoArmazenamento.class);
+
+    private static final String FILE_NAME = "estoque.xlsx"; // Nome padrão do arquivo de Excel
+
+    // Caminho do arquivo de Excel usado por esta instância
+    private final String nomeArquivo;
+
+    // Retrato imutável do estoque servido às leituras; substituído inteiro a cada gravação ou recarga
+    private volatile EstadoEstoque estado = new EstadoEstoque(EstoqueImutavel.VAZIO, -1, -1);
+
+    // Workbook mantido em memória; novas linhas são acrescentadas a ele em vez de reconstruir o arquivo a cada inserção.
+    // Só é acessado sob `bloqueioEscrita`
+    private Workbook workbook;
+
+    // Linha de cada placa no workbook residente, montada na primeira alteração; descartada junto com o workbook
+    private Map<String, Row> linhasPorPlaca;
+
+    // Serializa a thread escritora e as recargas do arquivo
+    private final Object bloqueioEscrita = new Object();
+
+    // Pedidos de inserção e de alteração aguardando a thread escritora, na ordem em que foram feitos
+    private final Queue<PedidoGravacao> pendentes = new ConcurrentLinkedQueue<>();
+
+    // Thread única que aplica os pedidos pendentes e grava o arquivo
+    private final ScheduledExecutorService escritor;
+
+    // Limites da gravação adiada ou `null` quando cada inserção grava o arquivo
+    private final ConfiguracaoGravacaoAdiada gravacaoAdiada;
+
+    // Diário das inserções ainda não gravadas no workbook (somente na gravação adiada)
+    private final Path diario;
+    private FileChannel canalDiario;
+
+    // Inserções e alterações registradas no diário desde a última regravação do workbook; acessado sob `bloqueioEscrita`
+    private int insercoesNaoGravadas;
+
+    // Gancho que grava o workbook no encerramento da JVM (somente na gravação adiada)
+    private final Thread ganchoEncerramento;
+
+    // Estatísticas da última carga do arquivo (tempo gasto e quantidade de linhas lidas)
+    private volatile long ultimaCargaMillis;
+    private volatile int ultimaCargaLinhas;
+
+    // Métricas: placas duplicadas, bytes gravados no arquivo e no diário, cargas do arquivo e linhas lidas nelas
+    private final I_RegistroMetricas.Contador duplicadas = Metricas.getRegistro().contador("arquivo.insercoes.duplicadas");
+    private final I_RegistroMetricas.Contador bytesGravados = Metricas.getRegistro().contador("arquivo.bytesGravados");
+    private final I_RegistroMetricas.Contador bytesDiario = Metricas.getRegistro().contador("arquivo.bytesDiario");
+    private final I_RegistroMetricas.Contador cargas = Metricas.getRegistro().contador("arquivo.cargas");
+    private final I_RegistroMetricas.Contador linhasLidas = Metricas.getRegistro().contador("arquivo.linhasLidas");
+    private final I_RegistroMetricas.Temporizador tempoGravacao = Metricas.getRegistro().temporizador("arquivo.salvarDadosNoArquivo");
+
+    /**
+     * Retrato imutável do estoque: os veículos em ordem de inserção com o índice por placa (um `EstoqueImutavel`,
+     * que compartilha com o retrato anterior tudo o que uma gravação não alterou) e o estado do arquivo (data de
+     * modificação e tamanho) que ele reflete, usado para detectar alterações externas.
+     */
+    private static final class EstadoEstoque {
+        final EstoqueImutavel estoque;
+        final long modificacao;
+        final long tamanho;
+
+        EstadoEstoque(EstoqueImutavel estoque, long modificacao, long tamanho) {
+            this.estoque = estoque;
+            this.modificacao = modificacao;
+            this.tamanho = tamanho;
+        }
+
+        /**
+         * Cria um retrato com o mesmo conteúdo, refletindo o novo estado do arquivo.
+         * @param arquivo O arquivo de Excel recém-gravado.
+         * @return O novo retrato.
+         */
+        EstadoEstoque comArquivo(File arquivo) {
+            return new EstadoEstoque(estoque, arquivo.lastModified(), arquivo.length());
+        }
+
+        /**
+         * Indica se o arquivo foi alterado desde que este retrato foi construído.
+         * @param arquivo O arquivo de Excel.
+         * @return `true` se a data de modificação ou o tamanho forem diferentes.
+         */
+        boolean desatualizado(File arquivo) {
+            return arquivo.lastModified() != modificacao || arquivo.length() != tamanho;
+        }
+    }
+
+    /**
+     * Um pedido aguardando a thread escritora: um lote de veículos a inserir ou a alteração (ou remoção) de uma
+     * placa, com o futuro completado com o resultado.
+     */
+    private static final class PedidoGravacao {
+        final List<Veiculo> veiculos;
+        final CompletableFuture<List<ResultadoInsercao>> resultado = new CompletableFuture<>();
+
+        // Somente nos pedidos de alteração; `alteracao` é `null` na remoção
+        final String placa;
+        final AlteracaoVeiculo alteracao;
+        final long versaoEsperada;
+        final CompletableFuture<ResultadoAtualizacao> resultadoAlteracao = new CompletableFuture<>();
+
+        PedidoGravacao(Collection<Veiculo> veiculos) {
+            this.veiculos = new ArrayList<>(veiculos);
+            this.placa = null;
+            this.alteracao = null;
+            this.versaoEsperada = QUALQUER_VERSAO;
+        }
+
+        PedidoGravacao(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+            this.veiculos = List.of();
+            this.placa = placa;
+            this.alteracao = alteracao;
+            this.versaoEsperada = versaoEsperada;
+        }
+
+        boolean isAlteracao() {
+            return placa != null;
+        }
+    }
+
+    /**
+     * Construtor da classe `ArquivoArmazenamento` usando o arquivo padrão (`estoque.xlsx`).
+     */
+    public ArquivoArmazenamento() {
+        this(FILE_NAME);
+    }
+
+    /**
+     * Construtor da classe `ArquivoArmazenamento`.
+     * @param nomeArquivo O caminho do arquivo de Excel onde o estoque será armazenado.
+     */
+    public ArquivoArmazenamento(String nomeArquivo) {
+        this(nomeArquivo, null);
+    }
+
+    /**
+     * Construtor da classe `ArquivoArmazenamento` com gravação adiada opcional. O diário fica ao lado do arquivo,
+     * com a extensão `.journal`, e é reaplicado aqui caso tenha sobrado de uma execução interrompida.
+     * @param nomeArquivo O caminho do arquivo de Excel onde o estoque será armazenado.
+     * @param gravacaoAdiada Os limites da gravação adiada ou `null` para gravar o arquivo a cada inserção.
+     */
+    public ArquivoArmazenamento(String nomeArquivo, ConfiguracaoGravacaoAdiada gravacaoAdiada) {
+        this.nomeArquivo = nomeArquivo;
+        this.gravacaoAdiada = gravacaoAdiada;
+        this.diario = gravacaoAdiada != null ? Paths.get(nomeArquivo + ".journal") : null;
+        this.escritor = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "arquivo-escritor-" + new File(nomeArquivo).getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        carregarEstoque();
+
+        if (gravacaoAdiada != null) {
+            long intervalo = Math.max(1, gravacaoAdiada.intervaloMaximoMs);
+            escritor.scheduleWithFixedDelay(this::gravarWorkbookAdiado, intervalo, intervalo, TimeUnit.MILLISECONDS);
+            this.ganchoEncerramento = new Thread(this::fechar, "arquivo-encerramento-" + new File(nomeArquivo).getName());
+            Runtime.getRuntime().addShutdownHook(ganchoEncerramento);
+        } else {
+            this.ganchoEncerramento = null;
+        }
+    }
 
     /**
-     * Adiciona um veículo ao estoque e salva os dados no arquivo Excel.
+     * Adiciona um veículo ao estoque e salva os dados no arquivo Excel. A inserção é entregue à thread escritora,
+     * que pode gravá-la junto com as de outras threads; o método retorna quando o arquivo tiver sido gravado.
      * @param veiculo O veículo a ser adicionado ao estoque.
      * @return `true` se o veículo foi adicionado com sucesso, `false` caso contrário.
      */
     @Override
     public boolean addVeiculoEstoque(Veiculo veiculo) {
-        System.out.println("---");
-        System.out.println("  Adicionando veículo ao arquivo: " + veiculo.modelo);
-        
-        // Verifique se já existe um veículo com a mesma placa no estoque
-        if (placasExistentes.contains(veiculo.placa)) {
-            System.out.println("\n  [ERRO] - Já existe um veículo com a mesma placa no estoque.");
-            System.out.println("---");
+        LOGGER.debug("Adicionando veículo ao arquivo: placa={}, modelo={}", veiculo.placa, veiculo.modelo);
+
+        ResultadoInsercao resultado = inserir(Collections.singletonList(veiculo)).get(0);
+
+        if (resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA) {
+            LOGGER.warn("Inserção rejeitada: já existe um veículo com a placa '{}' no estoque.", veiculo.placa);
             return false; // Veículo com a mesma placa já existe, não é adicionado
+        } else if (!resultado.isSucesso()) {
+            return false;
         }
 
-        this.estoque.add(veiculo);
-        placasExistentes.add(veiculo.placa); // Adicione a placa ao conjunto de placas existentes
-        salvarDadosNoArquivo();
-        System.out.println("---");
+        if (gravacaoAdiada != null) {
+            LOGGER.info("Dados registrados no diário do arquivo {}: placa={}", nomeArquivo, veiculo.placa);
+        } else {
+            LOGGER.info("Dados salvos no arquivo {}: placa={}", nomeArquivo, veiculo.placa);
+        }
         return true;
     }
 
     /**
-     * Encontra um veículo no estoque com base na placa fornecida.
-     * @param placa A placa do veículo a ser encontrado.
-     * @return Um documento representando o veículo encontrado ou `null` se o veículo não foi encontrado.
+     * Adiciona um lote de veículos ao estoque, acrescentando todas as linhas ao workbook e gravando o
+     * arquivo uma única vez ao final. Veículos com placa já existente (no estoque ou repetida no próprio
+     * lote) são rejeitados individualmente, sem interromper os demais.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado de cada veículo, na mesma ordem do lote.
      */
     @Override
-    public Document findVeiculoEstoque(String placa) {
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        List<ResultadoInsercao> resultados = inserir(veiculos);
+        long inseridos = resultados.stream().filter(ResultadoInsercao::isSucesso).count();
+
+        LOGGER.info("Lote adicionado ao arquivo {}: inseridos={}, total={}", nomeArquivo, inseridos, veiculos.size());
+        return resultados;
+    }
+
+    /**
+     * Enfileira um pedido de inserção para a thread escritora e aguarda o seu resultado.
+     * @param veiculos Os veículos a serem inseridos.
+     * @return O resultado de cada veículo, na mesma ordem do pedido.
+     */
+    private List<ResultadoInsercao> inserir(Collection<Veiculo> veiculos) {
+        if (veiculos.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        PedidoGravacao pedido = new PedidoGravacao(veiculos);
+        pendentes.add(pedido);
+        // Cada pedido agenda uma execução; a primeira que rodar leva todos os pedidos acumulados até ali
+        escritor.execute(this::gravarPendentes);
+
+        try {
+            return pedido.resultado.join();
+        } catch (CompletionException e) {
+            String mensagem = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, mensagem);
+            List<ResultadoInsercao> resultados = new ArrayList<>(pedido.veiculos.size());
+            for (Veiculo veiculo : pedido.veiculos) {
+                resultados.add(ResultadoInsercao.erro(veiculo.placa, mensagem));
+            }
+            return resultados;
+        }
+    }
+
+    /**
+     * Altera um veículo do estoque, conferindo a versão esperada. A alteração é entregue à thread escritora, que
+     * regrava somente a linha do veículo no workbook e grava o arquivo (ou o diário) junto com os demais pedidos.
+     * @param placa A placa do veículo a ser alterado.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da alteração.
+     */
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        String erro = alteracao.validar();
+        if (erro != null) {
+            return ResultadoAtualizacao.erro(placa, erro);
+        }
+        return alterar(new PedidoGravacao(placa, alteracao, versaoEsperada));
+    }
+
+    /**
+     * Remove um veículo do estoque, conferindo a versão esperada. A linha do veículo é removida do workbook, e o
+     * arquivo (ou o diário) é gravado junto com os demais pedidos.
+     * @param placa A placa do veículo a ser removido.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da remoção.
+     */
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        return alterar(new PedidoGravacao(placa, null, versaoEsperada));
+    }
+
+    /**
+     * Enfileira um pedido de alteração para a thread escritora e aguarda o seu resultado.
+     * @param pedido O pedido de alteração ou remoção.
+     * @return O resultado da operação.
+     */
+    private ResultadoAtualizacao alterar(PedidoGravacao pedido) {
+        pendentes.add(pedido);
+        escritor.execute(this::gravarPendentes);
+
+        ResultadoAtualizacao resultado;
+        try {
+            resultado = pedido.resultadoAlteracao.join();
+        } catch (CompletionException e) {
+            String mensagem = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, mensagem);
+            return ResultadoAtualizacao.erro(pedido.placa, mensagem);
+        }
+        LOGGER.debug("Alteração no arquivo {}: {}", nomeArquivo, resultado);
+        return resultado;
+    }
+
+    /**
+     * Executado na thread escritora: retira todos os pedidos pendentes, acrescenta as linhas ao workbook e
+     * regrava as dos veículos alterados, grava o arquivo uma única vez e publica o novo retrato do estoque antes
+     * de completar os pedidos. Na gravação adiada, em vez do arquivo é gravado o diário, e o workbook só é
+     * regravado ao atingir o limite de inserções. Uma falha ao aplicar um veículo ou uma alteração (por exemplo, um
+     * veículo sem preço) rejeita somente ele; os demais pedidos do grupo são gravados normalmente.
+     */
+    private void gravarPendentes() {
+        List<PedidoGravacao> pedidos = new ArrayList<>();
+        PedidoGravacao pedido;
+        while ((pedido = pendentes.poll()) != null) {
+            pedidos.add(pedido);
+        }
+        if (pedidos.isEmpty()) {
+            return; // Já atendidos por uma execução anterior
+        }
 
-        try (FileInputStream fis = new FileInputStream(FILE_NAME);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
-                Sheet sheet = workbook.getSheetAt(sheetIndex);
-
-                Iterator<Row> rowIterator = sheet.iterator();
-                // Pule a primeira linha (cabeçalho)
-                if (rowIterator.hasNext()) {
-                    rowIterator.next();
-                }
-
-                while (rowIterator.hasNext()) {
-                    Row row = rowIterator.next();
-                    Cell placaCell = row.getCell(0); // Suponha que o número de placa esteja na primeira coluna (0)
-
-                    if (placaCell != null && placaCell.getCellType() == CellType.STRING) {
-                        String placaVeiculo = placaCell.getStringCellValue();
-                        
-                        // Verifica se encontrou o veiculo com a placa informada
-                        if (placaVeiculo.equals(placa)) {
-                            // Coletar nomes de cabeçalho formatados
-                            List<String> headers = getHeaders(sheet);
-                            Document documento = getRowDocument(sheet, row, headers);
-                            return documento; // Retorna o documento do veículo encontrado
+        synchronized (bloqueioEscrita) {
+            try {
+                EstadoEstoque atual = getEstadoAtual();
+                // Copia somente os blocos e as fatias do índice que os pedidos alterarem
+                EstoqueImutavel.Edicao edicao = atual.estoque.editar();
+                List<List<ResultadoInsercao>> resultados = new ArrayList<>(pedidos.size());
+                ResultadoAtualizacao[] alteracoes = new ResultadoAtualizacao[pedidos.size()];
+                // Entradas do diário na ordem em que foram aplicadas (somente na gravação adiada)
+                List<Document> entradasDiario = new ArrayList<>();
+                int gravados = 0;
+
+                for (int i = 0; i < pedidos.size(); i++) {
+                    PedidoGravacao p = pedidos.get(i);
+                    if (p.isAlteracao()) {
+                        try {
+                            alteracoes[i] = aplicarAlteracao(p, edicao, entradasDiario);
+                        } catch (RuntimeException e) {
+                            // Só este pedido falha; os demais do grupo seguem para a gravação
+                            LOGGER.error("Falha ao aplicar a alteração no arquivo {}: placa={}, erro={}", nomeArquivo, p.placa, e.toString(), e);
+                            alteracoes[i] = ResultadoAtualizacao.erro(p.placa, "Falha ao aplicar a alteração: " + e);
+                        }
+                        if (alteracoes[i].isSucesso()) {
+                            gravados++;
                         }
+                        resultados.add(null);
+                        continue;
                     }
+                    List<ResultadoInsercao> resultadosPedido = new ArrayList<>(p.veiculos.size());
+                    for (Veiculo veiculo : p.veiculos) {
+                        ResultadoInsercao resultado;
+                        try {
+                            resultado = acrescentarVeiculo(veiculo, edicao);
+                        } catch (RuntimeException e) {
+                            // Só este veículo é rejeitado; os demais do grupo seguem para a gravação
+                            LOGGER.error("Falha ao acrescentar o veículo ao arquivo {}: placa={}, erro={}", nomeArquivo, veiculo.placa, e.toString(), e);
+                            resultado = ResultadoInsercao.erro(veiculo.placa, "Falha ao acrescentar o veículo: " + e);
+                        }
+                        if (resultado.isSucesso()) {
+                            if (gravacaoAdiada != null) {
+                                entradasDiario.add(veiculo.toDocument());
+                            }
+                            gravados++;
+                        } else if (resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA) {
+                            duplicadas.incrementar();
+                        }
+                        resultadosPedido.add(resultado);
+                    }
+                    resultados.add(resultadosPedido);
+                }
+
+                // Grava o arquivo (ou o diário) uma única vez para todos os pedidos
+                if (gravados > 0 && gravacaoAdiada != null) {
+                    if (registrarNoDiario(entradasDiario)) {
+                        this.estado = new EstadoEstoque(edicao.concluir(), atual.modificacao, atual.tamanho);
+                        insercoesNaoGravadas += gravados;
+                        if (insercoesNaoGravadas >= gravacaoAdiada.limiteInsercoes) {
+                            gravarWorkbookAdiado();
+                        }
+                    } else {
+                        marcarFalhaGravacao(resultados, alteracoes);
+                        carregarEstoqueBloqueado(); // Descarta do workbook as linhas que não chegaram ao diário
+                    }
+                } else if (gravados > 0) {
+                    if (salvarDadosNoArquivo()) {
+                        File arquivo = new File(nomeArquivo);
+                        this.estado = new EstadoEstoque(edicao.concluir(), arquivo.lastModified(), arquivo.length());
+                    } else {
+                        marcarFalhaGravacao(resultados, alteracoes);
+                    }
+                }
+
+                for (int i = 0; i < pedidos.size(); i++) {
+                    if (pedidos.get(i).isAlteracao()) {
+                        pedidos.get(i).resultadoAlteracao.complete(alteracoes[i]);
+                    } else {
+                        pedidos.get(i).resultado.complete(resultados.get(i));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Falha fora da aplicação dos pedidos (por exemplo, ao concluir o retrato): nada do grupo é confirmado
+                descartarWorkbook(); // Descarta linhas que não chegaram ao arquivo
+                for (PedidoGravacao p : pedidos) {
+                    p.resultado.completeExceptionally(e);
+                    p.resultadoAlteracao.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica uma alteração ou remoção ao índice em construção e ao workbook residente, sem gravar o arquivo.
+     * @param pedido O pedido de alteração.
+     * @param edicao O próximo retrato do estoque, em que o veículo é substituído ou removido.
+     * @param entradasDiario As entradas do diário, às quais a alteração é acrescentada na gravação adiada.
+     * @return O resultado da alteração.
+     */
+    private ResultadoAtualizacao aplicarAlteracao(PedidoGravacao pedido, EstoqueImutavel.Edicao edicao,
+                                                  List<Document> entradasDiario) {
+        Veiculo atual = edicao.buscar(pedido.placa);
+        ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(pedido.placa, atual, pedido.versaoEsperada);
+        if (rejeicao != null) {
+            return rejeicao;
+        }
+
+        if (pedido.alteracao == null) {
+            if (!removerLinha(atual)) {
+                return ResultadoAtualizacao.erro(pedido.placa, "Erro ao carregar dados do arquivo");
+            }
+            edicao.remover(pedido.placa);
+            if (gravacaoAdiada != null) {
+                entradasDiario.add(entradaRemocao(atual));
+            }
+            return ResultadoAtualizacao.removido(atual);
+        }
+
+        Veiculo novo;
+        try {
+            novo = pedido.alteracao.aplicar(atual);
+        } catch (IllegalArgumentException e) {
+            return ResultadoAtualizacao.erro(pedido.placa, e.getMessage());
+        }
+        boolean regravada;
+        try {
+            regravada = regravarLinha(novo);
+        } catch (RuntimeException e) {
+            // A linha pode ter ficado incompleta: volta aos valores atuais antes de rejeitar o pedido
+            regravarLinha(atual);
+            throw e;
+        }
+        if (!regravada) {
+            return ResultadoAtualizacao.erro(pedido.placa, "Erro ao carregar dados do arquivo");
+        }
+        edicao.substituir(novo);
+        if (gravacaoAdiada != null) {
+            entradasDiario.add(novo.toDocument());
+        }
+        return ResultadoAtualizacao.atualizado(novo);
+    }
+
+    /**
+     * Cria a entrada do diário que registra a remoção de um veículo na versão informada.
+     */
+    private static Document entradaRemocao(Veiculo removido) {
+        return new Document("operacao", "remover").append("placa", removido.placa).append("versao", removido.versao);
+    }
+
+    /**
+     * Marca como erro as inserções aceitas e as alterações aplicadas cuja gravação falhou.
+     * @param resultados Os resultados de cada pedido de inserção (`null` nos de alteração).
+     * @param alteracoes Os resultados de cada pedido de alteração (`null` nos de inserção).
+     */
+    private void marcarFalhaGravacao(List<List<ResultadoInsercao>> resultados, ResultadoAtualizacao[] alteracoes) {
+        for (int i = 0; i < alteracoes.length; i++) {
+            if (alteracoes[i] != null && alteracoes[i].isSucesso()) {
+                alteracoes[i] = ResultadoAtualizacao.erro(alteracoes[i].placa, "Erro ao salvar dados no arquivo");
+            }
+        }
+        for (List<ResultadoInsercao> resultadosPedido : resultados) {
+            if (resultadosPedido == null) {
+                continue;
+            }
+            for (int i = 0; i < resultadosPedido.size(); i++) {
+                if (resultadosPedido.get(i).isSucesso()) {
+                    resultadosPedido.set(i, ResultadoInsercao.erro(resultadosPedido.get(i).placa, "Erro ao salvar dados no arquivo"));
                 }
             }
+        }
+    }
+
+    /**
+     * Acrescenta as entradas ao diário, uma linha JSON por veículo inserido ou alterado (com a nova versão) ou por
+     * remoção, e força a gravação em disco antes de confirmar os pedidos.
+     * @param entradas As entradas do grupo de pedidos, na ordem em que foram aplicadas.
+     * @return `true` se o diário foi gravado, `false` em caso de erro.
+     */
+    private boolean registrarNoDiario(List<Document> entradas) {
+        StringBuilder linhas = new StringBuilder(entradas.size() * 160);
+        for (Document entrada : entradas) {
+            linhas.append(entrada.toJson()).append('\n');
+        }
+
+        try {
+            if (canalDiario == null) {
+                canalDiario = FileChannel.open(diario, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(linhas.toString().getBytes(StandardCharsets.UTF_8));
+            bytesDiario.incrementar(buffer.remaining());
+            while (buffer.hasRemaining()) {
+                canalDiario.write(buffer);
+            }
+            canalDiario.force(false);
+            return true;
         } catch (IOException e) {
-            System.out.println("Erro ao ler dados do arquivo: " + e.getMessage());
+            LOGGER.error("Erro ao gravar o diário do arquivo {}: {}", nomeArquivo, e.getMessage());
+            return false;
         }
-    
-        // Veículo não encontrado
-        return null;
     }
 
     /**
-     * Obtém uma lista de todos os veículos no estoque em forma de documentos.
+     * Regrava o workbook com as inserções registradas no diário e, em seguida, esvazia o diário. Executado
+     * pela thread escritora ao atingir o limite de inserções, periodicamente e no encerramento. Em caso de
+     * erro o diário é mantido, e o estado é reconstruído a partir do arquivo e do diário.
+     */
+    private void gravarWorkbookAdiado() {
+        synchronized (bloqueioEscrita) {
+            if (insercoesNaoGravadas == 0) {
+                return;
+            }
+            if (salvarDadosNoArquivo()) {
+                this.estado = this.estado.comArquivo(new File(nomeArquivo));
+                try {
+                    if (canalDiario == null) {
+                        canalDiario = FileChannel.open(diario, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    }
+                    canalDiario.truncate(0);
+                    canalDiario.force(false);
+                } catch (IOException e) {
+                    // Reaplicar o diário é seguro: as placas já gravadas na mesma versão ou em versão posterior são ignoradas
+                    LOGGER.warn("Erro ao esvaziar o diário do arquivo {}: {}", nomeArquivo, e.getMessage());
+                }
+                LOGGER.info("Entradas do diário gravadas no arquivo {}: entradas={}", nomeArquivo, insercoesNaoGravadas);
+                insercoesNaoGravadas = 0;
+            } else {
+                carregarEstoqueBloqueado();
+            }
+        }
+    }
+
+    /**
+     * Reaplica sobre o estado recém-carregado as entradas do diário que ainda não chegaram ao arquivo. Um veículo
+     * do diário é acrescentado se a placa não existir e substitui o existente se tiver versão maior; uma remoção
+     * vale para o veículo na versão registrada ou anterior. Assim, reaplicar entradas já gravadas não tem efeito.
+     * Linhas que não puderem ser lidas (por exemplo, a última linha de uma gravação interrompida) são ignoradas.
+     * @param edicao O estoque carregado do arquivo, ao qual as entradas do diário são aplicadas.
+     * @return O número de entradas reaplicadas.
+     */
+    private int reaplicarDiario(EstoqueImutavel.Edicao edicao) {
+        if (diario == null || !Files.exists(diario)) {
+            return 0;
+        }
+
+        int reaplicados = 0;
+        try (BufferedReader leitor = Files.newBufferedReader(diario, StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+                Document entrada;
+                Veiculo veiculo;
+                try {
+                    entrada = Document.parse(linha);
+                    veiculo = "remover".equals(entrada.get("operacao")) ? null : Veiculo.fromDocument(entrada);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Linha inválida ignorada no diário do arquivo {}: {}", nomeArquivo, e.getMessage());
+                    continue;
+                }
+
+                if (veiculo == null) {
+                    Veiculo atual = edicao.buscar(entrada.getString("placa"));
+                    if (atual != null && atual.versao <= Veiculo.toLong(entrada.get("versao")) && removerLinha(atual)) {
+                        edicao.remover(atual.placa);
+                        reaplicados++;
+                    }
+                    continue;
+                }
+                Veiculo atual = edicao.buscar(veiculo.placa);
+                if (atual == null) {
+                    if (acrescentarVeiculo(veiculo, edicao).isSucesso()) {
+                        reaplicados++;
+                    }
+                } else if (veiculo.versao > atual.versao && regravarLinha(veiculo)) {
+                    edicao.substituir(veiculo);
+                    reaplicados++;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Erro ao ler o diário do arquivo {}: {}", nomeArquivo, e.getMessage());
+        }
+        return reaplicados;
+    }
+
+    /**
+     * Encerra a thread escritora depois de gravar os pedidos já enfileirados. Na gravação adiada, o workbook
+     * é regravado com as inserções pendentes do diário antes do encerramento.
+     */
+    public void fechar() {
+        if (escritor.isShutdown()) {
+            return;
+        }
+        if (gravacaoAdiada != null) {
+            escritor.execute(this::gravarWorkbookAdiado);
+            try {
+                Runtime.getRuntime().removeShutdownHook(ganchoEncerramento);
+            } catch (IllegalStateException e) {
+                // Já em encerramento: fechar() está sendo executado pelo próprio gancho
+            }
+        }
+
+        escritor.shutdown();
+        try {
+            if (!escritor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.error("Tempo esgotado aguardando a gravação do arquivo {}", nomeArquivo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (bloqueioEscrita) {
+            if (canalDiario != null) {
+                try {
+                    canalDiario.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Erro ao fechar o diário do arquivo {}: {}", nomeArquivo, e.getMessage());
+                }
+                canalDiario = null;
+            }
+        }
+    }
+
+    /**
+     * Encontra um veículo no estoque com base na placa fornecida, consultando o índice em memória.
+     * O arquivo só é relido se tiver sido alterado fora deste processo.
+     * @param placa A placa do veículo a ser encontrado.
+     * @return Um documento representando o veículo encontrado ou `null` se o veículo não foi encontrado.
+     */
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        Veiculo veiculo = findVeiculoTipado(placa);
+        return veiculo == null ? null : toDocumentoArquivo(veiculo);
+    }
+
+    /**
+     * Encontra um veículo no estoque com base na placa fornecida, consultando o índice em memória.
+     * @param placa A placa do veículo a ser encontrado.
+     * @return O veículo encontrado ou `null` se o veículo não foi encontrado.
+     */
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        return getEstadoAtual().estoque.buscar(placa);
+    }
+
+    /**
+     * Obtém uma lista de todos os veículos no estoque a partir do estado em memória, que reflete o arquivo.
+     * @return Uma lista não modificável com todos os veículos no estoque.
+     */
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        return getEstadoAtual().estoque.listar();
+    }
+
+    /**
+     * Percorre os veículos do retrato atual do estoque. Como as demais leituras, inclui as inserções e alterações
+     * já confirmadas que, na gravação adiada, ainda estão somente no diário.
+     * @return Um stream com os veículos do estoque.
+     */
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        return getEstadoAtual().estoque.stream();
+    }
+
+    /**
+     * Obtém uma lista de todos os veículos no estoque em forma de documentos, a partir do retrato atual.
      * @return Uma lista de documentos representando todos os veículos no estoque.
      */
     @Override
     public List<Document> getAllVeiculos() {
-        List<Document> documentos = new ArrayList<>();
+        try (Stream<Document> documentos = streamVeiculos()) {
+            return documentos.collect(Collectors.toList());
+        }
+    }
 
-        try (FileInputStream fis = new FileInputStream(FILE_NAME);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
-                Sheet sheet = workbook.getSheetAt(sheetIndex);
+    /**
+     * Percorre os veículos do retrato atual do estoque em forma de documentos, no mesmo formato produzido pela
+     * leitura do arquivo.
+     * @return Um stream de documentos representando os veículos do estoque.
+     */
+    @Override
+    public Stream<Document> streamVeiculos() {
+        return streamVeiculosTipados().map(ArquivoArmazenamento::toDocumentoArquivo);
+    }
 
-                // Pule a primeira linha (cabeçalho)
-                Iterator<Row> rowIterator = sheet.iterator();
-                if (rowIterator.hasNext()) {
-                    rowIterator.next();
-                }
+    /**
+     * Retorna uma página de veículos a partir do estado em memória, que já reflete o arquivo. Na ordem de inserção
+     * o token é a posição do próximo veículo no estoque; na ordem por placa, a última placa retornada.
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     */
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        return ConsultaEmMemoria.listarPagina(getEstadoAtual().estoque, tamanhoPagina, ordenacao, tokenRetomada);
+    }
+
+    /**
+     * Consulta os veículos avaliando os critérios em memória sobre o estoque, que já reflete o arquivo.
+     * @param consulta Os critérios da consulta.
+     * @return Uma lista de documentos com os campos pedidos dos veículos encontrados.
+     */
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        return ConsultaEmMemoria.consultar(getEstadoAtual().estoque.stream(), consulta, ArquivoArmazenamento::toDocumentoArquivo);
+    }
+
+    /**
+     * Calcula as estatísticas de preço em paralelo sobre o estoque em memória, com somas exatas.
+     * @param agrupamento O campo pelo qual os veículos são agrupados.
+     * @param filtro Os critérios que os veículos devem atender ou `null` para todo o estoque.
+     * @return As estatísticas de cada grupo, em ordem crescente da chave.
+     */
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        return AgregadorEstoque.agregar(getEstadoAtual().estoque.stream(), agrupamento, filtro);
+    }
+
+    /**
+     * Carrega o estado em memória (estoque e índice de placas) a partir do arquivo existente. Cada planilha
+     * (`Carro`, `Motocicleta`) é lida em paralelo, por uma tarefa própria, com o leitor em streaming.
+     * Também descarta o workbook residente, para que as próximas inserções partam do conteúdo atual do arquivo,
+     * e reaplica o diário da gravação adiada, se houver. A recarga é serializada com a thread escritora e publica
+     * um novo retrato do estoque.
+     */
+    public void carregarEstoque() {
+        synchronized (bloqueioEscrita) {
+            carregarEstoqueBloqueado();
+        }
+    }
+
+    /**
+     * Recarrega o estoque do arquivo; deve ser chamado com `bloqueioEscrita` adquirido.
+     */
+    private void carregarEstoqueBloqueado() {
+        long inicio = System.nanoTime();
+        EstoqueImutavel.Edicao edicao = EstoqueImutavel.VAZIO.editar();
 
-                // Coletar nomes de cabeçalho formatados
-                List<String> headers = getHeaders(sheet);
+        File arquivo = new File(nomeArquivo);
+        // Estado do arquivo lido antes da carga: uma alteração durante a leitura provoca nova recarga
+        long modificacao = arquivo.lastModified();
+        long tamanho = arquivo.length();
 
-                while (rowIterator.hasNext()) {
-                    Row row = rowIterator.next();
-                    Document documento = getRowDocument(sheet, row, headers);
-                    documentos.add(documento);
+        if (arquivo.exists()) {
+            try {
+                // Uma tarefa por planilha; os resultados são reunidos na ordem das planilhas
+                List<List<Veiculo>> planilhas = LeitorPlanilhaStreaming.nomesPlanilhas(nomeArquivo)
+                        .parallelStream()
+                        .map(this::carregarPlanilha)
+                        .collect(Collectors.toList());
+
+                for (List<Veiculo> planilha : planilhas) {
+                    for (Veiculo veiculo : planilha) {
+                        edicao.substituir(veiculo);
+                    }
                 }
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                LOGGER.error("Erro ao ler dados do arquivo {}: {}", nomeArquivo, e.getMessage());
             }
-        } catch (IOException e) {
-            System.out.println("Erro ao ler dados do arquivo: " + e.getMessage());
-            return Collections.emptyList();
         }
 
-        return documentos;
+        descartarWorkbook();
+        // Na gravação adiada, as entradas do diário ainda não estão no arquivo
+        int reaplicados = reaplicarDiario(edicao);
+        this.insercoesNaoGravadas = reaplicados;
+        this.estado = new EstadoEstoque(edicao.concluir(), modificacao, tamanho);
+        if (reaplicados > 0) {
+            LOGGER.info("Veículos reaplicados do diário do arquivo {}: veiculos={}", nomeArquivo, reaplicados);
+        }
+
+        this.ultimaCargaLinhas = edicao.getQuantidade();
+        this.ultimaCargaMillis = (System.nanoTime() - inicio) / 1_000_000;
+        cargas.incrementar();
+        linhasLidas.incrementar(ultimaCargaLinhas);
+        LOGGER.info("Estoque carregado do arquivo {}: veiculos={}, tempoMs={}", nomeArquivo, ultimaCargaLinhas, ultimaCargaMillis);
     }
 
     /**
-     * Obtém o valor de uma célula de uma planilha como uma String.
-     * @param cell A célula da planilha.
-     * @return O valor da célula como uma String.
+     * Lê todas as linhas de uma planilha do arquivo, convertidas diretamente em veículos.
+     * @param planilha O nome da planilha.
+     * @return Os veículos das linhas da planilha.
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-        if (cell.getCellType() == CellType.STRING) {
-            return cell.getStringCellValue();
-        } else if (cell.getCellType() == CellType.NUMERIC) {
-            return String.valueOf(cell.getNumericCellValue());
-        } else {
-            return null;
+    private List<Veiculo> carregarPlanilha(String planilha) {
+        try (Stream<Veiculo> veiculos = LeitorPlanilhaStreaming.streamVeiculos(nomeArquivo, planilha)) {
+            return veiculos.collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Formata o cabeçalho removendo diacríticos, convertendo para minúsculas e substituindo espaços por sublinhados.
-     * @param header O cabeçalho a ser formatado.
-     * @return O cabeçalho formatado.
+     * Obtém o tempo gasto na última carga do arquivo.
+     * @return O tempo da última carga em milissegundos.
      */
-    private String formatHeader(String header) {
-        String normalizedHeader = Normalizer.normalize(header, Normalizer.Form.NFD);
-        Pattern pattern = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
-        String withoutDiacritics = pattern.matcher(normalizedHeader).replaceAll("");
-        return withoutDiacritics.toLowerCase().replace(" ", "_");
+    public long getUltimaCargaMillis() {
+        return ultimaCargaMillis;
     }
 
     /**
-     * Obtém o cabeçalho formatado de uma planilha.
-     * @param sheet A planilha da qual o cabeçalho será obtido.
-     * @return Uma lista de nomes de cabeçalho formatados.
+     * Obtém a quantidade de veículos lidos na última carga do arquivo.
+     * @return O número de linhas carregadas.
      */
-    private List<String> getHeaders(Sheet sheet){
-        List<String> headers = new ArrayList<>();
+    public int getUltimaCargaLinhas() {
+        return ultimaCargaLinhas;
+    }
 
-        // Coletar nomes de cabeçalho formatados
-        Row headerRow = sheet.getRow(0);
-        for (int colNum = 0; colNum < headerRow.getLastCellNum(); colNum++) {
-            Cell headerCell = headerRow.getCell(colNum);
-            String formattedHeader = formatHeader(headerCell.getStringCellValue());
-            headers.add(formattedHeader);
+    /**
+     * Obtém o retrato atual do estoque. Se o arquivo tiver sido alterado fora deste processo desde a última
+     * leitura ou gravação (pela data de modificação e pelo tamanho), o índice é reconstruído antes; a verificação
+     * é repetida sob o bloqueio para não recarregar o que a thread escritora acabou de gravar.
+     * @return O retrato imutável do estoque.
+     */
+    private EstadoEstoque getEstadoAtual() {
+        File arquivo = new File(nomeArquivo);
+        EstadoEstoque atual = this.estado;
+        if (!atual.desatualizado(arquivo)) {
+            return atual;
         }
 
-        return headers;
+        synchronized (bloqueioEscrita) {
+            if (this.estado.desatualizado(arquivo)) {
+                LOGGER.info("Arquivo alterado externamente, reconstruindo índice: {}", nomeArquivo);
+                carregarEstoqueBloqueado();
+            }
+            return this.estado;
+        }
     }
 
     /**
-     * Converte uma linha de dados de uma planilha em um documento MongoDB.
-     * @param sheet A planilha da qual a linha de dados foi obtida.
-     * @param row A linha de dados a ser convertida.
-     * @param headers Os nomes de cabeçalho formatados.
-     * @return Um documento MongoDB representando a linha de dados.
+     * Converte o veículo em um documento no mesmo formato produzido pela leitura do arquivo,
+     * em que os valores numéricos e booleanos são armazenados como texto.
+     * @param veiculo O veículo a ser convertido.
+     * @return O documento representando o veículo como ele é lido do arquivo.
      */
-    private Document getRowDocument(Sheet sheet, Row row, List<String> headers){
+    static Document toDocumentoArquivo(Veiculo veiculo) {
         Document documento = new Document();
 
-        for (int colNum = 0; colNum < row.getLastCellNum(); colNum++) {
-            Cell cell = row.getCell(colNum);
-            String header = headers.get(colNum);
-            String value = getCellValueAsString(cell);
-            
-            documento.append(header, value);
+        for (Map.Entry<String, Object> campo : veiculo.toDocument().entrySet()) {
+            Object valor = campo.getValue();
+            if (valor instanceof Number) {
+                valor = String.valueOf(((Number) valor).doubleValue());
+            } else if (valor instanceof Boolean) {
+                valor = valor.toString();
+            }
+            documento.append(campo.getKey(), valor);
         }
 
-        documento.append("tipo", sheet.getSheetName());
         return documento;
-    } 
+    }
 
     /**
-     * Salva os dados do estoque no arquivo Excel.
+     * Obtém o workbook residente, carregando-o do arquivo na primeira utilização. Caso o arquivo ainda não
+     * exista, um workbook vazio é criado. Planilhas gravadas antes do controle de versão recebem o cabeçalho atual,
+     * para que as colunas de versão das novas linhas sejam lidas.
+     * @return O workbook residente em memória.
+     * @throws IOException Se ocorrer um erro ao ler o arquivo existente.
      */
-    private void salvarDadosNoArquivo() {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            for (Veiculo veiculoEstoque : this.estoque) {
-                String tipo = veiculoEstoque.getTipo();
-                Sheet sheet = workbook.getSheet(tipo);
-    
-                if (sheet == null) {
-                    sheet = workbook.createSheet(tipo);
-                    // Crie um cabeçalho específico para o tipo de veículo
-                    veiculoEstoque.arquivoCabecalho(sheet);
+    private Workbook getWorkbook() throws IOException {
+        if (this.workbook == null) {
+            File arquivo = new File(nomeArquivo);
+            if (arquivo.exists()) {
+                try (FileInputStream fis = new FileInputStream(arquivo)) {
+                    this.workbook = new XSSFWorkbook(fis);
                 }
-    
-                // Adicione os dados do veículo à planilha
-                veiculoEstoque.toRow(sheet);
+                for (Sheet sheet : this.workbook) {
+                    atualizarCabecalho(sheet);
+                }
+            } else {
+                this.workbook = new XSSFWorkbook();
             }
-    
-            // Salve o arquivo
-            try (FileOutputStream outputStream = new FileOutputStream(FILE_NAME)) {
-                workbook.write(outputStream);
-                System.out.println("\n  [SUCESSO] - Dados salvos no arquivo: " + FILE_NAME);
+        }
+        return this.workbook;
+    }
+
+    /**
+     * Recria o cabeçalho de uma planilha que ainda não tem as colunas de versão. As linhas existentes não são
+     * alteradas: as colunas ausentes são lidas como versão 0, não vendido.
+     */
+    private static void atualizarCabecalho(Sheet sheet) {
+        Row cabecalho = sheet.getRow(0);
+        Cell ultima = cabecalho == null || cabecalho.getLastCellNum() <= 0 ? null : cabecalho.getCell(cabecalho.getLastCellNum() - 1);
+        if (ultima != null && "Vendido".equals(ultima.getStringCellValue())) {
+            return;
+        }
+        try {
+            Veiculo.novaInstancia(sheet.getSheetName()).arquivoCabecalho(sheet);
+        } catch (IllegalArgumentException e) {
+            // Planilha que não é de um tipo de veículo
+        }
+    }
+
+    /**
+     * Descarta o workbook residente e as posições das linhas, para que sejam relidos do arquivo.
+     */
+    private void descartarWorkbook() {
+        this.workbook = null;
+        this.linhasPorPlaca = null;
+    }
+
+    /**
+     * Obtém a linha de uma placa no workbook residente, indexando todas as linhas na primeira chamada.
+     * @param placa A placa do veículo.
+     * @return A linha do veículo ou `null` se ela não existir.
+     * @throws IOException Se ocorrer um erro ao ler o arquivo existente.
+     */
+    private Row getLinha(String placa) throws IOException {
+        Workbook wb = getWorkbook();
+        if (this.linhasPorPlaca == null) {
+            Map<String, Row> linhas = new HashMap<>();
+            for (Sheet sheet : wb) {
+                for (Row row : sheet) {
+                    Cell celula = row.getRowNum() == 0 ? null : row.getCell(0);
+                    if (celula != null && celula.getCellType() == CellType.STRING) {
+                        linhas.put(celula.getStringCellValue(), row);
+                    }
+                }
+            }
+            this.linhasPorPlaca = linhas;
+        }
+        return this.linhasPorPlaca.get(placa);
+    }
+
+    /**
+     * Regrava a linha de um veículo alterado no workbook residente, no mesmo lugar, sem tocar nas demais.
+     * @param veiculo O veículo com os novos valores.
+     * @return `true` se a linha foi regravada, `false` caso o workbook não possa ser carregado.
+     */
+    private boolean regravarLinha(Veiculo veiculo) {
+        try {
+            Row row = getLinha(veiculo.placa);
+            if (row == null) {
+                return acrescentarLinha(veiculo);
             }
+            veiculo.preencherLinha(row);
+            return true;
         } catch (IOException e) {
-            System.out.println("Erro ao salvar dados no arquivo: " + e.getMessage());
+            LOGGER.error("Erro ao carregar dados do arquivo {}: {}", nomeArquivo, e.getMessage());
+            return false;
         }
     }
+
+    /**
+     * Remove a linha de um veículo do workbook residente. As demais linhas não são deslocadas.
+     * @param veiculo O veículo a ser removido.
+     * @return `true` se a linha foi removida (ou já não existia), `false` caso o workbook não possa ser carregado.
+     */
+    private boolean removerLinha(Veiculo veiculo) {
+        try {
+            Row row = getLinha(veiculo.placa);
+            if (row != null) {
+                row.getSheet().removeRow(row);
+                this.linhasPorPlaca.remove(veiculo.placa);
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Erro ao carregar dados do arquivo {}: {}", nomeArquivo, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Acrescenta o veículo ao índice em construção e ao workbook residente, sem gravar o arquivo.
+     * @param veiculo O veículo a ser acrescentado.
+     * @param edicao O próximo retrato do estoque.
+     * @return O resultado da inserção do veículo.
+     */
+    private ResultadoInsercao acrescentarVeiculo(Veiculo veiculo, EstoqueImutavel.Edicao edicao) {
+        if (edicao.buscar(veiculo.placa) != null) {
+            return ResultadoInsercao.placaDuplicada(veiculo.placa);
+        }
+
+        if (!acrescentarLinha(veiculo)) {
+            return ResultadoInsercao.erro(veiculo.placa, "Erro ao carregar dados do arquivo");
+        }
+
+        edicao.adicionar(veiculo); // Adicione o veículo e a placa ao índice
+        return ResultadoInsercao.inserido(veiculo.placa);
+    }
+
+    /**
+     * Acrescenta somente a linha do veículo à planilha do seu tipo no workbook residente, criando a planilha
+     * (e o cabeçalho) caso ela ainda não exista. As linhas já existentes não são reconstruídas.
+     * @param veiculo O veículo a ser acrescentado.
+     * @return `true` se a linha foi acrescentada, `false` caso o workbook não possa ser carregado.
+     */
+    private boolean acrescentarLinha(Veiculo veiculo) {
+        try {
+            Workbook wb = getWorkbook();
+            String tipo = veiculo.getTipo();
+            Sheet sheet = wb.getSheet(tipo);
+
+            if (sheet == null) {
+                sheet = wb.createSheet(tipo);
+                // Crie um cabeçalho específico para o tipo de veículo
+                veiculo.arquivoCabecalho(sheet);
+            }
+
+            // Adicione os dados do veículo à planilha; uma linha incompleta é desfeita para não chegar ao arquivo
+            int ultimaLinha = sheet.getLastRowNum();
+            try {
+                veiculo.toRow(sheet);
+            } catch (RuntimeException e) {
+                Row incompleta = sheet.getRow(sheet.getLastRowNum());
+                if (sheet.getLastRowNum() > ultimaLinha && incompleta != null) {
+                    sheet.removeRow(incompleta);
+                }
+                throw e;
+            }
+            if (this.linhasPorPlaca != null) {
+                this.linhasPorPlaca.put(veiculo.placa, sheet.getRow(sheet.getLastRowNum()));
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Erro ao carregar dados do arquivo {}: {}", nomeArquivo, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Salva o workbook residente no arquivo Excel. O workbook é gravado em um arquivo temporário no mesmo
+     * diretório, que então substitui o original por renomeação atômica. Em caso de erro o workbook residente
+     * é descartado, pois contém linhas que não chegaram ao arquivo.
+     * @return `true` se o arquivo foi gravado, `false` em caso de erro.
+     */
+    private boolean salvarDadosNoArquivo() {
+        Path destino = Paths.get(nomeArquivo).toAbsolutePath();
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+
+        long inicio = System.nanoTime();
+        try {
+            try (FileOutputStream outputStream = new FileOutputStream(temporario.toFile())) {
+                this.workbook.write(outputStream);
+                outputStream.getFD().sync();
+                bytesGravados.incrementar(outputStream.getChannel().size());
+            }
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, e.getMessage());
+            descartarWorkbook();
+            try {
+                Files.deleteIfExists(temporario);
+            } catch (IOException ignorada) {
+                // O temporário será sobrescrito na próxima gravação
+            }
+            return false;
+        }
+        tempoGravacao.registrar(System.nanoTime() - inicio);
+        return true;
+    }
 }
@@ -0,0 +1,439 @@
+/**
+ * A classe `ArquivoArmazenamentoParticionado` implementa a interface `I_Armazenamento` sobre vários arquivos de Excel,
+ * cada um administrado por um `ArquivoArmazenamento` próprio (com sua thread escritora, seu estado em memória e seu
+ * índice de placas). Os veículos são distribuídos pelo tipo e por um hash da placa: com `N` partições por tipo, o
+ * carro de placa `p` fica em `<prefixo>-carro-<k>.xlsx`, com `k = hash(p) mod N`.
+ *
+ * Assim, cada gravação regrava só o arquivo da sua partição, e gravações em partições diferentes acontecem em
+ * paralelo. Uma busca por placa consulta apenas a partição `k` de cada tipo. As listagens, consultas e agregações
+ * percorrem as partições em paralelo e combinam os resultados.
+ *
+ * O número de partições faz parte do layout dos arquivos: abrir os mesmos arquivos com outro número de partições
+ * deixa veículos fora da partição esperada (o que é informado no log na abertura).
+ */
+package com.example.concessionaria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ArquivoArmazenamentoParticionado implements I_Armazenamento {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArquivoArmazenamentoParticionado.class);
+
+    private static final String PREFIXO_PADRAO = "estoque"; // Prefixo padrão dos arquivos das partições
+
+    // Tipos de veículo, cada um com as suas partições
+    private static final List<String> TIPOS = List.of("Carro", "Motocicleta");
+
+    // Partições indexadas por tipo e pelo hash da placa
+    private final ArquivoArmazenamento[][] particoes;
+    private final int particoesPorTipo;
+    private final List<String> arquivos = new ArrayList<>();
+
+    // Uma trava por hash de placa: torna atômica a verificação de placa duplicada entre os tipos e a gravação
+    private final Object[] travas;
+
+    // Executor das gravações de um lote que envolve mais de uma partição
+    private final ExecutorService gravacoes;
+
+    /**
+     * Construtor da classe `ArquivoArmazenamentoParticionado` com os arquivos padrão (`estoque-<tipo>-<k>.xlsx`)
+     * e uma partição por tipo para cada processador.
+     */
+    public ArquivoArmazenamentoParticionado() {
+        this(PREFIXO_PADRAO, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construtor da classe `ArquivoArmazenamentoParticionado`.
+     * @param prefixo O caminho dos arquivos sem o sufixo da partição (por exemplo, `dados/estoque`).
+     * @param particoesPorTipo O número de partições (arquivos) de cada tipo de veículo.
+     */
+    public ArquivoArmazenamentoParticionado(String prefixo, int particoesPorTipo) {
+        this(prefixo, particoesPorTipo, null);
+    }
+
+    /**
+     * Construtor da classe `ArquivoArmazenamentoParticionado` com gravação adiada opcional em cada partição.
+     * As partições são abertas (e os seus arquivos carregados) em paralelo.
+     * @param prefixo O caminho dos arquivos sem o sufixo da partição (por exemplo, `dados/estoque`).
+     * @param particoesPorTipo O número de partições (arquivos) de cada tipo de veículo.
+     * @param gravacaoAdiada Os limites da gravação adiada de cada partição ou `null` para gravar a cada inserção.
+     */
+    public ArquivoArmazenamentoParticionado(String prefixo, int particoesPorTipo, ConfiguracaoGravacaoAdiada gravacaoAdiada) {
+        if (particoesPorTipo <= 0) {
+            throw new IllegalArgumentException("O número de partições deve ser positivo: " + particoesPorTipo);
+        }
+        this.particoesPorTipo = particoesPorTipo;
+        this.particoes = new ArquivoArmazenamento[TIPOS.size()][particoesPorTipo];
+        this.travas = new Object[particoesPorTipo];
+        for (int k = 0; k < particoesPorTipo; k++) {
+            travas[k] = new Object();
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        this.gravacoes = Executors.newFixedThreadPool(particoesPorTipo, tarefa -> {
+            Thread thread = new Thread(tarefa, "particao-gravacao-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long inicio = System.nanoTime();
+        List<CompletableFuture<Void>> aberturas = new ArrayList<>();
+        for (int t = 0; t < TIPOS.size(); t++) {
+            for (int k = 0; k < particoesPorTipo; k++) {
+                String nomeArquivo = prefixo + "-" + TIPOS.get(t).toLowerCase(Locale.ROOT) + "-" + k + ".xlsx";
+                arquivos.add(nomeArquivo);
+                int tipo = t;
+                int particao = k;
+                aberturas.add(CompletableFuture.runAsync(
+                        () -> particoes[tipo][particao] = new ArquivoArmazenamento(nomeArquivo, gravacaoAdiada), gravacoes));
+            }
+        }
+        CompletableFuture.allOf(aberturas.toArray(new CompletableFuture<?>[0])).join();
+
+        long foraDaParticao = verificarParticoes();
+        if (foraDaParticao > 0) {
+            LOGGER.warn("Veículos fora da partição esperada (o número de partições mudou?): prefixo={}, particoesPorTipo={}, veiculos={}",
+                    prefixo, particoesPorTipo, foraDaParticao);
+        }
+        LOGGER.info("Armazenamento particionado aberto: prefixo={}, particoesPorTipo={}, veiculos={}, tempoMs={}",
+                prefixo, particoesPorTipo, todas().mapToLong(p -> p.getAllVeiculosTipados().size()).sum(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Conta os veículos gravados em uma partição diferente da indicada pelo tipo e pela placa.
+     */
+    private long verificarParticoes() {
+        long foraDaParticao = 0;
+        for (int t = 0; t < TIPOS.size(); t++) {
+            for (int k = 0; k < particoesPorTipo; k++) {
+                for (Veiculo veiculo : particoes[t][k].getAllVeiculosTipados()) {
+                    if (!TIPOS.get(t).equals(veiculo.getTipo()) || particao(veiculo.placa) != k) {
+                        foraDaParticao++;
+                    }
+                }
+            }
+        }
+        return foraDaParticao;
+    }
+
+    /**
+     * Calcula a partição (dentro de cada tipo) de uma placa. O hash da placa é espalhado por uma multiplicação
+     * (hash de Fibonacci) antes de ser reduzido ao número de partições: o resto direto do `hashCode` acompanha a
+     * soma dos caracteres quando o número de partições divide 30 (por exemplo, 3), concentrando placas sequenciais.
+     * @param placa A placa do veículo.
+     * @return O índice da partição, de 0 a `particoesPorTipo - 1`.
+     */
+    int particao(String placa) {
+        if (placa == null) {
+            return 0;
+        }
+        long espalhado = ((placa.hashCode() & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L) >>> 32;
+        return (int) ((espalhado * particoesPorTipo) >>> 32);
+    }
+
+    private Stream<ArquivoArmazenamento> todas() {
+        return Arrays.stream(particoes).flatMap(Arrays::stream);
+    }
+
+    /**
+     * Obtém os caminhos dos arquivos das partições.
+     * @return Os arquivos, agrupados por tipo e em ordem de partição.
+     */
+    public List<String> getArquivos() {
+        return arquivos;
+    }
+
+    /**
+     * Obtém o número de partições de cada tipo de veículo.
+     * @return O número de partições por tipo.
+     */
+    public int getParticoesPorTipo() {
+        return particoesPorTipo;
+    }
+
+    /**
+     * Encerra as threads escritoras de todas as partições depois de gravar os pedidos já enfileirados.
+     */
+    public void fechar() {
+        todas().parallel().forEach(ArquivoArmazenamento::fechar);
+        gravacoes.shutdown();
+    }
+
+    @Override
+    public boolean addVeiculoEstoque(Veiculo veiculo) {
+        List<Veiculo> lote = List.of(veiculo);
+        ResultadoInsercao[] resultados = new ResultadoInsercao[1];
+        inserirNaParticao(particao(veiculo.placa), lote, List.of(0), resultados);
+        return resultados[0].isSucesso();
+    }
+
+    /**
+     * Adiciona um lote de veículos. O lote é dividido pelas partições, e as partições envolvidas são gravadas em
+     * paralelo, cada uma com uma única gravação do seu arquivo.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado de cada veículo, na mesma ordem do lote.
+     */
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        List<Veiculo> lote = new ArrayList<>(veiculos);
+        ResultadoInsercao[] resultados = new ResultadoInsercao[lote.size()];
+
+        Map<Integer, List<Integer>> posicoesPorParticao = new LinkedHashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            posicoesPorParticao.computeIfAbsent(particao(lote.get(i).placa), k -> new ArrayList<>()).add(i);
+        }
+
+        if (posicoesPorParticao.size() == 1) {
+            Map.Entry<Integer, List<Integer>> unica = posicoesPorParticao.entrySet().iterator().next();
+            inserirNaParticao(unica.getKey(), lote, unica.getValue(), resultados);
+        } else if (!posicoesPorParticao.isEmpty()) {
+            CompletableFuture<?>[] pendentes = posicoesPorParticao.entrySet().stream()
+                    .map(grupo -> CompletableFuture.runAsync(
+                            () -> inserirNaParticao(grupo.getKey(), lote, grupo.getValue(), resultados), gravacoes))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(pendentes).join();
+        }
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Insere os veículos de uma partição. Sob a trava da partição, rejeita as placas que já existem em outro tipo
+     * (ou repetidas no próprio lote) e grava cada tipo no seu arquivo.
+     * @param k O índice da partição.
+     * @param lote O lote completo.
+     * @param posicoes As posições, no lote, dos veículos desta partição.
+     * @param resultados Os resultados do lote, preenchidos nas posições informadas.
+     */
+    private void inserirNaParticao(int k, List<Veiculo> lote, List<Integer> posicoes, ResultadoInsercao[] resultados) {
+        synchronized (travas[k]) {
+            List<List<Integer>> posicoesPorTipo = new ArrayList<>(TIPOS.size());
+            for (int t = 0; t < TIPOS.size(); t++) {
+                posicoesPorTipo.add(new ArrayList<>());
+            }
+
+            Set<String> placasLote = new HashSet<>();
+            for (int posicao : posicoes) {
+                Veiculo veiculo = lote.get(posicao);
+                int tipo = TIPOS.indexOf(veiculo.getTipo());
+                if (tipo < 0) {
+                    resultados[posicao] = ResultadoInsercao.erro(veiculo.placa, "Tipo de veículo desconhecido: " + veiculo.getTipo());
+                } else if (!placasLote.add(veiculo.placa) || buscarNaParticao(k, veiculo.placa) != null) {
+                    resultados[posicao] = ResultadoInsercao.placaDuplicada(veiculo.placa);
+                } else {
+                    posicoesPorTipo.get(tipo).add(posicao);
+                }
+            }
+
+            for (int t = 0; t < TIPOS.size(); t++) {
+                List<Integer> doTipo = posicoesPorTipo.get(t);
+                if (doTipo.isEmpty()) {
+                    continue;
+                }
+                List<Veiculo> veiculos = doTipo.stream().map(lote::get).collect(Collectors.toList());
+                List<ResultadoInsercao> gravados = veiculos.size() == 1
+                        ? List.of(particoes[t][k].addVeiculoEstoque(veiculos.get(0))
+                                ? ResultadoInsercao.inserido(veiculos.get(0).placa)
+                                : ResultadoInsercao.erro(veiculos.get(0).placa, "Falha na gravação do arquivo"))
+                        : particoes[t][k].addVeiculosEstoque(veiculos);
+                for (int i = 0; i < doTipo.size(); i++) {
+                    resultados[doTipo.get(i)] = gravados.get(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Altera um veículo na partição da sua placa. A trava da partição impede que a placa seja removida e
+     * reinserida em outro tipo enquanto a alteração é gravada.
+     */
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        int k = particao(placa);
+        synchronized (travas[k]) {
+            ArquivoArmazenamento particao = particaoDaPlaca(k, placa);
+            return particao == null ? ResultadoAtualizacao.naoEncontrado(placa)
+                    : particao.atualizarVeiculo(placa, alteracao, versaoEsperada);
+        }
+    }
+
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        int k = particao(placa);
+        synchronized (travas[k]) {
+            ArquivoArmazenamento particao = particaoDaPlaca(k, placa);
+            return particao == null ? ResultadoAtualizacao.naoEncontrado(placa)
+                    : particao.removerVeiculo(placa, versaoEsperada);
+        }
+    }
+
+    /**
+     * Obtém o arquivo da partição `k` que contém a placa, procurando nos tipos.
+     */
+    private ArquivoArmazenamento particaoDaPlaca(int k, String placa) {
+        for (int t = 0; t < TIPOS.size(); t++) {
+            if (particoes[t][k].findVeiculoTipado(placa) != null) {
+                return particoes[t][k];
+            }
+        }
+        return null;
+    }
+
+    private Veiculo buscarNaParticao(int k, String placa) {
+        for (int t = 0; t < TIPOS.size(); t++) {
+            Veiculo veiculo = particoes[t][k].findVeiculoTipado(placa);
+            if (veiculo != null) {
+                return veiculo;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        Veiculo veiculo = findVeiculoTipado(placa);
+        return veiculo == null ? null : ArquivoArmazenamento.toDocumentoArquivo(veiculo);
+    }
+
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        return buscarNaParticao(particao(placa), placa);
+    }
+
+    /**
+     * Obtém todos os veículos, reunindo os estados em memória das partições em paralelo. A lista segue a ordem das
+     * partições (por tipo e índice) e, dentro de cada uma, a ordem de inserção.
+     * @return Uma lista com todos os veículos no estoque.
+     */
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        return todas().parallel().flatMap(p -> p.getAllVeiculosTipados().stream()).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        return todas().flatMap(p -> p.getAllVeiculosTipados().stream());
+    }
+
+    @Override
+    public List<Document> getAllVeiculos() {
+        return todas().parallel()
+                .flatMap(p -> p.getAllVeiculosTipados().stream())
+                .map(ArquivoArmazenamento::toDocumentoArquivo)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Document> streamVeiculos() {
+        return streamVeiculosTipados().map(ArquivoArmazenamento::toDocumentoArquivo);
+    }
+
+    /**
+     * Retorna uma página de veículos. Na ordem por placa, a página de cada partição é obtida em paralelo e as
+     * páginas são intercaladas pela placa; o token é a última placa retornada. Na ordem de inserção, as partições
+     * são percorridas uma após a outra, e o token traz a partição e a posição dentro dela (`<partição>:<posição>`).
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     * @throws IllegalArgumentException Se o tamanho da página não for positivo ou se, na ordem de inserção, o token
+     * não indicar uma partição e uma posição válidas.
+     */
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo: " + tamanhoPagina);
+        }
+        if (ordenacao == OrdenacaoPagina.PLACA) {
+            return listarPaginaPorPlaca(tamanhoPagina, tokenRetomada);
+        }
+        return listarPaginaPorInsercao(tamanhoPagina, tokenRetomada);
+    }
+
+    private PaginaVeiculos listarPaginaPorPlaca(int tamanhoPagina, String tokenRetomada) {
+        List<PaginaVeiculos> paginas = todas().parallel()
+                .map(p -> p.listarPagina(tamanhoPagina, OrdenacaoPagina.PLACA, tokenRetomada))
+                .collect(Collectors.toList());
+
+        // Cada página já está em ordem de placa; basta intercalar e manter as primeiras
+        List<Veiculo> candidatos = new ArrayList<>();
+        boolean restamOutros = false;
+        for (PaginaVeiculos pagina : paginas) {
+            candidatos.addAll(pagina.veiculos);
+            restamOutros |= pagina.temProxima();
+        }
+        candidatos.sort((a, b) -> a.placa.compareTo(b.placa));
+
+        if (candidatos.size() <= tamanhoPagina) {
+            String proximoToken = restamOutros && !candidatos.isEmpty() ? candidatos.get(candidatos.size() - 1).placa : null;
+            return new PaginaVeiculos(candidatos, proximoToken);
+        }
+        List<Veiculo> veiculos = new ArrayList<>(candidatos.subList(0, tamanhoPagina));
+        return new PaginaVeiculos(veiculos, veiculos.get(veiculos.size() - 1).placa);
+    }
+
+    private PaginaVeiculos listarPaginaPorInsercao(int tamanhoPagina, String tokenRetomada) {
+        List<ArquivoArmazenamento> ordem = todas().collect(Collectors.toList());
+        int indice = 0;
+        String tokenParticao = null;
+        if (tokenRetomada != null) {
+            int separador = tokenRetomada.indexOf(':');
+            if (separador < 0) {
+                throw new IllegalArgumentException("Token de retomada inválido: " + tokenRetomada);
+            }
+            indice = Integer.parseInt(tokenRetomada.substring(0, separador));
+            if (indice < 0 || indice >= ordem.size()) {
+                throw new IllegalArgumentException("Token de retomada inválido: " + tokenRetomada);
+            }
+            tokenParticao = tokenRetomada.substring(separador + 1);
+        }
+
+        List<Veiculo> veiculos = new ArrayList<>(tamanhoPagina);
+        for (; indice < ordem.size(); indice++, tokenParticao = null) {
+            PaginaVeiculos pagina = ordem.get(indice).listarPagina(tamanhoPagina - veiculos.size(), OrdenacaoPagina.INSERCAO, tokenParticao);
+            veiculos.addAll(pagina.veiculos);
+            if (pagina.temProxima()) {
+                return new PaginaVeiculos(veiculos, indice + ":" + pagina.proximoToken);
+            }
+            if (veiculos.size() == tamanhoPagina) {
+                // A partição terminou junto com a página; a próxima começa na partição seguinte
+                return new PaginaVeiculos(veiculos, indice + 1 < ordem.size() ? (indice + 1) + ":0" : null);
+            }
+        }
+        return new PaginaVeiculos(veiculos, null);
+    }
+
+    /**
+     * Consulta os veículos avaliando os critérios em memória sobre todas as partições, percorridas em paralelo.
+     * @param consulta Os critérios da consulta.
+     * @return Uma lista de documentos com os campos pedidos dos veículos encontrados.
+     */
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        return ConsultaEmMemoria.consultar(streamVeiculosTipados().parallel(), consulta, ArquivoArmazenamento::toDocumentoArquivo);
+    }
+
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        return AgregadorEstoque.agregar(streamVeiculosTipados(), agrupamento, filtro);
+    }
+}
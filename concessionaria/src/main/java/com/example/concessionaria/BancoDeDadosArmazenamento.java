@@ -4,30 +4,98 @@
  */
 package com.example.concessionaria;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.MongoWriteException;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class BancoDeDadosArmazenamento implements I_Armazenamento {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BancoDeDadosArmazenamento.class);
+
     // Conexão com o banco de dados MongoDB
     private final MongoDBConnection mongodb;
 
-    // Nome da coleção de veículos no banco de dados
-    private final String collectionName = "veiculos";
+    // Nome padrão da coleção de veículos no banco de dados
+    private static final String COLLECTION_NAME = "veiculos";
+
+    // Métrica das inserções rejeitadas por placa duplicada (erro 11000), inclusive as assíncronas
+    static final String METRICA_DUPLICADAS = "bancodedados.insercoes.duplicadas";
+
+    // Nome da coleção de veículos usada por esta instância
+    private final String collectionName;
 
     /**
      * Construtor da classe `BancoDeDadosArmazenamento`.
      * Inicializa a conexão com o MongoDB através da classe `MongoDBConnection`.
      */
     public BancoDeDadosArmazenamento() {
+        this(COLLECTION_NAME);
+    }
+
+    /**
+     * Construtor da classe `BancoDeDadosArmazenamento` usando uma coleção específica.
+     * @param collectionName O nome da coleção de veículos no banco de dados.
+     */
+    public BancoDeDadosArmazenamento(String collectionName) {
+        this.collectionName = collectionName;
         mongodb = MongoDBConnection.getInstance();
+        criarIndices();
+    }
+
+    /**
+     * Obtém o nome da coleção de veículos usada por esta instância.
+     * @return O nome da coleção.
+     */
+    String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * Cria os índices da coleção de veículos. A criação é idempotente: índices já existentes não são alterados.
+     * O índice único de placa é o que garante o erro de duplicação (código 11000) nas inserções, e os índices
+     * compostos atendem às consultas filtradas por tipo, marca, modelo, ano de fabricação e preço.
+     */
+    private void criarIndices() {
+        try {
+            // Obtém a coleção de veículos no banco de dados
+            MongoCollection<Document> collection = this.mongodb.getCollection(collectionName);
+
+            collection.createIndex(Indexes.ascending("placa"), new IndexOptions().unique(true));
+            collection.createIndex(Indexes.ascending("tipo", "marca", "modelo"));
+            collection.createIndex(Indexes.ascending("marca", "preco"));
+            collection.createIndex(Indexes.ascending("tipo", "ano_de_fabricacao"));
+            collection.createIndex(Indexes.ascending("tipo", "preco"));
+        } catch (MongoException e) {
+            LOGGER.error("Falha na criação dos índices da coleção de veículos: {}", e.getMessage());
+        }
     }
 
     /**
@@ -48,19 +116,85 @@ public class BancoDeDadosArmazenamento implements I_Armazenamento {
             // Insere o documento na coleção
             collection.insertOne(document);
 
-            System.out.println("Veículo adicionado ao estoque: " + veiculo.modelo);
+            LOGGER.info("Veículo adicionado ao estoque: placa={}, modelo={}", veiculo.placa, veiculo.modelo);
             return true; // Supondo que a inserção seja bem-sucedida
         } catch (MongoWriteException e) {
             if (e.getError().getCode() == 11000) {
                 // Trata o erro de duplicação de placa
-                System.out.println("[ERRO] Inserção: Já existe um veículo com a placa '" + veiculo.placa + "'.");
+                Metricas.getRegistro().contador(METRICA_DUPLICADAS).incrementar();
+                LOGGER.warn("Inserção rejeitada: já existe um veículo com a placa '{}'.", veiculo.placa);
             } else {
-                System.out.println("[ERRO] Inserção veículo ao estoque: " + e.getMessage());
+                LOGGER.error("Falha na inserção do veículo {} ao estoque: {}", veiculo.placa, e.getMessage());
             }
             return false;
         }
     }
 
+    /**
+     * Adiciona um lote de veículos ao estoque com uma única operação `insertMany` não ordenada, de modo que
+     * os documentos com erro (como placa duplicada, código 11000) não impedem a inserção dos demais.
+     *
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado de cada veículo, na mesma ordem do lote.
+     */
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        List<Veiculo> lote = new ArrayList<>(veiculos);
+        List<ResultadoInsercao> resultados = new ArrayList<>(lote.size());
+        if (lote.isEmpty()) {
+            return resultados;
+        }
+
+        List<Document> documentos = new ArrayList<>(lote.size());
+        for (Veiculo veiculo : lote) {
+            documentos.add(veiculo.toDocument());
+            resultados.add(ResultadoInsercao.inserido(veiculo.placa));
+        }
+
+        try {
+            // Obtém a coleção de veículos no banco de dados
+            MongoCollection<Document> collection = this.mongodb.getCollection(collectionName);
+
+            // Insere todos os documentos; com ordered(false) o servidor continua após um erro
+            collection.insertMany(documentos, new InsertManyOptions().ordered(false));
+        } catch (MongoException e) {
+            registrarErrosLote(lote, resultados, e);
+        }
+
+        long inseridos = resultados.stream().filter(ResultadoInsercao::isSucesso).count();
+        LOGGER.info("Lote adicionado ao estoque: inseridos={}, total={}", inseridos, lote.size());
+        return resultados;
+    }
+
+    /**
+     * Registra nos resultados de um lote os erros de uma operação `insertMany` não ordenada. Em um
+     * `MongoBulkWriteException` cada erro traz o índice do documento no lote; qualquer outro erro afeta o lote inteiro.
+     *
+     * @param lote Os veículos do lote, na ordem em que foram enviados.
+     * @param resultados Os resultados do lote, inicialmente todos `INSERIDO`.
+     * @param e O erro retornado pelo MongoDB.
+     */
+    static void registrarErrosLote(List<Veiculo> lote, List<ResultadoInsercao> resultados, MongoException e) {
+        if (e instanceof MongoBulkWriteException) {
+            // Os erros trazem o índice do documento no lote
+            I_RegistroMetricas.Contador duplicadas = Metricas.getRegistro().contador(METRICA_DUPLICADAS);
+            for (BulkWriteError erro : ((MongoBulkWriteException) e).getWriteErrors()) {
+                String placa = lote.get(erro.getIndex()).placa;
+                if (erro.getCode() == 11000) {
+                    resultados.set(erro.getIndex(), ResultadoInsercao.placaDuplicada(placa));
+                    duplicadas.incrementar();
+                } else {
+                    resultados.set(erro.getIndex(), ResultadoInsercao.erro(placa, erro.getMessage()));
+                }
+            }
+        } else {
+            LOGGER.error("Falha na inserção do lote de veículos ao estoque: {}", e.getMessage());
+            for (int i = 0; i < lote.size(); i++) {
+                resultados.set(i, ResultadoInsercao.erro(lote.get(i).placa, e.getMessage()));
+            }
+        }
+    }
+
     /**
      * Busca um veículo no estoque pelo número de placa.
      *
@@ -77,7 +211,7 @@ public class BancoDeDadosArmazenamento implements I_Armazenamento {
             Document result = collection.find(Filters.eq("placa", placa)).first();
             return result;
         } catch (MongoWriteException e) {
-            System.out.println("[ERRO] Busca veículo no estoque: " + e.getMessage());
+            LOGGER.error("Falha na busca de veículo no estoque: {}", e.getMessage());
             return null;
         }
     }
@@ -104,11 +238,309 @@ public class BancoDeDadosArmazenamento implements I_Armazenamento {
 
             return veiculosList;
         } catch (MongoWriteException e) {
-            System.out.println("[ERRO] Busca veículos no estoque: " + e.getMessage());
+            LOGGER.error("Falha na busca de veículos no estoque: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Percorre os veículos do estoque usando o cursor do MongoDB, trazendo os documentos em lotes sob demanda.
+     *
+     * @return Um stream de documentos MongoDB; o cursor é fechado quando o stream for fechado.
+     */
+    @Override
+    public Stream<Document> streamVeiculos() {
+        try {
+            // Obtém a coleção de veículos no banco de dados
+            MongoCollection<Document> collection = this.mongodb.getCollection(collectionName);
+
+            MongoCursor<Document> cursor = collection.find().iterator();
+            Spliterator<Document> spliterator = Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL);
+            return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+        } catch (MongoException e) {
+            LOGGER.error("Falha na busca de veículos no estoque: {}", e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Busca um veículo no estoque pelo número de placa, decodificado diretamente pelo `VeiculoCodec`.
+     *
+     * @param placa O número de placa do veículo a ser buscado.
+     * @return O veículo encontrado ou `null` se não encontrado.
+     */
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        try {
+            return getColecaoTipada().find(Filters.eq("placa", placa)).first();
+        } catch (MongoException e) {
+            LOGGER.error("Falha na busca de veículo no estoque: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Retorna uma lista de todos os veículos no estoque, decodificados diretamente pelo `VeiculoCodec`.
+     *
+     * @return Uma lista com os veículos no estoque.
+     */
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        try {
+            return getColecaoTipada().find().into(new ArrayList<>());
+        } catch (MongoException e) {
+            LOGGER.error("Falha na busca de veículos no estoque: {}", e.getMessage());
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Percorre os veículos do estoque usando o cursor do MongoDB, decodificados diretamente pelo `VeiculoCodec`.
+     *
+     * @return Um stream de veículos; o cursor é fechado quando o stream for fechado.
+     */
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        try {
+            MongoCursor<Veiculo> cursor = getColecaoTipada().find().iterator();
+            Spliterator<Veiculo> spliterator = Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL);
+            return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+        } catch (MongoException e) {
+            LOGGER.error("Falha na busca de veículos no estoque: {}", e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Retorna uma página de veículos usando uma consulta por faixa (`$gt` sobre a chave de ordenação) com `limit`,
+     * de modo que cada página custa uma única consulta indexada, independentemente da posição na listagem.
+     *
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação (`_id` ou `placa`).
+     * @param tokenRetomada O valor da chave no último veículo da página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     * @throws IllegalArgumentException Se o tamanho da página não for positivo ou se, na ordenação por inserção, o
+     * token não for um `ObjectId` válido.
+     */
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo: " + tamanhoPagina);
+        }
+        Object ultimo = valorRetomada(ordenacao, tokenRetomada);
+
+        try {
+            // Obtém a coleção de veículos no banco de dados
+            MongoCollection<Document> collection = this.mongodb.getCollection(collectionName);
+
+            Bson filtro = ultimo == null ? new Document() : Filters.gt(ordenacao.campo, ultimo);
+
+            // Busca um documento a mais para saber se existe uma próxima página
+            List<Document> documentos = collection.find(filtro)
+                    .sort(Sorts.ascending(ordenacao.campo))
+                    .limit(tamanhoPagina + 1)
+                    .into(new ArrayList<>());
+
+            boolean temProxima = documentos.size() > tamanhoPagina;
+            if (temProxima) {
+                documentos.remove(documentos.size() - 1);
+            }
+
+            List<Veiculo> veiculos = new ArrayList<>(documentos.size());
+            for (Document documento : documentos) {
+                veiculos.add(Veiculo.fromDocument(documento));
+            }
+
+            String proximoToken = temProxima ? tokenRetomada(documentos.get(documentos.size() - 1).get(ordenacao.campo)) : null;
+            return new PaginaVeiculos(veiculos, proximoToken);
+        } catch (MongoException e) {
+            LOGGER.error("Falha na busca de veículos no estoque: {}", e.getMessage());
+            return new PaginaVeiculos(Collections.emptyList(), null);
+        }
+    }
+
+    /**
+     * Converte o token de retomada no valor da chave de ordenação a partir do qual a página começa.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return O `ObjectId` (ordem de inserção) ou a placa do último veículo da página anterior; `null` sem token.
+     * @throws IllegalArgumentException Se, na ordenação por inserção, o token não for um `ObjectId` válido.
+     */
+    static Object valorRetomada(OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (tokenRetomada == null) {
+            return null;
+        }
+        if (ordenacao != OrdenacaoPagina.INSERCAO) {
+            return tokenRetomada;
+        }
+        if (!ObjectId.isValid(tokenRetomada)) {
+            throw new IllegalArgumentException("Token de retomada inválido: " + tokenRetomada);
+        }
+        return new ObjectId(tokenRetomada);
+    }
+
+    /**
+     * Converte o valor da chave de ordenação do último veículo de uma página no token da próxima.
+     * @param ultimo O `_id` ou a placa do último veículo.
+     * @return O token de retomada.
+     */
+    static String tokenRetomada(Object ultimo) {
+        return ultimo instanceof ObjectId ? ((ObjectId) ultimo).toHexString() : String.valueOf(ultimo);
+    }
+
+    /**
+     * Consulta os veículos com uma única operação `find` no servidor, com filtro, ordenação, projeção e limite.
+     *
+     * @param consulta Os critérios da consulta.
+     * @return Uma lista de documentos MongoDB com os campos pedidos dos veículos encontrados.
+     */
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        try {
+            // Obtém a coleção de veículos no banco de dados
+            MongoCollection<Document> collection = this.mongodb.getCollection(collectionName);
+
+            FindIterable<Document> resultado = collection.find(consulta.toFiltro())
+                    .sort(consulta.toOrdenacao())
+                    .projection(consulta.toProjecao());
+            if (consulta.limite > 0) {
+                resultado = resultado.limit(consulta.limite);
+            }
+            return resultado.into(new ArrayList<>());
+        } catch (MongoException e) {
+            LOGGER.error("Falha na consulta de veículos no estoque: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Calcula as estatísticas de preço no próprio MongoDB, com um pipeline de agregação (`$match`, `$group` e
+     * `$sort`), de modo que apenas um documento por grupo trafegue pela rede. Os preços são somados como
+     * Decimal128, sem perda de precisão.
+     *
+     * @param agrupamento O campo pelo qual os veículos são agrupados.
+     * @param filtro Os critérios que os veículos devem atender ou `null` para todo o estoque.
+     * @return As estatísticas de cada grupo, em ordem crescente da chave.
+     */
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        List<Bson> pipeline = new ArrayList<>();
+        if (filtro != null) {
+            pipeline.add(Aggregates.match(filtro.toFiltro()));
+        }
+        pipeline.add(Aggregates.group("$" + agrupamento.campo,
+                Accumulators.sum("quantidade", 1),
+                // $sum ignora preços ausentes e retornaria 0; a contagem distingue esse caso
+                Accumulators.sum("comPreco", new Document("$cond", List.of(new Document("$isNumber", "$preco"), 1, 0))),
+                Accumulators.sum("total", "$preco"),
+                Accumulators.avg("media", "$preco"),
+                Accumulators.min("minimo", "$preco"),
+                Accumulators.max("maximo", "$preco")));
+        pipeline.add(Aggregates.sort(Sorts.ascending("_id")));
+
+        List<EstatisticaPrecos> estatisticas = new ArrayList<>();
+        try {
+            for (Document grupo : this.mongodb.getCollection(collectionName).aggregate(pipeline)) {
+                boolean comPreco = ((Number) grupo.get("comPreco")).longValue() > 0;
+                Object chave = grupo.get("_id");
+                estatisticas.add(new EstatisticaPrecos(
+                        chave == null ? null : Veiculo.toText(chave),
+                        ((Number) grupo.get("quantidade")).longValue(),
+                        comPreco ? Veiculo.toBigDecimal(grupo.get("total")) : null,
+                        comPreco ? Veiculo.toBigDecimal(grupo.get("media")) : null,
+                        comPreco ? Veiculo.toBigDecimal(grupo.get("minimo")) : null,
+                        comPreco ? Veiculo.toBigDecimal(grupo.get("maximo")) : null));
+            }
+        } catch (MongoException e) {
+            LOGGER.error("Falha na agregação de preços do estoque: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+
+        // O MongoDB ordena o grupo sem valor (null) primeiro; os demais armazenamentos o deixam por último
+        if (!estatisticas.isEmpty() && estatisticas.get(0).chave == null) {
+            estatisticas.add(estatisticas.remove(0));
+        }
+        return estatisticas;
+    }
+
+    /**
+     * Altera um veículo com uma única operação `findOneAndUpdate`: o filtro exige a placa na versão esperada (e as
+     * demais condições da alteração), e a atualização grava com `$set` apenas os campos alterados e incrementa a
+     * versão com `$inc`. Como o servidor avalia o filtro e aplica a atualização atomicamente, alterações
+     * concorrentes do mesmo veículo não se sobrescrevem: só a primeira encontra a versão esperada. Só quando nada
+     * é alterado uma segunda consulta identifica o motivo (placa inexistente, conflito de versão ou alteração
+     * inválida para o veículo).
+     *
+     * @param placa A placa do veículo a ser alterado.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado, com o veículo alterado ou, no conflito de versão, o veículo atual.
+     */
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        String erro = alteracao.validar();
+        if (erro != null) {
+            return ResultadoAtualizacao.erro(placa, erro);
+        }
+
+        try {
+            Veiculo alterado = getColecaoTipada().findOneAndUpdate(alteracao.toFiltro(placa, versaoEsperada),
+                    alteracao.toAtualizacao(), new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+            if (alterado != null) {
+                LOGGER.info("Veículo alterado no estoque: placa={}, versao={}", placa, alterado.versao);
+                return ResultadoAtualizacao.atualizado(alterado);
+            }
+
+            Veiculo atual = findVeiculoTipado(placa);
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, atual, versaoEsperada);
+            if (rejeicao != null) {
+                return rejeicao;
+            }
+            erro = alteracao.verificar(atual);
+            // Sem motivo aparente, o veículo mudou entre as duas operações
+            return erro != null ? ResultadoAtualizacao.erro(placa, erro) : ResultadoAtualizacao.conflitoVersao(atual, versaoEsperada);
+        } catch (MongoException e) {
+            LOGGER.error("Falha na alteração do veículo {} no estoque: {}", placa, e.getMessage());
+            return ResultadoAtualizacao.erro(placa, e.getMessage());
+        }
+    }
+
+    /**
+     * Remove um veículo com uma única operação `findOneAndDelete`, condicionada à versão esperada.
+     *
+     * @param placa A placa do veículo a ser removido.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado, com o veículo removido ou, no conflito de versão, o veículo atual.
+     */
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        try {
+            Veiculo removido = getColecaoTipada().findOneAndDelete(AlteracaoVeiculo.filtroVersao(placa, versaoEsperada));
+            if (removido != null) {
+                LOGGER.info("Veículo removido do estoque: placa={}, versao={}", placa, removido.versao);
+                return ResultadoAtualizacao.removido(removido);
+            }
+
+            Veiculo atual = findVeiculoTipado(placa);
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, atual, versaoEsperada);
+            return rejeicao != null ? rejeicao : ResultadoAtualizacao.conflitoVersao(atual, versaoEsperada);
+        } catch (MongoException e) {
+            LOGGER.error("Falha na remoção do veículo {} do estoque: {}", placa, e.getMessage());
+            return ResultadoAtualizacao.erro(placa, e.getMessage());
+        }
+    }
+
+    /**
+     * Obtém a coleção de veículos tipada, com o `VeiculoCodec` registrado.
+     *
+     * @return A coleção de veículos que lê e grava objetos `Veiculo`.
+     */
+    private MongoCollection<Veiculo> getColecaoTipada() {
+        return this.mongodb.getCollection(collectionName)
+                .withDocumentClass(Veiculo.class)
+                .withCodecRegistry(VeiculoCodecProvider.REGISTRO);
+    }
+
     /**
      * Fecha a conexão com o banco de dados MongoDB.
      */
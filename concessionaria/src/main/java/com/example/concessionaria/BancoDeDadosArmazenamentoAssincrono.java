@@ -0,0 +1,131 @@
+/**
+ * A classe `BancoDeDadosArmazenamentoAssincrono` implementa a interface `I_ArmazenamentoAssincrono` sobre o driver
+ * reactive-streams do MongoDB. Nenhuma operação ocupa uma thread durante a ida e volta ao servidor, o que permite
+ * disparar muitas buscas concorrentes sem uma thread de plataforma por requisição.
+ */
+package com.example.concessionaria;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+import org.bson.Document;
+import org.reactivestreams.FlowAdapters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BancoDeDadosArmazenamentoAssincrono implements I_ArmazenamentoAssincrono {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BancoDeDadosArmazenamentoAssincrono.class);
+
+    // Nome padrão da coleção de veículos no banco de dados
+    private static final String COLLECTION_NAME = "veiculos";
+
+    // Coleção de veículos do driver reativo
+    private final MongoCollection<Document> collection;
+
+    // Placas duplicadas, contadas junto com as do armazenamento síncrono
+    private final I_RegistroMetricas.Contador duplicadas = Metricas.getRegistro().contador(BancoDeDadosArmazenamento.METRICA_DUPLICADAS);
+
+    /**
+     * Construtor da classe `BancoDeDadosArmazenamentoAssincrono` usando a coleção padrão.
+     */
+    public BancoDeDadosArmazenamentoAssincrono() {
+        this(COLLECTION_NAME);
+    }
+
+    /**
+     * Construtor da classe `BancoDeDadosArmazenamentoAssincrono`.
+     * @param collectionName O nome da coleção de veículos no banco de dados.
+     */
+    public BancoDeDadosArmazenamentoAssincrono(String collectionName) {
+        this.collection = MongoDBConnection.getInstance().getColecaoReativa(collectionName);
+    }
+
+    /**
+     * Adiciona um veículo ao estoque. Uma placa duplicada (erro 11000) resulta em `false`.
+     * @param veiculo O veículo a ser adicionado.
+     * @return Um futuro com `true` se a inserção for bem-sucedida, `false` em caso de erro.
+     */
+    @Override
+    public CompletableFuture<Boolean> addVeiculoEstoque(Veiculo veiculo) {
+        return PublisherFuturo.primeiro(collection.insertOne(veiculo.toDocument()))
+                .thenApply(resultado -> true)
+                .exceptionally(erro -> {
+                    Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+                    if (causa instanceof MongoWriteException && ((MongoWriteException) causa).getError().getCode() == 11000) {
+                        duplicadas.incrementar();
+                        LOGGER.warn("Inserção rejeitada: já existe um veículo com a placa '{}'.", veiculo.placa);
+                    } else {
+                        LOGGER.error("Falha na inserção do veículo {} ao estoque: {}", veiculo.placa, causa.getMessage());
+                    }
+                    return false;
+                });
+    }
+
+    /**
+     * Adiciona um lote de veículos com um `insertMany` não ordenado, mapeando os erros para cada veículo.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return Um futuro com o resultado de cada veículo, na mesma ordem do lote.
+     */
+    @Override
+    public CompletableFuture<List<ResultadoInsercao>> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        List<Veiculo> lote = new ArrayList<>(veiculos);
+        List<ResultadoInsercao> resultados = new ArrayList<>(lote.size());
+        if (lote.isEmpty()) {
+            return CompletableFuture.completedFuture(resultados);
+        }
+
+        List<Document> documentos = new ArrayList<>(lote.size());
+        for (Veiculo veiculo : lote) {
+            documentos.add(veiculo.toDocument());
+            resultados.add(ResultadoInsercao.inserido(veiculo.placa));
+        }
+
+        return PublisherFuturo.primeiro(collection.insertMany(documentos, new InsertManyOptions().ordered(false)))
+                .handle((resultado, erro) -> {
+                    if (erro != null) {
+                        Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+                        MongoException excecao = causa instanceof MongoException ? (MongoException) causa : new MongoException(causa.getMessage(), causa);
+                        BancoDeDadosArmazenamento.registrarErrosLote(lote, resultados, excecao);
+                    }
+                    return resultados;
+                });
+    }
+
+    /**
+     * Busca um veículo pela placa.
+     * @param placa A placa do veículo.
+     * @return Um futuro com o veículo encontrado ou `null` se não encontrado.
+     */
+    @Override
+    public CompletableFuture<Veiculo> findVeiculoTipado(String placa) {
+        return PublisherFuturo.primeiro(getColecaoTipada().find(Filters.eq("placa", placa)).first());
+    }
+
+    /**
+     * Publica todos os veículos da coleção, com a contrapressão do driver reativo adaptada para `java.util.concurrent.Flow`.
+     * @return Um publicador com os veículos do estoque.
+     */
+    @Override
+    public Flow.Publisher<Veiculo> publicarVeiculos() {
+        return FlowAdapters.toFlowPublisher(getColecaoTipada().find());
+    }
+
+    /**
+     * Obtém a coleção de veículos tipada, com o `VeiculoCodec` registrado.
+     * @return A coleção reativa que lê objetos `Veiculo`.
+     */
+    private MongoCollection<Veiculo> getColecaoTipada() {
+        return collection.withDocumentClass(Veiculo.class).withCodecRegistry(VeiculoCodecProvider.REGISTRO);
+    }
+}
@@ -0,0 +1,804 @@
+/**
+ * A classe `BinarioArmazenamento` implementa a interface `I_Armazenamento` sobre um arquivo binário compacto,
+ * alternativo ao .xlsx: os registros são gravados sem compressão nem XML e lidos por um `FileChannel` mapeado
+ * em memória, o que torna a carga de estoques grandes muito mais rápida.
+ *
+ * Formato do arquivo (inteiros em big-endian):
+ * - cabeçalho: a assinatura `CVB2` (4 bytes);
+ * - uma sequência de blocos, cada um com o seu tamanho em bytes (int), o tipo do veículo (texto), a quantidade
+ *   de registros (int) e os registros daquele tipo.
+ *
+ * Cada registro traz placa, marca, modelo e ano de fabricação como textos (tamanho em short seguido dos bytes
+ * UTF-8, ou -1 para nulo), o preço como escala (byte) e valor sem escala (long), o atributo específico do tipo
+ * (`numero_de_portas` ou `cilindradas`) como int, a versão (long) e se o veículo foi vendido (byte). Cada inserção
+ * acrescenta blocos ao final do arquivo. Uma alteração acrescenta o novo registro do veículo, que substitui o
+ * anterior na carga (vale o último registro de cada placa), e uma remoção acrescenta um bloco do tipo `-` com as
+ * placas removidas. `compactar()` regrava o arquivo com um único bloco por tipo, somente com os registros vigentes;
+ * ela é feita em segundo plano quando os registros obsoletos passam a ser maioria. Arquivos no formato anterior
+ * (`CVB1`, sem versão) são lidos e convertidos na abertura. A exportação e a importação em .xlsx continuam
+ * disponíveis para leitura humana.
+ */
+package com.example.concessionaria;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BinarioArmazenamento implements I_Armazenamento {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinarioArmazenamento.class);
+
+    private static final String FILE_NAME = "estoque.bin"; // Nome padrão do arquivo binário
+
+    // Assinatura gravada no início do arquivo ("CVB2") e a do formato anterior, sem versão ("CVB1")
+    private static final int ASSINATURA = 0x43564232;
+    private static final int ASSINATURA_V1 = 0x43564231;
+
+    // Tipo dos blocos que registram remoções; cada registro é só a placa
+    private static final String TIPO_REMOCAO = "-";
+
+    // Número mínimo de registros obsoletos para compactar o arquivo em segundo plano
+    private static final int MINIMO_OBSOLETOS_COMPACTACAO = 1024;
+
+    // Marcadores de valor ausente no atributo específico e no preço
+    private static final int SEM_VALOR = Integer.MIN_VALUE;
+    private static final byte PRECO_AUSENTE = Byte.MIN_VALUE;
+
+    // Caminho do arquivo binário usado por esta instância
+    private final String nomeArquivo;
+
+    // Estado em memória: veículos na ordem do arquivo, índice de placas com a posição de cada veículo e, sob demanda,
+    // as placas em ordem alfabética
+    private final ListaEstoque estoque = new ListaEstoque();
+
+    // Leituras concorrentes; inserções, alterações e compactação exclusivas
+    private final ReentrantReadWriteLock bloqueio = new ReentrantReadWriteLock();
+
+    // Registros do arquivo que não são mais vigentes (substituídos ou removidos) e os de remoção; sob `bloqueio`
+    private int obsoletos;
+
+    // Indica que o arquivo ainda está no formato `CVB1` e precisa ser convertido antes da próxima gravação
+    private boolean formatoAntigo;
+
+    // Compactação em segundo plano, agendada uma vez por vez
+    private boolean compactacaoAgendada;
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "binario-compactacao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Estatísticas da última carga do arquivo (tempo gasto e quantidade de registros lidos)
+    private long ultimaCargaMillis;
+    private int ultimaCargaLinhas;
+
+    // Métricas: placas duplicadas, bytes gravados no arquivo, cargas do arquivo e registros lidos nelas
+    private final I_RegistroMetricas.Contador duplicadas = Metricas.getRegistro().contador("binario.insercoes.duplicadas");
+    private final I_RegistroMetricas.Contador bytesGravados = Metricas.getRegistro().contador("binario.bytesGravados");
+    private final I_RegistroMetricas.Contador cargas = Metricas.getRegistro().contador("binario.cargas");
+    private final I_RegistroMetricas.Contador registrosLidos = Metricas.getRegistro().contador("binario.registrosLidos");
+
+    /**
+     * Construtor da classe `BinarioArmazenamento` usando o arquivo padrão (`estoque.bin`).
+     */
+    public BinarioArmazenamento() {
+        this(FILE_NAME);
+    }
+
+    /**
+     * Construtor da classe `BinarioArmazenamento`.
+     * @param nomeArquivo O caminho do arquivo binário onde o estoque será armazenado.
+     */
+    public BinarioArmazenamento(String nomeArquivo) {
+        this.nomeArquivo = nomeArquivo;
+        carregarEstoque();
+    }
+
+    /**
+     * Adiciona um veículo ao estoque, acrescentando o seu registro ao final do arquivo.
+     * @param veiculo O veículo a ser adicionado ao estoque.
+     * @return `true` se o veículo foi adicionado com sucesso, `false` caso contrário.
+     */
+    @Override
+    public boolean addVeiculoEstoque(Veiculo veiculo) {
+        ResultadoInsercao resultado = addVeiculosEstoque(List.of(veiculo)).get(0);
+
+        if (resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA) {
+            LOGGER.warn("Inserção rejeitada: já existe um veículo com a placa '{}' no estoque.", veiculo.placa);
+            return false;
+        } else if (!resultado.isSucesso()) {
+            LOGGER.error("Falha na inserção do veículo {} ao estoque: {}", veiculo.placa, resultado.mensagem);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adiciona um lote de veículos ao estoque. Os veículos aceitos são agrupados por tipo e gravados em uma única
+     * escrita ao final do arquivo, seguida de `force`; o estado em memória só é alterado se a escrita tiver sucesso.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado de cada veículo, na mesma ordem do lote.
+     */
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        List<ResultadoInsercao> resultados = new ArrayList<>(veiculos.size());
+        Map<String, List<Veiculo>> porTipo = new LinkedHashMap<>();
+        List<Veiculo> aceitos = new ArrayList<>(veiculos.size());
+        Set<String> placasLote = new HashSet<>();
+
+        bloqueio.writeLock().lock();
+        try {
+            for (Veiculo veiculo : veiculos) {
+                String erro = validar(veiculo);
+                if (estoque.buscar(veiculo.placa) != null || !placasLote.add(veiculo.placa)) {
+                    resultados.add(ResultadoInsercao.placaDuplicada(veiculo.placa));
+                    duplicadas.incrementar();
+                } else if (erro != null) {
+                    resultados.add(ResultadoInsercao.erro(veiculo.placa, erro));
+                } else {
+                    porTipo.computeIfAbsent(veiculo.getTipo(), tipo -> new ArrayList<>()).add(veiculo);
+                    aceitos.add(veiculo);
+                    resultados.add(ResultadoInsercao.inserido(veiculo.placa));
+                }
+            }
+
+            if (!aceitos.isEmpty()) {
+                try {
+                    acrescentarBlocos(porTipo);
+                } catch (IOException | UncheckedIOException e) {
+                    LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, e.getMessage());
+                    for (int i = 0; i < resultados.size(); i++) {
+                        if (resultados.get(i).isSucesso()) {
+                            resultados.set(i, ResultadoInsercao.erro(resultados.get(i).placa, "Erro ao salvar dados no arquivo"));
+                        }
+                    }
+                    return resultados;
+                }
+
+                for (Veiculo veiculo : aceitos) {
+                    estoque.adicionar(veiculo);
+                }
+            }
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+        return resultados;
+    }
+
+    /**
+     * Altera um veículo do estoque, conferindo a versão esperada. O novo registro do veículo é acrescentado ao
+     * final do arquivo; o anterior fica obsoleto até a próxima compactação.
+     * @param placa A placa do veículo a ser alterado.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da alteração.
+     */
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        bloqueio.writeLock().lock();
+        try {
+            Veiculo atual = estoque.buscar(placa);
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, atual, versaoEsperada);
+            if (rejeicao != null) {
+                return rejeicao;
+            }
+
+            Veiculo novo;
+            try {
+                novo = alteracao.aplicar(atual);
+            } catch (IllegalArgumentException e) {
+                return ResultadoAtualizacao.erro(placa, e.getMessage());
+            }
+            String erro = validar(novo);
+            if (erro != null) {
+                return ResultadoAtualizacao.erro(placa, erro);
+            }
+
+            try {
+                acrescentarBlocos(Map.of(novo.getTipo(), List.of(novo)));
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, e.getMessage());
+                return ResultadoAtualizacao.erro(placa, "Erro ao salvar dados no arquivo");
+            }
+            estoque.substituir(novo);
+            obsoletos++;
+            agendarCompactacao();
+            return ResultadoAtualizacao.atualizado(novo);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um veículo do estoque, conferindo a versão esperada. Um bloco de remoção com a placa é acrescentado
+     * ao final do arquivo; o registro do veículo fica obsoleto até a próxima compactação.
+     * @param placa A placa do veículo a ser removido.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da remoção.
+     */
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        bloqueio.writeLock().lock();
+        try {
+            Veiculo atual = estoque.buscar(placa);
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, atual, versaoEsperada);
+            if (rejeicao != null) {
+                return rejeicao;
+            }
+
+            try {
+                acrescentarRemocao(placa);
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, e.getMessage());
+                return ResultadoAtualizacao.erro(placa, "Erro ao salvar dados no arquivo");
+            }
+            estoque.remover(placa);
+            obsoletos += 2;
+            agendarCompactacao();
+            return ResultadoAtualizacao.removido(atual);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Agenda a compactação em segundo plano quando os registros obsoletos superam os vigentes (e um mínimo), de
+     * modo que o arquivo nunca passe de cerca do dobro do necessário. Deve ser chamado com o bloqueio exclusivo.
+     */
+    private void agendarCompactacao() {
+        if (compactacaoAgendada || obsoletos < MINIMO_OBSOLETOS_COMPACTACAO || obsoletos <= estoque.getQuantidade()) {
+            return;
+        }
+        compactacaoAgendada = true;
+        compactador.execute(() -> {
+            try {
+                compactar();
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.error("Erro ao compactar o arquivo {}: {}", nomeArquivo, e.getMessage());
+            } finally {
+                bloqueio.writeLock().lock();
+                compactacaoAgendada = false;
+                bloqueio.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Encontra um veículo no estoque com base na placa fornecida, consultando o índice em memória.
+     * @param placa A placa do veículo a ser encontrado.
+     * @return Um documento representando o veículo encontrado ou `null` se o veículo não foi encontrado.
+     */
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        Veiculo veiculo = findVeiculoTipado(placa);
+        return veiculo == null ? null : veiculo.toDocument();
+    }
+
+    /**
+     * Obtém uma lista de todos os veículos no estoque em forma de documentos.
+     * @return Uma lista de documentos representando todos os veículos no estoque.
+     */
+    @Override
+    public List<Document> getAllVeiculos() {
+        return getAllVeiculosTipados().stream().map(Veiculo::toDocument).collect(Collectors.toList());
+    }
+
+    /**
+     * Percorre os veículos do estoque em forma de documentos.
+     * @return Um stream de documentos representando os veículos do estoque.
+     */
+    @Override
+    public Stream<Document> streamVeiculos() {
+        return streamVeiculosTipados().map(Veiculo::toDocument);
+    }
+
+    /**
+     * Encontra um veículo no estoque com base na placa fornecida, consultando o índice em memória.
+     * @param placa A placa do veículo a ser encontrado.
+     * @return O veículo encontrado ou `null` se o veículo não foi encontrado.
+     */
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        bloqueio.readLock().lock();
+        try {
+            return estoque.buscar(placa);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém uma lista de todos os veículos no estoque, na ordem do arquivo.
+     * @return Uma lista com todos os veículos no estoque.
+     */
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        bloqueio.readLock().lock();
+        try {
+            return estoque.listar();
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    /**
+     * Percorre os veículos do estoque a partir de uma cópia do estado em memória.
+     * @return Um stream com os veículos do estoque.
+     */
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        return getAllVeiculosTipados().stream();
+    }
+
+    /**
+     * Retorna uma página de veículos a partir do estado em memória.
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     */
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (ordenacao == OrdenacaoPagina.PLACA) {
+            // A construção do índice ordenado altera o estado, então é feita com o bloqueio exclusivo
+            bloqueio.writeLock().lock();
+            try {
+                estoque.getPlacasOrdenadas();
+            } finally {
+                bloqueio.writeLock().unlock();
+            }
+        }
+
+        bloqueio.readLock().lock();
+        try {
+            return ConsultaEmMemoria.listarPagina(estoque, tamanhoPagina, ordenacao, tokenRetomada);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    /**
+     * Consulta os veículos avaliando os critérios em memória.
+     * @param consulta Os critérios da consulta.
+     * @return Uma lista de documentos com os campos pedidos dos veículos encontrados.
+     */
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        bloqueio.readLock().lock();
+        try {
+            return ConsultaEmMemoria.consultar(estoque.stream(), consulta, Veiculo::toDocument);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calcula as estatísticas de preço em paralelo sobre o estoque em memória, com somas exatas.
+     * @param agrupamento O campo pelo qual os veículos são agrupados.
+     * @param filtro Os critérios que os veículos devem atender ou `null` para todo o estoque.
+     * @return As estatísticas de cada grupo, em ordem crescente da chave.
+     */
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        bloqueio.readLock().lock();
+        try {
+            return AgregadorEstoque.agregar(estoque.stream(), agrupamento, filtro);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    /**
+     * Carrega o estado em memória a partir do arquivo, mapeando-o em memória e decodificando os blocos em sequência.
+     * Um bloco incompleto ao final (gravação interrompida) é descartado e o arquivo é truncado antes dele.
+     */
+    public void carregarEstoque() {
+        bloqueio.writeLock().lock();
+        try {
+            long inicio = System.nanoTime();
+            estoque.limpar();
+            obsoletos = 0;
+            formatoAntigo = false;
+
+            Path caminho = Paths.get(nomeArquivo);
+            if (Files.exists(caminho)) {
+                try {
+                    lerArquivo(caminho);
+                    if (formatoAntigo) {
+                        compactar();
+                        LOGGER.info("Arquivo {} convertido para o formato com versão: veiculos={}", nomeArquivo, estoque.getQuantidade());
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("Erro ao ler dados do arquivo {}: {}", nomeArquivo, e.getMessage());
+                }
+            }
+            agendarCompactacao();
+
+            this.ultimaCargaLinhas = estoque.getQuantidade();
+            this.ultimaCargaMillis = (System.nanoTime() - inicio) / 1_000_000;
+            cargas.incrementar();
+            registrosLidos.incrementar(ultimaCargaLinhas);
+            LOGGER.info("Estoque carregado do arquivo {}: veiculos={}, tempoMs={}", nomeArquivo, ultimaCargaLinhas, ultimaCargaMillis);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém o tempo gasto na última carga do arquivo.
+     * @return O tempo da última carga em milissegundos.
+     */
+    public long getUltimaCargaMillis() {
+        return ultimaCargaMillis;
+    }
+
+    /**
+     * Obtém a quantidade de veículos lidos na última carga do arquivo.
+     * @return O número de registros carregados.
+     */
+    public int getUltimaCargaLinhas() {
+        return ultimaCargaLinhas;
+    }
+
+    /**
+     * Regrava o arquivo com um único bloco por tipo, eliminando a fragmentação deixada pelas inserções e os
+     * registros obsoletos deixados pelas alterações e remoções. O novo conteúdo é gravado no formato atual em um
+     * arquivo temporário, que substitui o original por renomeação atômica.
+     * @throws IOException Se ocorrer um erro ao gravar o arquivo.
+     */
+    public void compactar() throws IOException {
+        bloqueio.writeLock().lock();
+        try {
+            Map<String, List<Veiculo>> porTipo = new LinkedHashMap<>();
+            estoque.stream().forEach(veiculo -> porTipo.computeIfAbsent(veiculo.getTipo(), tipo -> new ArrayList<>()).add(veiculo));
+
+            Path destino = Paths.get(nomeArquivo).toAbsolutePath();
+            Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                escreverTudo(canal, ByteBuffer.allocate(4).putInt(0, ASSINATURA));
+                escreverTudo(canal, codificarBlocos(porTipo));
+                canal.force(true);
+                bytesGravados.incrementar(canal.size());
+            }
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // A ordem em memória passa a ser a do arquivo compactado
+            List<Veiculo> ordem = new ArrayList<>(estoque.getQuantidade());
+            for (List<Veiculo> veiculos : porTipo.values()) {
+                ordem.addAll(veiculos);
+            }
+            estoque.reordenar(ordem);
+            obsoletos = 0;
+            formatoAntigo = false;
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Exporta o estoque para um arquivo Excel (.xlsx), para leitura humana.
+     * @param nomeArquivoXlsx O caminho do arquivo Excel de destino.
+     * @return O número de veículos exportados.
+     */
+    public int exportarXlsx(String nomeArquivoXlsx) {
+        ArquivoArmazenamento xlsx = new ArquivoArmazenamento(nomeArquivoXlsx);
+        try {
+            return (int) xlsx.addVeiculosEstoque(getAllVeiculosTipados()).stream()
+                    .filter(ResultadoInsercao::isSucesso)
+                    .count();
+        } finally {
+            xlsx.fechar();
+        }
+    }
+
+    /**
+     * Importa os veículos de um arquivo Excel (.xlsx), lido em streaming. Placas já existentes são rejeitadas.
+     * @param nomeArquivoXlsx O caminho do arquivo Excel de origem.
+     * @return O resultado da inserção de cada veículo importado.
+     * @throws IOException Se ocorrer um erro ao ler o arquivo Excel.
+     */
+    public List<ResultadoInsercao> importarXlsx(String nomeArquivoXlsx) throws IOException {
+        try (Stream<Veiculo> veiculos = LeitorPlanilhaStreaming.streamVeiculos(nomeArquivoXlsx, null)) {
+            return addVeiculosEstoque(veiculos.collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Lê o arquivo mapeado em memória, acrescentando os veículos de cada bloco ao estado.
+     * @param caminho O caminho do arquivo binário.
+     * @throws IOException Se o arquivo não puder ser lido ou não tiver a assinatura esperada.
+     */
+    private void lerArquivo(Path caminho) throws IOException {
+        long tamanhoValido;
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            if (canal.size() < 4) {
+                return;
+            }
+            MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            int assinatura = dados.getInt();
+            if (assinatura != ASSINATURA && assinatura != ASSINATURA_V1) {
+                throw new IOException("Arquivo sem a assinatura do formato binário: " + nomeArquivo);
+            }
+            formatoAntigo = assinatura == ASSINATURA_V1;
+
+            tamanhoValido = dados.position();
+            while (dados.remaining() >= 4) {
+                int tamanhoBloco = dados.getInt();
+                if (tamanhoBloco < 0 || tamanhoBloco > dados.remaining()) {
+                    break;
+                }
+                ByteBuffer bloco = dados.slice();
+                bloco.limit(tamanhoBloco);
+                dados.position(dados.position() + tamanhoBloco);
+                lerBloco(bloco);
+                tamanhoValido = dados.position();
+            }
+            if (tamanhoValido == canal.size()) {
+                return;
+            }
+        }
+
+        LOGGER.warn("Bloco incompleto descartado no final do arquivo {}: bytesValidos={}", nomeArquivo, tamanhoValido);
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanhoValido);
+        }
+    }
+
+    /**
+     * Decodifica os registros de um bloco. Um registro de placa já carregada substitui o anterior; um bloco de
+     * remoção retira as suas placas do estado.
+     * @param bloco O conteúdo do bloco, sem o seu tamanho.
+     */
+    private void lerBloco(ByteBuffer bloco) {
+        // Buffer reaproveitado na decodificação dos textos do bloco
+        byte[] texto = new byte[256];
+        String tipo = lerTexto(bloco, texto);
+        int quantidade = bloco.getInt();
+        if (TIPO_REMOCAO.equals(tipo)) {
+            for (int i = 0; i < quantidade; i++) {
+                if (estoque.remover(lerTexto(bloco, texto)) != null) {
+                    obsoletos++;
+                }
+                obsoletos++;
+            }
+            return;
+        }
+        estoque.reservar(quantidade);
+
+        for (int i = 0; i < quantidade; i++) {
+            Veiculo veiculo = Veiculo.novaInstancia(tipo);
+            veiculo.placa = lerTexto(bloco, texto);
+            veiculo.marca = lerTexto(bloco, texto);
+            veiculo.modelo = lerTexto(bloco, texto);
+            veiculo.ano_de_fabricacao = lerTexto(bloco, texto);
+
+            byte escala = bloco.get();
+            long semEscala = bloco.getLong();
+            veiculo.preco = escala == PRECO_AUSENTE ? null : BigDecimal.valueOf(semEscala, escala);
+
+            int especifico = bloco.getInt();
+            Integer valor = especifico == SEM_VALOR ? null : especifico;
+            if (veiculo instanceof Carro) {
+                ((Carro) veiculo).numero_de_portas = valor;
+            } else if (veiculo instanceof Motocicleta) {
+                ((Motocicleta) veiculo).cilindradas = valor;
+            }
+            if (!formatoAntigo) {
+                veiculo.versao = bloco.getLong();
+                veiculo.vendido = bloco.get() != 0;
+            }
+
+            if (estoque.substituir(veiculo) != null) {
+                obsoletos++;
+            }
+        }
+    }
+
+    /**
+     * Acrescenta um bloco de remoção com a placa ao final do arquivo.
+     * @param placa A placa removida.
+     * @throws IOException Se ocorrer um erro ao gravar o arquivo.
+     */
+    private void acrescentarRemocao(String placa) throws IOException {
+        ByteArrayOutputStream bloco = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bloco);
+        escreverTexto(saida, TIPO_REMOCAO);
+        saida.writeInt(1);
+        escreverTexto(saida, placa);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + bloco.size());
+        buffer.putInt(bloco.size()).put(bloco.toByteArray()).flip();
+        acrescentar(buffer);
+    }
+
+    /**
+     * Acrescenta os blocos ao final do arquivo em uma única escrita, criando o arquivo (com a assinatura) se
+     * necessário. Em caso de erro o arquivo é truncado de volta ao tamanho anterior.
+     * @param porTipo Os veículos a gravar, agrupados por tipo.
+     * @throws IOException Se ocorrer um erro ao gravar o arquivo.
+     */
+    private void acrescentarBlocos(Map<String, List<Veiculo>> porTipo) throws IOException {
+        acrescentar(codificarBlocos(porTipo));
+    }
+
+    /**
+     * Acrescenta blocos já codificados ao final do arquivo. Um arquivo ainda no formato anterior é convertido antes.
+     */
+    private void acrescentar(ByteBuffer blocos) throws IOException {
+        if (formatoAntigo) {
+            compactar();
+        }
+
+        try (FileChannel canal = FileChannel.open(Paths.get(nomeArquivo), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long tamanhoAnterior = canal.size();
+            try {
+                canal.position(tamanhoAnterior);
+                if (tamanhoAnterior == 0) {
+                    escreverTudo(canal, ByteBuffer.allocate(4).putInt(0, ASSINATURA));
+                }
+                bytesGravados.incrementar(blocos.remaining());
+                escreverTudo(canal, blocos);
+                canal.force(false);
+            } catch (IOException e) {
+                canal.truncate(tamanhoAnterior);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Codifica um bloco por tipo, cada um precedido do seu tamanho em bytes.
+     * @param porTipo Os veículos agrupados por tipo.
+     * @return Os bytes dos blocos, prontos para a escrita.
+     */
+    private static ByteBuffer codificarBlocos(Map<String, List<Veiculo>> porTipo) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream saida = new DataOutputStream(bytes);
+            for (Map.Entry<String, List<Veiculo>> tipo : porTipo.entrySet()) {
+                ByteArrayOutputStream bloco = new ByteArrayOutputStream(tipo.getValue().size() * 48);
+                DataOutputStream saidaBloco = new DataOutputStream(bloco);
+
+                escreverTexto(saidaBloco, tipo.getKey());
+                saidaBloco.writeInt(tipo.getValue().size());
+                for (Veiculo veiculo : tipo.getValue()) {
+                    escreverRegistro(saidaBloco, veiculo);
+                }
+
+                saida.writeInt(bloco.size());
+                bloco.writeTo(saida);
+            }
+            saida.flush();
+        } catch (IOException e) {
+            // Escrita em memória
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    /**
+     * Codifica o registro de um veículo.
+     * @param saida O fluxo do bloco.
+     * @param veiculo O veículo a codificar.
+     * @throws IOException Nunca, pois a escrita é feita em memória.
+     */
+    private static void escreverRegistro(DataOutputStream saida, Veiculo veiculo) throws IOException {
+        escreverTexto(saida, veiculo.placa);
+        escreverTexto(saida, veiculo.marca);
+        escreverTexto(saida, veiculo.modelo);
+        escreverTexto(saida, veiculo.ano_de_fabricacao);
+
+        if (veiculo.preco == null) {
+            saida.writeByte(PRECO_AUSENTE);
+            saida.writeLong(0);
+        } else {
+            saida.writeByte(veiculo.preco.scale());
+            saida.writeLong(veiculo.preco.unscaledValue().longValueExact());
+        }
+
+        Integer especifico = null;
+        if (veiculo instanceof Carro) {
+            especifico = ((Carro) veiculo).numero_de_portas;
+        } else if (veiculo instanceof Motocicleta) {
+            especifico = ((Motocicleta) veiculo).cilindradas;
+        }
+        saida.writeInt(especifico == null ? SEM_VALOR : especifico);
+        saida.writeLong(veiculo.versao);
+        saida.writeByte(veiculo.vendido ? 1 : 0);
+    }
+
+    /**
+     * Verifica se o veículo pode ser representado no formato binário.
+     * @param veiculo O veículo a verificar.
+     * @return A mensagem de erro ou `null` se o veículo for válido.
+     */
+    private static String validar(Veiculo veiculo) {
+        if (veiculo.placa == null) {
+            return "Veículo sem placa";
+        }
+        if (veiculo.preco != null) {
+            int escala = veiculo.preco.scale();
+            BigInteger semEscala = veiculo.preco.unscaledValue();
+            if (escala <= PRECO_AUSENTE || escala > Byte.MAX_VALUE || semEscala.bitLength() > 63) {
+                return "Preço fora do intervalo do formato binário: " + veiculo.preco;
+            }
+        }
+        for (String texto : new String[] {veiculo.placa, veiculo.marca, veiculo.modelo, veiculo.ano_de_fabricacao}) {
+            if (texto != null && texto.getBytes(StandardCharsets.UTF_8).length > Short.MAX_VALUE) {
+                return "Texto longo demais para o formato binário";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Escreve um texto precedido do seu tamanho em bytes UTF-8 (-1 para nulo).
+     */
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        if (texto == null) {
+            saida.writeShort(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeShort(bytes.length);
+        saida.write(bytes);
+    }
+
+    /**
+     * Lê um texto gravado por `escreverTexto`.
+     * @param buffer O buffer posicionado no início do texto.
+     * @param auxiliar Um buffer auxiliar reaproveitado entre as leituras, para textos de até o seu tamanho.
+     */
+    private static String lerTexto(ByteBuffer buffer, byte[] auxiliar) {
+        short tamanho = buffer.getShort();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = tamanho <= auxiliar.length ? auxiliar : new byte[tamanho];
+        buffer.get(bytes, 0, tamanho);
+        return new String(bytes, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escreve todo o conteúdo do buffer no canal.
+     */
+    private static void escreverTudo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+}
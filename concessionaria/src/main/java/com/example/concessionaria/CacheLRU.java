@@ -0,0 +1,190 @@
+/**
+ * A classe `CacheLRU` implementa um cache em memória limitado por tamanho, com expiração por tempo (TTL) e
+ * descarte do item usado há mais tempo (LRU). Ela também armazena ausências (cache negativo), com um TTL próprio.
+ * Para permitir acesso concorrente de muitas threads, as chaves são distribuídas entre segmentos independentes,
+ * cada um protegido pelo seu próprio bloqueio.
+ *
+ * A carga de uma falha é feita fora do bloqueio. Para que uma carga lenta não grave no cache um valor anterior a uma
+ * invalidação feita durante ela, cada chave em carga tem um contador de geração, incrementado por `invalidar` e
+ * `limpar`; o valor carregado só é armazenado se a geração não mudou.
+ */
+package com.example.concessionaria;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class CacheLRU<V> {
+    private static final int SEGMENTOS = 16;
+
+    private final List<Segmento> segmentos = new ArrayList<>(SEGMENTOS);
+    private final long ttlNanos;
+    private final long ttlNegativoNanos;
+
+    // Contadores de uso do cache
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder expulsoes = new LongAdder();
+
+    /**
+     * Construtor da classe `CacheLRU`.
+     * @param capacidadeMaxima O número máximo de itens mantidos no cache.
+     * @param ttl O tempo de vida dos itens encontrados.
+     * @param ttlNegativo O tempo de vida das ausências (chaves não encontradas); `Duration.ZERO` desativa o cache negativo.
+     */
+    public CacheLRU(int capacidadeMaxima, Duration ttl, Duration ttlNegativo) {
+        if (capacidadeMaxima <= 0) {
+            throw new IllegalArgumentException("A capacidade do cache deve ser positiva: " + capacidadeMaxima);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.ttlNegativoNanos = ttlNegativo.toNanos();
+
+        // Distribui a capacidade entre os segmentos (no mínimo um item por segmento)
+        int capacidadeSegmento = Math.max(1, (capacidadeMaxima + SEGMENTOS - 1) / SEGMENTOS);
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos.add(new Segmento(capacidadeSegmento));
+        }
+    }
+
+    /**
+     * Obtém o valor associado à chave, carregando-o com a função informada em caso de falha ou expiração.
+     * Resultados `null` também são armazenados, como ausência, durante o TTL negativo.
+     * @param chave A chave do item.
+     * @param carregador A função que carrega o valor da fonte de dados.
+     * @return O valor associado à chave ou `null` se ele não existir.
+     */
+    public V get(String chave, Function<String, V> carregador) {
+        Segmento segmento = segmento(chave);
+        long agora = System.nanoTime();
+
+        synchronized (segmento) {
+            Entrada<V> entrada = segmento.itens.get(chave);
+            if (entrada != null && entrada.expiraEm - agora > 0) {
+                acertos.increment();
+                return entrada.valor;
+            }
+        }
+
+        // A carga é feita fora do bloqueio para não serializar as consultas à fonte de dados
+        falhas.increment();
+        Geracao geracao;
+        long geracaoLida;
+        synchronized (segmento) {
+            geracao = segmento.geracoes.computeIfAbsent(chave, k -> new Geracao());
+            geracao.carregando++;
+            geracaoLida = geracao.valor;
+        }
+
+        V valor = null;
+        boolean carregado = false;
+        try {
+            valor = carregador.apply(chave);
+            carregado = true;
+        } finally {
+            long ttl = valor != null ? ttlNanos : ttlNegativoNanos;
+            synchronized (segmento) {
+                if (--geracao.carregando == 0) {
+                    segmento.geracoes.remove(chave);
+                }
+                // Uma invalidação durante a carga torna o valor carregado possivelmente desatualizado
+                if (carregado && ttl > 0 && geracao.valor == geracaoLida) {
+                    segmento.itens.put(chave, new Entrada<>(valor, System.nanoTime() + ttl));
+                }
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Remove a chave do cache, inclusive uma ausência armazenada.
+     * @param chave A chave a ser invalidada.
+     */
+    public void invalidar(String chave) {
+        Segmento segmento = segmento(chave);
+        synchronized (segmento) {
+            segmento.itens.remove(chave);
+            Geracao geracao = segmento.geracoes.get(chave);
+            if (geracao != null) {
+                geracao.valor++;
+            }
+        }
+    }
+
+    /**
+     * Remove todos os itens do cache.
+     */
+    public void limpar() {
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                segmento.itens.clear();
+                for (Geracao geracao : segmento.geracoes.values()) {
+                    geracao.valor++;
+                }
+            }
+        }
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    public long getExpulsoes() {
+        return expulsoes.sum();
+    }
+
+    private Segmento segmento(String chave) {
+        int hash = chave.hashCode();
+        return segmentos.get((hash ^ (hash >>> 16)) & (SEGMENTOS - 1));
+    }
+
+    /**
+     * Item armazenado no cache; `valor` nulo representa uma ausência.
+     */
+    private static final class Entrada<V> {
+        final V valor;
+        final long expiraEm;
+
+        Entrada(V valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    /**
+     * Geração de uma chave em carga e número de cargas em andamento dela; existe somente enquanto há carga.
+     */
+    private static final class Geracao {
+        long valor;
+        int carregando;
+    }
+
+    /**
+     * Segmento do cache: um `LinkedHashMap` em ordem de acesso que descarta o item mais antigo ao exceder a capacidade.
+     */
+    private final class Segmento {
+        final Map<String, Entrada<V>> itens;
+        final Map<String, Geracao> geracoes = new HashMap<>();
+
+        Segmento(int capacidade) {
+            this.itens = new LinkedHashMap<String, Entrada<V>>(capacidade * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entrada<V>> maisAntigo) {
+                    if (size() > capacidade) {
+                        expulsoes.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -21,6 +21,39 @@ public class Carro extends Veiculo {
         document.append("numero_de_portas", this.numero_de_portas);
     }
 
+    /**
+     * Método protegido para carregar os atributos específicos de um carro a partir de um documento.
+     * @param document O documento do qual os atributos serão lidos.
+     */
+    @Override
+    protected void carregaAtributosEspecificos(Document document) {
+        this.numero_de_portas = toInteger(document.get("numero_de_portas"));
+    }
+
+    /**
+     * Método protegido para definir os atributos específicos de um carro a partir de uma célula do arquivo Excel.
+     * @param campo O nome formatado do cabeçalho.
+     * @param valor O valor da célula.
+     */
+    @Override
+    protected void defineAtributoEspecifico(String campo, String valor) {
+        if ("numero_de_portas".equals(campo)) {
+            this.numero_de_portas = parseInteiro(valor);
+        }
+    }
+
+    /**
+     * Método protegido para validar os atributos específicos de um carro: de 2 a 5 portas.
+     * @return A descrição do problema encontrado ou `null` se os atributos forem válidos.
+     */
+    @Override
+    protected String validaAtributosEspecificos() {
+        if (this.numero_de_portas == null || this.numero_de_portas < 2 || this.numero_de_portas > 5) {
+            return "Número de portas inválido: " + this.numero_de_portas;
+        }
+        return null;
+    }
+
     /**
      * Método protegido para adicionar o cabeçalho específico de um carro ao arquivo Excel.
      * @param headerRow A linha do cabeçalho onde os atributos específicos serão adicionados.
@@ -0,0 +1,1133 @@
+/**
+ * A classe `ColunarArmazenamento` implementa a interface `I_Armazenamento` mantendo os veículos fora do heap,
+ * em colunas de tipos primitivos de um arquivo mapeado em memória. O arquivo mapeado é o próprio estado:
+ * nenhum objeto `Veiculo` fica residente, e a reabertura lê apenas o cabeçalho e o dicionário de textos.
+ *
+ * Layout do arquivo (inteiros em big-endian), com `capacidade` posições por coluna:
+ * - cabeçalho de 32 bytes: assinatura `CVC2`, capacidade, quantidade de posições ocupadas, bytes usados e
+ *   capacidade em bytes do dicionário e quantidade de posições removidas;
+ * - colunas: preço (long em centavos), placa (16 bytes: tamanho e até 15 bytes UTF-8), marca e modelo (int,
+ *   posição no dicionário), atributo específico (`numero_de_portas` ou `cilindradas`, int), ano (short), tipo (byte),
+ *   versão (long) e situação (byte, com os bits de vendido e removido);
+ * - índice de placas: tabela de endereçamento aberto (sondagem linear) com o dobro da capacidade, em que cada
+ *   célula guarda a posição do veículo mais um (0 indica célula vazia);
+ * - dicionário de marcas e modelos: textos (tamanho em short seguido dos bytes UTF-8) na ordem de criação.
+ *
+ * A quantidade no cabeçalho é o ponto de confirmação de cada inserção: as colunas e o índice são escritos antes,
+ * e posições além da quantidade são ignoradas. Quando as colunas ou o dicionário enchem, o arquivo é recriado com
+ * o dobro da capacidade e substitui o original por renomeação atômica. Como um `MappedByteBuffer` é limitado a
+ * 2 GB, a capacidade máxima fica em torno de 40 milhões de veículos.
+ *
+ * Uma alteração regrava as colunas do veículo na sua própria posição. As leituras não bloqueiam, então a versão
+ * funciona como um seqlock: ela fica negativa enquanto as colunas são regravadas, e o leitor repete a leitura se a
+ * encontrar negativa ou diferente ao final; a espera é limitada, e uma linha que não se estabiliza é tratada como erro.
+ * Uma linha confirmada que ficou com a versão negativa (alteração interrompida pela queda do processo) pode misturar
+ * valores antigos e novos: na abertura, ela é marcada como removida e o seu conteúdo é registrado no log. Uma remoção só marca a posição como removida; quando as posições
+ * removidas passam da metade, o arquivo é compactado em segundo plano, o que renumera as posições (um token de
+ * listagem por ordem de inserção obtido antes da compactação pode pular veículos). Arquivos no formato anterior
+ * (`CVC1`, sem versão nem situação) são convertidos na abertura.
+ */
+package com.example.concessionaria;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ColunarArmazenamento implements I_Armazenamento {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColunarArmazenamento.class);
+
+    private static final String FILE_NAME = "estoque.col"; // Nome padrão do arquivo colunar
+
+    // Assinatura gravada no início do arquivo ("CVC2") e a do formato anterior, sem versão nem situação ("CVC1")
+    private static final int ASSINATURA = 0x43564332;
+    private static final int ASSINATURA_V1 = 0x43564331;
+
+    // Capacidades iniciais de um arquivo novo (veículos e bytes do dicionário)
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final int DICIONARIO_INICIAL = 64 * 1024;
+
+    // Posições dos campos do cabeçalho
+    private static final int CABECALHO_CAPACIDADE = 4;
+    private static final int CABECALHO_QUANTIDADE = 8;
+    private static final int CABECALHO_USO_DICIONARIO = 12;
+    private static final int CABECALHO_CAPACIDADE_DICIONARIO = 16;
+    private static final int CABECALHO_REMOVIDOS = 20;
+    private static final int TAMANHO_CABECALHO = 32;
+
+    // Largura da coluna de placas: 1 byte de tamanho e até 15 bytes UTF-8
+    private static final int BYTES_PLACA = 16;
+
+    // Tipos de veículo, codificados pela posição neste vetor
+    private static final String[] TIPOS = {"Carro", "Motocicleta"};
+
+    // Marcadores de valor ausente
+    private static final long PRECO_AUSENTE = Long.MIN_VALUE;
+    private static final short ANO_AUSENTE = Short.MIN_VALUE;
+    private static final int SEM_VALOR = Integer.MIN_VALUE;
+    private static final int SEM_TEXTO = -1;
+
+    // Bits da coluna de situação
+    private static final byte VENDIDO = 1;
+    private static final byte REMOVIDO = 2;
+
+    // Número mínimo de posições removidas para compactar o arquivo em segundo plano
+    private static final int MINIMO_REMOVIDOS_COMPACTACAO = 1024;
+
+    // Leituras de uma linha em regravação: tentativas em espera ativa e, depois delas, tempo máximo de espera
+    private static final int TENTATIVAS_ESPERA_ATIVA = 100;
+    private static final long ESPERA_MAXIMA_LINHA_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // Caminho do arquivo colunar usado por esta instância
+    private final String nomeArquivo;
+
+    // Mapeamento atual do arquivo; substituído quando o arquivo cresce
+    private volatile Mapeamento mapa;
+
+    // Quantidade de posições confirmadas; escrita depois das colunas, torna a inserção visível aos leitores
+    private volatile int quantidade;
+
+    // Posições confirmadas que foram removidas e ainda ocupam o arquivo
+    private volatile int removidos;
+
+    // Dicionário de marcas e modelos (posição -> texto e texto -> posição) e bytes ocupados no arquivo
+    private final List<String> dicionario = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> idsDicionario = new ConcurrentHashMap<>();
+    private int usoDicionario;
+
+    // Métricas: placas duplicadas e ampliações do arquivo
+    private final I_RegistroMetricas.Contador duplicadas = Metricas.getRegistro().contador("colunar.insercoes.duplicadas");
+    private final I_RegistroMetricas.Contador ampliacoes = Metricas.getRegistro().contador("colunar.ampliacoes");
+
+    // Serializa as inserções, alterações, o crescimento e a compactação do arquivo; as leituras não bloqueiam
+    private final Object bloqueioEscrita = new Object();
+
+    // Compactação em segundo plano, agendada uma vez por vez; acessado sob `bloqueioEscrita`
+    private boolean compactacaoAgendada;
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "colunar-compactacao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Posições das colunas no arquivo mapeado para uma dada capacidade. No formato anterior não há as colunas de
+     * versão e situação (posição -1).
+     */
+    private static final class Mapeamento {
+        final MappedByteBuffer dados;
+        final int capacidade;
+        final int capacidadeIndice;
+        final int capacidadeDicionario;
+        final int precos;
+        final int placas;
+        final int marcas;
+        final int modelos;
+        final int especificos;
+        final int indice;
+        final int anos;
+        final int tipos;
+        final int versoes;
+        final int estados;
+        final int textos;
+
+        // Placas em ordem alfabética com a posição de cada veículo, construídas na primeira listagem por placa; o
+        // crescimento, que mantém as posições, repassa o índice ao novo mapeamento
+        volatile ConcurrentSkipListMap<String, Integer> placasOrdenadas;
+
+        Mapeamento(MappedByteBuffer dados, int capacidade, int capacidadeDicionario) {
+            this(dados, capacidade, capacidadeDicionario, true);
+        }
+
+        Mapeamento(MappedByteBuffer dados, int capacidade, int capacidadeDicionario, boolean comVersao) {
+            this.dados = dados;
+            this.capacidade = capacidade;
+            this.capacidadeIndice = capacidadeIndice(capacidade);
+            this.capacidadeDicionario = capacidadeDicionario;
+            this.precos = TAMANHO_CABECALHO;
+            this.placas = precos + capacidade * Long.BYTES;
+            this.marcas = placas + capacidade * BYTES_PLACA;
+            this.modelos = marcas + capacidade * Integer.BYTES;
+            this.especificos = modelos + capacidade * Integer.BYTES;
+            this.indice = especificos + capacidade * Integer.BYTES;
+            this.anos = indice + capacidadeIndice * Integer.BYTES;
+            this.tipos = anos + capacidade * Short.BYTES;
+            this.versoes = comVersao ? tipos + capacidade : -1;
+            this.estados = comVersao ? versoes + capacidade * Long.BYTES : -1;
+            this.textos = comVersao ? estados + capacidade : tipos + capacidade;
+        }
+
+        /**
+         * Calcula o tamanho do arquivo para as capacidades informadas.
+         * @throws IllegalStateException Se o arquivo ultrapassar o limite de um mapeamento (2 GB).
+         */
+        static int tamanhoArquivo(int capacidade, int capacidadeDicionario) {
+            long tamanho = TAMANHO_CABECALHO
+                    + (long) capacidade * (Long.BYTES + BYTES_PLACA + 3 * Integer.BYTES + Short.BYTES + 1 + Long.BYTES + 1)
+                    + (long) capacidadeIndice(capacidade) * Integer.BYTES
+                    + capacidadeDicionario;
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Capacidade máxima do armazenamento colunar atingida: " + capacidade + " veículos");
+            }
+            return (int) tamanho;
+        }
+
+        /**
+         * O índice tem a menor potência de 2 que seja pelo menos o dobro da capacidade (ocupação máxima de 50%).
+         */
+        static int capacidadeIndice(int capacidade) {
+            return Integer.highestOneBit(Math.max(2, capacidade * 2 - 1)) << 1;
+        }
+    }
+
+    /**
+     * Construtor da classe `ColunarArmazenamento` usando o arquivo padrão (`estoque.col`).
+     */
+    public ColunarArmazenamento() {
+        this(FILE_NAME);
+    }
+
+    /**
+     * Construtor da classe `ColunarArmazenamento`. O arquivo é criado se não existir; caso contrário, é apenas
+     * mapeado, sem leitura dos veículos.
+     * @param nomeArquivo O caminho do arquivo colunar onde o estoque será armazenado.
+     * @throws UncheckedIOException Se o arquivo não puder ser criado ou mapeado.
+     */
+    public ColunarArmazenamento(String nomeArquivo) {
+        this.nomeArquivo = nomeArquivo;
+        long inicio = System.nanoTime();
+        try {
+            abrir();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao mapear o arquivo " + nomeArquivo, e);
+        }
+        LOGGER.info("Estoque mapeado do arquivo {}: veiculos={}, tempoMs={}",
+                nomeArquivo, quantidade, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Adiciona um veículo ao estoque.
+     * @param veiculo O veículo a ser adicionado ao estoque.
+     * @return `true` se o veículo foi adicionado com sucesso, `false` caso contrário.
+     */
+    @Override
+    public boolean addVeiculoEstoque(Veiculo veiculo) {
+        ResultadoInsercao resultado = addVeiculosEstoque(List.of(veiculo)).get(0);
+
+        if (resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA) {
+            LOGGER.warn("Inserção rejeitada: já existe um veículo com a placa '{}' no estoque.", veiculo.placa);
+            return false;
+        } else if (!resultado.isSucesso()) {
+            LOGGER.error("Falha na inserção do veículo {} ao estoque: {}", veiculo.placa, resultado.mensagem);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adiciona um lote de veículos ao estoque, escrevendo as colunas diretamente no arquivo mapeado e forçando
+     * a gravação em disco uma única vez ao final do lote.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado de cada veículo, na mesma ordem do lote.
+     */
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        List<ResultadoInsercao> resultados = new ArrayList<>(veiculos.size());
+
+        synchronized (bloqueioEscrita) {
+            for (Veiculo veiculo : veiculos) {
+                resultados.add(inserir(veiculo));
+            }
+            mapa.dados.force();
+        }
+        return resultados;
+    }
+
+    /**
+     * Encontra um veículo no estoque com base na placa fornecida, consultando o índice do arquivo.
+     * @param placa A placa do veículo a ser encontrado.
+     * @return Um documento representando o veículo encontrado ou `null` se o veículo não foi encontrado.
+     */
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        Veiculo veiculo = findVeiculoTipado(placa);
+        return veiculo == null ? null : veiculo.toDocument();
+    }
+
+    /**
+     * Obtém uma lista de todos os veículos no estoque em forma de documentos.
+     * @return Uma lista de documentos representando todos os veículos no estoque.
+     */
+    @Override
+    public List<Document> getAllVeiculos() {
+        try (Stream<Document> documentos = streamVeiculos()) {
+            return documentos.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Percorre os veículos do estoque em forma de documentos, decodificando um veículo por vez.
+     * @return Um stream de documentos representando os veículos do estoque.
+     */
+    @Override
+    public Stream<Document> streamVeiculos() {
+        return streamVeiculosTipados().map(Veiculo::toDocument);
+    }
+
+    /**
+     * Encontra um veículo no estoque com base na placa fornecida, consultando o índice do arquivo.
+     * @param placa A placa do veículo a ser encontrado.
+     * @return O veículo encontrado ou `null` se o veículo não foi encontrado.
+     */
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        int confirmados = quantidade;
+        Mapeamento atual = mapa;
+        byte[] bytes = placa.getBytes(StandardCharsets.UTF_8);
+
+        int posicao = bytes.length < BYTES_PLACA ? buscarPosicao(atual, confirmados, placa, bytes) : -1;
+        return posicao < 0 ? null : lerVeiculo(atual, posicao);
+    }
+
+    /**
+     * Obtém uma lista de todos os veículos no estoque. Todos os veículos são decodificados no heap; para estoques
+     * grandes, prefira `streamVeiculosTipados`.
+     * @return Uma lista com todos os veículos no estoque.
+     */
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        try (Stream<Veiculo> veiculos = streamVeiculosTipados()) {
+            return veiculos.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Percorre os veículos do estoque na ordem de inserção, decodificando um veículo por vez a partir das colunas.
+     * @return Um stream com os veículos confirmados até o momento da chamada.
+     */
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        int confirmados = quantidade;
+        Mapeamento atual = mapa;
+        return IntStream.range(0, confirmados)
+                .filter(posicao -> vigente(atual, posicao))
+                .mapToObj(posicao -> lerVeiculo(atual, posicao));
+    }
+
+    /**
+     * Retorna uma página de veículos. Na ordem de inserção a página é lida diretamente das posições do arquivo;
+     * na ordem por placa, a partir do token no índice ordenado de placas, que fica no heap (só as placas e as
+     * posições): ele é construído na primeira listagem por placa e mantido pelas inserções e remoções.
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     * @throws IllegalArgumentException Se o tamanho da página não for positivo ou se, na ordem de inserção, o token
+     * não for uma posição válida.
+     */
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo: " + tamanhoPagina);
+        }
+        int confirmados = quantidade;
+        Mapeamento atual = mapa;
+        List<Veiculo> veiculos = new ArrayList<>(tamanhoPagina);
+        if (ordenacao == OrdenacaoPagina.PLACA && atual.placasOrdenadas == null) {
+            // A construção do índice não pode perder inserções concorrentes, então é feita com o bloqueio de escrita
+            synchronized (bloqueioEscrita) {
+                confirmados = quantidade;
+                atual = mapa;
+                if (atual.placasOrdenadas == null) {
+                    atual.placasOrdenadas = ordenarPlacas(atual, confirmados);
+                }
+            }
+        }
+
+        if (ordenacao != OrdenacaoPagina.PLACA) {
+            int posicao = tokenRetomada == null ? 0 : Integer.parseInt(tokenRetomada);
+            if (posicao < 0) {
+                throw new IllegalArgumentException("Token de retomada inválido: " + tokenRetomada);
+            }
+            for (; posicao < confirmados && veiculos.size() < tamanhoPagina; posicao++) {
+                if (vigente(atual, posicao)) {
+                    veiculos.add(lerVeiculo(atual, posicao));
+                }
+            }
+            return new PaginaVeiculos(veiculos, posicao < confirmados ? String.valueOf(posicao) : null);
+        }
+
+        NavigableMap<String, Integer> ordenadas = atual.placasOrdenadas;
+        Map<String, Integer> restantes = tokenRetomada == null ? ordenadas : ordenadas.tailMap(tokenRetomada, false);
+        String proximoToken = null;
+        for (Map.Entry<String, Integer> entrada : restantes.entrySet()) {
+            int posicao = entrada.getValue();
+            if (posicao >= confirmados || !vigente(atual, posicao)) {
+                continue; // Inserido depois do início da listagem ou removido
+            }
+            if (veiculos.size() == tamanhoPagina) {
+                proximoToken = veiculos.get(veiculos.size() - 1).placa;
+                break;
+            }
+            veiculos.add(lerVeiculo(atual, posicao));
+        }
+        return new PaginaVeiculos(veiculos, proximoToken);
+    }
+
+    /**
+     * Consulta os veículos do estoque. Os critérios de tipo, marca e modelo são avaliados diretamente sobre as
+     * colunas, e só os veículos que passam por eles são decodificados para a avaliação dos demais critérios.
+     * @param consulta Os critérios da consulta.
+     * @return Uma lista de documentos com os campos pedidos dos veículos encontrados.
+     */
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        return ConsultaEmMemoria.consultar(candidatos(consulta), consulta, Veiculo::toDocument);
+    }
+
+    /**
+     * Calcula as estatísticas de preço em paralelo, decodificando só os veículos que passam pelos critérios
+     * avaliados sobre as colunas, com somas exatas.
+     * @param agrupamento O campo pelo qual os veículos são agrupados.
+     * @param filtro Os critérios que os veículos devem atender ou `null` para todo o estoque.
+     * @return As estatísticas de cada grupo, em ordem crescente da chave.
+     */
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        Stream<Veiculo> veiculos = filtro == null ? streamVeiculosTipados() : candidatos(filtro);
+        return AgregadorEstoque.agregar(veiculos, agrupamento, filtro);
+    }
+
+    /**
+     * Seleciona os veículos que atendem aos critérios de tipo, marca, modelo e venda, avaliados diretamente sobre
+     * as colunas; só esses veículos são decodificados.
+     * @param consulta Os critérios da consulta.
+     * @return Os veículos candidatos, a serem avaliados pelos demais critérios.
+     */
+    private Stream<Veiculo> candidatos(ConsultaVeiculos consulta) {
+        int confirmados = quantidade;
+        Mapeamento atual = mapa;
+
+        int tipo = consulta.tipo == null ? SEM_VALOR : indiceTipo(consulta.tipo);
+        int marca = consulta.marca == null ? SEM_VALOR : idsDicionario.getOrDefault(consulta.marca, SEM_TEXTO);
+        int modelo = consulta.modelo == null ? SEM_VALOR : idsDicionario.getOrDefault(consulta.modelo, SEM_TEXTO);
+        if (tipo == SEM_TEXTO || marca == SEM_TEXTO || modelo == SEM_TEXTO) {
+            return Stream.empty(); // Valor que não existe no estoque
+        }
+
+        return IntStream.range(0, confirmados)
+                .filter(posicao -> vigente(atual, posicao))
+                .filter(posicao -> tipo == SEM_VALOR || atual.dados.get(atual.tipos + posicao) == tipo)
+                .filter(posicao -> marca == SEM_VALOR || atual.dados.getInt(atual.marcas + posicao * Integer.BYTES) == marca)
+                .filter(posicao -> modelo == SEM_VALOR || atual.dados.getInt(atual.modelos + posicao * Integer.BYTES) == modelo)
+                .filter(posicao -> consulta.vendido == null
+                        || ((atual.dados.get(atual.estados + posicao) & VENDIDO) != 0) == consulta.vendido)
+                .mapToObj(posicao -> lerVeiculo(atual, posicao));
+    }
+
+    /**
+     * Força a gravação em disco das páginas alteradas do arquivo mapeado.
+     */
+    public void fechar() {
+        synchronized (bloqueioEscrita) {
+            mapa.dados.force();
+        }
+    }
+
+    /**
+     * Obtém a quantidade de veículos no estoque, lida do cabeçalho, sem decodificar nenhum veículo.
+     * @return A quantidade de veículos confirmados e não removidos.
+     */
+    public int getQuantidade() {
+        return quantidade - removidos;
+    }
+
+    /**
+     * Altera um veículo do estoque, conferindo a versão esperada. As colunas do veículo são regravadas na sua
+     * própria posição, protegidas pelo seqlock da versão.
+     * @param placa A placa do veículo a ser alterado.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da alteração.
+     */
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        synchronized (bloqueioEscrita) {
+            int posicao = buscarPosicao(placa);
+            Veiculo atual = posicao < 0 ? null : lerVeiculoBloqueado(posicao);
+            if (posicao >= 0 && atual == null) {
+                return ResultadoAtualizacao.erro(placa, "Linha com alteração interrompida no arquivo colunar");
+            }
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, atual, versaoEsperada);
+            if (rejeicao != null) {
+                return rejeicao;
+            }
+
+            Veiculo novo;
+            long preco;
+            short ano;
+            try {
+                novo = alteracao.aplicar(atual);
+                preco = codificarPreco(novo.preco);
+                ano = codificarAno(novo.ano_de_fabricacao);
+            } catch (NumberFormatException | ArithmeticException e) {
+                return ResultadoAtualizacao.erro(placa, "Ano ou preço fora do formato colunar: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                return ResultadoAtualizacao.erro(placa, e.getMessage());
+            }
+
+            try {
+                int marca = idTexto(novo.marca);
+                int modelo = idTexto(novo.modelo);
+                Mapeamento atualizado = mapa;
+                escreverLinha(atualizado, posicao, novo, preco, ano, marca, modelo);
+                atualizado.dados.force();
+                return ResultadoAtualizacao.atualizado(novo);
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, e.getMessage());
+                return ResultadoAtualizacao.erro(placa, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Remove um veículo do estoque, conferindo a versão esperada. A posição é marcada como removida e só é
+     * liberada na compactação.
+     * @param placa A placa do veículo a ser removido.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da remoção.
+     */
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        synchronized (bloqueioEscrita) {
+            int posicao = buscarPosicao(placa);
+            Veiculo atual = posicao < 0 ? null : lerVeiculoBloqueado(posicao);
+            if (posicao >= 0 && atual == null) {
+                return ResultadoAtualizacao.erro(placa, "Linha com alteração interrompida no arquivo colunar");
+            }
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, atual, versaoEsperada);
+            if (rejeicao != null) {
+                return rejeicao;
+            }
+
+            Mapeamento atualizado = mapa;
+            byte estado = atualizado.dados.get(atualizado.estados + posicao);
+            atualizado.dados.put(atualizado.estados + posicao, (byte) (estado | REMOVIDO));
+            removidos++;
+            atualizado.dados.putInt(CABECALHO_REMOVIDOS, removidos);
+            atualizado.dados.force();
+            if (atualizado.placasOrdenadas != null) {
+                atualizado.placasOrdenadas.remove(placa);
+            }
+            agendarCompactacao();
+            return ResultadoAtualizacao.removido(atual);
+        }
+    }
+
+    /**
+     * Agenda a compactação em segundo plano quando as posições removidas passam da metade (e de um mínimo). Deve ser
+     * chamado com `bloqueioEscrita` adquirido.
+     */
+    private void agendarCompactacao() {
+        if (compactacaoAgendada || removidos < MINIMO_REMOVIDOS_COMPACTACAO || removidos <= quantidade / 2) {
+            return;
+        }
+        compactacaoAgendada = true;
+        compactador.execute(() -> {
+            try {
+                compactar();
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.error("Erro ao compactar o arquivo {}: {}", nomeArquivo, e.getMessage());
+            } finally {
+                synchronized (bloqueioEscrita) {
+                    compactacaoAgendada = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Recria o arquivo somente com os veículos não removidos, na mesma ordem, e reconstrói o índice. O novo arquivo
+     * substitui o original por renomeação atômica; leitores que ainda usam o mapeamento anterior continuam a ler o
+     * conteúdo antigo.
+     * @throws IOException Se o novo arquivo não puder ser criado.
+     */
+    public void compactar() throws IOException {
+        synchronized (bloqueioEscrita) {
+            Mapeamento antigo = mapa;
+            int confirmados = quantidade;
+            Path destino = Paths.get(nomeArquivo).toAbsolutePath();
+            Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+
+            Mapeamento novo = criar(temporario, antigo.capacidade, antigo.capacidadeDicionario);
+            copiar(antigo, antigo.textos, novo, novo.textos, usoDicionario);
+            // As posições mudam, então o índice ordenado (se já existir) é refeito junto com o de placas
+            ConcurrentSkipListMap<String, Integer> ordenadas = antigo.placasOrdenadas == null ? null : new ConcurrentSkipListMap<>();
+            int vigentes = 0;
+            for (int posicao = 0; posicao < confirmados; posicao++) {
+                if (vigente(antigo, posicao)) {
+                    copiarLinha(antigo, posicao, novo, vigentes);
+                    String placa = lerPlaca(novo, vigentes);
+                    indexar(novo, vigentes, placa);
+                    if (ordenadas != null) {
+                        ordenadas.put(placa, vigentes);
+                    }
+                    vigentes++;
+                }
+            }
+            novo.placasOrdenadas = ordenadas;
+            marcarLivres(novo, vigentes);
+            novo.dados.putInt(CABECALHO_QUANTIDADE, vigentes);
+            novo.dados.putInt(CABECALHO_USO_DICIONARIO, usoDicionario);
+            novo.dados.force();
+
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // O mapeamento é publicado antes da quantidade, como no crescimento
+            this.mapa = novo;
+            this.quantidade = vigentes;
+            this.removidos = 0;
+            LOGGER.info("Arquivo colunar compactado: arquivo={}, veiculos={}, removidos={}",
+                    nomeArquivo, vigentes, confirmados - vigentes);
+        }
+    }
+
+    /**
+     * Mapeia o arquivo existente (lendo o cabeçalho e o dicionário) ou cria um arquivo novo. Um arquivo no formato
+     * anterior é convertido, recriando-o com as colunas de versão e situação.
+     * @throws IOException Se o arquivo não puder ser criado ou mapeado, ou não tiver a assinatura esperada.
+     */
+    private void abrir() throws IOException {
+        Path caminho = Paths.get(nomeArquivo);
+        if (!Files.exists(caminho) || Files.size(caminho) == 0) {
+            this.mapa = criar(caminho, CAPACIDADE_INICIAL, DICIONARIO_INICIAL);
+            this.quantidade = 0;
+            this.removidos = 0;
+            this.usoDicionario = 0;
+            return;
+        }
+
+        MappedByteBuffer dados;
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            dados = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+        }
+        int assinatura = dados.getInt(0);
+        if (assinatura != ASSINATURA && assinatura != ASSINATURA_V1) {
+            throw new IOException("Arquivo sem a assinatura do formato colunar: " + nomeArquivo);
+        }
+
+        boolean formatoAntigo = assinatura == ASSINATURA_V1;
+        Mapeamento atual = new Mapeamento(dados, dados.getInt(CABECALHO_CAPACIDADE),
+                dados.getInt(CABECALHO_CAPACIDADE_DICIONARIO), !formatoAntigo);
+        this.usoDicionario = dados.getInt(CABECALHO_USO_DICIONARIO);
+        int posicao = 0;
+        while (posicao < usoDicionario) {
+            short tamanho = dados.getShort(atual.textos + posicao);
+            byte[] bytes = new byte[tamanho];
+            dados.get(atual.textos + posicao + Short.BYTES, bytes);
+            String texto = new String(bytes, StandardCharsets.UTF_8);
+            idsDicionario.put(texto, dicionario.size());
+            dicionario.add(texto);
+            posicao += Short.BYTES + tamanho;
+        }
+
+        this.mapa = atual;
+        this.quantidade = dados.getInt(CABECALHO_QUANTIDADE);
+        this.removidos = formatoAntigo ? 0 : dados.getInt(CABECALHO_REMOVIDOS);
+        if (!formatoAntigo) {
+            recuperarLinhasInterrompidas(atual);
+        }
+        if (formatoAntigo) {
+            synchronized (bloqueioEscrita) {
+                crescer(atual.capacidade, atual.capacidadeDicionario);
+            }
+            LOGGER.info("Arquivo {} convertido para o formato com versão: veiculos={}", nomeArquivo, quantidade);
+        }
+    }
+
+    /**
+     * Marca como removidas as linhas confirmadas com a versão negativa, deixadas por uma alteração interrompida no meio
+     * da regravação das colunas. Como a linha pode misturar valores antigos e novos, ela não é reaproveitada: o
+     * conteúdo lido é registrado no log para que o veículo possa ser conferido e inserido de novo.
+     */
+    private void recuperarLinhasInterrompidas(Mapeamento atual) {
+        int recuperadas = 0;
+        for (int posicao = 0; posicao < quantidade; posicao++) {
+            if (!vigente(atual, posicao) || atual.dados.getLong(atual.versoes + posicao * Long.BYTES) >= 0) {
+                continue;
+            }
+            String conteudo;
+            try {
+                Document documento = decodificar(atual, posicao).toDocument();
+                documento.remove("versao"); // Perdida: a coluna guarda o marcador da regravação
+                conteudo = documento.toJson();
+            } catch (RuntimeException e) {
+                conteudo = "placa " + lerPlaca(atual, posicao) + " (colunas ilegíveis: " + e.getMessage() + ")";
+            }
+            LOGGER.error("Linha com alteração interrompida marcada como removida no arquivo {}: posicao={}, conteudo={}",
+                    nomeArquivo, posicao, conteudo);
+            byte estado = atual.dados.get(atual.estados + posicao);
+            atual.dados.put(atual.estados + posicao, (byte) (estado | REMOVIDO));
+            removidos++;
+            recuperadas++;
+        }
+        if (recuperadas > 0) {
+            atual.dados.putInt(CABECALHO_REMOVIDOS, removidos);
+            atual.dados.force();
+        }
+    }
+
+    /**
+     * Cria um arquivo vazio com as capacidades informadas e o mapeia em memória.
+     * @param caminho O caminho do arquivo a ser criado (substituído se existir).
+     * @param capacidade A capacidade de veículos das colunas.
+     * @param capacidadeDicionario A capacidade em bytes do dicionário.
+     * @return O mapeamento do novo arquivo.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    private static Mapeamento criar(Path caminho, int capacidade, int capacidadeDicionario) throws IOException {
+        int tamanho = Mapeamento.tamanhoArquivo(capacidade, capacidadeDicionario);
+        MappedByteBuffer dados;
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            dados = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+        }
+
+        dados.putInt(0, ASSINATURA);
+        dados.putInt(CABECALHO_CAPACIDADE, capacidade);
+        dados.putInt(CABECALHO_QUANTIDADE, 0);
+        dados.putInt(CABECALHO_USO_DICIONARIO, 0);
+        dados.putInt(CABECALHO_CAPACIDADE_DICIONARIO, capacidadeDicionario);
+        dados.putInt(CABECALHO_REMOVIDOS, 0);
+        return new Mapeamento(dados, capacidade, capacidadeDicionario);
+    }
+
+    /**
+     * Insere um veículo na próxima posição livre; deve ser chamado com `bloqueioEscrita` adquirido.
+     * @param veiculo O veículo a ser inserido.
+     * @return O resultado da inserção.
+     */
+    private ResultadoInsercao inserir(Veiculo veiculo) {
+        if (veiculo.placa == null) {
+            return ResultadoInsercao.erro(null, "Veículo sem placa");
+        }
+        byte[] placa = veiculo.placa.getBytes(StandardCharsets.UTF_8);
+        if (placa.length >= BYTES_PLACA) {
+            return ResultadoInsercao.erro(veiculo.placa, "Placa longa demais para o formato colunar");
+        }
+        if (buscarPosicao(mapa, quantidade, veiculo.placa, placa) >= 0) {
+            duplicadas.incrementar();
+            return ResultadoInsercao.placaDuplicada(veiculo.placa);
+        }
+
+        int tipo = indiceTipo(veiculo.getTipo());
+        short ano;
+        long preco;
+        try {
+            ano = codificarAno(veiculo.ano_de_fabricacao);
+            preco = codificarPreco(veiculo.preco);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return ResultadoInsercao.erro(veiculo.placa, "Ano ou preço fora do formato colunar: " + e.getMessage());
+        }
+        if (tipo == SEM_TEXTO) {
+            return ResultadoInsercao.erro(veiculo.placa, "Tipo de veículo desconhecido: " + veiculo.getTipo());
+        }
+        if (veiculo.versao < 0) {
+            return ResultadoInsercao.erro(veiculo.placa, "Versão negativa: " + veiculo.versao);
+        }
+
+        try {
+            if (quantidade == mapa.capacidade) {
+                crescer(mapa.capacidade * 2, mapa.capacidadeDicionario);
+            }
+            int marca = idTexto(veiculo.marca);
+            int modelo = idTexto(veiculo.modelo);
+
+            Mapeamento atual = mapa;
+            int posicao = quantidade;
+            ByteBuffer dados = atual.dados;
+            dados.put(atual.placas + posicao * BYTES_PLACA, (byte) placa.length);
+            dados.put(atual.placas + posicao * BYTES_PLACA + 1, placa);
+            dados.put(atual.tipos + posicao, (byte) tipo);
+            escreverLinha(atual, posicao, veiculo, preco, ano, marca, modelo);
+            indexar(atual, posicao, veiculo.placa);
+
+            // Confirma a inserção
+            dados.putInt(CABECALHO_QUANTIDADE, posicao + 1);
+            quantidade = posicao + 1;
+            if (atual.placasOrdenadas != null) {
+                atual.placasOrdenadas.put(veiculo.placa, posicao);
+            }
+            return ResultadoInsercao.inserido(veiculo.placa);
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.error("Erro ao salvar dados no arquivo {}: {}", nomeArquivo, e.getMessage());
+            return ResultadoInsercao.erro(veiculo.placa, e.getMessage());
+        }
+    }
+
+    /**
+     * Escreve as colunas alteráveis de um veículo (preço, marca, modelo, atributo específico, ano e situação) e, por
+     * último, a versão. Enquanto as colunas são escritas a versão fica negativa, de modo que um leitor concorrente
+     * (ver `lerVeiculo`) repita a leitura em vez de ver uma linha pela metade.
+     */
+    private static void escreverLinha(Mapeamento atual, int posicao, Veiculo veiculo, long preco, short ano, int marca, int modelo) {
+        Integer especifico = null;
+        if (veiculo instanceof Carro) {
+            especifico = ((Carro) veiculo).numero_de_portas;
+        } else if (veiculo instanceof Motocicleta) {
+            especifico = ((Motocicleta) veiculo).cilindradas;
+        }
+
+        ByteBuffer dados = atual.dados;
+        dados.putLong(atual.versoes + posicao * Long.BYTES, -1);
+        VarHandle.storeStoreFence();
+        dados.putLong(atual.precos + posicao * Long.BYTES, preco);
+        dados.putInt(atual.marcas + posicao * Integer.BYTES, marca);
+        dados.putInt(atual.modelos + posicao * Integer.BYTES, modelo);
+        dados.putInt(atual.especificos + posicao * Integer.BYTES, especifico == null ? SEM_VALOR : especifico);
+        dados.putShort(atual.anos + posicao * Short.BYTES, ano);
+        dados.put(atual.estados + posicao, veiculo.vendido ? VENDIDO : 0);
+        VarHandle.releaseFence();
+        dados.putLong(atual.versoes + posicao * Long.BYTES, veiculo.versao);
+    }
+
+    private static short codificarAno(String ano) {
+        return ano == null ? ANO_AUSENTE : Short.parseShort(ano.trim());
+    }
+
+    private static long codificarPreco(BigDecimal preco) {
+        return preco == null ? PRECO_AUSENTE : preco.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Obtém a posição do texto no dicionário, acrescentando-o ao dicionário (e ao arquivo) se for novo.
+     * @param texto A marca ou o modelo.
+     * @return A posição do texto no dicionário ou `SEM_TEXTO` para nulo.
+     * @throws IOException Se o arquivo precisar crescer e não puder ser recriado.
+     */
+    private int idTexto(String texto) throws IOException {
+        if (texto == null) {
+            return SEM_TEXTO;
+        }
+        Integer id = idsDicionario.get(texto);
+        if (id != null) {
+            return id;
+        }
+
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalStateException("Texto longo demais para o dicionário: " + texto.substring(0, 32) + "...");
+        }
+        int necessario = Short.BYTES + bytes.length;
+        if (usoDicionario + necessario > mapa.capacidadeDicionario) {
+            crescer(mapa.capacidade, Math.max(mapa.capacidadeDicionario * 2, usoDicionario + necessario));
+        }
+
+        Mapeamento atual = mapa;
+        atual.dados.putShort(atual.textos + usoDicionario, (short) bytes.length);
+        atual.dados.put(atual.textos + usoDicionario + Short.BYTES, bytes);
+        usoDicionario += necessario;
+        atual.dados.putInt(CABECALHO_USO_DICIONARIO, usoDicionario);
+
+        id = dicionario.size();
+        dicionario.add(texto);
+        idsDicionario.put(texto, id);
+        return id;
+    }
+
+    /**
+     * Recria o arquivo com as novas capacidades, copiando as colunas e o dicionário e reconstruindo o índice.
+     * O novo arquivo substitui o original por renomeação atômica; leitores que ainda usam o mapeamento anterior
+     * continuam a ler o conteúdo antigo, que permanece válido.
+     * @param capacidade A nova capacidade de veículos.
+     * @param capacidadeDicionario A nova capacidade em bytes do dicionário.
+     * @throws IOException Se o novo arquivo não puder ser criado.
+     */
+    private void crescer(int capacidade, int capacidadeDicionario) throws IOException {
+        Mapeamento antigo = mapa;
+        int confirmados = quantidade;
+        Path destino = Paths.get(nomeArquivo).toAbsolutePath();
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+
+        Mapeamento novo = criar(temporario, capacidade, capacidadeDicionario);
+        copiar(antigo, antigo.precos, novo, novo.precos, confirmados * Long.BYTES);
+        copiar(antigo, antigo.placas, novo, novo.placas, confirmados * BYTES_PLACA);
+        copiar(antigo, antigo.marcas, novo, novo.marcas, confirmados * Integer.BYTES);
+        copiar(antigo, antigo.modelos, novo, novo.modelos, confirmados * Integer.BYTES);
+        copiar(antigo, antigo.especificos, novo, novo.especificos, confirmados * Integer.BYTES);
+        copiar(antigo, antigo.anos, novo, novo.anos, confirmados * Short.BYTES);
+        copiar(antigo, antigo.tipos, novo, novo.tipos, confirmados);
+        if (antigo.versoes >= 0) {
+            copiar(antigo, antigo.versoes, novo, novo.versoes, confirmados * Long.BYTES);
+            copiar(antigo, antigo.estados, novo, novo.estados, confirmados);
+        }
+        copiar(antigo, antigo.textos, novo, novo.textos, usoDicionario);
+        for (int posicao = 0; posicao < confirmados; posicao++) {
+            if (vigente(novo, posicao)) {
+                indexar(novo, posicao, lerPlaca(novo, posicao));
+            }
+        }
+        marcarLivres(novo, confirmados);
+        novo.dados.putInt(CABECALHO_QUANTIDADE, confirmados);
+        novo.dados.putInt(CABECALHO_USO_DICIONARIO, usoDicionario);
+        novo.dados.putInt(CABECALHO_REMOVIDOS, removidos);
+        novo.dados.force();
+
+        try {
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+        novo.placasOrdenadas = antigo.placasOrdenadas;
+        this.mapa = novo;
+        ampliacoes.incrementar();
+        LOGGER.info("Arquivo colunar ampliado: arquivo={}, capacidade={}", nomeArquivo, capacidade);
+    }
+
+    /**
+     * Constrói o índice ordenado de placas das posições confirmadas e não removidas; deve ser chamado com
+     * `bloqueioEscrita` adquirido.
+     */
+    private static ConcurrentSkipListMap<String, Integer> ordenarPlacas(Mapeamento atual, int confirmados) {
+        ConcurrentSkipListMap<String, Integer> ordenadas = new ConcurrentSkipListMap<>();
+        for (int posicao = 0; posicao < confirmados; posicao++) {
+            if (vigente(atual, posicao)) {
+                ordenadas.put(lerPlaca(atual, posicao), posicao);
+            }
+        }
+        return ordenadas;
+    }
+
+    /**
+     * Copia todas as colunas de uma posição do mapeamento antigo para uma posição do novo.
+     */
+    private static void copiarLinha(Mapeamento origem, int posicaoOrigem, Mapeamento destino, int posicaoDestino) {
+        copiar(origem, origem.precos + posicaoOrigem * Long.BYTES, destino, destino.precos + posicaoDestino * Long.BYTES, Long.BYTES);
+        copiar(origem, origem.placas + posicaoOrigem * BYTES_PLACA, destino, destino.placas + posicaoDestino * BYTES_PLACA, BYTES_PLACA);
+        copiar(origem, origem.marcas + posicaoOrigem * Integer.BYTES, destino, destino.marcas + posicaoDestino * Integer.BYTES, Integer.BYTES);
+        copiar(origem, origem.modelos + posicaoOrigem * Integer.BYTES, destino, destino.modelos + posicaoDestino * Integer.BYTES, Integer.BYTES);
+        copiar(origem, origem.especificos + posicaoOrigem * Integer.BYTES, destino, destino.especificos + posicaoDestino * Integer.BYTES, Integer.BYTES);
+        copiar(origem, origem.anos + posicaoOrigem * Short.BYTES, destino, destino.anos + posicaoDestino * Short.BYTES, Short.BYTES);
+        copiar(origem, origem.tipos + posicaoOrigem, destino, destino.tipos + posicaoDestino, 1);
+        copiar(origem, origem.versoes + posicaoOrigem * Long.BYTES, destino, destino.versoes + posicaoDestino * Long.BYTES, Long.BYTES);
+        copiar(origem, origem.estados + posicaoOrigem, destino, destino.estados + posicaoDestino, 1);
+    }
+
+    /**
+     * Marca como removidas as posições livres de um arquivo recriado. Um leitor que ainda use a quantidade anterior
+     * à recriação junto com o novo mapeamento as ignora, em vez de ler posições vazias; cada inserção regrava a
+     * situação da sua posição.
+     */
+    private static void marcarLivres(Mapeamento atual, int inicio) {
+        for (int posicao = inicio; posicao < atual.capacidade; posicao++) {
+            atual.dados.put(atual.estados + posicao, REMOVIDO);
+        }
+    }
+
+    /**
+     * Copia um trecho de uma coluna do mapeamento antigo para o novo.
+     */
+    private static void copiar(Mapeamento origem, int inicioOrigem, Mapeamento destino, int inicioDestino, int bytes) {
+        ByteBuffer leitura = origem.dados.duplicate();
+        leitura.position(inicioOrigem).limit(inicioOrigem + bytes);
+        ByteBuffer escrita = destino.dados.duplicate();
+        escrita.position(inicioDestino);
+        escrita.put(leitura);
+    }
+
+    /**
+     * Registra a placa no índice. Células que apontam para posições não confirmadas (restos de uma inserção
+     * interrompida) são reaproveitadas.
+     */
+    private void indexar(Mapeamento atual, int posicao, String placa) {
+        int mascara = atual.capacidadeIndice - 1;
+        int celula = espalhar(placa.hashCode()) & mascara;
+        while (true) {
+            int valor = atual.dados.getInt(atual.indice + celula * Integer.BYTES);
+            if (valor == 0 || valor - 1 >= posicao) {
+                atual.dados.putInt(atual.indice + celula * Integer.BYTES, posicao + 1);
+                return;
+            }
+            celula = (celula + 1) & mascara;
+        }
+    }
+
+    /**
+     * Procura a posição da placa no mapeamento atual; deve ser chamado com `bloqueioEscrita` adquirido.
+     * @return A posição do veículo ou -1 se a placa não estiver no estoque.
+     */
+    private int buscarPosicao(String placa) {
+        byte[] bytes = placa.getBytes(StandardCharsets.UTF_8);
+        return bytes.length < BYTES_PLACA ? buscarPosicao(mapa, quantidade, placa, bytes) : -1;
+    }
+
+    /**
+     * Procura a posição da placa pelo índice, comparando os bytes gravados na coluna de placas. Posições removidas
+     * são ignoradas, pois a placa pode ter sido inserida de novo em outra posição.
+     * @return A posição do veículo ou -1 se a placa não estiver no estoque.
+     */
+    private static int buscarPosicao(Mapeamento atual, int confirmados, String placa, byte[] bytes) {
+        int mascara = atual.capacidadeIndice - 1;
+        int celula = espalhar(placa.hashCode()) & mascara;
+        while (true) {
+            int valor = atual.dados.getInt(atual.indice + celula * Integer.BYTES);
+            if (valor == 0) {
+                return -1;
+            }
+            int posicao = valor - 1;
+            if (posicao < confirmados && vigente(atual, posicao) && placaIgual(atual, posicao, bytes)) {
+                return posicao;
+            }
+            celula = (celula + 1) & mascara;
+        }
+    }
+
+    private static boolean placaIgual(Mapeamento atual, int posicao, byte[] bytes) {
+        int inicio = atual.placas + posicao * BYTES_PLACA;
+        if (atual.dados.get(inicio) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (atual.dados.get(inicio + 1 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean vigente(Mapeamento atual, int posicao) {
+        return (atual.dados.get(atual.estados + posicao) & REMOVIDO) == 0;
+    }
+
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int indiceTipo(String tipo) {
+        for (int i = 0; i < TIPOS.length; i++) {
+            if (TIPOS[i].equals(tipo)) {
+                return i;
+            }
+        }
+        return SEM_TEXTO;
+    }
+
+    private static String lerPlaca(Mapeamento atual, int posicao) {
+        int inicio = atual.placas + posicao * BYTES_PLACA;
+        byte[] bytes = new byte[atual.dados.get(inicio)];
+        atual.dados.get(inicio + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodifica o veículo de uma posição a partir das colunas. A versão é lida antes e depois das demais colunas;
+     * se estiver negativa (linha sendo regravada) ou mudar no meio da leitura, a leitura é repetida, primeiro em
+     * espera ativa e depois cedendo o processador, por no máximo `ESPERA_MAXIMA_LINHA_NANOS`.
+     * @param atual O mapeamento a ser lido.
+     * @param posicao A posição do veículo.
+     * @return O veículo decodificado.
+     * @throws IllegalStateException Se a linha não se estabilizar dentro do tempo máximo.
+     */
+    private Veiculo lerVeiculo(Mapeamento atual, int posicao) {
+        int coluna = atual.versoes + posicao * Long.BYTES;
+        long limite = 0;
+        for (int tentativa = 0; ; tentativa++) {
+            long versao = atual.dados.getLong(coluna);
+            if (versao >= 0) {
+                VarHandle.acquireFence();
+                Veiculo veiculo = decodificar(atual, posicao);
+                VarHandle.acquireFence();
+                if (atual.dados.getLong(coluna) == versao) {
+                    veiculo.versao = versao;
+                    return veiculo;
+                }
+            }
+            if (tentativa < TENTATIVAS_ESPERA_ATIVA) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (limite == 0) {
+                limite = System.nanoTime() + ESPERA_MAXIMA_LINHA_NANOS;
+            } else if (System.nanoTime() - limite > 0) {
+                throw new IllegalStateException("Linha " + posicao + " do arquivo " + nomeArquivo + " não se estabilizou: versão " + versao);
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Decodifica o veículo de uma posição sem repetir a leitura; deve ser chamado com `bloqueioEscrita` adquirido,
+     * quando nenhuma outra thread regrava as colunas.
+     * @return O veículo decodificado ou `null` se a linha estiver com a versão negativa (regravação interrompida).
+     */
+    private Veiculo lerVeiculoBloqueado(int posicao) {
+        Mapeamento atual = mapa;
+        long versao = atual.dados.getLong(atual.versoes + posicao * Long.BYTES);
+        if (versao < 0) {
+            return null;
+        }
+        Veiculo veiculo = decodificar(atual, posicao);
+        veiculo.versao = versao;
+        return veiculo;
+    }
+
+    private Veiculo decodificar(Mapeamento atual, int posicao) {
+        ByteBuffer dados = atual.dados;
+        Veiculo veiculo = Veiculo.novaInstancia(TIPOS[dados.get(atual.tipos + posicao)]);
+        veiculo.placa = lerPlaca(atual, posicao);
+        veiculo.marca = texto(dados.getInt(atual.marcas + posicao * Integer.BYTES));
+        veiculo.modelo = texto(dados.getInt(atual.modelos + posicao * Integer.BYTES));
+
+        short ano = dados.getShort(atual.anos + posicao * Short.BYTES);
+        veiculo.ano_de_fabricacao = ano == ANO_AUSENTE ? null : String.valueOf(ano);
+        long preco = dados.getLong(atual.precos + posicao * Long.BYTES);
+        veiculo.preco = preco == PRECO_AUSENTE ? null : BigDecimal.valueOf(preco, 2);
+
+        int especifico = dados.getInt(atual.especificos + posicao * Integer.BYTES);
+        Integer valor = especifico == SEM_VALOR ? null : especifico;
+        if (veiculo instanceof Carro) {
+            ((Carro) veiculo).numero_de_portas = valor;
+        } else if (veiculo instanceof Motocicleta) {
+            ((Motocicleta) veiculo).cilindradas = valor;
+        }
+        veiculo.vendido = (dados.get(atual.estados + posicao) & VENDIDO) != 0;
+        return veiculo;
+    }
+
+    private String texto(int id) {
+        return id == SEM_TEXTO ? null : dicionario.get(id);
+    }
+}
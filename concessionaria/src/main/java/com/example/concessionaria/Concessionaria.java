@@ -4,22 +4,78 @@
  */
 package com.example.concessionaria;
 
-import java.math.BigDecimal;
-import java.text.DecimalFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
 import org.bson.Document;
-import org.bson.types.Decimal128;
 
 public class Concessionaria {
     // Componente de armazenamento para lidar com o armazenamento de veículos
     public I_Armazenamento armazenamento;
+    // Componente de armazenamento assíncrono, usado pelas variantes `...Async` dos métodos; criado na primeira delas
+    private volatile I_ArmazenamentoAssincrono armazenamentoAssincrono;
+    // Cria o componente assíncrono, se ele não foi informado na construção
+    private final Supplier<I_ArmazenamentoAssincrono> fabricaAssincrona;
 
     /**
-     * Construtor da classe `Concessionaria`.
+     * Construtor da classe `Concessionaria`. Sobre o MongoDB, as operações assíncronas usam o driver
+     * reactive-streams (`BancoDeDadosArmazenamentoAssincrono`) na mesma coleção; nos demais armazenamentos, elas
+     * executam o armazenamento informado no executor de I/O compartilhado. O componente assíncrono só é criado na
+     * primeira operação assíncrona, para que quem usa apenas as síncronas não abra o cliente reativo.
      * @param armazenamento O componente de armazenamento a ser usado pela concessionária.
      */
     public Concessionaria(I_Armazenamento armazenamento) {
-        this.armazenamento = armazenamento;
+        this(ArmazenamentoComMetricas.envolver(armazenamento), armazenamento);
+    }
+
+    /**
+     * Construtor das operações assíncronas sobre o armazenamento já medido, para que as executadas no executor
+     * também sejam registradas.
+     */
+    private Concessionaria(ArmazenamentoComMetricas medido, I_Armazenamento armazenamento) {
+        this.armazenamento = medido;
+        if (armazenamento instanceof BancoDeDadosArmazenamento) {
+            // O cliente reativo pertence à `MongoDBConnection` e é fechado junto com o síncrono (`fecharConexao`)
+            String colecao = ((BancoDeDadosArmazenamento) armazenamento).getCollectionName();
+            this.fabricaAssincrona = () -> new BancoDeDadosArmazenamentoAssincrono(colecao);
+        } else {
+            this.fabricaAssincrona = () -> new ArmazenamentoAssincronoExecutor(medido);
+        }
+    }
+
+    /**
+     * Construtor da classe `Concessionaria`. O armazenamento é medido por um `ArmazenamentoComMetricas`.
+     * @param armazenamento O componente de armazenamento a ser usado pela concessionária.
+     * @param armazenamentoAssincrono O componente de armazenamento usado pelas operações assíncronas.
+     */
+    public Concessionaria(I_Armazenamento armazenamento, I_ArmazenamentoAssincrono armazenamentoAssincrono) {
+        this.armazenamento = ArmazenamentoComMetricas.envolver(armazenamento);
+        this.armazenamentoAssincrono = armazenamentoAssincrono;
+        this.fabricaAssincrona = null;
+    }
+
+    /**
+     * Obtém o componente de armazenamento assíncrono, criando-o na primeira chamada.
+     * @return O componente usado pelas variantes `...Async` dos métodos.
+     */
+    public I_ArmazenamentoAssincrono getArmazenamentoAssincrono() {
+        I_ArmazenamentoAssincrono assincrono = armazenamentoAssincrono;
+        if (assincrono == null) {
+            synchronized (this) {
+                assincrono = armazenamentoAssincrono;
+                if (assincrono == null) {
+                    assincrono = fabricaAssincrona.get();
+                    armazenamentoAssincrono = assincrono;
+                }
+            }
+        }
+        return assincrono;
     }
 
     /**
@@ -31,76 +87,235 @@ public class Concessionaria {
         return this.armazenamento.addVeiculoEstoque(veiculo);
     }
 
+    /**
+     * Adiciona um lote de veículos ao estoque da concessionária.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado da inserção de cada veículo, na mesma ordem do lote.
+     */
+    public List<ResultadoInsercao> AdicionaVeiculosEstoque(Collection<Veiculo> veiculos){
+        return this.armazenamento.addVeiculosEstoque(veiculos);
+    }
+
     /**
      * Encontra um veículo no estoque pelo número de placa e exibe suas informações.
      * @param placa O número de placa do veículo a ser encontrado.
      */
     public void EncontraVeiculoEstoque(String placa){
-        Document doc = this.armazenamento.findVeiculoEstoque(placa);
+        Veiculo veiculo = this.armazenamento.findVeiculoTipado(placa);
 
-        if (doc == null){
+        if (veiculo == null){
             System.out.println("Veículo com placa (" + placa+ ") não encontrado no estoque.");
         }else {
-            this.PrintDocument(doc);
+            this.PrintVeiculo(veiculo);
         }
     }
 
     /**
-     * Imprime as informações de um documento MongoDB formatado.
-     * @param documento O documento a ser impresso.
+     * Busca um veículo no estoque pelo número de placa, sem exibi-lo.
+     * @param placa O número de placa do veículo.
+     * @return O veículo encontrado ou `null` se não encontrado.
      */
-    private void PrintDocument(Document documento){
-        System.out.println("---------------------------------");
-        formatAndPrintField("Tipo", documento.getString("tipo"));
-        formatAndPrintField("Placa", documento.getString("placa"));
-        formatAndPrintField("Marca", documento.getString("marca"));
-        formatAndPrintField("Modelo", documento.getString("modelo"));
-        formatAndPrintField("Ano de Fabricação", documento.getString("ano_de_fabricacao"));
-        formatAndPrintField("Preço", documento.get("preco"));
+    public Veiculo BuscaVeiculoEstoque(String placa){
+        return this.armazenamento.findVeiculoTipado(placa);
+    }
 
-        if ("Carro".equals(documento.getString("tipo"))) {
-            formatAndPrintField("Número de Portas", documento.get("numero_de_portas"));
-        } else if ("Motocicleta".equals(documento.getString("tipo"))) {
-            formatAndPrintField("Cilindradas", documento.get("cilindradas"));
-        }
-        System.out.println("---------------------------------");
+    /**
+     * Altera atributos de um veículo do estoque, desde que ele ainda esteja na versão lida por quem chama.
+     * @param placa O número de placa do veículo.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão lida ou `I_Armazenamento.QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da alteração; no conflito de versão, traz o veículo atual.
+     */
+    public ResultadoAtualizacao AtualizaVeiculoEstoque(String placa, AlteracaoVeiculo alteracao, long versaoEsperada){
+        return this.armazenamento.atualizarVeiculo(placa, alteracao, versaoEsperada);
     }
 
     /**
-     * Formata e imprime um campo (label) e seu valor.
-     * @param label O rótulo do campo.
-     * @param value O valor do campo.
+     * Registra a venda de um veículo do estoque. Um veículo já vendido não é vendido de novo.
+     * @param placa O número de placa do veículo.
+     * @param versaoEsperada A versão lida ou `I_Armazenamento.QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da venda.
      */
-    private void formatAndPrintField(String label, Object value) {
-        if (value != null) {
-            String formattedValue = formatValue(value);
-            System.out.println(label + ": " + formattedValue);
-        }
+    public ResultadoAtualizacao VendeVeiculo(String placa, long versaoEsperada){
+        return this.armazenamento.atualizarVeiculo(placa, AlteracaoVeiculo.venda(), versaoEsperada);
     }
 
     /**
-     * Formata o valor para exibição, incluindo a formatação de valores monetários.
-     * @param value O valor a ser formatado.
-     * @return O valor formatado como String.
+     * Remove um veículo do estoque, desde que ele ainda esteja na versão lida por quem chama.
+     * @param placa O número de placa do veículo.
+     * @param versaoEsperada A versão lida ou `I_Armazenamento.QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da remoção.
      */
-    private String formatValue(Object value) {
-        if (value instanceof Decimal128) {
-            BigDecimal decimalValue = ((Decimal128) value).bigDecimalValue();
-            DecimalFormat df = new DecimalFormat("#,##0.00");
-            return "R$" + df.format(decimalValue);
-        } else {
-            return String.valueOf(value);
+    public ResultadoAtualizacao RemoveVeiculoEstoque(String placa, long versaoEsperada){
+        return this.armazenamento.removerVeiculo(placa, versaoEsperada);
+    }
+
+    /**
+     * Adiciona um veículo ao estoque da concessionária sem bloquear quem chama.
+     * @param veiculo O veículo a ser adicionado.
+     * @return Um futuro com `true` se a adição for bem-sucedida, `false` em caso de erro.
+     */
+    public CompletableFuture<Boolean> AdicionaVeiculoEstoqueAsync(Veiculo veiculo){
+        return getArmazenamentoAssincrono().addVeiculoEstoque(veiculo);
+    }
+
+    /**
+     * Adiciona um lote de veículos ao estoque da concessionária sem bloquear quem chama.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return Um futuro com o resultado da inserção de cada veículo, na mesma ordem do lote.
+     */
+    public CompletableFuture<List<ResultadoInsercao>> AdicionaVeiculosEstoqueAsync(Collection<Veiculo> veiculos){
+        return getArmazenamentoAssincrono().addVeiculosEstoque(veiculos);
+    }
+
+    /**
+     * Encontra um veículo no estoque pelo número de placa sem bloquear quem chama e exibe suas informações
+     * quando a busca terminar.
+     * @param placa O número de placa do veículo a ser encontrado.
+     * @return Um futuro com o veículo encontrado ou `null` se não encontrado.
+     */
+    public CompletableFuture<Veiculo> EncontraVeiculoEstoqueAsync(String placa){
+        return getArmazenamentoAssincrono().findVeiculoTipado(placa).thenApply(veiculo -> {
+            if (veiculo == null){
+                System.out.println("Veículo com placa (" + placa+ ") não encontrado no estoque.");
+            }else {
+                this.PrintVeiculo(veiculo);
+            }
+            return veiculo;
+        });
+    }
+
+    /**
+     * Lista todos os veículos no estoque sem bloquear quem chama, imprimindo cada veículo assim que ele chega.
+     * @return Um futuro completado quando todos os veículos tiverem sido impressos.
+     */
+    public CompletableFuture<Void> ListarTodosVeiculosAsync() {
+        CompletableFuture<Void> concluido = new CompletableFuture<>();
+
+        getArmazenamentoAssincrono().publicarVeiculos().subscribe(new Flow.Subscriber<Veiculo>() {
+            private Flow.Subscription assinatura;
+
+            @Override
+            public void onSubscribe(Flow.Subscription assinatura) {
+                this.assinatura = assinatura;
+                assinatura.request(1);
+            }
+
+            @Override
+            public void onNext(Veiculo veiculo) {
+                PrintVeiculo(veiculo);
+                assinatura.request(1);
+            }
+
+            @Override
+            public void onError(Throwable erro) {
+                concluido.completeExceptionally(erro);
+            }
+
+            @Override
+            public void onComplete() {
+                concluido.complete(null);
+            }
+        });
+        return concluido;
+    }
+
+    /**
+     * Imprime as informações de um veículo formatado. O bloco é montado antes e impresso de uma só vez, para que
+     * veículos impressos por operações assíncronas não se intercalem.
+     * @param veiculo O veículo a ser impresso.
+     */
+    private void PrintVeiculo(Veiculo veiculo){
+        StringBuilder bloco = new StringBuilder(256);
+        try {
+            RelatorioVeiculos.escreverTexto(bloco, veiculo);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
         }
+        System.out.print(bloco);
     }
 
     /**
-     * Lista todos os veículos no estoque e imprime suas informações.
+     * Lista todos os veículos no estoque e imprime suas informações. Os veículos são lidos do armazenamento em
+     * streaming e escritos no console por um único buffer.
      */
     public void ListarTodosVeiculos() {
-        List<Document> documentos = this.armazenamento.getAllVeiculos();
-        
-        for (Document documento : documentos) {
-            this.PrintDocument(documento);
+        RelatorioVeiculos relatorio = new RelatorioVeiculos(System.out, Charset.defaultCharset(), FormatoRelatorio.TEXTO);
+        relatorio.escreverTodos(this.armazenamento.streamVeiculosTipados());
+        relatorio.flush();
+    }
+
+    /**
+     * Exporta todos os veículos do estoque para um fluxo (por exemplo, um arquivo), lendo-os do armazenamento em
+     * streaming. O fluxo é fechado ao final.
+     * @param saida O fluxo de destino.
+     * @param formato O formato da exportação (texto, CSV ou JSON por linha).
+     * @return O número de veículos exportados.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public long ExportarVeiculos(OutputStream saida, FormatoRelatorio formato) throws IOException {
+        try (RelatorioVeiculos relatorio = new RelatorioVeiculos(saida, formato)) {
+            return relatorio.escreverTodos(this.armazenamento.streamVeiculosTipados());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
+
+    /**
+     * Importa para o estoque os veículos de um arquivo CSV ou Excel (.xlsx), convertendo e validando as linhas em
+     * paralelo e gravando os veículos em lotes.
+     * @param arquivo O caminho do arquivo a ser importado.
+     * @param arquivoRejeitados O caminho do arquivo CSV onde as linhas rejeitadas são registradas, com o motivo.
+     * @return O resumo da importação.
+     * @throws IOException Se o arquivo não puder ser lido ou o arquivo de rejeitados não puder ser escrito.
+     */
+    public ResultadoImportacao ImportarVeiculos(String arquivo, String arquivoRejeitados) throws IOException {
+        return new ImportadorVeiculos(this.armazenamento).importar(arquivo, arquivoRejeitados);
+    }
+
+    /**
+     * Lista uma página de veículos do estoque, em ordem de placa, e imprime suas informações.
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return O token da próxima página ou `null` se esta for a última.
+     */
+    public String ListarVeiculosPaginado(int tamanhoPagina, String tokenRetomada) {
+        PaginaVeiculos pagina = this.armazenamento.listarPagina(tamanhoPagina, OrdenacaoPagina.PLACA, tokenRetomada);
+
+        for (Veiculo veiculo : pagina.veiculos) {
+            this.PrintVeiculo(veiculo);
+        }
+        return pagina.proximoToken;
+    }
+
+    /**
+     * Obtém uma página de veículos do estoque, sem exibi-los.
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página com os veículos e o token da próxima página.
+     */
+    public PaginaVeiculos ObtemPaginaVeiculos(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        return this.armazenamento.listarPagina(tamanhoPagina, ordenacao, tokenRetomada);
+    }
+
+    /**
+     * Consulta os veículos do estoque que atendem aos critérios informados.
+     * @param consulta Os critérios da consulta (filtros, ordenação, campos e limite).
+     * @return Uma lista de documentos com os campos pedidos dos veículos encontrados.
+     */
+    public List<Document> ConsultarVeiculos(ConsultaVeiculos consulta) {
+        return this.armazenamento.consultarVeiculos(consulta);
+    }
+
+    /**
+     * Calcula as estatísticas de preço do estoque (quantidade, total, média, mínimo e máximo) agrupadas por um campo.
+     * @param agrupamento O campo pelo qual os veículos são agrupados (tipo, marca, modelo ou ano).
+     * @param filtro Os critérios que os veículos devem atender ou `null` para todo o estoque.
+     * @return As estatísticas de cada grupo, em ordem crescente da chave.
+     */
+    public List<EstatisticaPrecos> AgregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        return this.armazenamento.agregarPrecos(agrupamento, filtro);
+    }
 }
@@ -0,0 +1,30 @@
+/**
+ * A classe `ConfiguracaoGravacaoAdiada` reúne os limites do modo de gravação adiada (write-behind) do
+ * `ArquivoArmazenamento`. Nesse modo as inserções são confirmadas assim que estão em memória e no diário
+ * (journal) do arquivo, e o workbook só é regravado quando um dos limites é atingido ou no encerramento.
+ */
+package com.example.concessionaria;
+
+public class ConfiguracaoGravacaoAdiada {
+    // Número de inserções pendentes no diário que dispara a regravação do workbook
+    public int limiteInsercoes = 1000;
+
+    // Intervalo máximo, em milissegundos, que uma inserção pode aguardar no diário antes da regravação do workbook
+    public long intervaloMaximoMs = 1000;
+
+    /**
+     * Construtor da classe `ConfiguracaoGravacaoAdiada` com os limites padrão.
+     */
+    public ConfiguracaoGravacaoAdiada() {
+    }
+
+    /**
+     * Construtor da classe `ConfiguracaoGravacaoAdiada`.
+     * @param limiteInsercoes O número de inserções pendentes que dispara a regravação do workbook.
+     * @param intervaloMaximoMs O intervalo máximo, em milissegundos, entre as regravações do workbook.
+     */
+    public ConfiguracaoGravacaoAdiada(int limiteInsercoes, long intervaloMaximoMs) {
+        this.limiteInsercoes = limiteInsercoes;
+        this.intervaloMaximoMs = intervaloMaximoMs;
+    }
+}
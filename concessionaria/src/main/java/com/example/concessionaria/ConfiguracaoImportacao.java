@@ -0,0 +1,39 @@
+/**
+ * A classe `ConfiguracaoImportacao` reúne os parâmetros do `ImportadorVeiculos`: o paralelismo da conversão e
+ * validação das linhas, o tamanho dos blocos trocados entre as etapas, a capacidade das filas entre elas (que limita
+ * a memória usada, qualquer que seja o tamanho do arquivo) e o tamanho dos lotes gravados no armazenamento.
+ */
+package com.example.concessionaria;
+
+public class ConfiguracaoImportacao {
+    // Número de threads que convertem e validam as linhas
+    public int threadsValidacao = Runtime.getRuntime().availableProcessors();
+
+    // Número de linhas lidas do arquivo em cada bloco entregue às threads de validação
+    public int linhasPorBloco = 500;
+
+    // Número máximo de blocos aguardando em cada fila entre as etapas
+    public int capacidadeFila = 16;
+
+    // Número de veículos em cada gravação no armazenamento
+    public int tamanhoLote = 1000;
+
+    // Intervalo, em milissegundos, entre os registros de progresso no log
+    public long intervaloProgressoMs = 5000;
+
+    /**
+     * Construtor da classe `ConfiguracaoImportacao` com os parâmetros padrão.
+     */
+    public ConfiguracaoImportacao() {
+    }
+
+    /**
+     * Construtor da classe `ConfiguracaoImportacao`.
+     * @param threadsValidacao O número de threads que convertem e validam as linhas.
+     * @param tamanhoLote O número de veículos em cada gravação no armazenamento.
+     */
+    public ConfiguracaoImportacao(int threadsValidacao, int tamanhoLote) {
+        this.threadsValidacao = threadsValidacao;
+        this.tamanhoLote = tamanhoLote;
+    }
+}
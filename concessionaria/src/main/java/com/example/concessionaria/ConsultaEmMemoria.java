@@ -0,0 +1,118 @@
+/**
+ * A classe `ConsultaEmMemoria` reúne a paginação e a consulta sobre um estoque mantido em memória, compartilhadas
+ * pelos armazenamentos que carregam os veículos do seu arquivo (`ArquivoArmazenamento`, `BinarioArmazenamento`).
+ */
+package com.example.concessionaria;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+
+final class ConsultaEmMemoria {
+    private ConsultaEmMemoria() {
+    }
+
+    /**
+     * Estoque em memória percorrido por posição (em ordem de inserção, com posições vazias deixadas por remoções)
+     * e por placa (em ordem alfabética).
+     */
+    interface Paginavel {
+        /**
+         * @return O número de posições usadas, inclusive as vazias.
+         */
+        int getPosicoes();
+
+        /**
+         * @param posicao A posição, de 0 a `getPosicoes() - 1`.
+         * @return O veículo na posição ou `null` se ela estiver vazia.
+         */
+        Veiculo naPosicao(int posicao);
+
+        /**
+         * @return As placas do estoque em ordem alfabética.
+         */
+        NavigableSet<String> getPlacasOrdenadas();
+
+        /**
+         * @param placa A placa do veículo.
+         * @return O veículo ou `null` se a placa não estiver no estoque.
+         */
+        Veiculo buscar(String placa);
+    }
+
+    /**
+     * Retorna uma página de veículos de um estoque com posições. Na ordem de inserção o token é a posição do próximo
+     * veículo, saltando as posições vazias; na ordem por placa, a última placa retornada.
+     * @param estoque O estoque a ser percorrido.
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     */
+    static PaginaVeiculos listarPagina(Paginavel estoque, int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo: " + tamanhoPagina);
+        }
+
+        List<Veiculo> veiculos = new ArrayList<>(tamanhoPagina);
+        String proximoToken = null;
+
+        if (ordenacao == OrdenacaoPagina.PLACA) {
+            NavigableSet<String> placas = estoque.getPlacasOrdenadas();
+            NavigableSet<String> restantes = tokenRetomada == null ? placas : placas.tailSet(tokenRetomada, false);
+            for (String placa : restantes) {
+                if (veiculos.size() == tamanhoPagina) {
+                    proximoToken = veiculos.get(veiculos.size() - 1).placa;
+                    break;
+                }
+                veiculos.add(estoque.buscar(placa));
+            }
+        } else {
+            int posicao = tokenRetomada == null ? 0 : Integer.parseInt(tokenRetomada);
+            if (posicao < 0) {
+                throw new IllegalArgumentException("Token de retomada inválido: " + tokenRetomada);
+            }
+            int fim = estoque.getPosicoes();
+            for (; posicao < fim && veiculos.size() < tamanhoPagina; posicao++) {
+                Veiculo veiculo = estoque.naPosicao(posicao);
+                if (veiculo != null) {
+                    veiculos.add(veiculo);
+                }
+            }
+            while (posicao < fim && estoque.naPosicao(posicao) == null) {
+                posicao++;
+            }
+            if (posicao < fim) {
+                proximoToken = String.valueOf(posicao);
+            }
+        }
+
+        return new PaginaVeiculos(veiculos, proximoToken);
+    }
+
+    /**
+     * Consulta os veículos avaliando os critérios (filtro, ordenação, limite e projeção) em memória.
+     * @param estoque Os veículos do estoque, percorridos uma única vez.
+     * @param consulta Os critérios da consulta.
+     * @param paraDocumento A conversão do veículo no documento do armazenamento, antes da projeção.
+     * @return Uma lista de documentos com os campos pedidos dos veículos encontrados.
+     */
+    static List<Document> consultar(Stream<Veiculo> estoque, ConsultaVeiculos consulta, Function<Veiculo, Document> paraDocumento) {
+        Stream<Veiculo> veiculos = estoque.filter(consulta::aceita);
+        if (consulta.comparador() != null) {
+            veiculos = veiculos.sorted(consulta.comparador());
+        }
+        if (consulta.limite > 0) {
+            veiculos = veiculos.limit(consulta.limite);
+        }
+
+        return veiculos
+                .map(veiculo -> consulta.projetar(paraDocumento.apply(veiculo)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * A classe `ConsultaVeiculos` descreve uma consulta filtrada ao estoque: critérios por tipo, marca, modelo,
+ * faixas de ano de fabricação e de preço, atributos específicos (cilindradas e número de portas) e situação de
+ * venda, além de
+ * ordenação, projeção de campos e limite de resultados. Os critérios não preenchidos (`null`) são ignorados.
+ * A consulta pode ser convertida em filtros do MongoDB ou avaliada em memória sobre veículos.
+ */
+package com.example.concessionaria;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Decimal128;
+
+public class ConsultaVeiculos {
+    // Critérios de igualdade
+    public String tipo;
+    public String marca;
+    public String modelo;
+    public Integer cilindradas;
+    public Integer numero_de_portas;
+
+    // `true` somente os vendidos, `false` somente os disponíveis
+    public Boolean vendido;
+
+    // Faixas (inclusivas); o ano é comparado como texto, no mesmo formato armazenado ("2020")
+    public String ano_minimo;
+    public String ano_maximo;
+    public BigDecimal preco_minimo;
+    public BigDecimal preco_maximo;
+
+    // Campo de ordenação (por exemplo, "preco") e direção
+    public String ordenarPor;
+    public boolean crescente = true;
+
+    // Campos a serem retornados; `null` retorna todos os campos
+    public List<String> campos;
+
+    // Número máximo de resultados; 0 para não limitar
+    public int limite;
+
+    /**
+     * Converte os critérios da consulta em um filtro do MongoDB.
+     * @return O filtro correspondente à consulta.
+     */
+    public Bson toFiltro() {
+        List<Bson> filtros = new ArrayList<>();
+
+        if (tipo != null) {
+            filtros.add(Filters.eq("tipo", tipo));
+        }
+        if (marca != null) {
+            filtros.add(Filters.eq("marca", marca));
+        }
+        if (modelo != null) {
+            filtros.add(Filters.eq("modelo", modelo));
+        }
+        if (ano_minimo != null) {
+            filtros.add(Filters.gte("ano_de_fabricacao", ano_minimo));
+        }
+        if (ano_maximo != null) {
+            filtros.add(Filters.lte("ano_de_fabricacao", ano_maximo));
+        }
+        if (preco_minimo != null) {
+            filtros.add(Filters.gte("preco", new Decimal128(preco_minimo)));
+        }
+        if (preco_maximo != null) {
+            filtros.add(Filters.lte("preco", new Decimal128(preco_maximo)));
+        }
+        if (cilindradas != null) {
+            filtros.add(Filters.eq("cilindradas", cilindradas));
+        }
+        if (numero_de_portas != null) {
+            filtros.add(Filters.eq("numero_de_portas", numero_de_portas));
+        }
+        if (vendido != null) {
+            // Documentos gravados antes do campo não foram vendidos
+            filtros.add(vendido ? Filters.eq("vendido", true) : Filters.ne("vendido", true));
+        }
+
+        return filtros.isEmpty() ? new Document() : Filters.and(filtros);
+    }
+
+    /**
+     * Converte a ordenação da consulta para o MongoDB.
+     * @return A ordenação ou `null` se a consulta não for ordenada.
+     */
+    public Bson toOrdenacao() {
+        if (ordenarPor == null) {
+            return null;
+        }
+        return crescente ? Sorts.ascending(ordenarPor) : Sorts.descending(ordenarPor);
+    }
+
+    /**
+     * Converte a lista de campos da consulta em uma projeção do MongoDB. O `_id` só é retornado se for pedido.
+     * @return A projeção ou `null` se todos os campos forem retornados.
+     */
+    public Bson toProjecao() {
+        if (campos == null) {
+            return null;
+        }
+        if (campos.contains("_id")) {
+            return Projections.include(campos);
+        }
+        return Projections.fields(Projections.include(campos), Projections.excludeId());
+    }
+
+    /**
+     * Avalia a consulta em memória sobre um veículo.
+     * @param veiculo O veículo a ser avaliado.
+     * @return `true` se o veículo atender a todos os critérios.
+     */
+    public boolean aceita(Veiculo veiculo) {
+        if (tipo != null && !tipo.equals(veiculo.getTipo())) {
+            return false;
+        }
+        if (marca != null && !marca.equals(veiculo.marca)) {
+            return false;
+        }
+        if (modelo != null && !modelo.equals(veiculo.modelo)) {
+            return false;
+        }
+        if (ano_minimo != null && (veiculo.ano_de_fabricacao == null || veiculo.ano_de_fabricacao.compareTo(ano_minimo) < 0)) {
+            return false;
+        }
+        if (ano_maximo != null && (veiculo.ano_de_fabricacao == null || veiculo.ano_de_fabricacao.compareTo(ano_maximo) > 0)) {
+            return false;
+        }
+        if (preco_minimo != null && (veiculo.preco == null || veiculo.preco.compareTo(preco_minimo) < 0)) {
+            return false;
+        }
+        if (preco_maximo != null && (veiculo.preco == null || veiculo.preco.compareTo(preco_maximo) > 0)) {
+            return false;
+        }
+
+        if (cilindradas != null
+                && !(veiculo instanceof Motocicleta && cilindradas.equals(((Motocicleta) veiculo).cilindradas))) {
+            return false;
+        }
+        if (numero_de_portas != null
+                && !(veiculo instanceof Carro && numero_de_portas.equals(((Carro) veiculo).numero_de_portas))) {
+            return false;
+        }
+        if (vendido != null && vendido != veiculo.vendido) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Obtém o comparador equivalente à ordenação da consulta, para avaliação em memória.
+     * Veículos sem o campo de ordenação ficam no final.
+     * @return O comparador ou `null` se a consulta não for ordenada.
+     */
+    public Comparator<Veiculo> comparador() {
+        if (ordenarPor == null) {
+            return null;
+        }
+
+        Comparator<Veiculo> comparador;
+        switch (ordenarPor) {
+            case "tipo":
+                comparador = Comparator.comparing(Veiculo::getTipo);
+                break;
+            case "placa":
+                comparador = comparando(veiculo -> veiculo.placa);
+                break;
+            case "marca":
+                comparador = comparando(veiculo -> veiculo.marca);
+                break;
+            case "modelo":
+                comparador = comparando(veiculo -> veiculo.modelo);
+                break;
+            case "ano_de_fabricacao":
+                comparador = comparando(veiculo -> veiculo.ano_de_fabricacao);
+                break;
+            case "preco":
+                comparador = comparando(veiculo -> veiculo.preco);
+                break;
+            case "numero_de_portas":
+                comparador = comparando(veiculo -> veiculo instanceof Carro ? ((Carro) veiculo).numero_de_portas : null);
+                break;
+            case "cilindradas":
+                comparador = comparando(veiculo -> veiculo instanceof Motocicleta ? ((Motocicleta) veiculo).cilindradas : null);
+                break;
+            default:
+                throw new IllegalArgumentException("Campo de ordenação desconhecido: " + ordenarPor);
+        }
+        return crescente ? comparador : comparador.reversed();
+    }
+
+    /**
+     * Aplica a projeção da consulta a um documento, mantendo apenas os campos pedidos.
+     * @param documento O documento completo.
+     * @return O documento projetado (o próprio documento se todos os campos forem retornados).
+     */
+    public Document projetar(Document documento) {
+        if (campos == null) {
+            return documento;
+        }
+
+        Document projetado = new Document();
+        for (String campo : campos) {
+            if (documento.containsKey(campo)) {
+                projetado.append(campo, documento.get(campo));
+            }
+        }
+        return projetado;
+    }
+
+    private static <U extends Comparable<? super U>> Comparator<Veiculo> comparando(Function<Veiculo, U> campo) {
+        return Comparator.comparing(campo, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * A classe `EstatisticaPrecos` representa as estatísticas de preço de um grupo de veículos do estoque: a quantidade
+ * de veículos e o total, a média, o mínimo e o máximo dos preços. Veículos sem preço entram na quantidade, mas não
+ * nas estatísticas de preço.
+ */
+package com.example.concessionaria;
+
+import java.math.BigDecimal;
+
+public class EstatisticaPrecos {
+    // Valor do campo agrupado (por exemplo, a marca) ou `null` para veículos sem o campo
+    public final String chave;
+    public final long quantidade;
+    // Estatísticas dos preços; `null` se nenhum veículo do grupo tiver preço
+    public final BigDecimal total;
+    public final BigDecimal media;
+    public final BigDecimal minimo;
+    public final BigDecimal maximo;
+
+    /**
+     * Construtor da classe `EstatisticaPrecos`.
+     * @param chave O valor do campo agrupado.
+     * @param quantidade A quantidade de veículos do grupo.
+     * @param total A soma exata dos preços.
+     * @param media A média dos preços.
+     * @param minimo O menor preço.
+     * @param maximo O maior preço.
+     */
+    public EstatisticaPrecos(String chave, long quantidade, BigDecimal total, BigDecimal media, BigDecimal minimo, BigDecimal maximo) {
+        this.chave = chave;
+        this.quantidade = quantidade;
+        this.total = total;
+        this.media = media;
+        this.minimo = minimo;
+        this.maximo = maximo;
+    }
+
+    @Override
+    public String toString() {
+        return chave + ": " + quantidade + " veículos, total " + total + ", média " + media
+                + ", mínimo " + minimo + ", máximo " + maximo;
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * A classe `EstoqueEmMemoria` mantém um estoque de veículos somente em memória: os veículos em ordem de inserção,
+ * o índice de placas (com a posição de cada veículo, em uma `ListaEstoque`) e, sob demanda, as placas em ordem
+ * alfabética. As leituras são concorrentes e as alterações,
+ * exclusivas. É a camada de leitura do `ArmazenamentoEmCamadas`.
+ */
+package com.example.concessionaria;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.bson.Document;
+
+final class EstoqueEmMemoria {
+    private final ListaEstoque estoque = new ListaEstoque();
+
+    // Placas removidas desde a última inserção, que uma gravação atrasada não deve trazer de volta
+    private final Set<String> removidas = new HashSet<>();
+
+    private final ReentrantReadWriteLock bloqueio = new ReentrantReadWriteLock();
+
+    /**
+     * Adiciona um veículo, se a placa ainda não estiver no estoque. A inserção desfaz o registro de remoção da placa.
+     * @param veiculo O veículo a ser adicionado.
+     * @return `true` se o veículo foi adicionado, `false` se a placa já existir.
+     */
+    boolean adicionar(Veiculo veiculo) {
+        bloqueio.writeLock().lock();
+        try {
+            if (!estoque.adicionar(veiculo)) {
+                return false;
+            }
+            removidas.remove(veiculo.placa);
+            return true;
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Grava um veículo confirmado pelo primário (inserido, alterado ou lido dele), que pode chegar fora de ordem em
+     * relação às demais gravações da placa. Se a placa estiver no estoque, o veículo só substitui o atual se tiver
+     * uma versão maior; se não estiver, o veículo é adicionado, a menos que a placa tenha sido removida depois do
+     * início da última inserção.
+     * @param veiculo O veículo confirmado.
+     * @return `false` se o veículo foi descartado por uma remoção posterior da placa.
+     */
+    boolean gravarConfirmado(Veiculo veiculo) {
+        bloqueio.writeLock().lock();
+        try {
+            Veiculo atual = estoque.buscar(veiculo.placa);
+            if (atual == null) {
+                return !removidas.contains(veiculo.placa) && estoque.adicionar(veiculo);
+            }
+            if (atual.versao < veiculo.versao) {
+                estoque.substituir(veiculo);
+            }
+            return true;
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marca o início de uma inserção da placa no primário: uma remoção anterior deixa de bloquear o veículo novo.
+     * @param placa A placa a ser inserida.
+     */
+    void iniciarInsercao(String placa) {
+        bloqueio.writeLock().lock();
+        try {
+            removidas.remove(placa);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove o veículo da placa, removido no primário, e registra a remoção: uma gravação do veículo que ainda
+     * estiver a caminho da memória não o traz de volta.
+     * @param placa A placa do veículo.
+     */
+    void registrarRemocao(String placa) {
+        bloqueio.writeLock().lock();
+        try {
+            estoque.remover(placa);
+            removidas.add(placa);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove o veículo com a placa informada.
+     * @param placa A placa do veículo.
+     * @return `true` se o veículo existia.
+     */
+    boolean remover(String placa) {
+        bloqueio.writeLock().lock();
+        try {
+            return estoque.remover(placa) != null;
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica uma alteração ao veículo da placa, se ele estiver na versão esperada. O veículo alterado é uma cópia,
+     * que substitui o anterior na mesma posição.
+     * @param placa A placa do veículo.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão esperada ou `I_Armazenamento.QUALQUER_VERSAO`.
+     * @return O resultado da alteração.
+     */
+    ResultadoAtualizacao atualizar(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        bloqueio.writeLock().lock();
+        try {
+            Veiculo anterior = estoque.buscar(placa);
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, anterior, versaoEsperada);
+            if (rejeicao != null) {
+                return rejeicao;
+            }
+            String erro = alteracao.verificar(anterior);
+            if (erro != null) {
+                return ResultadoAtualizacao.erro(placa, erro);
+            }
+
+            Veiculo novo = alteracao.aplicar(anterior);
+            estoque.substituir(novo);
+            return ResultadoAtualizacao.atualizado(novo);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove o veículo da placa, se ele estiver na versão esperada.
+     * @param placa A placa do veículo.
+     * @param versaoEsperada A versão esperada ou `I_Armazenamento.QUALQUER_VERSAO`.
+     * @return O resultado da remoção.
+     */
+    ResultadoAtualizacao remover(String placa, long versaoEsperada) {
+        bloqueio.writeLock().lock();
+        try {
+            Veiculo anterior = estoque.buscar(placa);
+            ResultadoAtualizacao rejeicao = ResultadoAtualizacao.conferirVersao(placa, anterior, versaoEsperada);
+            if (rejeicao != null) {
+                return rejeicao;
+            }
+            estoque.remover(placa);
+            return ResultadoAtualizacao.removido(anterior);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove todos os veículos.
+     */
+    void limpar() {
+        bloqueio.writeLock().lock();
+        try {
+            estoque.limpar();
+            removidas.clear();
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    Veiculo buscar(String placa) {
+        bloqueio.readLock().lock();
+        try {
+            return estoque.buscar(placa);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    boolean contem(String placa) {
+        return buscar(placa) != null;
+    }
+
+    int getQuantidade() {
+        bloqueio.readLock().lock();
+        try {
+            return estoque.getQuantidade();
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém uma cópia dos veículos, em ordem de inserção.
+     * @return Os veículos do estoque.
+     */
+    List<Veiculo> listar() {
+        bloqueio.readLock().lock();
+        try {
+            return estoque.listar();
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (ordenacao == OrdenacaoPagina.PLACA) {
+            // A construção do índice ordenado altera o estado, então é feita com o bloqueio exclusivo
+            bloqueio.writeLock().lock();
+            try {
+                estoque.getPlacasOrdenadas();
+            } finally {
+                bloqueio.writeLock().unlock();
+            }
+        }
+
+        bloqueio.readLock().lock();
+        try {
+            return ConsultaEmMemoria.listarPagina(estoque, tamanhoPagina, ordenacao, tokenRetomada);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    List<Document> consultar(ConsultaVeiculos consulta) {
+        bloqueio.readLock().lock();
+        try {
+            return ConsultaEmMemoria.consultar(estoque.stream(), consulta, Veiculo::toDocument);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    List<EstatisticaPrecos> agregar(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        bloqueio.readLock().lock();
+        try {
+            return AgregadorEstoque.agregar(estoque.stream(), agrupamento, filtro);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/**
+ * A classe `EstoqueImutavel` é o conteúdo de um retrato imutável do estoque: os veículos em ordem de inserção e o
+ * índice de placas, com a posição de cada veículo. Um novo retrato é criado por uma `Edicao`, que copia somente os
+ * blocos de posições e as fatias do índice que altera e compartilha os demais com o retrato anterior; assim, gravar
+ * poucos veículos custa proporcionalmente ao número de blocos, e não ao de veículos. As placas em ordem alfabética
+ * e a lista completa são construídas sob demanda, na primeira leitura que precisar delas.
+ *
+ * Uma remoção deixa vazia a posição do veículo. As posições vazias são eliminadas quando passam a ser maioria, o que
+ * renumera as posições seguintes (e invalida os tokens de paginação por inserção emitidos antes).
+ */
+package com.example.concessionaria;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+final class EstoqueImutavel implements ConsultaEmMemoria.Paginavel {
+    // Posições por bloco; um bloco alterado é copiado inteiro
+    private static final int BITS_BLOCO = 10;
+    private static final int TAMANHO_BLOCO = 1 << BITS_BLOCO;
+
+    // Fatias do índice de placas; uma fatia alterada é copiada inteira
+    private static final int BITS_FATIAS = 10;
+    private static final int FATIAS = 1 << BITS_FATIAS;
+
+    // Número mínimo de posições vazias para compactar as posições
+    private static final int MINIMO_VAZIAS_COMPACTACAO = 1024;
+
+    static final EstoqueImutavel VAZIO = new EstoqueImutavel(new Veiculo[0][], novasFatias(), 0, 0, Collections.emptyNavigableSet());
+
+    private final Veiculo[][] blocos;
+    private final HashMap<String, Integer>[] fatias;
+    // Posições usadas, inclusive as vazias, e veículos no estoque
+    private final int posicoes;
+    private final int quantidade;
+
+    // Construídas sob demanda; as placas ordenadas são herdadas por retratos que não incluem nem removem placas
+    private volatile NavigableSet<String> placasOrdenadas;
+    private volatile List<Veiculo> lista;
+
+    private EstoqueImutavel(Veiculo[][] blocos, HashMap<String, Integer>[] fatias, int posicoes, int quantidade,
+                            NavigableSet<String> placasOrdenadas) {
+        this.blocos = blocos;
+        this.fatias = fatias;
+        this.posicoes = posicoes;
+        this.quantidade = quantidade;
+        this.placasOrdenadas = placasOrdenadas;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HashMap<String, Integer>[] novasFatias() {
+        return (HashMap<String, Integer>[]) new HashMap<?, ?>[FATIAS];
+    }
+
+    private static int fatia(String placa) {
+        // Espalhamento de Fibonacci: usa os bits altos, bem distribuídos mesmo para placas parecidas
+        return (placa.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - BITS_FATIAS);
+    }
+
+    /**
+     * Encontra o veículo da placa.
+     * @param placa A placa do veículo.
+     * @return O veículo ou `null` se a placa não estiver no estoque.
+     */
+    @Override
+    public Veiculo buscar(String placa) {
+        Map<String, Integer> indice = fatias[fatia(placa)];
+        Integer posicao = indice == null ? null : indice.get(placa);
+        return posicao == null ? null : naPosicao(posicao);
+    }
+
+    @Override
+    public Veiculo naPosicao(int posicao) {
+        return blocos[posicao >>> BITS_BLOCO][posicao & (TAMANHO_BLOCO - 1)];
+    }
+
+    @Override
+    public int getPosicoes() {
+        return posicoes;
+    }
+
+    int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Percorre os veículos em ordem de inserção. O stream divide-se bem para execução paralela.
+     * @return Um stream com os veículos do estoque.
+     */
+    Stream<Veiculo> stream() {
+        return IntStream.range(0, posicoes).mapToObj(this::naPosicao).filter(Objects::nonNull);
+    }
+
+    /**
+     * Obtém a lista não modificável dos veículos em ordem de inserção. Sem posições vazias, a lista é uma vista
+     * dos blocos; caso contrário, é copiada na primeira chamada.
+     * @return Os veículos do estoque.
+     */
+    List<Veiculo> listar() {
+        List<Veiculo> atual = lista;
+        if (atual == null) {
+            atual = posicoes == quantidade ? new Vista() : Collections.unmodifiableList(stream().collect(Collectors.toList()));
+            lista = atual;
+        }
+        return atual;
+    }
+
+    /**
+     * Obtém as placas em ordem alfabética, construídas na primeira chamada.
+     * @return As placas do estoque, não modificáveis.
+     */
+    @Override
+    public NavigableSet<String> getPlacasOrdenadas() {
+        NavigableSet<String> atual = placasOrdenadas;
+        if (atual == null) {
+            TreeSet<String> placas = new TreeSet<>();
+            for (Map<String, Integer> indice : fatias) {
+                if (indice != null) {
+                    placas.addAll(indice.keySet());
+                }
+            }
+            atual = Collections.unmodifiableNavigableSet(placas);
+            placasOrdenadas = atual;
+        }
+        return atual;
+    }
+
+    /**
+     * Inicia a edição de um novo retrato a partir deste, que não é alterado.
+     * @return A edição.
+     */
+    Edicao editar() {
+        return new Edicao(this);
+    }
+
+    /**
+     * Vista da lista de veículos quando não há posições vazias: a posição é o próprio índice na lista.
+     */
+    private final class Vista extends AbstractList<Veiculo> implements RandomAccess {
+        @Override
+        public Veiculo get(int indice) {
+            Objects.checkIndex(indice, quantidade);
+            return naPosicao(indice);
+        }
+
+        @Override
+        public int size() {
+            return quantidade;
+        }
+    }
+
+    /**
+     * Edição de um retrato, usada por uma única thread. Os blocos e as fatias são copiados na primeira alteração
+     * de cada um e, depois disso, alterados no lugar até a conclusão.
+     */
+    static final class Edicao {
+        private final EstoqueImutavel origem;
+        private Veiculo[][] blocos;
+        private final HashMap<String, Integer>[] fatias;
+        private boolean[] blocosProprios;
+        private final boolean[] fatiasProprias = new boolean[FATIAS];
+        private int posicoes;
+        private int quantidade;
+        private boolean placasAlteradas;
+        private boolean concluida;
+
+        private Edicao(EstoqueImutavel origem) {
+            this.origem = origem;
+            this.blocos = origem.blocos.clone();
+            this.fatias = origem.fatias.clone();
+            this.blocosProprios = new boolean[blocos.length];
+            this.posicoes = origem.posicoes;
+            this.quantidade = origem.quantidade;
+        }
+
+        Veiculo buscar(String placa) {
+            Map<String, Integer> indice = fatias[fatia(placa)];
+            Integer posicao = indice == null ? null : indice.get(placa);
+            return posicao == null ? null : blocos[posicao >>> BITS_BLOCO][posicao & (TAMANHO_BLOCO - 1)];
+        }
+
+        int getQuantidade() {
+            return quantidade;
+        }
+
+        /**
+         * Acrescenta o veículo ao final, se a placa ainda não estiver no estoque.
+         * @param veiculo O veículo a ser acrescentado.
+         * @return `true` se o veículo foi acrescentado, `false` se a placa já existir.
+         */
+        boolean adicionar(Veiculo veiculo) {
+            verificarAberta();
+            Map<String, Integer> indice = fatiaPropria(veiculo.placa);
+            if (indice.containsKey(veiculo.placa)) {
+                return false;
+            }
+            indice.put(veiculo.placa, posicoes);
+            gravar(posicoes++, veiculo);
+            quantidade++;
+            placasAlteradas = true;
+            return true;
+        }
+
+        /**
+         * Substitui o veículo de mesma placa, na mesma posição, ou o acrescenta ao final se a placa não existir.
+         * @param veiculo O veículo a ser gravado.
+         * @return O veículo substituído ou `null` se a placa não existia.
+         */
+        Veiculo substituir(Veiculo veiculo) {
+            verificarAberta();
+            Map<String, Integer> indice = fatias[fatia(veiculo.placa)];
+            Integer posicao = indice == null ? null : indice.get(veiculo.placa);
+            if (posicao == null) {
+                adicionar(veiculo);
+                return null;
+            }
+            Veiculo anterior = blocos[posicao >>> BITS_BLOCO][posicao & (TAMANHO_BLOCO - 1)];
+            gravar(posicao, veiculo);
+            return anterior;
+        }
+
+        /**
+         * Remove o veículo da placa, deixando a sua posição vazia.
+         * @param placa A placa do veículo.
+         * @return O veículo removido ou `null` se a placa não existia.
+         */
+        Veiculo remover(String placa) {
+            verificarAberta();
+            Map<String, Integer> existente = fatias[fatia(placa)];
+            if (existente == null || !existente.containsKey(placa)) {
+                return null;
+            }
+            int posicao = fatiaPropria(placa).remove(placa);
+            Veiculo anterior = blocos[posicao >>> BITS_BLOCO][posicao & (TAMANHO_BLOCO - 1)];
+            gravar(posicao, null);
+            quantidade--;
+            placasAlteradas = true;
+            return anterior;
+        }
+
+        /**
+         * Conclui a edição, compactando as posições se as vazias forem maioria. A edição não pode mais ser usada.
+         * @return O novo retrato.
+         */
+        EstoqueImutavel concluir() {
+            verificarAberta();
+            concluida = true;
+            NavigableSet<String> placas = placasAlteradas ? null : origem.placasOrdenadas;
+            int vazias = posicoes - quantidade;
+            if (vazias >= MINIMO_VAZIAS_COMPACTACAO && vazias > quantidade) {
+                Edicao compacta = VAZIO.editar();
+                for (int posicao = 0; posicao < posicoes; posicao++) {
+                    Veiculo veiculo = blocos[posicao >>> BITS_BLOCO][posicao & (TAMANHO_BLOCO - 1)];
+                    if (veiculo != null) {
+                        compacta.adicionar(veiculo);
+                    }
+                }
+                compacta.concluida = true;
+                return new EstoqueImutavel(compacta.blocos, compacta.fatias, compacta.posicoes, compacta.quantidade, placas);
+            }
+            return new EstoqueImutavel(blocos, fatias, posicoes, quantidade, placas);
+        }
+
+        private void verificarAberta() {
+            if (concluida) {
+                throw new IllegalStateException("Edição já concluída");
+            }
+        }
+
+        private Map<String, Integer> fatiaPropria(String placa) {
+            int numero = fatia(placa);
+            if (!fatiasProprias[numero]) {
+                fatias[numero] = fatias[numero] == null ? new HashMap<>() : new HashMap<>(fatias[numero]);
+                fatiasProprias[numero] = true;
+            }
+            return fatias[numero];
+        }
+
+        private void gravar(int posicao, Veiculo veiculo) {
+            int numero = posicao >>> BITS_BLOCO;
+            if (numero == blocos.length) {
+                blocos = Arrays.copyOf(blocos, Math.max(4, blocos.length * 2));
+                blocosProprios = Arrays.copyOf(blocosProprios, blocos.length);
+            }
+            if (!blocosProprios[numero]) {
+                blocos[numero] = blocos[numero] == null ? new Veiculo[TAMANHO_BLOCO] : blocos[numero].clone();
+                blocosProprios[numero] = true;
+            }
+            blocos[numero][posicao & (TAMANHO_BLOCO - 1)] = veiculo;
+        }
+    }
+}
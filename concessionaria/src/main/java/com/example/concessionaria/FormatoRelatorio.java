@@ -0,0 +1,13 @@
+/**
+ * A enumeração `FormatoRelatorio` define os formatos de saída do `RelatorioVeiculos`.
+ */
+package com.example.concessionaria;
+
+public enum FormatoRelatorio {
+    // Um bloco por veículo, no mesmo formato exibido pela concessionária ("Placa: ABC1234")
+    TEXTO,
+    // Uma linha por veículo, com cabeçalho e valores separados por vírgula
+    CSV,
+    // Um objeto JSON por linha
+    JSON_LINHAS
+}
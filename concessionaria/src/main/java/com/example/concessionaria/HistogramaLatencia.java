@@ -0,0 +1,125 @@
+/**
+ * A classe `HistogramaLatencia` registra durações em um histograma log-linear de tamanho fixo: cada potência de 2
+ * é dividida em 8 faixas, o que limita o erro dos percentis a 12,5% com menos de 500 contadores, sem alocação nem
+ * bloqueio por registro. Permite obter quantidade, média, máximo e percentis (p50, p99) a qualquer momento.
+ */
+package com.example.concessionaria;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HistogramaLatencia implements I_RegistroMetricas.Temporizador {
+    // Faixas por potência de 2 (2^3 = 8)
+    private static final int BITS_SUBFAIXA = 3;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+
+    // Valores menores que SUBFAIXAS têm faixa própria; cada potência de 2 acima deles tem SUBFAIXAS faixas
+    private static final int FAIXAS = SUBFAIXAS + (63 - BITS_SUBFAIXA) * SUBFAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder quantidade = new LongAdder();
+    private final LongAdder somaNanos = new LongAdder();
+    private final AtomicLong maximoNanos = new AtomicLong();
+
+    /**
+     * Registra a duração de uma operação.
+     * @param nanos A duração em nanossegundos.
+     */
+    @Override
+    public void registrar(long nanos) {
+        long valor = Math.max(nanos, 0);
+        contagens.incrementAndGet(faixa(valor));
+        quantidade.increment();
+        somaNanos.add(valor);
+
+        long maximo = maximoNanos.get();
+        while (valor > maximo && !maximoNanos.compareAndSet(maximo, valor)) {
+            maximo = maximoNanos.get();
+        }
+    }
+
+    /**
+     * Obtém o número de durações registradas.
+     * @return A quantidade de registros.
+     */
+    public long getQuantidade() {
+        return quantidade.sum();
+    }
+
+    /**
+     * Obtém a duração média.
+     * @return A média em milissegundos ou 0 se não houver registros.
+     */
+    public double getMediaMs() {
+        long total = quantidade.sum();
+        return total == 0 ? 0 : somaNanos.sum() / (double) total / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Obtém a maior duração registrada.
+     * @return O máximo em milissegundos.
+     */
+    public double getMaximoMs() {
+        return maximoNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Obtém um percentil das durações registradas, pelo limite superior da faixa em que ele cai.
+     * @param percentil O percentil, entre 0 e 100 (por exemplo, 50 ou 99).
+     * @return O percentil em milissegundos ou 0 se não houver registros.
+     */
+    public double getPercentilMs(double percentil) {
+        if (percentil < 0 || percentil > 100) {
+            throw new IllegalArgumentException("O percentil deve estar entre 0 e 100: " + percentil);
+        }
+
+        // Os contadores são lidos um a um; o total é o da própria leitura, para ser coerente com ela
+        long[] retrato = new long[FAIXAS];
+        long total = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            retrato[i] = contagens.get(i);
+            total += retrato[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long posicao = Math.max(1, (long) Math.ceil(percentil / 100 * total));
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += retrato[i];
+            if (acumulado >= posicao) {
+                long limite = Math.min(limiteSuperior(i), maximoNanos.get());
+                return limite / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            }
+        }
+        return getMaximoMs();
+    }
+
+    private static int faixa(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int subfaixa = (int) (valor >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1);
+        return SUBFAIXAS + (expoente - BITS_SUBFAIXA) * SUBFAIXAS + subfaixa;
+    }
+
+    private static long limiteSuperior(int faixa) {
+        if (faixa < SUBFAIXAS) {
+            return faixa;
+        }
+        int deslocamento = (faixa - SUBFAIXAS) / SUBFAIXAS;
+        int subfaixa = (faixa - SUBFAIXAS) % SUBFAIXAS;
+        long inicio = (long) (SUBFAIXAS + subfaixa) << deslocamento;
+        return inicio + (1L << deslocamento) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("quantidade=%d, p50=%.3f ms, p99=%.3f ms, máximo=%.3f ms",
+                getQuantidade(), getPercentilMs(50), getPercentilMs(99), getMaximoMs());
+    }
+}
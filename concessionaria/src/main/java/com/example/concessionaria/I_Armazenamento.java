@@ -5,10 +5,17 @@
  */
 package com.example.concessionaria;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import org.bson.Document;
 
 public interface I_Armazenamento {
+    /**
+     * Versão esperada que dispensa a conferência de versão em `atualizarVeiculo` e `removerVeiculo`.
+     */
+    long QUALQUER_VERSAO = -1;
+
     /**
      * Adiciona um veículo ao estoque.
      *
@@ -17,6 +24,15 @@ public interface I_Armazenamento {
      */
     boolean addVeiculoEstoque(Veiculo veiculo);
 
+    /**
+     * Adiciona um lote de veículos ao estoque. A falha de um veículo (por exemplo, placa duplicada)
+     * não interrompe a inserção dos demais.
+     *
+     * @param veiculos Os veículos a serem adicionados ao estoque.
+     * @return O resultado da inserção de cada veículo, na mesma ordem do lote.
+     */
+    List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos);
+
     /**
      * Encontra um veículo no estoque com base no modelo.
      *
@@ -31,4 +47,83 @@ public interface I_Armazenamento {
      * @return Uma lista de documentos MongoDB representando os veículos no estoque.
      */
     List<Document> getAllVeiculos();
+
+    /**
+     * Percorre os veículos do estoque sob demanda, sem materializar todos em memória. A leitura pode ser
+     * interrompida a qualquer momento (por exemplo, com `findFirst`), e o stream deve ser fechado após o uso
+     * para liberar os recursos de leitura (cursor ou arquivo).
+     *
+     * @return Um stream de documentos MongoDB representando os veículos no estoque.
+     */
+    Stream<Document> streamVeiculos();
+
+    /**
+     * Encontra um veículo no estoque com base na placa, retornando-o já tipado (`Carro` ou `Motocicleta`).
+     *
+     * @param placa A placa do veículo a ser encontrado.
+     * @return O veículo encontrado ou `null` se não encontrado.
+     */
+    Veiculo findVeiculoTipado(String placa);
+
+    /**
+     * Retorna uma lista de todos os veículos no estoque, já tipados.
+     *
+     * @return Uma lista com os veículos no estoque.
+     */
+    List<Veiculo> getAllVeiculosTipados();
+
+    /**
+     * Percorre os veículos do estoque sob demanda, já tipados. O stream deve ser fechado após o uso.
+     *
+     * @return Um stream com os veículos no estoque.
+     */
+    Stream<Veiculo> streamVeiculosTipados();
+
+    /**
+     * Retorna uma página de veículos do estoque, sem materializar o estoque inteiro.
+     *
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação da listagem.
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     */
+    PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada);
+
+    /**
+     * Consulta os veículos do estoque que atendem aos critérios informados, com ordenação, projeção e limite.
+     *
+     * @param consulta Os critérios da consulta.
+     * @return Uma lista de documentos com os campos pedidos dos veículos encontrados.
+     */
+    List<Document> consultarVeiculos(ConsultaVeiculos consulta);
+
+    /**
+     * Calcula a quantidade de veículos e o total, a média, o mínimo e o máximo dos preços, agrupados por um campo.
+     * Somente os critérios de filtro da consulta são considerados (ordenação, projeção e limite são ignorados).
+     *
+     * @param agrupamento O campo pelo qual os veículos são agrupados.
+     * @param filtro Os critérios que os veículos devem atender ou `null` para todo o estoque.
+     * @return As estatísticas de cada grupo, em ordem crescente da chave.
+     */
+    List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro);
+
+    /**
+     * Altera os atributos preenchidos de um veículo (por exemplo, o preço ou a venda), desde que ele ainda esteja na
+     * versão esperada; a versão é incrementada. Somente o veículo alterado é regravado, sem reescrever o estoque.
+     *
+     * @param placa A placa do veículo a ser alterado.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado, com o veículo alterado ou, no conflito de versão, o veículo atual.
+     */
+    ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada);
+
+    /**
+     * Remove um veículo do estoque, desde que ele ainda esteja na versão esperada.
+     *
+     * @param placa A placa do veículo a ser removido.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado, com o veículo removido ou, no conflito de versão, o veículo atual.
+     */
+    ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada);
 }
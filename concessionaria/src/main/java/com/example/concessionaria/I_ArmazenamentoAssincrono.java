@@ -0,0 +1,45 @@
+/**
+ * A interface `I_ArmazenamentoAssincrono` define a variante assíncrona das operações de armazenamento de veículos.
+ * Os métodos não bloqueiam quem os chama: retornam um `CompletableFuture` com o resultado ou, nas listagens,
+ * um `Flow.Publisher` que entrega os veículos sob demanda, respeitando a contrapressão do assinante.
+ */
+package com.example.concessionaria;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+public interface I_ArmazenamentoAssincrono {
+    /**
+     * Adiciona um veículo ao estoque.
+     *
+     * @param veiculo O veículo a ser adicionado ao estoque.
+     * @return Um futuro com `true` se a adição for bem-sucedida ou `false` em caso de erro.
+     */
+    CompletableFuture<Boolean> addVeiculoEstoque(Veiculo veiculo);
+
+    /**
+     * Adiciona um lote de veículos ao estoque.
+     *
+     * @param veiculos Os veículos a serem adicionados ao estoque.
+     * @return Um futuro com o resultado da inserção de cada veículo, na mesma ordem do lote.
+     */
+    CompletableFuture<List<ResultadoInsercao>> addVeiculosEstoque(Collection<Veiculo> veiculos);
+
+    /**
+     * Encontra um veículo no estoque com base na placa.
+     *
+     * @param placa A placa do veículo a ser encontrado.
+     * @return Um futuro com o veículo encontrado ou `null` se não encontrado.
+     */
+    CompletableFuture<Veiculo> findVeiculoTipado(String placa);
+
+    /**
+     * Publica todos os veículos do estoque. A leitura só começa quando houver um assinante e avança conforme
+     * a demanda solicitada por ele.
+     *
+     * @return Um publicador com os veículos do estoque.
+     */
+    Flow.Publisher<Veiculo> publicarVeiculos();
+}
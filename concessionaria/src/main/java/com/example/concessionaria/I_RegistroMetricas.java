@@ -0,0 +1,47 @@
+/**
+ * A interface `I_RegistroMetricas` define o registro onde a concessionária e os armazenamentos publicam as suas
+ * métricas: contadores (inserções, placas duplicadas, acertos e falhas de busca, bytes gravados, linhas lidas,
+ * comandos enviados ao MongoDB) e tempos de operação. A implementação padrão é `RegistroMetricasPadrao`; outra
+ * implementação (por exemplo, um adaptador para o sistema de monitoramento do ambiente) pode ser instalada com
+ * `Metricas.setRegistro`.
+ *
+ * Os nomes das métricas são separados por pontos, começando pelo componente: "arquivo.insercoes",
+ * "mongodb.comandos", "binario.findVeiculoTipado".
+ */
+package com.example.concessionaria;
+
+public interface I_RegistroMetricas {
+    /**
+     * Contador monotônico. Chamado nos caminhos quentes, deve ser barato e thread-safe.
+     */
+    interface Contador {
+        void incrementar(long quantidade);
+
+        default void incrementar() {
+            incrementar(1);
+        }
+    }
+
+    /**
+     * Registro de duração de operações. Chamado nos caminhos quentes, deve ser barato e thread-safe.
+     */
+    interface Temporizador {
+        void registrar(long nanos);
+    }
+
+    /**
+     * Obtém o contador com o nome informado, criando-o na primeira chamada. O contador retornado deve ser
+     * guardado por quem o usa, para não repetir a busca pelo nome a cada incremento.
+     * @param nome O nome da métrica.
+     * @return O contador.
+     */
+    Contador contador(String nome);
+
+    /**
+     * Obtém o temporizador com o nome informado, criando-o na primeira chamada. O temporizador retornado deve ser
+     * guardado por quem o usa, para não repetir a busca pelo nome a cada registro.
+     * @param nome O nome da métrica.
+     * @return O temporizador.
+     */
+    Temporizador temporizador(String nome);
+}
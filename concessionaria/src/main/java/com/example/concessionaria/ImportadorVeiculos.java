@@ -0,0 +1,626 @@
+/**
+ * A classe `ImportadorVeiculos` importa para qualquer `I_Armazenamento` os veículos de um arquivo CSV ou Excel
+ * (.xlsx), em um pipeline de três etapas ligadas por filas limitadas:
+ * - leitura: uma thread lê o arquivo em streaming (o .xlsx pelo `LeitorPlanilhaStreaming`) e entrega as linhas
+ *   brutas em blocos;
+ * - conversão e validação: várias threads convertem cada linha em um `Veiculo` e o validam (`Veiculo.validar`);
+ * - gravação: a thread que chamou `importar` descarta as placas repetidas no próprio arquivo e grava os veículos em
+ *   lotes (`addVeiculosEstoque`). As placas que já existem no estoque são rejeitadas pelo próprio armazenamento.
+ *
+ * Como as filas são limitadas, a leitura espera quando a gravação fica para trás, e a memória usada não depende do
+ * tamanho do arquivo. As linhas rejeitadas são escritas, com o motivo, em um arquivo CSV de rejeitados à medida que
+ * aparecem, e o progresso é registrado no log periodicamente.
+ *
+ * No CSV, a primeira linha é o cabeçalho (os nomes são normalizados como os da planilha, por exemplo
+ * "Ano de Fabricação" vira `ano_de_fabricacao`) e a coluna `tipo` define o tipo do veículo; o separador pode ser
+ * vírgula ou ponto e vírgula. No .xlsx, o tipo é o nome da planilha, como no `ArquivoArmazenamento`.
+ */
+package com.example.concessionaria;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ImportadorVeiculos {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportadorVeiculos.class);
+
+    private static final String CABECALHO_REJEITADOS = "linha,placa,motivo,registro";
+
+    // Marcadores de fim das filas entre as etapas
+    private static final List<Linha> FIM_LINHAS = Collections.emptyList();
+    private static final Bloco FIM_BLOCOS = new Bloco(0);
+
+    private final I_Armazenamento destino;
+    private final ConfiguracaoImportacao configuracao;
+
+    // Métricas acumuladas de todas as importações
+    private final I_RegistroMetricas.Contador metricaLinhas = Metricas.getRegistro().contador("importacao.linhas");
+    private final I_RegistroMetricas.Contador metricaGravados = Metricas.getRegistro().contador("importacao.gravados");
+    private final I_RegistroMetricas.Contador metricaRejeitados = Metricas.getRegistro().contador("importacao.rejeitados");
+    private final I_RegistroMetricas.Temporizador tempoLote = Metricas.getRegistro().temporizador("importacao.lote");
+
+    /**
+     * Linha bruta do arquivo: o texto original (CSV) ou os valores das células (.xlsx).
+     */
+    private static final class Linha {
+        final long numero;
+        final String tipo;
+        final List<String> cabecalhos;
+        List<String> valores;
+        final String texto;
+
+        Linha(long numero, String tipo, List<String> cabecalhos, List<String> valores, String texto) {
+            this.numero = numero;
+            this.tipo = tipo;
+            this.cabecalhos = cabecalhos;
+            this.valores = valores;
+            this.texto = texto;
+        }
+
+        /**
+         * O registro original, para o arquivo de rejeitados; no .xlsx, o nome da planilha seguido dos valores.
+         */
+        String registro() {
+            if (texto != null) {
+                return texto;
+            }
+            StringBuilder registro = new StringBuilder(tipo);
+            for (String valor : valores) {
+                registro.append(',').append(valor == null ? "" : valor);
+            }
+            return registro.toString();
+        }
+    }
+
+    /**
+     * Veículos válidos de um bloco de linhas, com a linha de origem de cada um.
+     */
+    private static final class Bloco {
+        final List<Veiculo> veiculos;
+        final List<Linha> linhas;
+
+        Bloco(int capacidade) {
+            this.veiculos = new ArrayList<>(capacidade);
+            this.linhas = new ArrayList<>(capacidade);
+        }
+    }
+
+    /**
+     * Construtor da classe `ImportadorVeiculos` com a configuração padrão.
+     * @param destino O armazenamento que recebe os veículos.
+     */
+    public ImportadorVeiculos(I_Armazenamento destino) {
+        this(destino, new ConfiguracaoImportacao());
+    }
+
+    /**
+     * Construtor da classe `ImportadorVeiculos`.
+     * @param destino O armazenamento que recebe os veículos.
+     * @param configuracao O paralelismo, os tamanhos de bloco e lote e a capacidade das filas.
+     */
+    public ImportadorVeiculos(I_Armazenamento destino, ConfiguracaoImportacao configuracao) {
+        this.destino = destino;
+        this.configuracao = configuracao;
+    }
+
+    /**
+     * Importa os veículos de um arquivo. O formato é definido pela extensão (`.csv` ou `.xlsx`).
+     * @param arquivo O caminho do arquivo a ser importado.
+     * @param arquivoRejeitados O caminho do arquivo CSV onde as linhas rejeitadas são registradas.
+     * @return O resumo da importação.
+     * @throws IOException Se o arquivo não puder ser lido ou o arquivo de rejeitados não puder ser escrito.
+     * @throws IllegalArgumentException Se a extensão do arquivo não for suportada.
+     */
+    public ResultadoImportacao importar(String arquivo, String arquivoRejeitados) throws IOException {
+        String extensao = arquivo.toLowerCase(Locale.ROOT);
+        if (!extensao.endsWith(".csv") && !extensao.endsWith(".xlsx")) {
+            throw new IllegalArgumentException("Formato de arquivo não suportado: " + arquivo);
+        }
+
+        try (BufferedWriter rejeitados = Files.newBufferedWriter(Paths.get(arquivoRejeitados), StandardCharsets.UTF_8)) {
+            rejeitados.write(CABECALHO_REJEITADOS);
+            rejeitados.write('\n');
+            return new Execucao(arquivo, extensao.endsWith(".csv"), rejeitados).executar();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Estado de uma importação: filas, threads, contadores e o arquivo de rejeitados.
+     */
+    private final class Execucao {
+        final String arquivo;
+        final boolean csv;
+        final Writer rejeitados;
+
+        final BlockingQueue<List<Linha>> linhas = new ArrayBlockingQueue<>(configuracao.capacidadeFila);
+        final BlockingQueue<Bloco> blocos = new ArrayBlockingQueue<>(configuracao.capacidadeFila);
+        final int threadsValidacao = Math.max(1, configuracao.threadsValidacao);
+        final ExecutorService etapas;
+        final AtomicReference<Throwable> falha = new AtomicReference<>();
+
+        final LongAdder linhasLidas = new LongAdder();
+        final LongAdder gravados = new LongAdder();
+        final LongAdder rejeitadas = new LongAdder();
+        final long inicio = System.nanoTime();
+
+        // Placas já vistas neste arquivo; usado só pela thread de gravação
+        final ConjuntoPlacas placas = new ConjuntoPlacas();
+
+        // Separador do CSV, definido pelo cabeçalho antes que as linhas sejam entregues às threads de validação
+        char separador = ',';
+
+        Execucao(String arquivo, boolean csv, Writer rejeitados) {
+            this.arquivo = arquivo;
+            this.csv = csv;
+            this.rejeitados = rejeitados;
+            AtomicInteger contador = new AtomicInteger();
+            this.etapas = Executors.newFixedThreadPool(threadsValidacao + 1, tarefa -> {
+                Thread thread = new Thread(tarefa, "importacao-" + contador.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        ResultadoImportacao executar() throws IOException {
+            ScheduledExecutorService progresso = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "importacao-progresso");
+                thread.setDaemon(true);
+                return thread;
+            });
+            progresso.scheduleAtFixedRate(this::registrarProgresso, configuracao.intervaloProgressoMs,
+                    configuracao.intervaloProgressoMs, TimeUnit.MILLISECONDS);
+            LOGGER.info("Importação iniciada: arquivo={}, threadsValidacao={}, tamanhoLote={}",
+                    arquivo, threadsValidacao, configuracao.tamanhoLote);
+
+            try {
+                etapas.execute(this::ler);
+                for (int i = 0; i < threadsValidacao; i++) {
+                    etapas.execute(this::validar);
+                }
+                gravar();
+            } catch (RuntimeException | Error e) {
+                falhar(e);
+            } finally {
+                progresso.shutdownNow();
+                etapas.shutdownNow();
+            }
+
+            Throwable erro = falha.get();
+            if (erro instanceof IOException) {
+                throw (IOException) erro;
+            } else if (erro instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) erro).getCause();
+            } else if (erro instanceof RuntimeException) {
+                throw (RuntimeException) erro;
+            } else if (erro instanceof Error) {
+                throw (Error) erro;
+            } else if (erro != null) {
+                throw new IllegalStateException("Falha na importação de " + arquivo, erro);
+            }
+
+            ResultadoImportacao resultado = new ResultadoImportacao(linhasLidas.sum(), gravados.sum(), rejeitadas.sum(),
+                    (System.nanoTime() - inicio) / 1_000_000);
+            LOGGER.info("Importação concluída: arquivo={}, {}", arquivo, resultado);
+            return resultado;
+        }
+
+        /**
+         * Registra a primeira falha e interrompe as etapas.
+         */
+        void falhar(Throwable erro) {
+            if (falha.compareAndSet(null, erro)) {
+                LOGGER.error("Falha na importação: arquivo={}, erro={}", arquivo, erro.getMessage());
+                etapas.shutdownNow();
+            }
+        }
+
+        void registrarProgresso() {
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            LOGGER.info("Importação em andamento: arquivo={}, linhas={}, gravados={}, rejeitados={}, linhasPorSegundo={}",
+                    arquivo, linhasLidas.sum(), gravados.sum(), rejeitadas.sum(), Math.round(linhasLidas.sum() / segundos));
+        }
+
+        // Etapa 1: leitura
+
+        void ler() {
+            try {
+                if (csv) {
+                    lerCsv();
+                } else {
+                    lerPlanilha();
+                }
+                for (int i = 0; i < threadsValidacao; i++) {
+                    linhas.put(FIM_LINHAS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                // Inclui erros como `OutOfMemoryError`: sem o registro da falha, as outras etapas esperariam para sempre
+                falhar(e);
+            }
+        }
+
+        void lerCsv() throws IOException, InterruptedException {
+            try (BufferedReader leitor = Files.newBufferedReader(Paths.get(arquivo), StandardCharsets.UTF_8)) {
+                String cabecalho = leitor.readLine();
+                if (cabecalho == null) {
+                    return;
+                }
+                if (cabecalho.startsWith("\uFEFF")) {
+                    cabecalho = cabecalho.substring(1);
+                }
+                separador = cabecalho.indexOf(';') >= 0 && cabecalho.indexOf(',') < 0 ? ';' : ',';
+                List<String> cabecalhos = new ArrayList<>();
+                for (String nome : dividirCsv(cabecalho, separador)) {
+                    cabecalhos.add(LeitorPlanilhaStreaming.formatHeader(nome));
+                }
+
+                List<Linha> bloco = new ArrayList<>(configuracao.linhasPorBloco);
+                long numero = 1;
+                String texto;
+                while ((texto = leitor.readLine()) != null) {
+                    numero++;
+                    long numeroInicial = numero;
+                    // Um campo entre aspas pode conter quebras de linha
+                    while (aspasAbertas(texto)) {
+                        String continuacao = leitor.readLine();
+                        if (continuacao == null) {
+                            break;
+                        }
+                        numero++;
+                        texto = texto + '\n' + continuacao;
+                    }
+                    if (texto.isEmpty()) {
+                        continue;
+                    }
+                    bloco.add(new Linha(numeroInicial, null, cabecalhos, null, texto));
+                    linhasLidas.increment();
+                    metricaLinhas.incrementar();
+                    if (bloco.size() == configuracao.linhasPorBloco) {
+                        linhas.put(bloco);
+                        bloco = new ArrayList<>(configuracao.linhasPorBloco);
+                    }
+                }
+                if (!bloco.isEmpty()) {
+                    linhas.put(bloco);
+                }
+            }
+        }
+
+        void lerPlanilha() throws IOException, InterruptedException {
+            // Número da linha na planilha; a primeira linha de cada planilha é o cabeçalho
+            long[] numero = {1};
+            String[] planilhaAtual = {null};
+            LeitorPlanilhaStreaming.MapeadorLinha<Linha> mapeador = (planilha, cabecalhos, valores, numericas) -> {
+                if (!planilha.equals(planilhaAtual[0])) {
+                    planilhaAtual[0] = planilha;
+                    numero[0] = 1;
+                }
+                return new Linha(++numero[0], planilha, cabecalhos, valores, null);
+            };
+
+            try (LeitorPlanilhaStreaming<Linha> leitor = new LeitorPlanilhaStreaming<>(arquivo, null, mapeador)) {
+                List<Linha> bloco = new ArrayList<>(configuracao.linhasPorBloco);
+                while (leitor.hasNext()) {
+                    bloco.add(leitor.next());
+                    linhasLidas.increment();
+                    metricaLinhas.incrementar();
+                    if (bloco.size() == configuracao.linhasPorBloco) {
+                        linhas.put(bloco);
+                        bloco = new ArrayList<>(configuracao.linhasPorBloco);
+                    }
+                }
+                if (!bloco.isEmpty()) {
+                    linhas.put(bloco);
+                }
+            }
+        }
+
+        // Etapa 2: conversão e validação
+
+        void validar() {
+            try {
+                List<Linha> bloco;
+                while ((bloco = linhas.take()) != FIM_LINHAS) {
+                    Bloco validos = new Bloco(bloco.size());
+                    for (Linha linha : bloco) {
+                        Veiculo veiculo;
+                        String motivo;
+                        try {
+                            veiculo = converter(linha);
+                            motivo = veiculo.validar();
+                        } catch (IllegalArgumentException e) {
+                            veiculo = null;
+                            motivo = e.getMessage();
+                        }
+
+                        if (motivo == null) {
+                            validos.veiculos.add(veiculo);
+                            validos.linhas.add(linha);
+                        } else {
+                            rejeitar(linha, veiculo == null ? null : veiculo.placa, motivo);
+                        }
+                    }
+                    if (!validos.veiculos.isEmpty()) {
+                        blocos.put(validos);
+                    }
+                }
+                blocos.put(FIM_BLOCOS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                falhar(e);
+            }
+        }
+
+        /**
+         * Converte uma linha bruta em um veículo, com a placa normalizada (maiúsculas, sem hífen nem espaços).
+         */
+        Veiculo converter(Linha linha) {
+            String tipo = linha.tipo;
+            if (linha.texto != null) {
+                // No CSV o tipo vem da coluna `tipo`
+                linha.valores = dividirCsv(linha.texto, separador);
+                int coluna = linha.cabecalhos.indexOf("tipo");
+                tipo = coluna >= 0 && coluna < linha.valores.size() ? linha.valores.get(coluna) : null;
+            }
+
+            Veiculo veiculo = Veiculo.novaInstancia(tipo);
+            for (int coluna = 0; coluna < linha.valores.size() && coluna < linha.cabecalhos.size(); coluna++) {
+                String valor = linha.valores.get(coluna);
+                if (valor != null && !valor.isBlank()) {
+                    String campo = linha.cabecalhos.get(coluna);
+                    try {
+                        veiculo.defineAtributo(campo, valor.trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Valor inválido em " + campo + ": " + valor);
+                    }
+                }
+            }
+            if (veiculo.placa != null) {
+                veiculo.placa = veiculo.placa.replace("-", "").replace(" ", "").toUpperCase(Locale.ROOT);
+            }
+            return veiculo;
+        }
+
+        // Etapa 3: gravação
+
+        void gravar() {
+            List<Veiculo> lote = new ArrayList<>(configuracao.tamanhoLote);
+            List<Linha> origens = new ArrayList<>(configuracao.tamanhoLote);
+            int validacoesAtivas = threadsValidacao;
+
+            try {
+                while (validacoesAtivas > 0 && falha.get() == null) {
+                    Bloco bloco = blocos.poll(100, TimeUnit.MILLISECONDS);
+                    if (bloco == null) {
+                        continue;
+                    }
+                    if (bloco == FIM_BLOCOS) {
+                        validacoesAtivas--;
+                        continue;
+                    }
+
+                    for (int i = 0; i < bloco.veiculos.size(); i++) {
+                        Veiculo veiculo = bloco.veiculos.get(i);
+                        Linha linha = bloco.linhas.get(i);
+                        if (!placas.adicionar(veiculo.placa)) {
+                            rejeitar(linha, veiculo.placa, "Placa repetida no arquivo");
+                            continue;
+                        }
+                        lote.add(veiculo);
+                        origens.add(linha);
+                        if (lote.size() == configuracao.tamanhoLote) {
+                            gravarLote(lote, origens);
+                            lote.clear();
+                            origens.clear();
+                        }
+                    }
+                }
+                if (!lote.isEmpty() && falha.get() == null) {
+                    gravarLote(lote, origens);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                falhar(e);
+            }
+        }
+
+        void gravarLote(List<Veiculo> lote, List<Linha> origens) {
+            long inicioLote = System.nanoTime();
+            List<ResultadoInsercao> resultados;
+            try {
+                resultados = destino.addVeiculosEstoque(lote);
+            } catch (RuntimeException e) {
+                // O lote inteiro vai para os rejeitados, de onde pode ser importado de novo
+                LOGGER.error("Falha na gravação de um lote da importação: arquivo={}, veiculos={}, erro={}",
+                        arquivo, lote.size(), e.getMessage());
+                for (int i = 0; i < lote.size(); i++) {
+                    rejeitar(origens.get(i), lote.get(i).placa, "Falha na gravação: " + e.getMessage());
+                }
+                return;
+            } finally {
+                tempoLote.registrar(System.nanoTime() - inicioLote);
+            }
+
+            long inseridos = 0;
+            for (int i = 0; i < resultados.size(); i++) {
+                ResultadoInsercao resultado = resultados.get(i);
+                if (resultado.isSucesso()) {
+                    inseridos++;
+                } else if (resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA) {
+                    rejeitar(origens.get(i), resultado.placa, "Placa já existe no estoque");
+                } else {
+                    rejeitar(origens.get(i), resultado.placa, resultado.mensagem);
+                }
+            }
+            gravados.add(inseridos);
+            metricaGravados.incrementar(inseridos);
+        }
+
+        /**
+         * Registra uma linha rejeitada no arquivo de rejeitados; chamado por todas as threads de validação e pela de
+         * gravação.
+         */
+        void rejeitar(Linha linha, String placa, String motivo) {
+            rejeitadas.increment();
+            metricaRejeitados.incrementar();
+            synchronized (rejeitados) {
+                try {
+                    rejeitados.write(String.valueOf(linha.numero));
+                    rejeitados.write(',');
+                    RelatorioVeiculos.escreverValorCsv(rejeitados, placa);
+                    rejeitados.write(',');
+                    RelatorioVeiculos.escreverValorCsv(rejeitados, motivo);
+                    rejeitados.write(',');
+                    RelatorioVeiculos.escreverValorCsv(rejeitados, linha.registro());
+                    rejeitados.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Divide uma linha CSV em valores. Valores entre aspas podem conter o separador, quebras de linha e aspas
+     * duplicadas (`""`).
+     */
+    static List<String> dividirCsv(String linha, char separador) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder valor = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    valor.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    valor.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                valores.add(valor.toString());
+                valor.setLength(0);
+            } else {
+                valor.append(c);
+            }
+        }
+        valores.add(valor.toString());
+        return valores;
+    }
+
+    private static boolean aspasAbertas(String texto) {
+        boolean abertas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == '"') {
+                abertas = !abertas;
+            }
+        }
+        return abertas;
+    }
+
+    /**
+     * Conjunto de placas válidas (formato antigo ou Mercosul), cada uma codificada em um `int`, em uma tabela de
+     * endereçamento aberto: cerca de 8 bytes por placa, em vez das dezenas de bytes de um `HashSet<String>`.
+     */
+    static final class ConjuntoPlacas {
+        private static final int VAZIO = -1;
+
+        private int[] tabela = novaTabela(1 << 16);
+        private int quantidade;
+
+        private static int[] novaTabela(int tamanho) {
+            int[] tabela = new int[tamanho];
+            Arrays.fill(tabela, VAZIO);
+            return tabela;
+        }
+
+        /**
+         * Adiciona uma placa ao conjunto.
+         * @param placa Uma placa já validada por `Veiculo.validar`.
+         * @return `true` se a placa ainda não estava no conjunto.
+         */
+        boolean adicionar(String placa) {
+            if (quantidade * 2 >= tabela.length) {
+                ampliar();
+            }
+            if (!inserir(tabela, codificar(placa))) {
+                return false;
+            }
+            quantidade++;
+            return true;
+        }
+
+        int getQuantidade() {
+            return quantidade;
+        }
+
+        private static boolean inserir(int[] tabela, int codigo) {
+            int mascara = tabela.length - 1;
+            int espalhado = codigo * 0x9E3779B9;
+            int posicao = (espalhado ^ (espalhado >>> 16)) & mascara;
+            while (tabela[posicao] != VAZIO) {
+                if (tabela[posicao] == codigo) {
+                    return false;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            tabela[posicao] = codigo;
+            return true;
+        }
+
+        private void ampliar() {
+            int[] anterior = tabela;
+            tabela = novaTabela(anterior.length * 2);
+            for (int codigo : anterior) {
+                if (codigo != VAZIO) {
+                    inserir(tabela, codigo);
+                }
+            }
+        }
+
+        /**
+         * Codifica uma placa `LLLNXNN` (X letra ou dígito) em um inteiro de 0 a 632.735.999.
+         */
+        static int codificar(String placa) {
+            int codigo = 0;
+            for (int i = 0; i < 3; i++) {
+                codigo = codigo * 26 + (placa.charAt(i) - 'A');
+            }
+            codigo = codigo * 10 + (placa.charAt(3) - '0');
+            char quinto = placa.charAt(4);
+            codigo = codigo * 36 + (quinto <= '9' ? quinto - '0' : 10 + quinto - 'A');
+            codigo = codigo * 10 + (placa.charAt(5) - '0');
+            return codigo * 10 + (placa.charAt(6) - '0');
+        }
+    }
+}
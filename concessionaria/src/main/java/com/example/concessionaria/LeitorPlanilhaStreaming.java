@@ -0,0 +1,419 @@
+/**
+ * A classe `LeitorPlanilhaStreaming` lê as linhas de um arquivo Excel (.xlsx) uma a uma, sem carregar o workbook
+ * inteiro em memória. Ela usa o modelo de eventos do POI (`XSSFReader`) para acessar o XML de cada planilha e o
+ * percorre com um parser StAX. Cada linha é convertida por um `MapeadorLinha`: em um documento no mesmo formato
+ * produzido pela leitura tradicional do `ArquivoArmazenamento` (cabeçalhos formatados e o nome da planilha no campo
+ * `tipo`) ou diretamente em um `Veiculo`, sem documento intermediário.
+ *
+ * Os textos compartilhados (`sharedStrings.xml`) são resolvidos por `TextosCompartilhados`: uma tabela grande, como a
+ * de uma planilha com muitas placas, é lida do disco sob demanda, e a memória usada não cresce com o número de linhas.
+ */
+package com.example.concessionaria;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.bson.Document;
+import org.xml.sax.SAXException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LeitorPlanilhaStreaming<T> implements Iterator<T>, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeitorPlanilhaStreaming.class);
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    static final XMLInputFactory XML_FACTORY = XMLInputFactory.newInstance();
+
+    /**
+     * Converte os valores brutos de uma linha da planilha em um objeto.
+     * @param <T> O tipo do objeto produzido.
+     */
+    public interface MapeadorLinha<T> {
+        /**
+         * @param planilha O nome da planilha (tipo do veículo).
+         * @param headers Os cabeçalhos formatados da planilha.
+         * @param valores Os valores das células; textos já resolvidos e números no formato bruto do arquivo.
+         * @param numericas As colunas cujas células são numéricas.
+         * @return O objeto representando a linha.
+         */
+        T mapear(String planilha, List<String> headers, List<String> valores, BitSet numericas);
+    }
+
+    /**
+     * Mapeador que produz documentos no formato da leitura tradicional, com os números como `String.valueOf(double)`.
+     */
+    public static final MapeadorLinha<Document> PARA_DOCUMENTO = (planilha, headers, valores, numericas) -> {
+        Document documento = new Document();
+
+        for (int colNum = 0; colNum < valores.size() && colNum < headers.size(); colNum++) {
+            String valor = valores.get(colNum);
+            if (valor != null && numericas.get(colNum)) {
+                valor = String.valueOf(Double.parseDouble(valor));
+            }
+            documento.append(headers.get(colNum), valor);
+        }
+
+        documento.append("tipo", planilha);
+        return documento;
+    };
+
+    /**
+     * Mapeador que preenche os atributos do veículo diretamente a partir das células, sem documento intermediário.
+     */
+    public static final MapeadorLinha<Veiculo> PARA_VEICULO = (planilha, headers, valores, numericas) -> {
+        Veiculo veiculo = Veiculo.novaInstancia(planilha);
+
+        for (int colNum = 0; colNum < valores.size() && colNum < headers.size(); colNum++) {
+            String valor = valores.get(colNum);
+            if (valor != null) {
+                veiculo.defineAtributo(headers.get(colNum), valor);
+            }
+        }
+
+        return veiculo;
+    };
+
+    private final MapeadorLinha<T> mapeador;
+
+    private final OPCPackage pacote;
+    private final TextosCompartilhados sharedStrings;
+    private final XSSFReader.SheetIterator planilhas;
+
+    // Quando informado, somente a planilha com este nome é lida
+    private final String planilhaSelecionada;
+
+    // Estado da planilha sendo lida no momento
+    private InputStream planilhaAtual;
+    private XMLStreamReader xml;
+    private String nomePlanilha;
+    private List<String> headers;
+
+    // Próximo objeto já lido (leitura antecipada para o `hasNext`)
+    private T proximo;
+
+    // Colunas numéricas da linha sendo lida
+    private final BitSet numericas = new BitSet();
+
+    /**
+     * Abre o arquivo para leitura em streaming.
+     * @param nomeArquivo O caminho do arquivo de Excel.
+     * @param planilhaSelecionada O nome da planilha a ser lida ou `null` para ler todas.
+     * @param mapeador O mapeador que converte cada linha em um objeto.
+     * @throws IOException Se o arquivo não puder ser aberto ou não for um arquivo .xlsx válido.
+     */
+    public LeitorPlanilhaStreaming(String nomeArquivo, String planilhaSelecionada, MapeadorLinha<T> mapeador) throws IOException {
+        this.planilhaSelecionada = planilhaSelecionada;
+        this.mapeador = mapeador;
+        try {
+            this.pacote = OPCPackage.open(nomeArquivo, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Arquivo inválido: " + nomeArquivo, e);
+        }
+        try {
+            this.sharedStrings = TextosCompartilhados.abrir(pacote);
+        } catch (IOException e) {
+            pacote.revert();
+            throw e;
+        }
+        try {
+            this.planilhas = (XSSFReader.SheetIterator) new XSSFReader(pacote).getSheetsData();
+        } catch (OpenXML4JException | IOException e) {
+            sharedStrings.close();
+            pacote.revert();
+            throw new IOException("Arquivo inválido: " + nomeArquivo, e);
+        }
+    }
+
+    /**
+     * Cria um `Stream` de documentos a partir das linhas do arquivo. O arquivo é lido sob demanda e fechado
+     * quando o stream for fechado, por isso o stream deve ser usado em um bloco try-with-resources.
+     * @param nomeArquivo O caminho do arquivo de Excel.
+     * @return Um stream com um documento por linha de dados.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public static Stream<Document> stream(String nomeArquivo) throws IOException {
+        return stream(nomeArquivo, null);
+    }
+
+    /**
+     * Cria um `Stream` de documentos a partir das linhas de uma única planilha do arquivo.
+     * @param nomeArquivo O caminho do arquivo de Excel.
+     * @param planilhaSelecionada O nome da planilha a ser lida ou `null` para ler todas.
+     * @return Um stream com um documento por linha de dados.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public static Stream<Document> stream(String nomeArquivo, String planilhaSelecionada) throws IOException {
+        return stream(nomeArquivo, planilhaSelecionada, PARA_DOCUMENTO);
+    }
+
+    /**
+     * Cria um `Stream` de veículos a partir das linhas de uma planilha do arquivo, mapeando as células
+     * diretamente para os atributos dos veículos.
+     * @param nomeArquivo O caminho do arquivo de Excel.
+     * @param planilhaSelecionada O nome da planilha a ser lida ou `null` para ler todas.
+     * @return Um stream com um veículo por linha de dados.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public static Stream<Veiculo> streamVeiculos(String nomeArquivo, String planilhaSelecionada) throws IOException {
+        return stream(nomeArquivo, planilhaSelecionada, PARA_VEICULO);
+    }
+
+    /**
+     * Cria um `Stream` com as linhas de uma planilha do arquivo convertidas pelo mapeador informado.
+     * @param nomeArquivo O caminho do arquivo de Excel.
+     * @param planilhaSelecionada O nome da planilha a ser lida ou `null` para ler todas.
+     * @param mapeador O mapeador que converte cada linha em um objeto.
+     * @return Um stream com um objeto por linha de dados.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public static <T> Stream<T> stream(String nomeArquivo, String planilhaSelecionada, MapeadorLinha<T> mapeador) throws IOException {
+        LeitorPlanilhaStreaming<T> leitor = new LeitorPlanilhaStreaming<>(nomeArquivo, planilhaSelecionada, mapeador);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(leitor, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(leitor::closeQuietly);
+    }
+
+    /**
+     * Obtém os nomes das planilhas do arquivo, na ordem em que aparecem no workbook.
+     * @param nomeArquivo O caminho do arquivo de Excel.
+     * @return A lista com os nomes das planilhas.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public static List<String> nomesPlanilhas(String nomeArquivo) throws IOException {
+        List<String> nomes = new ArrayList<>();
+
+        try (LeitorPlanilhaStreaming<Document> leitor = new LeitorPlanilhaStreaming<>(nomeArquivo, null, PARA_DOCUMENTO)) {
+            while (leitor.planilhas.hasNext()) {
+                // O conteúdo da planilha não é lido, apenas o nome
+                leitor.planilhas.next().close();
+                nomes.add(leitor.planilhas.getSheetName());
+            }
+        }
+        return nomes;
+    }
+
+    /**
+     * Formata o cabeçalho removendo diacríticos, convertendo para minúsculas e substituindo espaços por sublinhados.
+     * @param header O cabeçalho a ser formatado.
+     * @return O cabeçalho formatado.
+     */
+    public static String formatHeader(String header) {
+        String normalizedHeader = Normalizer.normalize(header, Normalizer.Form.NFD);
+        String withoutDiacritics = DIACRITICOS.matcher(normalizedHeader).replaceAll("");
+        return withoutDiacritics.toLowerCase().replace(" ", "_");
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (proximo == null) {
+            try {
+                proximo = lerProximaLinha();
+            } catch (XMLStreamException | IOException e) {
+                throw new UncheckedIOException(new IOException("Erro ao ler planilha: " + e.getMessage(), e));
+            }
+        }
+        return proximo != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T objeto = proximo;
+        proximo = null;
+        return objeto;
+    }
+
+    /**
+     * Lê a próxima linha de dados, avançando para a planilha seguinte quando a atual termina.
+     * @return O objeto da próxima linha ou `null` se não houver mais linhas.
+     */
+    private T lerProximaLinha() throws XMLStreamException, IOException {
+        while (true) {
+            if (xml == null && !abrirProximaPlanilha()) {
+                return null;
+            }
+
+            List<String> valores = lerLinha();
+            if (valores == null) {
+                fecharPlanilhaAtual();
+                continue;
+            }
+
+            // A primeira linha de cada planilha é o cabeçalho
+            if (headers == null) {
+                headers = new ArrayList<>(valores.size());
+                for (String valor : valores) {
+                    headers.add(valor == null ? "" : formatHeader(valor));
+                }
+                continue;
+            }
+
+            return mapeador.mapear(nomePlanilha, headers, valores, numericas);
+        }
+    }
+
+    private boolean abrirProximaPlanilha() throws XMLStreamException, IOException {
+        while (planilhas.hasNext()) {
+            planilhaAtual = planilhas.next();
+            nomePlanilha = planilhas.getSheetName();
+
+            if (planilhaSelecionada == null || planilhaSelecionada.equals(nomePlanilha)) {
+                headers = null;
+                xml = XML_FACTORY.createXMLStreamReader(planilhaAtual);
+                return true;
+            }
+            planilhaAtual.close();
+            planilhaAtual = null;
+        }
+        return false;
+    }
+
+    private void fecharPlanilhaAtual() throws XMLStreamException, IOException {
+        if (xml != null) {
+            xml.close();
+            xml = null;
+        }
+        if (planilhaAtual != null) {
+            planilhaAtual.close();
+            planilhaAtual = null;
+        }
+    }
+
+    /**
+     * Lê os valores da próxima linha (`<row>`) da planilha atual.
+     * @return Os valores das células, indexados pela coluna, ou `null` se a planilha terminou.
+     */
+    private List<String> lerLinha() throws XMLStreamException {
+        List<String> valores = null;
+        int colNum = -1;
+        String tipoCelula = null;
+        StringBuilder texto = new StringBuilder();
+        boolean lendoTexto = false;
+
+        while (xml.hasNext()) {
+            int evento = xml.next();
+
+            if (evento == XMLStreamConstants.START_ELEMENT) {
+                String nome = xml.getLocalName();
+                if ("row".equals(nome)) {
+                    valores = new ArrayList<>();
+                    numericas.clear();
+                    colNum = -1;
+                } else if ("c".equals(nome) && valores != null) {
+                    String referencia = xml.getAttributeValue(null, "r");
+                    colNum = referencia != null ? indiceColuna(referencia) : colNum + 1;
+                    tipoCelula = xml.getAttributeValue(null, "t");
+                    texto.setLength(0);
+                } else if ("v".equals(nome) || "t".equals(nome)) {
+                    lendoTexto = true;
+                }
+            } else if (evento == XMLStreamConstants.CHARACTERS && lendoTexto) {
+                texto.append(xml.getText());
+            } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                String nome = xml.getLocalName();
+                if ("v".equals(nome) || "t".equals(nome)) {
+                    lendoTexto = false;
+                } else if ("c".equals(nome) && valores != null) {
+                    while (valores.size() < colNum) {
+                        valores.add(null);
+                    }
+                    if (tipoCelula == null || "n".equals(tipoCelula)) {
+                        numericas.set(colNum);
+                    }
+                    valores.add(getValorCelula(tipoCelula, texto.toString()));
+                } else if ("row".equals(nome)) {
+                    return valores;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtém o conteúdo de uma célula como String: textos compartilhados são resolvidos, números são mantidos
+     * no formato bruto do arquivo (sem passar por `double`), booleanos como `true` ou `false` e os demais tipos são
+     * retornados como `null`.
+     * @param tipoCelula O atributo `t` da célula.
+     * @param conteudo O conteúdo bruto da célula.
+     * @return O valor da célula como String.
+     */
+    private String getValorCelula(String tipoCelula, String conteudo) {
+        if (conteudo.isEmpty()) {
+            return null;
+        }
+        if ("s".equals(tipoCelula)) {
+            return sharedStrings.texto(Integer.parseInt(conteudo));
+        } else if ("inlineStr".equals(tipoCelula) || "str".equals(tipoCelula)) {
+            return conteudo;
+        } else if (tipoCelula == null || "n".equals(tipoCelula)) {
+            return conteudo;
+        } else if ("b".equals(tipoCelula)) {
+            return String.valueOf("1".equals(conteudo));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Obtém o índice (base zero) da coluna a partir de uma referência de célula, como "B12".
+     * @param referencia A referência da célula.
+     * @return O índice da coluna.
+     */
+    private static int indiceColuna(String referencia) {
+        int coluna = 0;
+        for (int i = 0; i < referencia.length(); i++) {
+            char c = referencia.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            coluna = coluna * 26 + (c - 'A' + 1);
+        }
+        return coluna - 1;
+    }
+
+    /**
+     * Fecha a planilha atual e o pacote do arquivo.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            fecharPlanilhaAtual();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            sharedStrings.close();
+            pacote.revert(); // Pacote aberto somente para leitura: descarta sem gravar
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            LOGGER.warn("Erro ao fechar o arquivo: {}", e.getMessage());
+        }
+    }
+}
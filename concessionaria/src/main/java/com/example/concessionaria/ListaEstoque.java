@@ -0,0 +1,200 @@
+/**
+ * A classe `ListaEstoque` guarda os veículos de um estoque em memória na ordem de inserção, com o índice de placas
+ * apontando para a posição de cada veículo: substituir ou remover um veículo não procura a sua posição na lista.
+ * Uma remoção deixa a posição vazia; as posições vazias são eliminadas quando passam a ser maioria, o que renumera as
+ * seguintes. As placas em ordem alfabética são construídas na primeira listagem por placa e mantidas a partir daí.
+ *
+ * Não é segura para uso concorrente: `EstoqueEmMemoria` e `BinarioArmazenamento` a protegem com os seus bloqueios.
+ */
+package com.example.concessionaria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+final class ListaEstoque implements ConsultaEmMemoria.Paginavel {
+    // Número mínimo de posições vazias para compactar as posições
+    private static final int MINIMO_VAZIAS_COMPACTACAO = 1024;
+
+    private Veiculo[] posicoes = new Veiculo[16];
+    // Posições usadas, inclusive as vazias, e veículos no estoque
+    private int usadas;
+    private int quantidade;
+    private final Map<String, Integer> indice = new HashMap<>();
+
+    // Placas em ordem alfabética, construídas na primeira listagem paginada por placa
+    private TreeSet<String> placasOrdenadas;
+
+    /**
+     * Acrescenta o veículo ao final, se a placa ainda não estiver no estoque.
+     * @param veiculo O veículo a ser acrescentado.
+     * @return `true` se o veículo foi acrescentado, `false` se a placa já existir.
+     */
+    boolean adicionar(Veiculo veiculo) {
+        if (indice.putIfAbsent(veiculo.placa, usadas) != null) {
+            return false;
+        }
+        if (usadas == posicoes.length) {
+            posicoes = Arrays.copyOf(posicoes, posicoes.length * 2);
+        }
+        posicoes[usadas++] = veiculo;
+        quantidade++;
+        if (placasOrdenadas != null) {
+            placasOrdenadas.add(veiculo.placa);
+        }
+        return true;
+    }
+
+    /**
+     * Substitui o veículo de mesma placa, na mesma posição, ou o acrescenta ao final se a placa não existir.
+     * @param veiculo O veículo a ser gravado.
+     * @return O veículo substituído ou `null` se a placa não existia.
+     */
+    Veiculo substituir(Veiculo veiculo) {
+        Integer posicao = indice.get(veiculo.placa);
+        if (posicao == null) {
+            adicionar(veiculo);
+            return null;
+        }
+        Veiculo anterior = posicoes[posicao];
+        posicoes[posicao] = veiculo;
+        return anterior;
+    }
+
+    /**
+     * Remove o veículo da placa, deixando a sua posição vazia.
+     * @param placa A placa do veículo.
+     * @return O veículo removido ou `null` se a placa não existia.
+     */
+    Veiculo remover(String placa) {
+        Integer posicao = indice.remove(placa);
+        if (posicao == null) {
+            return null;
+        }
+        Veiculo anterior = posicoes[posicao];
+        posicoes[posicao] = null;
+        quantidade--;
+        if (placasOrdenadas != null) {
+            placasOrdenadas.remove(placa);
+        }
+        int vazias = usadas - quantidade;
+        if (vazias >= MINIMO_VAZIAS_COMPACTACAO && vazias > quantidade) {
+            compactar();
+        }
+        return anterior;
+    }
+
+    /**
+     * Substitui a ordem dos veículos. Os veículos informados devem ser exatamente os do estoque.
+     * @param veiculos Os veículos do estoque na nova ordem.
+     */
+    void reordenar(Collection<Veiculo> veiculos) {
+        posicoes = new Veiculo[Math.max(16, veiculos.size())];
+        usadas = 0;
+        for (Veiculo veiculo : veiculos) {
+            indice.put(veiculo.placa, usadas);
+            posicoes[usadas++] = veiculo;
+        }
+        quantidade = usadas;
+    }
+
+    /**
+     * Reserva espaço para os veículos que serão acrescentados, evitando realocações sucessivas.
+     * @param adicionais O número de veículos a serem acrescentados.
+     */
+    void reservar(int adicionais) {
+        if (usadas + adicionais > posicoes.length) {
+            posicoes = Arrays.copyOf(posicoes, Math.max(usadas + adicionais, posicoes.length * 2));
+        }
+    }
+
+    /**
+     * Remove todos os veículos.
+     */
+    void limpar() {
+        posicoes = new Veiculo[16];
+        usadas = 0;
+        quantidade = 0;
+        indice.clear();
+        placasOrdenadas = null;
+    }
+
+    @Override
+    public Veiculo buscar(String placa) {
+        Integer posicao = indice.get(placa);
+        return posicao == null ? null : posicoes[posicao];
+    }
+
+    @Override
+    public Veiculo naPosicao(int posicao) {
+        return posicoes[posicao];
+    }
+
+    @Override
+    public int getPosicoes() {
+        return usadas;
+    }
+
+    int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Obtém as placas em ordem alfabética. Na primeira chamada, o índice ordenado é construído, o que altera o estado:
+     * essa chamada exige o mesmo acesso exclusivo das alterações.
+     * @return As placas do estoque, não modificáveis.
+     */
+    @Override
+    public NavigableSet<String> getPlacasOrdenadas() {
+        if (placasOrdenadas == null) {
+            placasOrdenadas = new TreeSet<>(indice.keySet());
+        }
+        return Collections.unmodifiableNavigableSet(placasOrdenadas);
+    }
+
+    /**
+     * Percorre os veículos em ordem de inserção, sem copiá-los; o estoque não pode ser alterado durante o percurso.
+     * @return Um stream com os veículos do estoque.
+     */
+    Stream<Veiculo> stream() {
+        return Arrays.stream(posicoes, 0, usadas).filter(Objects::nonNull);
+    }
+
+    /**
+     * Obtém uma cópia dos veículos, em ordem de inserção.
+     * @return Os veículos do estoque.
+     */
+    List<Veiculo> listar() {
+        List<Veiculo> veiculos = new ArrayList<>(quantidade);
+        for (int i = 0; i < usadas; i++) {
+            if (posicoes[i] != null) {
+                veiculos.add(posicoes[i]);
+            }
+        }
+        return veiculos;
+    }
+
+    private void compactar() {
+        int destino = 0;
+        for (int i = 0; i < usadas; i++) {
+            Veiculo veiculo = posicoes[i];
+            if (veiculo != null) {
+                if (destino != i) {
+                    posicoes[destino] = veiculo;
+                    indice.put(veiculo.placa, destino);
+                }
+                destino++;
+            }
+        }
+        Arrays.fill(posicoes, destino, usadas, null);
+        usadas = destino;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * A classe `Metricas` dá acesso ao registro de métricas da aplicação. Por padrão é usado um `RegistroMetricasPadrao`,
+ * publicado por JMX como "com.example.concessionaria:type=Metricas". Outro registro pode ser instalado com
+ * `setRegistro`, antes de criar a concessionária e os armazenamentos, pois eles guardam os seus contadores e
+ * temporizadores na criação.
+ */
+package com.example.concessionaria;
+
+public final class Metricas {
+    // Nome do MBean do registro padrão
+    public static final String NOME_JMX = "com.example.concessionaria:type=Metricas";
+
+    private static volatile I_RegistroMetricas registro;
+
+    private Metricas() {
+    }
+
+    /**
+     * Obtém o registro de métricas, criando e publicando o registro padrão na primeira chamada.
+     * @return O registro de métricas.
+     */
+    public static I_RegistroMetricas getRegistro() {
+        if (registro == null) {
+            synchronized (Metricas.class) {
+                if (registro == null) {
+                    RegistroMetricasPadrao padrao = new RegistroMetricasPadrao();
+                    padrao.registrarJmx(NOME_JMX);
+                    registro = padrao;
+                }
+            }
+        }
+        return registro;
+    }
+
+    /**
+     * Instala o registro de métricas da aplicação.
+     * @param novoRegistro O registro a ser usado pelos componentes criados a partir de agora.
+     */
+    public static synchronized void setRegistro(I_RegistroMetricas novoRegistro) {
+        if (novoRegistro == null) {
+            throw new IllegalArgumentException("O registro de métricas não pode ser nulo");
+        }
+        registro = novoRegistro;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * A classe `MetricasComandosMongoDB` recebe os eventos de comando do driver do MongoDB e publica no registro de
+ * métricas o número de idas ao servidor ("mongodb.comandos" e "mongodb.comandos.falhas") e a latência de cada tipo
+ * de comando ("mongodb.find", "mongodb.insert", "mongodb.getMore", ...). Ela é registrada pela
+ * `ConfiguracaoMongoDB` nos clientes síncrono e reativo.
+ */
+package com.example.concessionaria;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class MetricasComandosMongoDB implements CommandListener {
+    private final I_RegistroMetricas registro;
+    private final I_RegistroMetricas.Contador comandos;
+    private final I_RegistroMetricas.Contador falhas;
+
+    // Temporizador por nome de comando, para não consultar o registro a cada evento
+    private final Map<String, I_RegistroMetricas.Temporizador> temporizadores = new ConcurrentHashMap<>();
+
+    public MetricasComandosMongoDB() {
+        this(Metricas.getRegistro());
+    }
+
+    public MetricasComandosMongoDB(I_RegistroMetricas registro) {
+        this.registro = registro;
+        this.comandos = registro.contador("mongodb.comandos");
+        this.falhas = registro.contador("mongodb.comandos.falhas");
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        comandos.incrementar();
+        temporizador(event.getCommandName()).registrar(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        comandos.incrementar();
+        falhas.incrementar();
+        temporizador(event.getCommandName()).registrar(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private I_RegistroMetricas.Temporizador temporizador(String comando) {
+        return temporizadores.computeIfAbsent(comando, nome -> registro.temporizador("mongodb." + nome));
+    }
+}
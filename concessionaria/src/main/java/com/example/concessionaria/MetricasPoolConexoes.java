@@ -0,0 +1,119 @@
+/**
+ * A classe `MetricasPoolConexoes` recebe os eventos do pool de conexões do driver do MongoDB e mantém métricas de uso:
+ * conexões abertas e em uso, total de checkouts, tempo de espera por uma conexão e falhas por timeout.
+ * Ela é registrada pelo `MongoDBConnection` e permite identificar quando as threads ficam paradas por pool esgotado.
+ */
+package com.example.concessionaria;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MetricasPoolConexoes implements ConnectionPoolListener {
+    // Início da espera por uma conexão, por thread (os eventos de checkout ocorrem na thread que pede a conexão)
+    private final ThreadLocal<Long> inicioEspera = new ThreadLocal<>();
+
+    private final AtomicLong conexoesAbertas = new AtomicLong();
+    private final AtomicLong conexoesEmUso = new AtomicLong();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder falhasCheckout = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder tempoTotalEsperaNanos = new LongAdder();
+    private final AtomicLong tempoMaximoEsperaNanos = new AtomicLong();
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        conexoesAbertas.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        conexoesAbertas.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        inicioEspera.set(System.nanoTime());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkouts.increment();
+        conexoesEmUso.incrementAndGet();
+        registrarEspera();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        falhasCheckout.increment();
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            timeouts.increment();
+        }
+        registrarEspera();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        conexoesEmUso.decrementAndGet();
+    }
+
+    private void registrarEspera() {
+        Long inicio = inicioEspera.get();
+        if (inicio != null) {
+            inicioEspera.remove();
+            long espera = System.nanoTime() - inicio;
+            tempoTotalEsperaNanos.add(espera);
+            tempoMaximoEsperaNanos.accumulateAndGet(espera, Math::max);
+        }
+    }
+
+    public long getConexoesAbertas() {
+        return conexoesAbertas.get();
+    }
+
+    public long getConexoesEmUso() {
+        return conexoesEmUso.get();
+    }
+
+    public long getCheckouts() {
+        return checkouts.sum();
+    }
+
+    public long getFalhasCheckout() {
+        return falhasCheckout.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Obtém o tempo médio de espera por uma conexão do pool.
+     * @return O tempo médio em milissegundos.
+     */
+    public double getTempoMedioEsperaMs() {
+        long total = checkouts.sum() + falhasCheckout.sum();
+        return total == 0 ? 0 : tempoTotalEsperaNanos.sum() / 1_000_000.0 / total;
+    }
+
+    /**
+     * Obtém o maior tempo de espera por uma conexão do pool.
+     * @return O tempo máximo em milissegundos.
+     */
+    public double getTempoMaximoEsperaMs() {
+        return tempoMaximoEsperaNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pool MongoDB: abertas=%d, em uso=%d, checkouts=%d, timeouts=%d, espera média=%.2f ms, espera máxima=%.2f ms",
+                getConexoesAbertas(), getConexoesEmUso(), getCheckouts(), getTimeouts(), getTempoMedioEsperaMs(), getTempoMaximoEsperaMs());
+    }
+}
@@ -21,6 +21,39 @@ public class Motocicleta extends Veiculo {
         document.append("cilindradas", this.cilindradas);
     }
 
+    /**
+     * Método protegido para carregar os atributos específicos de uma motocicleta a partir de um documento.
+     * @param document O documento do qual os atributos serão lidos.
+     */
+    @Override
+    protected void carregaAtributosEspecificos(Document document) {
+        this.cilindradas = toInteger(document.get("cilindradas"));
+    }
+
+    /**
+     * Método protegido para definir os atributos específicos de uma motocicleta a partir de uma célula do arquivo Excel.
+     * @param campo O nome formatado do cabeçalho.
+     * @param valor O valor da célula.
+     */
+    @Override
+    protected void defineAtributoEspecifico(String campo, String valor) {
+        if ("cilindradas".equals(campo)) {
+            this.cilindradas = parseInteiro(valor);
+        }
+    }
+
+    /**
+     * Método protegido para validar os atributos específicos de uma motocicleta: cilindradas maiores que zero.
+     * @return A descrição do problema encontrado ou `null` se os atributos forem válidos.
+     */
+    @Override
+    protected String validaAtributosEspecificos() {
+        if (this.cilindradas == null || this.cilindradas <= 0) {
+            return "Cilindradas inválidas: " + this.cilindradas;
+        }
+        return null;
+    }
+
     /**
      * Método protegido para adicionar o cabeçalho específico de uma motocicleta ao arquivo Excel.
      * @param headerRow A linha do cabeçalho onde os atributos específicos serão adicionados.
@@ -0,0 +1,15 @@
+/**
+ * A enumeração `NivelConsistencia` define, por operação, quando o `ArmazenamentoEmCamadas` confirma uma gravação
+ * e de onde atende uma busca por placa.
+ */
+package com.example.concessionaria;
+
+public enum NivelConsistencia {
+    // Gravação confirmada quando o veículo está na camada em memória; primário e secundário gravados em segundo plano.
+    // Busca atendida pela camada em memória
+    MEMORIA,
+    // Gravação confirmada após o primário; secundário gravado em segundo plano. Busca feita no primário
+    PRIMARIO,
+    // Gravação confirmada após o primário e o secundário. Busca feita no primário
+    TODAS
+}
@@ -0,0 +1,19 @@
+/**
+ * A enumeração `OrdenacaoPagina` define a chave de ordenação usada na listagem paginada de veículos.
+ * O token de retomada de uma página é o valor dessa chave no último veículo retornado.
+ */
+package com.example.concessionaria;
+
+public enum OrdenacaoPagina {
+    // Ordem de inserção: `_id` no MongoDB e posição do veículo no estoque no arquivo
+    INSERCAO("_id"),
+    // Ordem alfabética da placa
+    PLACA("placa");
+
+    // Nome do campo usado na ordenação
+    public final String campo;
+
+    OrdenacaoPagina(String campo) {
+        this.campo = campo;
+    }
+}
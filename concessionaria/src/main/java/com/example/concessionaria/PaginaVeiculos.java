@@ -0,0 +1,32 @@
+/**
+ * A classe `PaginaVeiculos` representa uma página de uma listagem de veículos, com o token necessário para
+ * retomar a listagem a partir da página seguinte.
+ */
+package com.example.concessionaria;
+
+import java.util.List;
+
+public class PaginaVeiculos {
+    // Veículos da página, na ordem da listagem
+    public final List<Veiculo> veiculos;
+    // Token para obter a próxima página ou `null` se esta for a última
+    public final String proximoToken;
+
+    /**
+     * Construtor da classe `PaginaVeiculos`.
+     * @param veiculos Os veículos da página.
+     * @param proximoToken O token da próxima página ou `null` se esta for a última.
+     */
+    public PaginaVeiculos(List<Veiculo> veiculos, String proximoToken) {
+        this.veiculos = veiculos;
+        this.proximoToken = proximoToken;
+    }
+
+    /**
+     * Indica se existe uma próxima página.
+     * @return `true` se houver mais veículos após esta página.
+     */
+    public boolean temProxima() {
+        return proximoToken != null;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * A classe `PublisherFuturo` converte os `Publisher` do driver reactive-streams do MongoDB em `CompletableFuture`,
+ * para as operações que produzem um único resultado.
+ */
+package com.example.concessionaria;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class PublisherFuturo {
+    private PublisherFuturo() {
+    }
+
+    /**
+     * Assina o publicador e completa o futuro com o primeiro item publicado, ou com `null` se nenhum item for publicado.
+     * @param publicador O publicador a ser assinado.
+     * @return Um futuro com o primeiro item publicado.
+     */
+    public static <T> CompletableFuture<T> primeiro(Publisher<T> publicador) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+
+        publicador.subscribe(new Subscriber<T>() {
+            private Subscription assinatura;
+
+            @Override
+            public void onSubscribe(Subscription assinatura) {
+                this.assinatura = assinatura;
+                assinatura.request(1);
+            }
+
+            @Override
+            public void onNext(T item) {
+                futuro.complete(item);
+                assinatura.cancel();
+            }
+
+            @Override
+            public void onError(Throwable erro) {
+                futuro.completeExceptionally(erro);
+            }
+
+            @Override
+            public void onComplete() {
+                futuro.complete(null);
+            }
+        });
+        return futuro;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * A classe `RegistroMetricasPadrao` é o registro de métricas usado por padrão: mantém os contadores (`LongAdder`) e
+ * os histogramas de latência (`HistogramaLatencia`) em memória e os publica por JMX como um MBean dinâmico, com um
+ * atributo por contador e, por temporizador, os atributos `<nome>.quantidade`, `<nome>.p50Ms`, `<nome>.p99Ms`,
+ * `<nome>.maximoMs` e `<nome>.mediaMs`. Os atributos acompanham as métricas criadas durante a execução.
+ */
+package com.example.concessionaria;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class RegistroMetricasPadrao implements I_RegistroMetricas, DynamicMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistroMetricasPadrao.class);
+
+    // Atributos publicados por temporizador, na ordem em que aparecem no MBean
+    private static final String[] ATRIBUTOS_TEMPORIZADOR = {"quantidade", "p50Ms", "p99Ms", "maximoMs", "mediaMs"};
+
+    // Métricas por nome, em ordem alfabética para a listagem no JMX e no resumo
+    private final Map<String, ContadorPadrao> contadores = new ConcurrentSkipListMap<>();
+    private final Map<String, HistogramaLatencia> temporizadores = new ConcurrentSkipListMap<>();
+
+    /**
+     * Contador baseado em `LongAdder`, que não disputa a mesma posição de memória entre threads.
+     */
+    private static final class ContadorPadrao implements Contador {
+        private final LongAdder valor = new LongAdder();
+
+        @Override
+        public void incrementar(long quantidade) {
+            valor.add(quantidade);
+        }
+    }
+
+    @Override
+    public Contador contador(String nome) {
+        return contadores.computeIfAbsent(nome, chave -> new ContadorPadrao());
+    }
+
+    @Override
+    public Temporizador temporizador(String nome) {
+        return temporizadores.computeIfAbsent(nome, chave -> new HistogramaLatencia());
+    }
+
+    /**
+     * Obtém o valor atual de um contador.
+     * @param nome O nome do contador.
+     * @return O valor do contador ou 0 se ele ainda não foi criado.
+     */
+    public long getValor(String nome) {
+        ContadorPadrao contador = contadores.get(nome);
+        return contador == null ? 0 : contador.valor.sum();
+    }
+
+    /**
+     * Obtém o histograma de um temporizador.
+     * @param nome O nome do temporizador.
+     * @return O histograma ou `null` se ele ainda não foi criado.
+     */
+    public HistogramaLatencia getHistograma(String nome) {
+        return temporizadores.get(nome);
+    }
+
+    /**
+     * Publica o registro no servidor JMX da plataforma.
+     * @param nomeObjeto O nome do MBean (por exemplo, "com.example.concessionaria:type=Metricas").
+     * @return `true` se o registro foi publicado, `false` se o nome já estiver em uso ou for inválido.
+     */
+    public boolean registrarJmx(String nomeObjeto) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            servidor.registerMBean(this, new ObjectName(nomeObjeto));
+            return true;
+        } catch (InstanceAlreadyExistsException e) {
+            LOGGER.warn("MBean de métricas já registrado: {}", nomeObjeto);
+            return false;
+        } catch (JMException e) {
+            LOGGER.error("Falha ao registrar o MBean de métricas {}: {}", nomeObjeto, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Monta um resumo de todas as métricas, uma por linha.
+     * @return O resumo das métricas.
+     */
+    public String resumo() {
+        StringBuilder texto = new StringBuilder();
+        for (Map.Entry<String, ContadorPadrao> contador : contadores.entrySet()) {
+            texto.append(contador.getKey()).append(" = ").append(contador.getValue().valor.sum()).append('\n');
+        }
+        for (Map.Entry<String, HistogramaLatencia> temporizador : temporizadores.entrySet()) {
+            texto.append(temporizador.getKey()).append(": ").append(temporizador.getValue()).append('\n');
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public Object getAttribute(String atributo) throws AttributeNotFoundException {
+        ContadorPadrao contador = contadores.get(atributo);
+        if (contador != null) {
+            return contador.valor.sum();
+        }
+
+        int separador = atributo.lastIndexOf('.');
+        HistogramaLatencia histograma = separador < 0 ? null : temporizadores.get(atributo.substring(0, separador));
+        if (histograma != null) {
+            switch (atributo.substring(separador + 1)) {
+                case "quantidade":
+                    return histograma.getQuantidade();
+                case "p50Ms":
+                    return histograma.getPercentilMs(50);
+                case "p99Ms":
+                    return histograma.getPercentilMs(99);
+                case "maximoMs":
+                    return histograma.getMaximoMs();
+                case "mediaMs":
+                    return histograma.getMediaMs();
+                default:
+                    break;
+            }
+        }
+        throw new AttributeNotFoundException(atributo);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] atributos) {
+        AttributeList lista = new AttributeList();
+        for (String atributo : atributos) {
+            try {
+                lista.add(new Attribute(atributo, getAttribute(atributo)));
+            } catch (AttributeNotFoundException e) {
+                // Atributos inexistentes são omitidos, como define a especificação JMX
+            }
+        }
+        return lista;
+    }
+
+    @Override
+    public void setAttribute(Attribute atributo) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("As métricas são somente leitura: " + atributo.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList atributos) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String operacao, Object[] parametros, String[] assinatura) throws ReflectionException {
+        if ("resumo".equals(operacao)) {
+            return resumo();
+        }
+        throw new ReflectionException(new NoSuchMethodException(operacao));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> atributos = new ArrayList<>();
+        for (String nome : contadores.keySet()) {
+            atributos.add(new MBeanAttributeInfo(nome, "long", "Contador " + nome, true, false, false));
+        }
+        for (String nome : temporizadores.keySet()) {
+            for (String atributo : ATRIBUTOS_TEMPORIZADOR) {
+                String tipo = "quantidade".equals(atributo) ? "long" : "double";
+                atributos.add(new MBeanAttributeInfo(nome + "." + atributo, tipo, "Latência " + nome, true, false, false));
+            }
+        }
+
+        MBeanOperationInfo[] operacoes = {
+                new MBeanOperationInfo("resumo", "Resumo de todas as métricas", null, "java.lang.String", MBeanOperationInfo.INFO)
+        };
+        return new MBeanInfo(getClass().getName(), "Métricas da concessionária",
+                atributos.toArray(new MBeanAttributeInfo[0]), null, operacoes, null);
+    }
+}
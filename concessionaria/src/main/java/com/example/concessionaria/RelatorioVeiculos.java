@@ -0,0 +1,295 @@
+/**
+ * A classe `RelatorioVeiculos` escreve listagens de veículos em texto, CSV ou JSON (um objeto por linha) por um
+ * único `Writer` com buffer. Os veículos são escritos um a um à medida que são lidos do armazenamento, sem montar a
+ * listagem em memória, e os formatadores de preço são reaproveitados por thread em vez de recriados a cada valor.
+ */
+package com.example.concessionaria;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+public class RelatorioVeiculos implements Closeable {
+    // Tamanho do buffer de escrita
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    // Formatador de preços; DecimalFormat não é thread-safe, então cada thread usa o seu
+    private static final ThreadLocal<DecimalFormat> FORMATO_PRECO = ThreadLocal.withInitial(() -> new DecimalFormat("#,##0.00"));
+
+    private static final String SEPARADOR = "---------------------------------";
+    private static final String CABECALHO_CSV = "tipo,placa,marca,modelo,ano_de_fabricacao,preco,numero_de_portas,cilindradas,versao,vendido";
+
+    private final Writer saida;
+    private final FormatoRelatorio formato;
+    private long veiculosEscritos;
+    private boolean cabecalhoEscrito;
+
+    /**
+     * Construtor da classe `RelatorioVeiculos` sobre um fluxo de bytes, codificado em UTF-8.
+     * @param saida O fluxo de destino (por exemplo, um arquivo).
+     * @param formato O formato do relatório.
+     */
+    public RelatorioVeiculos(OutputStream saida, FormatoRelatorio formato) {
+        this(saida, StandardCharsets.UTF_8, formato);
+    }
+
+    /**
+     * Construtor da classe `RelatorioVeiculos` sobre um fluxo de bytes.
+     * @param saida O fluxo de destino.
+     * @param codificacao A codificação dos caracteres (por exemplo, a do console).
+     * @param formato O formato do relatório.
+     */
+    public RelatorioVeiculos(OutputStream saida, Charset codificacao, FormatoRelatorio formato) {
+        this(new OutputStreamWriter(saida, codificacao), formato);
+    }
+
+    /**
+     * Construtor da classe `RelatorioVeiculos`.
+     * @param saida O destino dos caracteres; recebe um buffer próprio.
+     * @param formato O formato do relatório.
+     */
+    public RelatorioVeiculos(Writer saida, FormatoRelatorio formato) {
+        this.saida = new BufferedWriter(saida, TAMANHO_BUFFER);
+        this.formato = formato;
+    }
+
+    /**
+     * Escreve todos os veículos do stream, consumindo-o um veículo por vez, e fecha o stream ao final. No CSV, o
+     * cabeçalho é escrito mesmo que o stream esteja vazio.
+     * @param veiculos Os veículos a serem escritos (por exemplo, `streamVeiculosTipados()` do armazenamento).
+     * @return O número de veículos escritos.
+     * @throws UncheckedIOException Se ocorrer um erro de escrita.
+     */
+    public long escreverTodos(Stream<Veiculo> veiculos) {
+        long inicio = veiculosEscritos;
+        try (Stream<Veiculo> origem = veiculos) {
+            escreverCabecalho();
+            Iterator<Veiculo> iterador = origem.iterator();
+            while (iterador.hasNext()) {
+                escrever(iterador.next());
+            }
+        }
+        return veiculosEscritos - inicio;
+    }
+
+    /**
+     * Escreve um veículo no formato do relatório.
+     * @param veiculo O veículo a ser escrito.
+     * @throws UncheckedIOException Se ocorrer um erro de escrita.
+     */
+    public void escrever(Veiculo veiculo) {
+        try {
+            switch (formato) {
+                case CSV:
+                    escreverCabecalho();
+                    escreverCsv(saida, veiculo);
+                    break;
+                case JSON_LINHAS:
+                    escreverJson(saida, veiculo);
+                    break;
+                default:
+                    escreverTexto(saida, veiculo);
+                    break;
+            }
+            veiculosEscritos++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escreve o cabeçalho do CSV, uma única vez; os demais formatos não têm cabeçalho.
+     * @throws UncheckedIOException Se ocorrer um erro de escrita.
+     */
+    private void escreverCabecalho() {
+        if (formato != FormatoRelatorio.CSV || cabecalhoEscrito) {
+            return;
+        }
+        try {
+            saida.write(CABECALHO_CSV);
+            saida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cabecalhoEscrito = true;
+    }
+
+    /**
+     * Envia ao destino o conteúdo do buffer, sem fechá-lo (útil quando o destino é o console).
+     */
+    public void flush() {
+        try {
+            saida.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Envia o conteúdo do buffer e fecha o destino. Um relatório CSV sem veículos fica só com o cabeçalho.
+     * @throws IOException Se ocorrer um erro ao fechar o destino.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            escreverCabecalho();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            saida.close();
+        }
+    }
+
+    /**
+     * Escreve o bloco de texto de um veículo, com um campo por linha e o preço em reais.
+     * @param destino O destino do texto.
+     * @param veiculo O veículo a ser escrito.
+     * @throws IOException Se ocorrer um erro de escrita.
+     */
+    public static void escreverTexto(Appendable destino, Veiculo veiculo) throws IOException {
+        destino.append(SEPARADOR).append('\n');
+        escreverCampo(destino, "Tipo", veiculo.getTipo());
+        escreverCampo(destino, "Placa", veiculo.placa);
+        escreverCampo(destino, "Marca", veiculo.marca);
+        escreverCampo(destino, "Modelo", veiculo.modelo);
+        escreverCampo(destino, "Ano de Fabricação", veiculo.ano_de_fabricacao);
+        if (veiculo.preco != null) {
+            destino.append("Preço: ").append(formatarPreco(veiculo.preco)).append('\n');
+        }
+
+        if (veiculo instanceof Carro) {
+            escreverCampo(destino, "Número de Portas", ((Carro) veiculo).numero_de_portas);
+        } else if (veiculo instanceof Motocicleta) {
+            escreverCampo(destino, "Cilindradas", ((Motocicleta) veiculo).cilindradas);
+        }
+        destino.append(SEPARADOR).append('\n');
+    }
+
+    /**
+     * Formata um preço em reais com o formatador da thread atual.
+     * @param preco O preço.
+     * @return O preço formatado (por exemplo, "R$40,400.00").
+     */
+    public static String formatarPreco(BigDecimal preco) {
+        return "R$" + FORMATO_PRECO.get().format(preco);
+    }
+
+    private static void escreverCampo(Appendable destino, String rotulo, Object valor) throws IOException {
+        if (valor != null) {
+            destino.append(rotulo).append(": ").append(String.valueOf(valor)).append('\n');
+        }
+    }
+
+    private static void escreverCsv(Writer destino, Veiculo veiculo) throws IOException {
+        escreverValorCsv(destino, veiculo.getTipo());
+        destino.write(',');
+        escreverValorCsv(destino, veiculo.placa);
+        destino.write(',');
+        escreverValorCsv(destino, veiculo.marca);
+        destino.write(',');
+        escreverValorCsv(destino, veiculo.modelo);
+        destino.write(',');
+        escreverValorCsv(destino, veiculo.ano_de_fabricacao);
+        destino.write(',');
+        if (veiculo.preco != null) {
+            destino.write(veiculo.preco.toPlainString());
+        }
+        destino.write(',');
+        if (veiculo instanceof Carro && ((Carro) veiculo).numero_de_portas != null) {
+            destino.write(String.valueOf(((Carro) veiculo).numero_de_portas));
+        }
+        destino.write(',');
+        if (veiculo instanceof Motocicleta && ((Motocicleta) veiculo).cilindradas != null) {
+            destino.write(String.valueOf(((Motocicleta) veiculo).cilindradas));
+        }
+        destino.write(',');
+        destino.write(String.valueOf(veiculo.versao));
+        destino.write(',');
+        destino.write(String.valueOf(veiculo.vendido));
+        destino.write('\n');
+    }
+
+    /**
+     * Escreve um valor CSV, entre aspas somente quando contém vírgula, aspas ou quebra de linha.
+     */
+    static void escreverValorCsv(Writer destino, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        boolean aspas = false;
+        for (int i = 0; i < valor.length() && !aspas; i++) {
+            char c = valor.charAt(i);
+            aspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!aspas) {
+            destino.write(valor);
+            return;
+        }
+        destino.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                destino.write('"');
+            }
+            destino.write(c);
+        }
+        destino.write('"');
+    }
+
+    private static void escreverJson(Writer destino, Veiculo veiculo) throws IOException {
+        destino.write("{\"tipo\":");
+        escreverTextoJson(destino, veiculo.getTipo());
+        destino.write(",\"placa\":");
+        escreverTextoJson(destino, veiculo.placa);
+        destino.write(",\"marca\":");
+        escreverTextoJson(destino, veiculo.marca);
+        destino.write(",\"modelo\":");
+        escreverTextoJson(destino, veiculo.modelo);
+        destino.write(",\"ano_de_fabricacao\":");
+        escreverTextoJson(destino, veiculo.ano_de_fabricacao);
+        destino.write(",\"preco\":");
+        destino.write(veiculo.preco == null ? "null" : veiculo.preco.toPlainString());
+        if (veiculo instanceof Carro) {
+            destino.write(",\"numero_de_portas\":");
+            destino.write(String.valueOf(((Carro) veiculo).numero_de_portas));
+        } else if (veiculo instanceof Motocicleta) {
+            destino.write(",\"cilindradas\":");
+            destino.write(String.valueOf(((Motocicleta) veiculo).cilindradas));
+        }
+        destino.write(",\"versao\":");
+        destino.write(String.valueOf(veiculo.versao));
+        destino.write(",\"vendido\":");
+        destino.write(String.valueOf(veiculo.vendido));
+        destino.write("}\n");
+    }
+
+    private static void escreverTextoJson(Writer destino, String valor) throws IOException {
+        if (valor == null) {
+            destino.write("null");
+            return;
+        }
+        destino.write('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                destino.write('\\');
+                destino.write(c);
+            } else if (c < 0x20) {
+                destino.write(String.format("\\u%04x", (int) c));
+            } else {
+                destino.write(c);
+            }
+        }
+        destino.write('"');
+    }
+}
@@ -0,0 +1,552 @@
+/**
+ * A classe `ReplicaLocalMongoDB` mantém em memória uma réplica da coleção de veículos do MongoDB, de modo que as
+ * buscas por placa, listagens, páginas, consultas e agregações sejam atendidas localmente, sem ida à rede.
+ * A coleção é carregada uma vez e, a partir daí, acompanhada por um change stream; o token de retomada do último
+ * evento aplicado permite continuar do mesmo ponto após uma falha de conexão. Enquanto a réplica não estiver em
+ * dia (na carga inicial ou ao retomar o change stream), as leituras são repassadas ao `BancoDeDadosArmazenamento`.
+ * As gravações sempre vão para o MongoDB e chegam à réplica pelo próprio change stream.
+ *
+ * Change streams exigem um replica set; para testes basta um servidor local de um único nó
+ * (`mongod --replSet rs0` seguido de `rs.initiate()`), indicado na propriedade `concessionaria.mongodb.uri`.
+ */
+package com.example.concessionaria;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ReplicaLocalMongoDB implements I_Armazenamento {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaLocalMongoDB.class);
+
+    // Tempo máximo que o cursor espera por eventos antes de verificar se a réplica foi fechada
+    private static final long ESPERA_EVENTOS_MS = 500;
+
+    // Espera entre tentativas de reconexão, dobrada a cada falha consecutiva
+    private static final long ESPERA_RECONEXAO_INICIAL_MS = 100;
+    private static final long ESPERA_RECONEXAO_MAXIMA_MS = 30_000;
+
+    // Códigos de erro do servidor que impedem a retomada pelo token (o histórico do oplog já foi descartado)
+    private static final int CODIGO_HISTORICO_PERDIDO = 286;
+    private static final int CODIGO_FALHA_FATAL = 280;
+
+    // Armazenamento usado nas gravações e nas leituras enquanto a réplica não está em dia
+    private final BancoDeDadosArmazenamento primario;
+
+    // Coleção acompanhada pelo change stream
+    private final MongoCollection<Document> colecao;
+
+    // Veículos replicados, indexados pelo `_id` (ordem de inserção) e pela placa
+    private final ConcurrentSkipListMap<String, Entrada> porId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Entrada> porPlaca = new ConcurrentSkipListMap<>();
+
+    // Placas gravadas por esta instância cujo evento ainda não chegou; são lidas do MongoDB
+    private final Set<String> placasPendentes = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong eventosAplicados = new AtomicLong();
+    private final AtomicLong leiturasDiretas = new AtomicLong();
+
+    private volatile boolean sincronizada;
+    private volatile boolean ativa;
+    private volatile BsonDocument tokenRetomada;
+    private Thread leitor;
+
+    /**
+     * Veículo replicado: o documento do MongoDB e o veículo tipado, convertido uma única vez ao aplicar o evento.
+     */
+    private static final class Entrada {
+        final Document documento;
+        final Veiculo veiculo;
+
+        Entrada(Document documento) {
+            this.documento = documento;
+            this.veiculo = Veiculo.fromDocument(documento);
+        }
+    }
+
+    /**
+     * Construtor da classe `ReplicaLocalMongoDB` sobre a coleção padrão de veículos.
+     * A réplica só começa a ser carregada em `iniciar()`.
+     */
+    public ReplicaLocalMongoDB() {
+        this("veiculos");
+    }
+
+    /**
+     * Construtor da classe `ReplicaLocalMongoDB` sobre uma coleção específica, usando a conexão `MongoDBConnection`.
+     * @param collectionName O nome da coleção de veículos no banco de dados.
+     */
+    public ReplicaLocalMongoDB(String collectionName) {
+        this(new BancoDeDadosArmazenamento(collectionName), MongoDBConnection.getInstance().getCollection(collectionName));
+    }
+
+    /**
+     * Construtor da classe `ReplicaLocalMongoDB`.
+     * @param primario O armazenamento da coleção, usado nas gravações e nas leituras diretas.
+     * @param colecao A mesma coleção, acompanhada pelo change stream.
+     */
+    public ReplicaLocalMongoDB(BancoDeDadosArmazenamento primario, MongoCollection<Document> colecao) {
+        this.primario = primario;
+        this.colecao = colecao;
+    }
+
+    /**
+     * Inicia a carga da réplica e o acompanhamento do change stream em uma thread própria. Até que a réplica
+     * esteja em dia, as leituras são repassadas ao MongoDB.
+     */
+    public synchronized void iniciar() {
+        if (ativa) {
+            return;
+        }
+        ativa = true;
+        leitor = new Thread(this::replicar, "replica-mongodb");
+        leitor.setDaemon(true);
+        leitor.start();
+    }
+
+    /**
+     * Aguarda até que a réplica esteja em dia com o MongoDB.
+     * @param timeoutMs O tempo máximo de espera, em milissegundos.
+     * @return `true` se a réplica estiver em dia, `false` se o tempo se esgotar.
+     * @throws InterruptedException Se a thread for interrompida durante a espera.
+     */
+    public boolean aguardarSincronizacao(long timeoutMs) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!sincronizada) {
+            if (System.nanoTime() >= limite) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Encerra o acompanhamento do change stream. As leituras seguintes são repassadas ao MongoDB.
+     */
+    public void fechar() {
+        Thread atual;
+        synchronized (this) {
+            ativa = false;
+            sincronizada = false;
+            atual = leitor;
+            leitor = null;
+        }
+        if (atual != null) {
+            try {
+                atual.join(ESPERA_EVENTOS_MS * 4);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Laço da thread de replicação: abre o change stream (carregando a coleção quando não há token de retomada),
+     * aplica os eventos e, em caso de falha, reabre o change stream a partir do último token.
+     */
+    private void replicar() {
+        long esperaReconexao = ESPERA_RECONEXAO_INICIAL_MS;
+        while (ativa) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = abrirChangeStream()) {
+                esperaReconexao = ESPERA_RECONEXAO_INICIAL_MS;
+                boolean valido = true;
+                while (ativa && valido) {
+                    ChangeStreamDocument<Document> alteracao = cursor.tryNext();
+                    if (alteracao == null) {
+                        // Nenhum evento pendente: a réplica está em dia
+                        if (!sincronizada) {
+                            sincronizada = true;
+                            LOGGER.info("Réplica local sincronizada: veiculos={}", porId.size());
+                        }
+                    } else {
+                        valido = aplicarAlteracao(alteracao);
+                    }
+                    tokenRetomada = valido ? cursor.getResumeToken() : null;
+                }
+                if (!valido) {
+                    // A coleção foi removida ou renomeada: a réplica é recarregada do zero
+                    sincronizada = false;
+                    LOGGER.warn("Réplica local invalidada pelo change stream; recarregando a coleção.");
+                }
+            } catch (MongoException e) {
+                sincronizada = false;
+                if (e.getCode() == CODIGO_HISTORICO_PERDIDO || e.getCode() == CODIGO_FALHA_FATAL) {
+                    tokenRetomada = null;
+                }
+                LOGGER.error("Falha no change stream da réplica local (nova tentativa em {} ms): {}", esperaReconexao, e.getMessage());
+                try {
+                    Thread.sleep(esperaReconexao);
+                } catch (InterruptedException interrupcao) {
+                    Thread.currentThread().interrupt();
+                    ativa = false;
+                }
+                esperaReconexao = Math.min(esperaReconexao * 2, ESPERA_RECONEXAO_MAXIMA_MS);
+            }
+        }
+    }
+
+    /**
+     * Abre o change stream da coleção. Sem token de retomada, o change stream é aberto antes da carga completa,
+     * de modo que nenhuma alteração concorrente à carga se perca; os eventos que a carga já refletiu são
+     * reaplicados sem efeito, pois cada evento substitui ou remove o veículo inteiro.
+     * @return O cursor do change stream.
+     */
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrirChangeStream() {
+        BsonDocument token = tokenRetomada;
+        if (token != null) {
+            return colecao.watch()
+                    .resumeAfter(token)
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .maxAwaitTime(ESPERA_EVENTOS_MS, TimeUnit.MILLISECONDS)
+                    .cursor();
+        }
+
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = colecao.watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(ESPERA_EVENTOS_MS, TimeUnit.MILLISECONDS)
+                .cursor();
+        try {
+            carregar();
+        } catch (MongoException e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    /**
+     * Carrega todos os veículos da coleção, substituindo o conteúdo da réplica.
+     */
+    private void carregar() {
+        long inicio = System.currentTimeMillis();
+        porId.clear();
+        porPlaca.clear();
+        for (Document documento : colecao.find()) {
+            armazenar(documento);
+        }
+        LOGGER.info("Réplica local carregada: veiculos={}, tempoMs={}", porId.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Aplica um evento do change stream à réplica.
+     * @param alteracao O evento recebido.
+     * @return `false` se o evento invalidar o change stream (remoção ou renomeação da coleção), `true` caso contrário.
+     */
+    boolean aplicarAlteracao(ChangeStreamDocument<Document> alteracao) {
+        switch (alteracao.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                if (alteracao.getFullDocument() != null) {
+                    armazenar(alteracao.getFullDocument());
+                } else if (alteracao.getDocumentKey() != null) {
+                    // Na atualização, o documento completo é nulo se ele foi removido antes da consulta
+                    remover(alteracao.getDocumentKey().get("_id"));
+                }
+                break;
+            case DELETE:
+                remover(alteracao.getDocumentKey().get("_id"));
+                break;
+            case DROP:
+            case RENAME:
+            case DROP_DATABASE:
+            case INVALIDATE:
+                porId.clear();
+                porPlaca.clear();
+                return false;
+            default:
+                break;
+        }
+        eventosAplicados.incrementAndGet();
+        return true;
+    }
+
+    private void armazenar(Document documento) {
+        Entrada entrada = new Entrada(documento);
+        Entrada anterior = porId.put(chave(documento.get("_id")), entrada);
+        if (anterior != null && anterior.veiculo.placa != null && !anterior.veiculo.placa.equals(entrada.veiculo.placa)) {
+            porPlaca.remove(anterior.veiculo.placa, anterior);
+        }
+        if (entrada.veiculo.placa != null) {
+            porPlaca.put(entrada.veiculo.placa, entrada);
+            placasPendentes.remove(entrada.veiculo.placa);
+        }
+    }
+
+    private void remover(Object id) {
+        Entrada anterior = porId.remove(chave(id));
+        if (anterior != null && anterior.veiculo.placa != null) {
+            porPlaca.remove(anterior.veiculo.placa, anterior);
+            placasPendentes.remove(anterior.veiculo.placa);
+        }
+    }
+
+    /**
+     * Converte o `_id` de um documento (ou de um evento) na chave da réplica. O hexadecimal do `ObjectId` preserva
+     * a sua ordem, que é a ordem de inserção usada na paginação, e é o mesmo token de `BancoDeDadosArmazenamento`.
+     */
+    private static String chave(Object id) {
+        if (id instanceof BsonObjectId) {
+            return ((BsonObjectId) id).getValue().toHexString();
+        }
+        if (id instanceof ObjectId) {
+            return ((ObjectId) id).toHexString();
+        }
+        if (id instanceof BsonString) {
+            return ((BsonString) id).getValue();
+        }
+        return id instanceof BsonValue ? id.toString() : String.valueOf(id);
+    }
+
+    /**
+     * Adiciona um veículo ao estoque no MongoDB. Até que o evento da inserção chegue, a placa é lida do MongoDB.
+     * @param veiculo O veículo a ser adicionado.
+     * @return `true` se a inserção for bem-sucedida, `false` em caso de erro.
+     */
+    @Override
+    public boolean addVeiculoEstoque(Veiculo veiculo) {
+        placasPendentes.add(veiculo.placa);
+        boolean inserido = primario.addVeiculoEstoque(veiculo);
+        if (!inserido) {
+            placasPendentes.remove(veiculo.placa);
+        }
+        return inserido;
+    }
+
+    /**
+     * Adiciona um lote de veículos ao estoque no MongoDB. Até que os eventos cheguem, as placas são lidas do MongoDB.
+     * @param veiculos Os veículos a serem adicionados.
+     * @return O resultado da inserção de cada veículo.
+     */
+    @Override
+    public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+        for (Veiculo veiculo : veiculos) {
+            placasPendentes.add(veiculo.placa);
+        }
+        List<ResultadoInsercao> resultados = primario.addVeiculosEstoque(veiculos);
+        for (ResultadoInsercao resultado : resultados) {
+            if (!resultado.isSucesso()) {
+                placasPendentes.remove(resultado.placa);
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Altera um veículo no MongoDB, com a versão conferida pelo próprio servidor. Até que o evento da alteração
+     * chegue, a placa é lida do MongoDB, de modo que quem alterou não leia a versão anterior.
+     * @param placa A placa do veículo a ser alterado.
+     * @param alteracao Os atributos a serem alterados.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da alteração.
+     */
+    @Override
+    public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+        placasPendentes.add(placa);
+        ResultadoAtualizacao resultado = primario.atualizarVeiculo(placa, alteracao, versaoEsperada);
+        if (!resultado.isSucesso()) {
+            placasPendentes.remove(placa);
+        }
+        return resultado;
+    }
+
+    /**
+     * Remove um veículo do MongoDB, com a versão conferida pelo próprio servidor. Até que o evento da remoção
+     * chegue, a placa é lida do MongoDB.
+     * @param placa A placa do veículo a ser removido.
+     * @param versaoEsperada A versão lida pelo chamador ou `QUALQUER_VERSAO` para não conferir.
+     * @return O resultado da remoção.
+     */
+    @Override
+    public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+        placasPendentes.add(placa);
+        ResultadoAtualizacao resultado = primario.removerVeiculo(placa, versaoEsperada);
+        if (!resultado.isSucesso()) {
+            placasPendentes.remove(placa);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca um veículo pela placa na réplica ou, se ela não estiver em dia, no MongoDB.
+     * @param placa O número de placa do veículo a ser buscado.
+     * @return Uma cópia do documento do veículo ou `null` se não encontrado.
+     */
+    @Override
+    public Document findVeiculoEstoque(String placa) {
+        if (!atendeLocalmente(placa)) {
+            return primario.findVeiculoEstoque(placa);
+        }
+        Entrada entrada = porPlaca.get(placa);
+        return entrada == null ? null : new Document(entrada.documento);
+    }
+
+    @Override
+    public Veiculo findVeiculoTipado(String placa) {
+        if (!atendeLocalmente(placa)) {
+            return primario.findVeiculoTipado(placa);
+        }
+        Entrada entrada = porPlaca.get(placa);
+        return entrada == null ? null : entrada.veiculo;
+    }
+
+    @Override
+    public List<Document> getAllVeiculos() {
+        if (!atendeLocalmente(null)) {
+            return primario.getAllVeiculos();
+        }
+        return porId.values().stream().map(entrada -> new Document(entrada.documento)).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Document> streamVeiculos() {
+        if (!atendeLocalmente(null)) {
+            return primario.streamVeiculos();
+        }
+        return porId.values().stream().map(entrada -> new Document(entrada.documento));
+    }
+
+    @Override
+    public List<Veiculo> getAllVeiculosTipados() {
+        if (!atendeLocalmente(null)) {
+            return primario.getAllVeiculosTipados();
+        }
+        return porId.values().stream().map(entrada -> entrada.veiculo).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Veiculo> streamVeiculosTipados() {
+        if (!atendeLocalmente(null)) {
+            return primario.streamVeiculosTipados();
+        }
+        return porId.values().stream().map(entrada -> entrada.veiculo);
+    }
+
+    /**
+     * Retorna uma página de veículos. Os tokens são os mesmos de `BancoDeDadosArmazenamento` (o `_id` do último
+     * veículo ou a última placa), de modo que uma listagem pode alternar entre a réplica e o MongoDB.
+     * @param tamanhoPagina O número máximo de veículos na página.
+     * @param ordenacao A chave de ordenação (`_id` ou `placa`).
+     * @param tokenRetomada O token retornado pela página anterior ou `null` para a primeira página.
+     * @return A página de veículos, com o token da próxima página.
+     */
+    @Override
+    public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+        if (tamanhoPagina <= 0) {
+            throw new IllegalArgumentException("O tamanho da página deve ser positivo: " + tamanhoPagina);
+        }
+        if (!atendeLocalmente(null)) {
+            return primario.listarPagina(tamanhoPagina, ordenacao, tokenRetomada);
+        }
+
+        NavigableMap<String, Entrada> indice = ordenacao == OrdenacaoPagina.PLACA ? porPlaca : porId;
+        Map<String, Entrada> restantes = tokenRetomada == null ? indice : indice.tailMap(tokenRetomada, false);
+
+        List<Veiculo> veiculos = new ArrayList<>(tamanhoPagina);
+        String proximoToken = null;
+        String ultimaChave = null;
+        for (Map.Entry<String, Entrada> item : restantes.entrySet()) {
+            if (veiculos.size() == tamanhoPagina) {
+                proximoToken = ultimaChave;
+                break;
+            }
+            veiculos.add(item.getValue().veiculo);
+            ultimaChave = item.getKey();
+        }
+        return new PaginaVeiculos(veiculos, proximoToken);
+    }
+
+    @Override
+    public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+        if (!atendeLocalmente(null)) {
+            return primario.consultarVeiculos(consulta);
+        }
+        return ConsultaEmMemoria.consultar(streamVeiculosTipados(), consulta, Veiculo::toDocument);
+    }
+
+    @Override
+    public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+        if (!atendeLocalmente(null)) {
+            return primario.agregarPrecos(agrupamento, filtro);
+        }
+        return AgregadorEstoque.agregar(streamVeiculosTipados(), agrupamento, filtro);
+    }
+
+    /**
+     * Verifica se uma leitura pode ser atendida pela réplica, contando as que são repassadas ao MongoDB.
+     * @param placa A placa buscada ou `null` para leituras do estoque inteiro.
+     * @return `true` se a réplica estiver em dia (e a placa não tiver gravação pendente).
+     */
+    private boolean atendeLocalmente(String placa) {
+        if (sincronizada && (placa == null || !placasPendentes.contains(placa))) {
+            return true;
+        }
+        leiturasDiretas.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Indica se a réplica está em dia com o MongoDB e atendendo às leituras.
+     * @return `true` se a réplica estiver sincronizada.
+     */
+    public boolean isSincronizada() {
+        return sincronizada;
+    }
+
+    /**
+     * Obtém o token de retomada do último evento aplicado.
+     * @return O token de retomada ou `null` se o change stream ainda não foi aberto.
+     */
+    public BsonDocument getTokenRetomada() {
+        return tokenRetomada;
+    }
+
+    /**
+     * Obtém o número de veículos na réplica.
+     * @return O número de veículos.
+     */
+    public int getQuantidade() {
+        return porId.size();
+    }
+
+    /**
+     * Obtém o número de eventos do change stream aplicados à réplica.
+     * @return O total de eventos aplicados.
+     */
+    public long getEventosAplicados() {
+        return eventosAplicados.get();
+    }
+
+    /**
+     * Obtém o número de leituras repassadas ao MongoDB por a réplica não estar em dia.
+     * @return O total de leituras diretas.
+     */
+    public long getLeiturasDiretas() {
+        return leiturasDiretas.get();
+    }
+}
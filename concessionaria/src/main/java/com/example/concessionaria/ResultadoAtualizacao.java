@@ -0,0 +1,120 @@
+/**
+ * A classe `ResultadoAtualizacao` representa o resultado de uma alteração ou remoção de veículo com controle de
+ * concorrência otimista. Em caso de conflito de versão, traz o veículo como ele está no estoque, para que a
+ * operação possa ser refeita sobre a versão atual.
+ */
+package com.example.concessionaria;
+
+public class ResultadoAtualizacao {
+    /**
+     * Situação final da alteração ou remoção de um veículo.
+     */
+    public enum Status {
+        ATUALIZADO,
+        REMOVIDO,
+        NAO_ENCONTRADO,
+        CONFLITO_VERSAO,
+        ERRO
+    }
+
+    // Placa do veículo ao qual o resultado se refere
+    public final String placa;
+    public final Status status;
+    // Veículo alterado, removido ou, no conflito de versão, o atual; `null` nos demais casos
+    public final Veiculo veiculo;
+    // Mensagem de erro, quando houver
+    public final String mensagem;
+
+    /**
+     * Construtor da classe `ResultadoAtualizacao`.
+     * @param placa A placa do veículo.
+     * @param status A situação final da operação.
+     * @param veiculo O veículo resultante, removido ou atual, conforme o status.
+     * @param mensagem A mensagem de erro ou `null` em caso de sucesso.
+     */
+    public ResultadoAtualizacao(String placa, Status status, Veiculo veiculo, String mensagem) {
+        this.placa = placa;
+        this.status = status;
+        this.veiculo = veiculo;
+        this.mensagem = mensagem;
+    }
+
+    /**
+     * Cria o resultado de uma alteração gravada.
+     * @param veiculo O veículo com as alterações e a nova versão.
+     * @return O resultado com status `ATUALIZADO`.
+     */
+    public static ResultadoAtualizacao atualizado(Veiculo veiculo) {
+        return new ResultadoAtualizacao(veiculo.placa, Status.ATUALIZADO, veiculo, null);
+    }
+
+    /**
+     * Cria o resultado de uma remoção.
+     * @param veiculo O veículo removido.
+     * @return O resultado com status `REMOVIDO`.
+     */
+    public static ResultadoAtualizacao removido(Veiculo veiculo) {
+        return new ResultadoAtualizacao(veiculo.placa, Status.REMOVIDO, veiculo, null);
+    }
+
+    /**
+     * Cria o resultado de uma operação sobre uma placa que não está no estoque.
+     * @param placa A placa procurada.
+     * @return O resultado com status `NAO_ENCONTRADO`.
+     */
+    public static ResultadoAtualizacao naoEncontrado(String placa) {
+        return new ResultadoAtualizacao(placa, Status.NAO_ENCONTRADO, null, "Nenhum veículo com a placa '" + placa + "'.");
+    }
+
+    /**
+     * Cria o resultado de uma operação rejeitada porque o veículo foi alterado depois da versão esperada.
+     * @param atual O veículo como ele está no estoque.
+     * @param versaoEsperada A versão informada na operação.
+     * @return O resultado com status `CONFLITO_VERSAO`.
+     */
+    public static ResultadoAtualizacao conflitoVersao(Veiculo atual, long versaoEsperada) {
+        return new ResultadoAtualizacao(atual.placa, Status.CONFLITO_VERSAO, atual,
+                "Versão esperada " + versaoEsperada + ", atual " + atual.versao + ".");
+    }
+
+    /**
+     * Cria o resultado de uma operação que falhou por outro motivo.
+     * @param placa A placa do veículo.
+     * @param mensagem A mensagem de erro.
+     * @return O resultado com status `ERRO`.
+     */
+    public static ResultadoAtualizacao erro(String placa, String mensagem) {
+        return new ResultadoAtualizacao(placa, Status.ERRO, null, mensagem);
+    }
+
+    /**
+     * Confere a versão do veículo atual antes de uma alteração ou remoção.
+     * @param placa A placa do veículo.
+     * @param atual O veículo no estoque ou `null` se a placa não existir.
+     * @param versaoEsperada A versão esperada ou `I_Armazenamento.QUALQUER_VERSAO`.
+     * @return O resultado da rejeição ou `null` se a operação puder prosseguir.
+     */
+    public static ResultadoAtualizacao conferirVersao(String placa, Veiculo atual, long versaoEsperada) {
+        if (atual == null) {
+            return naoEncontrado(placa);
+        }
+        if (versaoEsperada != I_Armazenamento.QUALQUER_VERSAO && atual.versao != versaoEsperada) {
+            return conflitoVersao(atual, versaoEsperada);
+        }
+        return null;
+    }
+
+    /**
+     * Indica se a alteração ou a remoção foi gravada.
+     * @return `true` se o status for `ATUALIZADO` ou `REMOVIDO`.
+     */
+    public boolean isSucesso() {
+        return status == Status.ATUALIZADO || status == Status.REMOVIDO;
+    }
+
+    @Override
+    public String toString() {
+        return placa + ": " + status + (veiculo != null ? " (versão " + veiculo.versao + ")" : "")
+                + (mensagem != null ? " (" + mensagem + ")" : "");
+    }
+}
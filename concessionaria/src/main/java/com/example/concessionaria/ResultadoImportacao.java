@@ -0,0 +1,40 @@
+/**
+ * A classe `ResultadoImportacao` resume uma importação do `ImportadorVeiculos`: as linhas lidas do arquivo, os
+ * veículos gravados no armazenamento, as linhas rejeitadas (registradas no arquivo de rejeitados) e a duração.
+ */
+package com.example.concessionaria;
+
+public class ResultadoImportacao {
+    public final long linhasLidas;
+    public final long gravados;
+    public final long rejeitados;
+    public final long duracaoMs;
+
+    /**
+     * Construtor da classe `ResultadoImportacao`.
+     * @param linhasLidas O número de linhas de dados lidas do arquivo.
+     * @param gravados O número de veículos gravados no armazenamento.
+     * @param rejeitados O número de linhas rejeitadas.
+     * @param duracaoMs A duração da importação, em milissegundos.
+     */
+    public ResultadoImportacao(long linhasLidas, long gravados, long rejeitados, long duracaoMs) {
+        this.linhasLidas = linhasLidas;
+        this.gravados = gravados;
+        this.rejeitados = rejeitados;
+        this.duracaoMs = duracaoMs;
+    }
+
+    /**
+     * Obtém a vazão da importação.
+     * @return O número de linhas processadas por segundo.
+     */
+    public double getLinhasPorSegundo() {
+        return duracaoMs == 0 ? linhasLidas : linhasLidas * 1000.0 / duracaoMs;
+    }
+
+    @Override
+    public String toString() {
+        return linhasLidas + " linhas lidas, " + gravados + " gravadas, " + rejeitados + " rejeitadas em "
+                + duracaoMs + " ms (" + Math.round(getLinhasPorSegundo()) + " linhas/s)";
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * A classe `ResultadoInsercao` representa o resultado da inserção de um veículo em uma operação em lote,
+ * permitindo que cada veículo do lote seja tratado individualmente sem interromper os demais.
+ */
+package com.example.concessionaria;
+
+public class ResultadoInsercao {
+    /**
+     * Situação final da inserção de um veículo.
+     */
+    public enum Status {
+        INSERIDO,
+        PLACA_DUPLICADA,
+        ERRO
+    }
+
+    // Placa do veículo ao qual o resultado se refere
+    public final String placa;
+    public final Status status;
+    // Mensagem de erro, quando houver
+    public final String mensagem;
+
+    /**
+     * Construtor da classe `ResultadoInsercao`.
+     * @param placa A placa do veículo.
+     * @param status A situação final da inserção.
+     * @param mensagem A mensagem de erro ou `null` em caso de sucesso.
+     */
+    public ResultadoInsercao(String placa, Status status, String mensagem) {
+        this.placa = placa;
+        this.status = status;
+        this.mensagem = mensagem;
+    }
+
+    /**
+     * Cria o resultado de uma inserção bem-sucedida.
+     * @param placa A placa do veículo inserido.
+     * @return O resultado com status `INSERIDO`.
+     */
+    public static ResultadoInsercao inserido(String placa) {
+        return new ResultadoInsercao(placa, Status.INSERIDO, null);
+    }
+
+    /**
+     * Cria o resultado de uma inserção rejeitada por placa duplicada.
+     * @param placa A placa duplicada.
+     * @return O resultado com status `PLACA_DUPLICADA`.
+     */
+    public static ResultadoInsercao placaDuplicada(String placa) {
+        return new ResultadoInsercao(placa, Status.PLACA_DUPLICADA, "Já existe um veículo com a placa '" + placa + "'.");
+    }
+
+    /**
+     * Cria o resultado de uma inserção que falhou por outro motivo.
+     * @param placa A placa do veículo.
+     * @param mensagem A mensagem de erro.
+     * @return O resultado com status `ERRO`.
+     */
+    public static ResultadoInsercao erro(String placa, String mensagem) {
+        return new ResultadoInsercao(placa, Status.ERRO, mensagem);
+    }
+
+    /**
+     * Indica se o veículo foi inserido.
+     * @return `true` se o status for `INSERIDO`.
+     */
+    public boolean isSucesso() {
+        return status == Status.INSERIDO;
+    }
+
+    @Override
+    public String toString() {
+        return placa + ": " + status + (mensagem != null ? " (" + mensagem + ")" : "");
+    }
+}
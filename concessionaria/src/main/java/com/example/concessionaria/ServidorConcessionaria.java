@@ -0,0 +1,585 @@
+/**
+ * A classe `ServidorConcessionaria` expõe as operações de estoque de uma `Concessionaria` por HTTP, sobre o
+ * `HttpServer` do JDK. Cada requisição é atendida por uma thread virtual quando a JVM oferece
+ * `Executors.newVirtualThreadPerTaskExecutor()` (Java 21+); no Java 17, por um pool de threads de plataforma
+ * reaproveitadas entre requisições.
+ *
+ * Rotas (corpos e respostas em JSON, em UTF-8):
+ * - `POST /veiculos`: adiciona um veículo (201, 400 se ele não passar em `Veiculo.validar`, 409 se a placa já
+ *   existir);
+ * - `POST /veiculos/lote`: adiciona um lote (um array de veículos) e retorna o resultado de cada um; os veículos
+ *   inválidos recebem `ERRO` com o motivo e não são enviados ao armazenamento;
+ * - `GET /veiculos/{placa}`: busca um veículo (404 se não existir), com a versão no cabeçalho `ETag`;
+ * - `PATCH /veiculos/{placa}`: altera os atributos do corpo (um objeto com os campos a alterar);
+ * - `POST /veiculos/{placa}/venda`: registra a venda do veículo (409 se ele já tiver sido vendido);
+ * - `DELETE /veiculos/{placa}`: remove o veículo;
+ * - `GET /veiculos?tamanho=&ordenacao=&token=`: uma página de veículos, com o token da próxima no cabeçalho
+ *   `X-Proximo-Token`;
+ * - `GET /consulta?tipo=&marca=&...`: os veículos que atendem aos filtros de `ConsultaVeiculos`;
+ * - `GET /estoque`: todo o estoque.
+ *
+ * As alterações, vendas e remoções usam controle de concorrência otimista: o cabeçalho `If-Match` traz a versão lida
+ * (o `ETag` da busca), e a operação é recusada com 412 e o veículo atual se ele tiver sido alterado desde então. Sem
+ * `If-Match` (ou com `*`), a versão não é conferida. As respostas de sucesso trazem o veículo com a nova versão.
+ *
+ * As listagens são escritas em JSON por linha (`application/x-ndjson`) com codificação chunked, à medida que são
+ * lidas do armazenamento. O número de requisições em atendimento é limitado: acima do limite, a requisição espera
+ * por uma vaga por pouco tempo e, se não houver, recebe 503 com `Retry-After`. As conexões são mantidas abertas
+ * entre requisições (keep-alive do HTTP/1.1) sempre que o corpo da requisição é lido por completo.
+ */
+package com.example.concessionaria;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ServidorConcessionaria {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServidorConcessionaria.class);
+
+    // Número padrão de requisições atendidas ao mesmo tempo
+    public static final int LIMITE_PADRAO = 1024;
+
+    // Tempo máximo que uma requisição espera por uma vaga antes de receber 503
+    private static final long ESPERA_VAGA_MS = 50;
+
+    // Tamanho padrão e máximo de uma página da listagem paginada
+    private static final int TAMANHO_PAGINA_PADRAO = 100;
+    private static final int TAMANHO_PAGINA_MAXIMO = 10_000;
+
+    // Fila de conexões aceitas pelo sistema operacional e ainda não atendidas
+    private static final int FILA_CONEXOES = 4096;
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String JSON_LINHAS = "application/x-ndjson; charset=utf-8";
+
+    // Documentos das consultas em JSON simples: preços como números e `_id` como texto
+    private static final JsonWriterSettings CONFIGURACAO_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .decimal128Converter((valor, escritor) -> escritor.writeNumber(valor.bigDecimalValue().toPlainString()))
+            .objectIdConverter((valor, escritor) -> escritor.writeString(valor.toHexString()))
+            .build();
+
+    static {
+        // Desliga o algoritmo de Nagle nas conexões aceitas: cabeçalhos e corpo são escritos separadamente e, com
+        // ele, cada resposta em uma conexão keep-alive esperaria o ACK atrasado do cliente (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Concessionaria concessionaria;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final Semaphore vagas;
+
+    // Métricas das requisições
+    private final I_RegistroMetricas registro = Metricas.getRegistro();
+    private final I_RegistroMetricas.Contador requisicoes = registro.contador("http.requisicoes");
+    private final I_RegistroMetricas.Contador rejeitadas = registro.contador("http.rejeitadas");
+    private final I_RegistroMetricas.Contador erros = registro.contador("http.erros");
+
+    // Rotas, cada uma com o seu tempo de atendimento
+    private final Rota rotaAdicionar = rota("POST", "http.adicionar", this::adicionar);
+    private final Rota rotaAdicionarLote = rota("POST", "http.adicionarLote", this::adicionarLote);
+    private final Rota rotaListarPagina = rota("GET", "http.listarPagina", this::listarPagina);
+    private final Rota rotaBuscar = rota("GET", "http.buscar", this::buscar);
+    private final Rota rotaAtualizar = rota("PATCH", "http.atualizar", this::atualizar);
+    private final Rota rotaVender = rota("POST", "http.vender", this::vender);
+    private final Rota rotaRemover = rota("DELETE", "http.remover", this::remover);
+    private final Rota rotaConsultar = rota("GET", "http.consultar", this::consultar);
+    private final Rota rotaExportar = rota("GET", "http.exportar", this::exportar);
+
+    /**
+     * Rota atendida pelo servidor; recebe a requisição já com uma vaga reservada.
+     */
+    @FunctionalInterface
+    private interface Rota {
+        void atender(HttpExchange troca) throws IOException;
+    }
+
+    /**
+     * Erro da requisição que é respondido com o status informado em vez de 500.
+     */
+    private static final class ErroRequisicao extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ErroRequisicao(int status, String mensagem) {
+            super(mensagem);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Construtor da classe `ServidorConcessionaria` com o limite padrão de requisições simultâneas.
+     * @param concessionaria A concessionária cujas operações são expostas.
+     * @param porta A porta HTTP (0 para uma porta livre qualquer).
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public ServidorConcessionaria(Concessionaria concessionaria, int porta) throws IOException {
+        this(concessionaria, new InetSocketAddress(porta), LIMITE_PADRAO);
+    }
+
+    /**
+     * Construtor da classe `ServidorConcessionaria`. O servidor só aceita conexões após `iniciar()`.
+     * @param concessionaria A concessionária cujas operações são expostas.
+     * @param endereco O endereço e a porta HTTP.
+     * @param limiteSimultaneas O número máximo de requisições atendidas ao mesmo tempo.
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public ServidorConcessionaria(Concessionaria concessionaria, InetSocketAddress endereco, int limiteSimultaneas) throws IOException {
+        this.concessionaria = concessionaria;
+        this.vagas = new Semaphore(limiteSimultaneas);
+        this.executor = criarExecutorPorRequisicao();
+        this.servidor = HttpServer.create(endereco, FILA_CONEXOES);
+        this.servidor.setExecutor(executor);
+
+        this.servidor.createContext("/veiculos", troca -> despachar(troca, this::atenderVeiculos));
+        this.servidor.createContext("/consulta", troca -> despachar(troca, rotaConsultar));
+        this.servidor.createContext("/estoque", troca -> despachar(troca, rotaExportar));
+    }
+
+    /**
+     * Cria o executor das requisições: uma thread virtual por requisição, se a JVM oferecer, ou um pool de threads
+     * de plataforma (daemon) que cresce sob demanda e reaproveita as threads ociosas.
+     * @return O executor criado.
+     */
+    static ExecutorService criarExecutorPorRequisicao() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            return Executors.newCachedThreadPool(tarefa -> {
+                Thread thread = new Thread(tarefa, "http-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Começa a aceitar conexões.
+     */
+    public void iniciar() {
+        servidor.start();
+        LOGGER.info("Servidor HTTP iniciado: porta={}, limiteSimultaneas={}, executor={}",
+                getPorta(), vagas.availablePermits(), executor.getClass().getSimpleName());
+    }
+
+    /**
+     * Para de aceitar conexões, espera as requisições em atendimento e encerra o executor.
+     * @param esperaSegundos O tempo máximo de espera pelas requisições em atendimento.
+     */
+    public void parar(int esperaSegundos) {
+        servidor.stop(esperaSegundos);
+        executor.shutdown();
+        LOGGER.info("Servidor HTTP parado: porta={}", getPorta());
+    }
+
+    /**
+     * Obtém a porta em que o servidor está escutando.
+     * @return A porta HTTP.
+     */
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Reserva uma vaga para a requisição e a atende, convertendo erros em respostas HTTP.
+     */
+    private void despachar(HttpExchange troca, Rota rota) {
+        requisicoes.incrementar();
+        try (troca) {
+            boolean reservada;
+            try {
+                reservada = vagas.tryAcquire(ESPERA_VAGA_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reservada = false;
+            }
+            if (!reservada) {
+                rejeitadas.incrementar();
+                descartarCorpo(troca);
+                troca.getResponseHeaders().set("Retry-After", "1");
+                responderErro(troca, 503, "Servidor ocupado; tente novamente.");
+                return;
+            }
+
+            try {
+                rota.atender(troca);
+            } catch (ErroRequisicao e) {
+                responderErro(troca, e.status, e.getMessage());
+            } catch (JsonParseException | IllegalArgumentException | ClassCastException e) {
+                responderErro(troca, 400, e.getMessage());
+            } catch (IOException | UncheckedIOException e) {
+                // Em geral, o cliente fechou a conexão no meio da resposta
+                LOGGER.debug("Falha de E/S na requisição: uri={}, erro={}", troca.getRequestURI(), e.getMessage());
+            } catch (RuntimeException e) {
+                erros.incrementar();
+                LOGGER.error("Falha na requisição: uri={}, erro={}", troca.getRequestURI(), e.getMessage(), e);
+                responderErro(troca, 500, "Erro interno.");
+            } finally {
+                vagas.release();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Falha ao responder a requisição: uri={}, erro={}", troca.getRequestURI(), e.getMessage());
+        }
+    }
+
+    /**
+     * Restringe uma rota a um método HTTP e mede o seu tempo de atendimento.
+     */
+    private Rota rota(String metodo, String metrica, Rota rota) {
+        I_RegistroMetricas.Temporizador tempo = registro.temporizador(metrica);
+        return troca -> {
+            if (!metodo.equals(troca.getRequestMethod())) {
+                descartarCorpo(troca);
+                troca.getResponseHeaders().set("Allow", metodo);
+                throw new ErroRequisicao(405, "Método não permitido: " + troca.getRequestMethod());
+            }
+            long inicio = System.nanoTime();
+            try {
+                rota.atender(troca);
+            } finally {
+                tempo.registrar(System.nanoTime() - inicio);
+            }
+        };
+    }
+
+    /**
+     * Atende as rotas sob `/veiculos`.
+     */
+    private void atenderVeiculos(HttpExchange troca) throws IOException {
+        String caminho = troca.getRequestURI().getPath();
+        String resto = caminho.length() > "/veiculos".length() ? caminho.substring("/veiculos/".length()) : "";
+
+        if (resto.isEmpty()) {
+            ("POST".equals(troca.getRequestMethod()) ? rotaAdicionar : rotaListarPagina).atender(troca);
+        } else if ("lote".equals(resto)) {
+            rotaAdicionarLote.atender(troca);
+        } else if (resto.endsWith("/venda")) {
+            rotaVender.atender(troca);
+        } else if ("PATCH".equals(troca.getRequestMethod())) {
+            rotaAtualizar.atender(troca);
+        } else if ("DELETE".equals(troca.getRequestMethod())) {
+            rotaRemover.atender(troca);
+        } else {
+            rotaBuscar.atender(troca);
+        }
+    }
+
+    private void adicionar(HttpExchange troca) throws IOException {
+        Veiculo veiculo = Veiculo.fromDocument(Document.parse(lerCorpo(troca)));
+        String erro = veiculo.validar();
+        if (erro != null) {
+            throw new ErroRequisicao(400, erro);
+        }
+        ResultadoInsercao resultado = concessionaria.AdicionaVeiculosEstoque(List.of(veiculo)).get(0);
+
+        int status = resultado.isSucesso() ? 201 : resultado.status == ResultadoInsercao.Status.PLACA_DUPLICADA ? 409 : 500;
+        responder(troca, status, toDocument(resultado).toJson());
+    }
+
+    private void adicionarLote(HttpExchange troca) throws IOException {
+        // O parser do BSON só lê objetos; o array do corpo é lido como o campo de um objeto
+        List<Document> documentos = Document.parse("{\"veiculos\":" + lerCorpo(troca) + "}").getList("veiculos", Document.class);
+        // Os veículos inválidos recebem o erro na sua posição e não chegam ao armazenamento
+        ResultadoInsercao[] resultados = new ResultadoInsercao[documentos.size()];
+        List<Veiculo> validos = new ArrayList<>(documentos.size());
+        List<Integer> posicoes = new ArrayList<>(documentos.size());
+        for (int i = 0; i < documentos.size(); i++) {
+            Document documento = documentos.get(i);
+            String erro;
+            Veiculo veiculo = null;
+            try {
+                veiculo = Veiculo.fromDocument(documento);
+                erro = veiculo.validar();
+            } catch (IllegalArgumentException | ClassCastException e) {
+                erro = e.getMessage();
+            }
+            if (erro != null) {
+                Object placa = documento.get("placa");
+                resultados[i] = ResultadoInsercao.erro(placa == null ? null : placa.toString(), erro);
+            } else {
+                validos.add(veiculo);
+                posicoes.add(i);
+            }
+        }
+        if (!validos.isEmpty()) {
+            List<ResultadoInsercao> gravados = concessionaria.AdicionaVeiculosEstoque(validos);
+            for (int i = 0; i < gravados.size(); i++) {
+                resultados[posicoes.get(i)] = gravados.get(i);
+            }
+        }
+
+        StringBuilder corpo = new StringBuilder("[");
+        for (ResultadoInsercao resultado : resultados) {
+            if (corpo.length() > 1) {
+                corpo.append(',');
+            }
+            corpo.append(toDocument(resultado).toJson());
+        }
+        responder(troca, 200, corpo.append(']').toString());
+    }
+
+    private void buscar(HttpExchange troca) throws IOException {
+        descartarCorpo(troca);
+        String placa = troca.getRequestURI().getPath().substring("/veiculos/".length());
+        Veiculo veiculo = concessionaria.BuscaVeiculoEstoque(placa);
+        if (veiculo == null) {
+            throw new ErroRequisicao(404, "Veículo com placa (" + placa + ") não encontrado no estoque.");
+        }
+
+        responderVeiculo(troca, 200, veiculo);
+    }
+
+    private void atualizar(HttpExchange troca) throws IOException {
+        String placa = troca.getRequestURI().getPath().substring("/veiculos/".length());
+        AlteracaoVeiculo alteracao = AlteracaoVeiculo.fromDocument(Document.parse(lerCorpo(troca)));
+        String erro = alteracao.validar();
+        if (erro != null) {
+            throw new ErroRequisicao(400, erro);
+        }
+        responderAlteracao(troca, concessionaria.AtualizaVeiculoEstoque(placa, alteracao, versaoEsperada(troca)), alteracao);
+    }
+
+    private void vender(HttpExchange troca) throws IOException {
+        descartarCorpo(troca);
+        String caminho = troca.getRequestURI().getPath();
+        String placa = caminho.substring("/veiculos/".length(), caminho.length() - "/venda".length());
+        responderAlteracao(troca, concessionaria.VendeVeiculo(placa, versaoEsperada(troca)), AlteracaoVeiculo.venda());
+    }
+
+    private void remover(HttpExchange troca) throws IOException {
+        descartarCorpo(troca);
+        String placa = troca.getRequestURI().getPath().substring("/veiculos/".length());
+        responderAlteracao(troca, concessionaria.RemoveVeiculoEstoque(placa, versaoEsperada(troca)), null);
+    }
+
+    /**
+     * Lê a versão esperada do cabeçalho `If-Match` (`"3"`, `W/"3"` ou `3`); sem o cabeçalho, ou com `*`, a versão
+     * não é conferida.
+     */
+    private static long versaoEsperada(HttpExchange troca) {
+        String valor = troca.getRequestHeaders().getFirst("If-Match");
+        if (valor == null || valor.isBlank() || "*".equals(valor.trim())) {
+            return I_Armazenamento.QUALQUER_VERSAO;
+        }
+        String versao = valor.trim();
+        if (versao.startsWith("W/")) {
+            versao = versao.substring(2);
+        }
+        try {
+            return Long.parseLong(versao.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ErroRequisicao(400, "Versão inválida em If-Match: " + valor);
+        }
+    }
+
+    /**
+     * Responde o resultado de uma alteração, venda ou remoção: 200 com o veículo, 404, 412 com o veículo atual no
+     * conflito de versão, 409 se a alteração não se aplicar ao veículo atual (por exemplo, já vendido) e 500 nos
+     * demais erros.
+     * @param alteracao A alteração pedida ou `null` na remoção.
+     */
+    private void responderAlteracao(HttpExchange troca, ResultadoAtualizacao resultado, AlteracaoVeiculo alteracao) throws IOException {
+        switch (resultado.status) {
+            case ATUALIZADO:
+            case REMOVIDO:
+                responderVeiculo(troca, 200, resultado.veiculo);
+                return;
+            case CONFLITO_VERSAO:
+                responderVeiculo(troca, 412, resultado.veiculo);
+                return;
+            case NAO_ENCONTRADO:
+                throw new ErroRequisicao(404, resultado.mensagem);
+            default:
+                // Distingue uma alteração que não se aplica ao veículo atual de uma falha do armazenamento
+                Veiculo atual = alteracao == null ? null : concessionaria.BuscaVeiculoEstoque(resultado.placa);
+                if (atual != null && alteracao.verificar(atual) != null) {
+                    throw new ErroRequisicao(409, resultado.mensagem);
+                }
+                throw new ErroRequisicao(500, resultado.mensagem);
+        }
+    }
+
+    /**
+     * Responde um veículo em JSON, com a sua versão no cabeçalho `ETag`.
+     */
+    private static void responderVeiculo(HttpExchange troca, int status, Veiculo veiculo) throws IOException {
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream(256);
+        try (RelatorioVeiculos relatorio = new RelatorioVeiculos(corpo, FormatoRelatorio.JSON_LINHAS)) {
+            relatorio.escrever(veiculo);
+        }
+        troca.getResponseHeaders().set("ETag", "\"" + veiculo.versao + "\"");
+        responder(troca, status, JSON, corpo.toByteArray());
+    }
+
+    private void listarPagina(HttpExchange troca) throws IOException {
+        Map<String, String> parametros = lerParametros(troca);
+        int tamanho = inteiro(parametros, "tamanho", TAMANHO_PAGINA_PADRAO);
+        if (tamanho <= 0 || tamanho > TAMANHO_PAGINA_MAXIMO) {
+            throw new ErroRequisicao(400, "O tamanho da página deve estar entre 1 e " + TAMANHO_PAGINA_MAXIMO + ".");
+        }
+        OrdenacaoPagina ordenacao = OrdenacaoPagina.valueOf(parametros.getOrDefault("ordenacao", "PLACA").toUpperCase());
+
+        PaginaVeiculos pagina = concessionaria.ObtemPaginaVeiculos(tamanho, ordenacao, parametros.get("token"));
+        if (pagina.temProxima()) {
+            troca.getResponseHeaders().set("X-Proximo-Token", pagina.proximoToken);
+        }
+        iniciarListagem(troca);
+        try (RelatorioVeiculos relatorio = new RelatorioVeiculos(troca.getResponseBody(), FormatoRelatorio.JSON_LINHAS)) {
+            relatorio.escreverTodos(pagina.veiculos.stream());
+        }
+    }
+
+    private void consultar(HttpExchange troca) throws IOException {
+        ConsultaVeiculos consulta = toConsulta(lerParametros(troca));
+        List<Document> documentos = concessionaria.ConsultarVeiculos(consulta);
+
+        iniciarListagem(troca);
+        try (Writer saida = new OutputStreamWriter(troca.getResponseBody(), StandardCharsets.UTF_8)) {
+            for (Document documento : documentos) {
+                saida.write(documento.toJson(CONFIGURACAO_JSON));
+                saida.write('\n');
+            }
+        }
+    }
+
+    private void exportar(HttpExchange troca) throws IOException {
+        descartarCorpo(troca);
+        iniciarListagem(troca);
+        concessionaria.ExportarVeiculos(troca.getResponseBody(), FormatoRelatorio.JSON_LINHAS);
+    }
+
+    /**
+     * Monta a consulta a partir dos parâmetros da URL; `campos` é uma lista separada por vírgulas.
+     */
+    static ConsultaVeiculos toConsulta(Map<String, String> parametros) {
+        ConsultaVeiculos consulta = new ConsultaVeiculos();
+        consulta.tipo = parametros.get("tipo");
+        consulta.marca = parametros.get("marca");
+        consulta.modelo = parametros.get("modelo");
+        consulta.cilindradas = parametros.containsKey("cilindradas") ? inteiro(parametros, "cilindradas", 0) : null;
+        consulta.numero_de_portas = parametros.containsKey("numero_de_portas") ? inteiro(parametros, "numero_de_portas", 0) : null;
+        consulta.vendido = parametros.containsKey("vendido") ? Boolean.valueOf(parametros.get("vendido")) : null;
+        consulta.ano_minimo = parametros.get("ano_minimo");
+        consulta.ano_maximo = parametros.get("ano_maximo");
+        consulta.preco_minimo = parametros.containsKey("preco_minimo") ? new BigDecimal(parametros.get("preco_minimo")) : null;
+        consulta.preco_maximo = parametros.containsKey("preco_maximo") ? new BigDecimal(parametros.get("preco_maximo")) : null;
+        consulta.ordenarPor = parametros.get("ordenarPor");
+        consulta.crescente = !"false".equalsIgnoreCase(parametros.get("crescente"));
+        consulta.campos = parametros.containsKey("campos") ? Arrays.asList(parametros.get("campos").split(",")) : null;
+        consulta.limite = inteiro(parametros, "limite", 0);
+        return consulta;
+    }
+
+    private static Document toDocument(ResultadoInsercao resultado) {
+        return new Document("placa", resultado.placa)
+                .append("status", resultado.status.name())
+                .append("mensagem", resultado.mensagem);
+    }
+
+    private static int inteiro(Map<String, String> parametros, String nome, int padrao) {
+        String valor = parametros.get(nome);
+        if (valor == null) {
+            return padrao;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new ErroRequisicao(400, "Parâmetro '" + nome + "' inválido: " + valor);
+        }
+    }
+
+    static Map<String, String> lerParametros(HttpExchange troca) throws IOException {
+        descartarCorpo(troca);
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = troca.getRequestURI().getRawQuery();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nome = URLDecoder.decode(igual < 0 ? par : par.substring(0, igual), StandardCharsets.UTF_8);
+            String valor = igual < 0 ? "" : URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8);
+            parametros.put(nome, valor);
+        }
+        return parametros;
+    }
+
+    private static String lerCorpo(HttpExchange troca) throws IOException {
+        try (InputStream entrada = troca.getRequestBody()) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Lê e descarta o corpo da requisição; uma requisição com corpo não lido impede o reuso da conexão.
+     */
+    private static void descartarCorpo(HttpExchange troca) throws IOException {
+        try (InputStream entrada = troca.getRequestBody()) {
+            entrada.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    /**
+     * Envia os cabeçalhos de uma listagem; o tamanho do corpo não é conhecido, então ele segue em chunks.
+     */
+    private static void iniciarListagem(HttpExchange troca) throws IOException {
+        troca.getResponseHeaders().set("Content-Type", JSON_LINHAS);
+        troca.sendResponseHeaders(200, 0);
+    }
+
+    private static void responderErro(HttpExchange troca, int status, String mensagem) throws IOException {
+        responder(troca, status, new Document("erro", mensagem).toJson());
+    }
+
+    private static void responder(HttpExchange troca, int status, String corpo) throws IOException {
+        responder(troca, status, JSON, corpo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void responder(HttpExchange troca, int status, String tipo, byte[] corpo) throws IOException {
+        Headers cabecalhos = troca.getResponseHeaders();
+        cabecalhos.set("Content-Type", tipo);
+        troca.sendResponseHeaders(status, corpo.length == 0 ? -1 : corpo.length);
+        if (corpo.length > 0) {
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        }
+    }
+}
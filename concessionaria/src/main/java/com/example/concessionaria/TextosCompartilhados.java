@@ -0,0 +1,225 @@
+/**
+ * A classe `TextosCompartilhados` resolve os índices da tabela de textos compartilhados (`sharedStrings.xml`) de um
+ * arquivo .xlsx para o `LeitorPlanilhaStreaming`. Como cada placa é um texto único, a tabela cresce com o número de
+ * linhas: tabelas pequenas são carregadas em memória pelo POI, e as grandes são copiadas uma única vez para arquivos
+ * temporários mapeados em memória (os textos e a posição de cada um), de modo que o heap usado na leitura não
+ * depende do tamanho da planilha.
+ */
+package com.example.concessionaria;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.SAXException;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+final class TextosCompartilhados implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextosCompartilhados.class);
+
+    // Tamanho máximo (descompactado) da tabela carregada em memória; acima dele, a tabela vai para o disco
+    static final long LIMITE_EM_MEMORIA = 8L * 1024 * 1024;
+
+    // Tamanho de cada segmento mapeado do arquivo de textos; nenhum texto cruza o limite de um segmento
+    private static final int TAMANHO_SEGMENTO = 1 << 30;
+
+    // Tabela em memória, quando a tabela é pequena
+    private final ReadOnlySharedStringsTable emMemoria;
+
+    // Tabela em disco: os textos (tamanho + UTF-8) e a posição de cada um no arquivo de textos
+    private final Path arquivoTextos;
+    private final Path arquivoPosicoes;
+    private final MappedByteBuffer[] segmentos;
+    private final LongBuffer posicoes;
+
+    private TextosCompartilhados(ReadOnlySharedStringsTable emMemoria) {
+        this.emMemoria = emMemoria;
+        this.arquivoTextos = null;
+        this.arquivoPosicoes = null;
+        this.segmentos = null;
+        this.posicoes = null;
+    }
+
+    private TextosCompartilhados(Path arquivoTextos, Path arquivoPosicoes, MappedByteBuffer[] segmentos, LongBuffer posicoes) {
+        this.emMemoria = null;
+        this.arquivoTextos = arquivoTextos;
+        this.arquivoPosicoes = arquivoPosicoes;
+        this.segmentos = segmentos;
+        this.posicoes = posicoes;
+    }
+
+    /**
+     * Abre a tabela de textos compartilhados do pacote, em memória ou em disco conforme o seu tamanho.
+     * @param pacote O pacote do arquivo .xlsx, aberto para leitura.
+     * @return A tabela de textos compartilhados.
+     * @throws IOException Se a tabela não puder ser lida ou copiada para o disco.
+     */
+    static TextosCompartilhados abrir(OPCPackage pacote) throws IOException {
+        return abrir(pacote, LIMITE_EM_MEMORIA);
+    }
+
+    /**
+     * Abre a tabela de textos compartilhados do pacote, em memória somente se ela não passar do limite informado.
+     * @param pacote O pacote do arquivo .xlsx, aberto para leitura.
+     * @param limiteEmMemoria O tamanho máximo, em bytes de XML, da tabela carregada em memória.
+     * @return A tabela de textos compartilhados.
+     * @throws IOException Se a tabela não puder ser lida ou copiada para o disco.
+     */
+    static TextosCompartilhados abrir(OPCPackage pacote, long limiteEmMemoria) throws IOException {
+        try {
+            List<PackagePart> partes = pacote.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (partes.isEmpty() || (partes.get(0).getSize() >= 0 && partes.get(0).getSize() <= limiteEmMemoria)) {
+                return new TextosCompartilhados(new ReadOnlySharedStringsTable(pacote));
+            }
+            return copiarParaDisco(partes.get(0));
+        } catch (SAXException e) {
+            throw new IOException("Tabela de textos compartilhados inválida: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Percorre o XML da tabela uma única vez, gravando cada texto no arquivo de textos e a sua posição no arquivo
+     * de posições, e mapeia os dois arquivos em memória.
+     */
+    private static TextosCompartilhados copiarParaDisco(PackagePart parte) throws IOException {
+        Path arquivoTextos = Files.createTempFile("concessionaria-textos", ".bin");
+        Path arquivoPosicoes = Files.createTempFile("concessionaria-posicoes", ".bin");
+        try {
+            long quantidade = 0;
+            long posicao = 0;
+            try (InputStream sst = parte.getInputStream();
+                 DataOutputStream textos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(arquivoTextos), 64 * 1024));
+                 DataOutputStream indice = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(arquivoPosicoes), 64 * 1024))) {
+                XMLStreamReader xml = LeitorPlanilhaStreaming.XML_FACTORY.createXMLStreamReader(sst);
+                StringBuilder texto = new StringBuilder();
+                boolean lendoTexto = false;
+                boolean lendoFonetica = false;
+
+                while (xml.hasNext()) {
+                    int evento = xml.next();
+                    if (evento == XMLStreamConstants.START_ELEMENT) {
+                        String nome = xml.getLocalName();
+                        if ("si".equals(nome)) {
+                            texto.setLength(0);
+                        } else if ("rPh".equals(nome)) {
+                            // A transcrição fonética não faz parte do texto exibido
+                            lendoFonetica = true;
+                        } else if ("t".equals(nome)) {
+                            lendoTexto = !lendoFonetica;
+                        }
+                    } else if ((evento == XMLStreamConstants.CHARACTERS || evento == XMLStreamConstants.CDATA) && lendoTexto) {
+                        texto.append(xml.getText());
+                    } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                        String nome = xml.getLocalName();
+                        if ("t".equals(nome)) {
+                            lendoTexto = false;
+                        } else if ("rPh".equals(nome)) {
+                            lendoFonetica = false;
+                        } else if ("si".equals(nome)) {
+                            byte[] bytes = texto.toString().getBytes(StandardCharsets.UTF_8);
+                            // Completa o segmento atual quando o texto não cabe inteiro nele
+                            long livres = TAMANHO_SEGMENTO - posicao % TAMANHO_SEGMENTO;
+                            if (Integer.BYTES + bytes.length > livres) {
+                                textos.write(new byte[(int) livres]);
+                                posicao += livres;
+                            }
+                            indice.writeLong(posicao);
+                            textos.writeInt(bytes.length);
+                            textos.write(bytes);
+                            posicao += Integer.BYTES + bytes.length;
+                            quantidade++;
+                        }
+                    }
+                }
+                xml.close();
+            } catch (XMLStreamException e) {
+                throw new IOException("Tabela de textos compartilhados inválida: " + e.getMessage(), e);
+            }
+            if (quantidade > Integer.MAX_VALUE / Long.BYTES) {
+                throw new IOException("Tabela de textos compartilhados grande demais: " + quantidade + " textos");
+            }
+
+            MappedByteBuffer[] segmentos = new MappedByteBuffer[(int) ((posicao + TAMANHO_SEGMENTO - 1) / TAMANHO_SEGMENTO)];
+            LongBuffer posicoes;
+            try (FileChannel canal = FileChannel.open(arquivoTextos, StandardOpenOption.READ)) {
+                for (int i = 0; i < segmentos.length; i++) {
+                    long inicio = (long) i * TAMANHO_SEGMENTO;
+                    segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(TAMANHO_SEGMENTO, posicao - inicio));
+                }
+            }
+            try (FileChannel canal = FileChannel.open(arquivoPosicoes, StandardOpenOption.READ)) {
+                posicoes = canal.map(FileChannel.MapMode.READ_ONLY, 0, quantidade * Long.BYTES).asLongBuffer();
+            }
+            LOGGER.debug("Textos compartilhados copiados para o disco: textos={}, bytes={}", quantidade, posicao);
+            return new TextosCompartilhados(arquivoTextos, arquivoPosicoes, segmentos, posicoes);
+        } catch (IOException | RuntimeException e) {
+            apagar(arquivoTextos);
+            apagar(arquivoPosicoes);
+            throw e;
+        }
+    }
+
+    /**
+     * Obtém o texto com o índice informado.
+     * @param indice O índice do texto na tabela (o conteúdo de uma célula do tipo `s`).
+     * @return O texto.
+     */
+    String texto(int indice) {
+        if (emMemoria != null) {
+            return emMemoria.getItemAt(indice).getString();
+        }
+        long posicao = posicoes.get(indice);
+        MappedByteBuffer segmento = segmentos[(int) (posicao / TAMANHO_SEGMENTO)];
+        int inicio = (int) (posicao % TAMANHO_SEGMENTO);
+        byte[] bytes = new byte[segmento.getInt(inicio)];
+        segmento.get(inicio + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indica se a tabela foi copiada para o disco.
+     * @return `true` se a tabela estiver em arquivos temporários.
+     */
+    boolean isEmDisco() {
+        return emMemoria == null;
+    }
+
+    /**
+     * Apaga os arquivos temporários da tabela em disco.
+     */
+    @Override
+    public void close() {
+        if (arquivoTextos != null) {
+            apagar(arquivoTextos);
+            apagar(arquivoPosicoes);
+        }
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            // Em alguns sistemas, um arquivo ainda mapeado não pode ser apagado
+            arquivo.toFile().deleteOnExit();
+        }
+    }
+}
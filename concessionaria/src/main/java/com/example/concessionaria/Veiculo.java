@@ -4,14 +4,27 @@
  * além de métodos para obtenção do tipo e criação de um documento MongoDB representando o veículo.
  * As classes derivadas devem implementar o método `adicionaAtributosEspecificos` para adicionar
  * atributos específicos ao documento MongoDB.
+ *
+ * Cada veículo também carrega a sua versão, incrementada a cada alteração gravada (ver `AlteracaoVeiculo`), e a
+ * indicação de que já foi vendido. Documentos e planilhas gravados antes desses campos são lidos com versão 0 e
+ * como não vendidos.
  */
 package com.example.concessionaria;
 
 import java.math.BigDecimal;
+import java.time.Year;
+import java.util.regex.Pattern;
 import org.apache.poi.ss.usermodel.*;
 import org.bson.Document;
+import org.bson.types.Decimal128;
 
 public abstract class Veiculo{
+    // Formato da placa: o antigo (ABC1234) ou o do Mercosul (ABC1D23), sem hífen
+    private static final Pattern FORMATO_PLACA = Pattern.compile("[A-Z]{3}[0-9][A-Z0-9][0-9]{2}");
+
+    // Ano de fabricação mais antigo aceito
+    private static final int ANO_MINIMO = 1900;
+
     // Atributos comuns a todos os veículos
     public String     placa; // Adicionado o atributo para identificar os veículos no estoque
     public String     marca;
@@ -19,6 +32,10 @@ public abstract class Veiculo{
     public String     ano_de_fabricacao;
     public BigDecimal preco;
 
+    // Controle de concorrência otimista: incrementada a cada alteração gravada no estoque
+    public long       versao;
+    public boolean    vendido;
+
     /**
      * Obtém o tipo do veículo, que é o nome simples da classe.
      * @return O tipo do veículo.
@@ -42,9 +59,200 @@ public abstract class Veiculo{
         // Deixa as classes derivadas adicionar seus atributos específicos, se houverem
         adicionaAtributosEspecificos(document);
 
+        document.append("versao", this.versao)
+                .append("vendido", this.vendido);
         return document;
     }
 
+    /**
+     * Cria um veículo a partir de um documento, seja ele lido do MongoDB ou do arquivo Excel.
+     * O campo `tipo` define qual subclasse será instanciada.
+     * @param document O documento representando o veículo.
+     * @return O veículo correspondente ao documento.
+     * @throws IllegalArgumentException Se o tipo do veículo for desconhecido.
+     */
+    public static Veiculo fromDocument(Document document) {
+        Veiculo veiculo = novaInstancia(document.getString("tipo"));
+
+        veiculo.placa = toText(document.get("placa"));
+        veiculo.marca = toText(document.get("marca"));
+        veiculo.modelo = toText(document.get("modelo"));
+        veiculo.ano_de_fabricacao = toText(document.get("ano_de_fabricacao"));
+        veiculo.preco = toBigDecimal(document.get("preco"));
+        veiculo.versao = toLong(document.get("versao"));
+        veiculo.vendido = toBoolean(document.get("vendido"));
+
+        // Deixa as classes derivadas carregar seus atributos específicos, se houverem
+        veiculo.carregaAtributosEspecificos(document);
+
+        return veiculo;
+    }
+
+    /**
+     * Cria uma cópia independente do veículo, com os mesmos atributos.
+     * @return A cópia do veículo.
+     */
+    public Veiculo copiar() {
+        return fromDocument(toDocument());
+    }
+
+    /**
+     * Cria uma instância vazia da subclasse correspondente ao tipo informado.
+     * @param tipo O tipo do veículo (`Carro` ou `Motocicleta`).
+     * @return Uma nova instância do veículo.
+     * @throws IllegalArgumentException Se o tipo do veículo for desconhecido.
+     */
+    public static Veiculo novaInstancia(String tipo) {
+        if ("Carro".equals(tipo)) {
+            return new Carro();
+        } else if ("Motocicleta".equals(tipo)) {
+            return new Motocicleta();
+        } else {
+            throw new IllegalArgumentException("Tipo de veículo desconhecido: " + tipo);
+        }
+    }
+
+    /**
+     * Define um atributo do veículo a partir do valor de uma célula do arquivo Excel, identificado pelo
+     * nome formatado do cabeçalho (por exemplo, `ano_de_fabricacao`). Os valores numéricos chegam no formato
+     * bruto do arquivo e são convertidos diretamente para o tipo do atributo.
+     * @param campo O nome formatado do cabeçalho.
+     * @param valor O valor da célula.
+     */
+    protected void defineAtributo(String campo, String valor) {
+        switch (campo) {
+            case "placa":
+                this.placa = valor;
+                break;
+            case "marca":
+                this.marca = valor;
+                break;
+            case "modelo":
+                this.modelo = valor;
+                break;
+            case "ano_de_fabricacao":
+                this.ano_de_fabricacao = valor;
+                break;
+            case "preco":
+                this.preco = new BigDecimal(valor);
+                break;
+            case "versao":
+                this.versao = parseLongo(valor);
+                break;
+            case "vendido":
+                this.vendido = toBoolean(valor);
+                break;
+            default:
+                // Deixa as classes derivadas definir seus atributos específicos, se houverem
+                defineAtributoEspecifico(campo, valor);
+        }
+    }
+
+    /**
+     * Converte um valor numérico bruto (por exemplo, "4" ou "4.0") em um `Integer`.
+     * @param valor O valor a ser convertido.
+     * @return O valor como Integer.
+     */
+    protected static Integer parseInteiro(String valor) {
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(valor).intValue();
+        }
+    }
+
+    /**
+     * Converte um valor numérico bruto (por exemplo, "3000000000" ou "3.0E9") em um `long`, sem o limite de um
+     * `Integer`.
+     * @param valor O valor a ser convertido.
+     * @return O valor como long.
+     */
+    protected static long parseLongo(String valor) {
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            return new BigDecimal(valor).longValue();
+        }
+    }
+
+    /**
+     * Converte um valor de documento em texto. Valores numéricos (por exemplo, um ano gravado como
+     * número) são convertidos sem a parte decimal.
+     * @param value O valor a ser convertido.
+     * @return O valor como String ou `null`.
+     */
+    protected static String toText(Object value) {
+        if (value instanceof Number) {
+            return toBigDecimal(value).stripTrailingZeros().toPlainString();
+        }
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Converte um valor de documento (Decimal128, número ou texto) em um `BigDecimal`.
+     * @param value O valor a ser convertido.
+     * @return O valor como BigDecimal ou `null`.
+     */
+    protected static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Decimal128) {
+            return ((Decimal128) value).bigDecimalValue();
+        } else if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        } else {
+            return new BigDecimal(value.toString());
+        }
+    }
+
+    /**
+     * Converte um valor de documento (número ou texto) em um `long`; valores ausentes valem 0.
+     * @param value O valor a ser convertido.
+     * @return O valor como long.
+     */
+    protected static long toLong(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else {
+            return toBigDecimal(value).longValue();
+        }
+    }
+
+    /**
+     * Converte um valor de documento ou de célula (booleano, `true`/`false` ou `1`/`0`) em um `boolean`;
+     * valores ausentes valem `false`.
+     * @param value O valor a ser convertido.
+     * @return O valor como boolean.
+     */
+    protected static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        } else {
+            return value != null && ("true".equalsIgnoreCase(value.toString().trim()) || "1".equals(value.toString().trim()));
+        }
+    }
+
+    /**
+     * Converte um valor de documento (número ou texto como "4.0") em um `Integer`.
+     * @param value O valor a ser convertido.
+     * @return O valor como Integer ou `null`.
+     */
+    protected static Integer toInteger(Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else {
+            return toBigDecimal(value).intValue();
+        }
+    }
+
     /**
      * Cria o cabeçalho do arquivo Excel para este tipo de veículo.
      * @param sheet A planilha onde o cabeçalho será adicionado.
@@ -62,17 +270,38 @@ public abstract class Veiculo{
 
         // Deixa as classes derivadas adicionar seus atributos específicos de cabeçalho, se houverem
         adicionaAtributosEspecificosHeader(headerRow, colNum);
+
+        // Controle de versão por último, para manter as colunas das planilhas gravadas antes dele
+        colNum = (int) headerRow.getLastCellNum();
+        headerRow.createCell(colNum++).setCellValue("Versão");
+        headerRow.createCell(colNum++).setCellValue("Vendido");
     }
 
+
     /**
      * Converte o veículo em uma linha de dados para o arquivo Excel.
      * @param sheet A planilha onde a linha de dados será adicionada.
      */
     public void toRow(Sheet sheet) {
+        preencherLinha(sheet.createRow(sheet.getLastRowNum() + 1));
+    }
+
+    /**
+     * Escreve os atributos do veículo nas células de uma linha do arquivo Excel, já existente ou nova. Usado para
+     * regravar a linha de um veículo alterado no próprio lugar.
+     * @param bodyRow A linha a ser preenchida.
+     */
+    public void preencherLinha(Row bodyRow) {
         Integer colNum = 0;
-        Integer rowNum = sheet.getLastRowNum() + 1;
 
-        Row bodyRow = sheet.createRow(rowNum++);
+        // Descarta as células anteriores, para que as colunas finais sejam posicionadas após as específicas
+        for (int coluna = bodyRow.getLastCellNum() - 1; coluna >= 0; coluna--) {
+            Cell cell = bodyRow.getCell(coluna);
+            if (cell != null) {
+                bodyRow.removeCell(cell);
+            }
+        }
+
         bodyRow.createCell(colNum++).setCellValue(this.placa);
         bodyRow.createCell(colNum++).setCellValue(this.modelo);
         bodyRow.createCell(colNum++).setCellValue(this.marca);
@@ -81,6 +310,10 @@ public abstract class Veiculo{
 
         // Deixa as classes derivadas adicionar seus atributos específicos de corpo, se houverem
         adicionaAtributosEspecificosBody(bodyRow, colNum);
+
+        colNum = (int) bodyRow.getLastCellNum();
+        bodyRow.createCell(colNum++).setCellValue(this.versao);
+        bodyRow.createCell(colNum++).setCellValue(this.vendido);
     }
 
     /**
@@ -90,6 +323,66 @@ public abstract class Veiculo{
      */
     protected abstract void adicionaAtributosEspecificos(Document document);
 
+    /**
+     * Método abstrato que permite que as classes derivadas carreguem seus atributos específicos
+     * a partir de um documento.
+     * @param document O documento do qual os atributos específicos serão lidos.
+     */
+    protected abstract void carregaAtributosEspecificos(Document document);
+
+    /**
+     * Método abstrato que permite que as classes derivadas definam seus atributos específicos
+     * a partir do valor de uma célula do arquivo Excel.
+     * @param campo O nome formatado do cabeçalho.
+     * @param valor O valor da célula.
+     */
+    protected abstract void defineAtributoEspecifico(String campo, String valor);
+
+    /**
+     * Verifica se os atributos do veículo são válidos para entrar no estoque: placa no formato antigo ou do
+     * Mercosul, marca e modelo preenchidos, ano de fabricação entre 1900 e o ano que vem, preço maior que zero e os
+     * atributos específicos do tipo.
+     * @return A descrição do primeiro problema encontrado ou `null` se o veículo for válido.
+     */
+    public String validar() {
+        if (this.placa == null || !FORMATO_PLACA.matcher(this.placa).matches()) {
+            return "Placa inválida: " + this.placa;
+        }
+        if (this.marca == null || this.marca.isBlank()) {
+            return "Marca não informada";
+        }
+        if (this.modelo == null || this.modelo.isBlank()) {
+            return "Modelo não informado";
+        }
+        if (!anoValido(this.ano_de_fabricacao)) {
+            return "Ano de fabricação inválido: " + this.ano_de_fabricacao;
+        }
+        if (this.preco == null || this.preco.signum() <= 0) {
+            return "Preço deve ser maior que zero: " + this.preco;
+        }
+
+        // Deixa as classes derivadas validar seus atributos específicos, se houverem
+        return validaAtributosEspecificos();
+    }
+
+    static boolean anoValido(String ano) {
+        if (ano == null || ano.length() != 4) {
+            return false;
+        }
+        try {
+            int valor = Integer.parseInt(ano);
+            return valor >= ANO_MINIMO && valor <= Year.now().getValue() + 1;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Método abstrato que permite que as classes derivadas validem seus atributos específicos.
+     * @return A descrição do problema encontrado ou `null` se os atributos forem válidos.
+     */
+    protected abstract String validaAtributosEspecificos();
+
     /**
      * Método abstrato para adicionar atributos específicos de cabeçalho ao arquivo Excel.
      * @param headerRow A linha do cabeçalho onde os atributos específicos serão adicionados.
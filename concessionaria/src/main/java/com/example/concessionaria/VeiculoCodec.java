@@ -0,0 +1,228 @@
+/**
+ * A classe `VeiculoCodec` implementa um `Codec` BSON para a hierarquia de `Veiculo`, permitindo que o driver do
+ * MongoDB leia e grave `Carro` e `Motocicleta` diretamente, sem passar por um `org.bson.Document` intermediário.
+ * O campo `tipo` define a subclasse instanciada na leitura; campos desconhecidos (como `_id`) são ignorados.
+ */
+package com.example.concessionaria;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+
+public class VeiculoCodec implements Codec<Veiculo> {
+
+    /**
+     * Lê um documento BSON e o converte no veículo correspondente.
+     * @param reader O leitor BSON.
+     * @param decoderContext O contexto de decodificação.
+     * @return O veículo lido.
+     */
+    @Override
+    public Veiculo decode(BsonReader reader, DecoderContext decoderContext) {
+        String tipo = null;
+        String placa = null;
+        String marca = null;
+        String modelo = null;
+        String anoDeFabricacao = null;
+        BigDecimal preco = null;
+        Integer numeroDePortas = null;
+        Integer cilindradas = null;
+        long versao = 0;
+        boolean vendido = false;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String campo = reader.readName();
+            switch (campo) {
+                case "tipo":
+                    tipo = readString(reader);
+                    break;
+                case "placa":
+                    placa = readString(reader);
+                    break;
+                case "marca":
+                    marca = readString(reader);
+                    break;
+                case "modelo":
+                    modelo = readString(reader);
+                    break;
+                case "ano_de_fabricacao":
+                    anoDeFabricacao = readString(reader);
+                    break;
+                case "preco":
+                    preco = readDecimal(reader);
+                    break;
+                case "numero_de_portas":
+                    numeroDePortas = readInteger(reader);
+                    break;
+                case "cilindradas":
+                    cilindradas = readInteger(reader);
+                    break;
+                case "versao":
+                    versao = readLong(reader);
+                    break;
+                case "vendido":
+                    vendido = readBoolean(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        Veiculo veiculo = Veiculo.novaInstancia(tipo);
+        veiculo.placa = placa;
+        veiculo.marca = marca;
+        veiculo.modelo = modelo;
+        veiculo.ano_de_fabricacao = anoDeFabricacao;
+        veiculo.preco = preco;
+        veiculo.versao = versao;
+        veiculo.vendido = vendido;
+
+        if (veiculo instanceof Carro) {
+            ((Carro) veiculo).numero_de_portas = numeroDePortas;
+        } else if (veiculo instanceof Motocicleta) {
+            ((Motocicleta) veiculo).cilindradas = cilindradas;
+        }
+        return veiculo;
+    }
+
+    /**
+     * Grava o veículo como um documento BSON, no mesmo formato de `Veiculo.toDocument`.
+     * @param writer O escritor BSON.
+     * @param veiculo O veículo a ser gravado.
+     * @param encoderContext O contexto de codificação.
+     */
+    @Override
+    public void encode(BsonWriter writer, Veiculo veiculo, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeString("tipo", veiculo.getTipo());
+        writeString(writer, "placa", veiculo.placa);
+        writeString(writer, "marca", veiculo.marca);
+        writeString(writer, "modelo", veiculo.modelo);
+        writeString(writer, "ano_de_fabricacao", veiculo.ano_de_fabricacao);
+        if (veiculo.preco != null) {
+            writer.writeDecimal128("preco", new Decimal128(veiculo.preco));
+        }
+
+        if (veiculo instanceof Carro && ((Carro) veiculo).numero_de_portas != null) {
+            writer.writeInt32("numero_de_portas", ((Carro) veiculo).numero_de_portas);
+        } else if (veiculo instanceof Motocicleta && ((Motocicleta) veiculo).cilindradas != null) {
+            writer.writeInt32("cilindradas", ((Motocicleta) veiculo).cilindradas);
+        }
+        writer.writeInt64("versao", veiculo.versao);
+        writer.writeBoolean("vendido", veiculo.vendido);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Veiculo> getEncoderClass() {
+        return Veiculo.class;
+    }
+
+    private static void writeString(BsonWriter writer, String campo, String valor) {
+        if (valor != null) {
+            writer.writeString(campo, valor);
+        }
+    }
+
+    /**
+     * Lê um valor textual; números (como um ano gravado como inteiro) são convertidos em texto.
+     */
+    private static String readString(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case STRING:
+                return reader.readString();
+            case INT32:
+                return String.valueOf(reader.readInt32());
+            case INT64:
+                return String.valueOf(reader.readInt64());
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Lê um valor numérico como `BigDecimal`, aceitando Decimal128, double, inteiros e texto.
+     */
+    private static BigDecimal readDecimal(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DECIMAL128:
+                return reader.readDecimal128().bigDecimalValue();
+            case DOUBLE:
+                return BigDecimal.valueOf(reader.readDouble());
+            case INT32:
+                return BigDecimal.valueOf(reader.readInt32());
+            case INT64:
+                return BigDecimal.valueOf(reader.readInt64());
+            case STRING:
+                return new BigDecimal(reader.readString());
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Lê um valor numérico como `long`, aceitando inteiros e double; outros valores valem 0.
+     */
+    private static long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64:
+                return reader.readInt64();
+            case INT32:
+                return reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            default:
+                reader.skipValue();
+                return 0;
+        }
+    }
+
+    /**
+     * Lê um valor booleano; outros valores valem `false`.
+     */
+    private static boolean readBoolean(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.BOOLEAN) {
+            return reader.readBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+
+    /**
+     * Lê um valor numérico como `Integer`, aceitando inteiros, double e texto.
+     */
+    private static Integer readInteger(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            case STRING:
+                return Veiculo.parseInteiro(reader.readString());
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+}
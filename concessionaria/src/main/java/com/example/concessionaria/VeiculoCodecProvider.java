@@ -0,0 +1,29 @@
+/**
+ * A classe `VeiculoCodecProvider` registra o `VeiculoCodec` para `Veiculo` e suas subclasses, permitindo
+ * obter coleções tipadas do MongoDB com `MongoCollection.withDocumentClass(Veiculo.class)`.
+ */
+package com.example.concessionaria;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+public class VeiculoCodecProvider implements CodecProvider {
+    // Registro com o codec de veículos seguido dos codecs padrão do driver
+    public static final CodecRegistry REGISTRO = CodecRegistries.fromRegistries(
+            CodecRegistries.fromProviders(new VeiculoCodecProvider()),
+            MongoClientSettings.getDefaultCodecRegistry());
+
+    private final VeiculoCodec codec = new VeiculoCodec();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        if (Veiculo.class.isAssignableFrom(clazz)) {
+            return (Codec<T>) codec;
+        }
+        return null;
+    }
+}
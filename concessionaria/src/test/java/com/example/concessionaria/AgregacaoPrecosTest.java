@@ -0,0 +1,139 @@
+package com.example.concessionaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Testa o `agregarPrecos` em cada armazenamento que avalia as consultas em memória (os mesmos do
+ * `ControleVersaoTest`): o agrupamento por tipo, marca, modelo e ano, a agregação com filtro e o mesmo resultado em
+ * todos os armazenamentos.
+ */
+@RunWith(Parameterized.class)
+public class AgregacaoPrecosTest {
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> armazenamentos() {
+        return ControleVersaoTest.armazenamentos();
+    }
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private final ControleVersaoTest.Fabrica fabrica;
+    private final List<Runnable> fechamentos = new ArrayList<>();
+    private I_Armazenamento armazenamento;
+
+    public AgregacaoPrecosTest(String nome, ControleVersaoTest.Fabrica fabrica) {
+        this.fabrica = fabrica;
+    }
+
+    @Before
+    public void preparar() {
+        armazenamento = fabrica.abrir(pasta.getRoot().toPath(), fechamentos);
+        List<ResultadoInsercao> resultados = armazenamento.addVeiculosEstoque(List.of(
+                carro("AGR0001", "Fiat", "Uno", "2020", "10000"),
+                carro("AGR0002", "Fiat", "Uno", "2021", "20000"),
+                carro("AGR0003", "VW", "Gol", "2020", "30000"),
+                moto("AGR0004", "Honda", "CG", "2020", "8000"),
+                moto("AGR0005", "Honda", "CB", "2022", "12000.50")));
+        assertTrue(resultados.stream().allMatch(ResultadoInsercao::isSucesso));
+        assertTrue(armazenamento.atualizarVeiculo("AGR0003", AlteracaoVeiculo.venda(), 0).isSucesso());
+    }
+
+    @After
+    public void limpar() {
+        // Fecha na ordem inversa da abertura
+        for (int i = fechamentos.size() - 1; i >= 0; i--) {
+            fechamentos.get(i).run();
+        }
+    }
+
+    @Test
+    public void agrupaPorCadaCampo() {
+        List<EstatisticaPrecos> porTipo = armazenamento.agregarPrecos(AgrupamentoEstoque.TIPO, null);
+        assertEquals(2, porTipo.size());
+        assertEstatistica(porTipo.get(0), "Carro", 3, "60000", "20000", "10000", "30000");
+        assertEstatistica(porTipo.get(1), "Motocicleta", 2, "20000.50", "10000.25", "8000", "12000.50");
+
+        List<EstatisticaPrecos> porMarca = armazenamento.agregarPrecos(AgrupamentoEstoque.MARCA, null);
+        assertEquals(3, porMarca.size());
+        assertEstatistica(porMarca.get(0), "Fiat", 2, "30000", "15000", "10000", "20000");
+        assertEstatistica(porMarca.get(1), "Honda", 2, "20000.50", "10000.25", "8000", "12000.50");
+        assertEstatistica(porMarca.get(2), "VW", 1, "30000", "30000", "30000", "30000");
+
+        List<EstatisticaPrecos> porModelo = armazenamento.agregarPrecos(AgrupamentoEstoque.MODELO, null);
+        List<String> modelos = new ArrayList<>();
+        porModelo.forEach(estatistica -> modelos.add(estatistica.chave));
+        assertEquals(List.of("CB", "CG", "Gol", "Uno"), modelos);
+        assertEstatistica(porModelo.get(3), "Uno", 2, "30000", "15000", "10000", "20000");
+
+        List<EstatisticaPrecos> porAno = armazenamento.agregarPrecos(AgrupamentoEstoque.ANO, null);
+        assertEquals(3, porAno.size());
+        assertEstatistica(porAno.get(0), "2020", 3, "48000", "16000", "8000", "30000");
+        assertEstatistica(porAno.get(1), "2021", 1, "20000", "20000", "20000", "20000");
+        assertEstatistica(porAno.get(2), "2022", 1, "12000.50", "12000.50", "12000.50", "12000.50");
+    }
+
+    @Test
+    public void agregaSomenteOsVeiculosDoFiltro() {
+        ConsultaVeiculos carrosCaros = new ConsultaVeiculos();
+        carrosCaros.tipo = "Carro";
+        carrosCaros.preco_minimo = new BigDecimal("15000");
+        List<EstatisticaPrecos> porAno = armazenamento.agregarPrecos(AgrupamentoEstoque.ANO, carrosCaros);
+        assertEquals(2, porAno.size());
+        assertEstatistica(porAno.get(0), "2020", 1, "30000", "30000", "30000", "30000");
+        assertEstatistica(porAno.get(1), "2021", 1, "20000", "20000", "20000", "20000");
+
+        ConsultaVeiculos aVenda = new ConsultaVeiculos();
+        aVenda.vendido = false;
+        aVenda.marca = "Fiat";
+        List<EstatisticaPrecos> porModelo = armazenamento.agregarPrecos(AgrupamentoEstoque.MODELO, aVenda);
+        assertEquals(1, porModelo.size());
+        assertEstatistica(porModelo.get(0), "Uno", 2, "30000", "15000", "10000", "20000");
+
+        ConsultaVeiculos inexistente = new ConsultaVeiculos();
+        inexistente.marca = "Ferrari";
+        assertTrue(armazenamento.agregarPrecos(AgrupamentoEstoque.TIPO, inexistente).isEmpty());
+    }
+
+    /**
+     * Confere uma estatística; os preços são comparados pelo valor, sem a escala.
+     */
+    private static void assertEstatistica(EstatisticaPrecos estatistica, String chave, long quantidade,
+                                          String total, String media, String minimo, String maximo) {
+        assertEquals(chave, estatistica.chave);
+        assertEquals(quantidade, estatistica.quantidade);
+        assertEquals(estatistica.toString(), 0, new BigDecimal(total).compareTo(estatistica.total));
+        assertEquals(estatistica.toString(), 0, new BigDecimal(media).compareTo(estatistica.media));
+        assertEquals(estatistica.toString(), 0, new BigDecimal(minimo).compareTo(estatistica.minimo));
+        assertEquals(estatistica.toString(), 0, new BigDecimal(maximo).compareTo(estatistica.maximo));
+    }
+
+    private static Carro carro(String placa, String marca, String modelo, String ano, String preco) {
+        Carro carro = ArquivoArmazenamentoTest.novoCarro(placa, preco);
+        carro.marca = marca;
+        carro.modelo = modelo;
+        carro.ano_de_fabricacao = ano;
+        return carro;
+    }
+
+    private static Motocicleta moto(String placa, String marca, String modelo, String ano, String preco) {
+        Motocicleta moto = BinarioArmazenamentoTest.novaMoto(placa, preco);
+        moto.marca = marca;
+        moto.modelo = modelo;
+        moto.ano_de_fabricacao = ano;
+        return moto;
+    }
+}
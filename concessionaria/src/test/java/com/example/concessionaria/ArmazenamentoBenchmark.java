@@ -0,0 +1,164 @@
+package com.example.concessionaria;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JMH dos armazenamentos em arquivo Excel (`ArquivoArmazenamento`), em arquivos Excel particionados
+ * por tipo e placa (`ArquivoArmazenamentoParticionado`), em arquivo binário
+ * (`BinarioArmazenamento`), em colunas mapeadas fora do heap (`ColunarArmazenamento`) e em banco de dados
+ * (`BancoDeDadosArmazenamento`): inserção unitária, inserção em lote, busca por placa (encontrada e
+ * ausente) e listagem completa, com estoques de 1 mil, 10 mil e 100 mil veículos.
+ *
+ * O MongoDB é acessado pela URL da propriedade `concessionaria.mongodb.uri`, que o `BenchmarkRunner`
+ * aponta para um servidor local; os dados ficam em uma coleção própria, recriada a cada execução.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ArmazenamentoBenchmark {
+    private static final String COLECAO_BENCHMARK = "veiculos_benchmark";
+    private static final int TAMANHO_LOTE = 100;
+    private static final int TAMANHO_LOTE_CARGA = 1000;
+
+    @Param({"ARQUIVO", "ARQUIVO_PARTICIONADO", "BINARIO", "COLUNAR", "MONGODB"})
+    public String backend;
+
+    @Param({"1000", "10000", "100000"})
+    public int tamanhoEstoque;
+
+    private I_Armazenamento armazenamento;
+    private File arquivo;
+    private String placaExistente;
+    private int sequencia;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        if ("ARQUIVO".equals(backend)) {
+            arquivo = File.createTempFile("estoque-benchmark", ".xlsx");
+            arquivo.delete();
+            armazenamento = new ArquivoArmazenamento(arquivo.getPath());
+        } else if ("ARQUIVO_PARTICIONADO".equals(backend)) {
+            arquivo = File.createTempFile("estoque-benchmark", "");
+            arquivo.delete();
+            armazenamento = new ArquivoArmazenamentoParticionado(arquivo.getPath(), Runtime.getRuntime().availableProcessors());
+        } else if ("BINARIO".equals(backend)) {
+            arquivo = File.createTempFile("estoque-benchmark", ".bin");
+            arquivo.delete();
+            armazenamento = new BinarioArmazenamento(arquivo.getPath());
+        } else if ("COLUNAR".equals(backend)) {
+            arquivo = File.createTempFile("estoque-benchmark", ".col");
+            arquivo.delete();
+            armazenamento = new ColunarArmazenamento(arquivo.getPath());
+        } else {
+            MongoDBConnection.getInstance().getCollection(COLECAO_BENCHMARK).drop();
+            armazenamento = new BancoDeDadosArmazenamento(COLECAO_BENCHMARK);
+        }
+
+        // Popula o estoque inicial em lotes
+        List<Veiculo> lote = new ArrayList<>(TAMANHO_LOTE_CARGA);
+        for (int i = 0; i < tamanhoEstoque; i++) {
+            lote.add(novoVeiculo(sequencia++));
+            if (lote.size() == TAMANHO_LOTE_CARGA) {
+                armazenamento.addVeiculosEstoque(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            armazenamento.addVeiculosEstoque(lote);
+        }
+        placaExistente = placa(tamanhoEstoque / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() {
+        if (armazenamento instanceof ArquivoArmazenamento) {
+            ((ArquivoArmazenamento) armazenamento).fechar();
+        } else if (armazenamento instanceof ArquivoArmazenamentoParticionado) {
+            ArquivoArmazenamentoParticionado particionado = (ArquivoArmazenamentoParticionado) armazenamento;
+            particionado.fechar();
+            particionado.getArquivos().forEach(caminho -> new File(caminho).delete());
+        }
+        if (arquivo != null) {
+            arquivo.delete();
+        } else {
+            MongoDBConnection.getInstance().getCollection(COLECAO_BENCHMARK).drop();
+        }
+    }
+
+    @Benchmark
+    public boolean insercaoUnica() {
+        return armazenamento.addVeiculoEstoque(novoVeiculo(sequencia++));
+    }
+
+    @Benchmark
+    public List<ResultadoInsercao> insercaoLote() {
+        List<Veiculo> lote = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < TAMANHO_LOTE; i++) {
+            lote.add(novoVeiculo(sequencia++));
+        }
+        return armazenamento.addVeiculosEstoque(lote);
+    }
+
+    @Benchmark
+    public Veiculo buscaPlacaEncontrada() {
+        return armazenamento.findVeiculoTipado(placaExistente);
+    }
+
+    @Benchmark
+    public Veiculo buscaPlacaAusente() {
+        return armazenamento.findVeiculoTipado("HZT2512");
+    }
+
+    @Benchmark
+    public List<Veiculo> listagemCompleta() {
+        return armazenamento.getAllVeiculosTipados();
+    }
+
+    private static String placa(int sequencia) {
+        return String.format("BEN%07d", sequencia);
+    }
+
+    private static Veiculo novoVeiculo(int sequencia) {
+        if (sequencia % 3 == 0) {
+            Motocicleta moto = new Motocicleta();
+            moto.placa = placa(sequencia);
+            moto.ano_de_fabricacao = String.valueOf(2015 + sequencia % 9);
+            moto.marca = "Marca" + (sequencia % 10);
+            moto.modelo = "Modelo" + (sequencia % 50);
+            moto.cilindradas = 150 + (sequencia % 8) * 125;
+            moto.preco = new BigDecimal(15000 + sequencia % 90000);
+            return moto;
+        }
+
+        Carro carro = new Carro();
+        carro.placa = placa(sequencia);
+        carro.ano_de_fabricacao = String.valueOf(2015 + sequencia % 9);
+        carro.marca = "Marca" + (sequencia % 10);
+        carro.modelo = "Modelo" + (sequencia % 50);
+        carro.numero_de_portas = sequencia % 2 == 0 ? 4 : 2;
+        carro.preco = new BigDecimal(40000 + sequencia % 200000);
+        return carro;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.Document;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa o `ArmazenamentoEmCamadas` sobre um `BinarioArmazenamento` (primário) e um `ColunarArmazenamento`
+ * (secundário) em arquivos temporários: as leituras em cada nível de consistência, a cópia das gravações para o
+ * secundário, a reconciliação das camadas e as gravações que voltam do primário fora de ordem.
+ */
+public class ArmazenamentoEmCamadasTest {
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private BinarioArmazenamento primario;
+    private ColunarArmazenamento secundario;
+    private ArmazenamentoEmCamadas camadas;
+
+    // Executado uma vez logo depois da próxima gravação no primário, antes de ela voltar às camadas
+    private Runnable aoGravarNoPrimario;
+
+    @Before
+    public void preparar() {
+        primario = new BinarioArmazenamento(pasta.getRoot().toPath().resolve("estoque.bin").toString()) {
+            @Override
+            public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+                return depoisDaGravacao(super.addVeiculosEstoque(veiculos));
+            }
+
+            @Override
+            public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+                return depoisDaGravacao(super.atualizarVeiculo(placa, alteracao, versaoEsperada));
+            }
+        };
+        secundario = new ColunarArmazenamento(pasta.getRoot().toPath().resolve("estoque.col").toString());
+        camadas = new ArmazenamentoEmCamadas(primario, secundario);
+    }
+
+    @After
+    public void limpar() {
+        camadas.fechar();
+        secundario.fechar();
+    }
+
+    private <T> T depoisDaGravacao(T resultado) {
+        Runnable acao = aoGravarNoPrimario;
+        aoGravarNoPrimario = null;
+        if (acao != null) {
+            acao.run();
+        }
+        return resultado;
+    }
+
+    /**
+     * Compara dois veículos; o preço é comparado pelo valor, pois o secundário grava o preço em centavos.
+     */
+    private static void assertMesmoVeiculo(Veiculo esperado, Veiculo obtido) {
+        assertEquals(0, esperado.preco.compareTo(obtido.preco));
+        Document documentoEsperado = esperado.toDocument();
+        Document documentoObtido = obtido.toDocument();
+        documentoEsperado.remove("preco");
+        documentoObtido.remove("preco");
+        assertEquals(documentoEsperado, documentoObtido);
+    }
+
+    @Test
+    public void gravaNoPrimarioECopiaParaOSecundario() {
+        assertTrue(camadas.addVeiculoEstoque(novoCarro("CAM0001", "10000")));
+        assertNotNull(primario.findVeiculoTipado("CAM0001"));
+        assertNotNull(camadas.findVeiculoTipado("CAM0001", NivelConsistencia.MEMORIA));
+
+        // No nível MEMORIA a inserção é confirmada antes de chegar ao primário
+        assertTrue(camadas.addVeiculoEstoque(novoCarro("CAM0002", "20000"), NivelConsistencia.MEMORIA));
+        assertFalse(camadas.addVeiculoEstoque(novoCarro("CAM0002", "1"), NivelConsistencia.PRIMARIO));
+        camadas.aguardarReplicacao();
+        assertNotNull(primario.findVeiculoTipado("CAM0002"));
+        assertEquals(2, secundario.getQuantidade());
+
+        assertTrue(camadas.atualizarVeiculo("CAM0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, camadas.removerVeiculo("CAM0002", 0).status);
+        camadas.aguardarReplicacao();
+        Veiculo copia = secundario.findVeiculoTipado("CAM0001");
+        assertTrue(copia.vendido);
+        assertEquals(1, copia.versao);
+        assertNull(secundario.findVeiculoTipado("CAM0002"));
+
+        // Uma gravação direta no primário só aparece na memória quando a busca vai ao primário
+        primario.atualizarVeiculo("CAM0001", AlteracaoVeiculo.preco(new BigDecimal("9000")), 1);
+        assertEquals(1, camadas.findVeiculoTipado("CAM0001", NivelConsistencia.MEMORIA).versao);
+        assertEquals(2, camadas.findVeiculoTipado("CAM0001", NivelConsistencia.PRIMARIO).versao);
+        assertEquals(2, camadas.findVeiculoTipado("CAM0001", NivelConsistencia.MEMORIA).versao);
+    }
+
+    @Test
+    public void copiaOVeiculoDoPrimarioParaUmSecundarioDivergente() {
+        camadas.addVeiculoEstoque(novoCarro("DIV0001", "10000"));
+        camadas.aguardarReplicacao();
+        // A cópia secundária diverge do primário (por exemplo, gravada por outro processo)
+        assertTrue(secundario.atualizarVeiculo("DIV0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+
+        ResultadoAtualizacao conflito = camadas.atualizarVeiculo("DIV0001", AlteracaoVeiculo.preco(new BigDecimal("11000")), 5);
+        assertEquals(ResultadoAtualizacao.Status.CONFLITO_VERSAO, conflito.status);
+        ResultadoAtualizacao alterado = camadas.atualizarVeiculo("DIV0001", AlteracaoVeiculo.preco(new BigDecimal("11000")),
+                conflito.veiculo.versao);
+        assertTrue(alterado.isSucesso());
+        camadas.aguardarReplicacao();
+
+        // O secundário fica com o veículo do primário, e não com a alteração repetida sobre a cópia divergente
+        Veiculo copia = secundario.findVeiculoTipado("DIV0001");
+        assertEquals(1, copia.versao);
+        assertFalse(copia.vendido);
+        assertEquals(0, new BigDecimal("11000").compareTo(copia.preco));
+        assertMesmoVeiculo(primario.findVeiculoTipado("DIV0001"), copia);
+    }
+
+    @Test
+    public void reconciliaRemovidosEReinseridos() {
+        camadas.addVeiculosEstoque(List.of(novoCarro("REC0001", "1000"), novoCarro("REC0002", "2000"), novoCarro("REC0003", "3000")));
+        camadas.atualizarVeiculo("REC0001", AlteracaoVeiculo.venda(), 0);
+        camadas.removerVeiculo("REC0001", 1);
+        assertTrue(camadas.addVeiculoEstoque(novoCarro("REC0001", "5000")));
+        camadas.aguardarReplicacao();
+        Veiculo reinserido = secundario.findVeiculoTipado("REC0001");
+        assertEquals(0, reinserido.versao);
+        assertFalse(reinserido.vendido);
+        assertEquals(0, new BigDecimal("5000").compareTo(reinserido.preco));
+        camadas.fechar();
+
+        // Divergências deixadas com as camadas fechadas
+        primario.removerVeiculo("REC0002", 0);
+        primario.atualizarVeiculo("REC0003", AlteracaoVeiculo.preco(new BigDecimal("3100")), 0);
+        secundario.atualizarVeiculo("REC0003", AlteracaoVeiculo.preco(new BigDecimal("3200")), 0);
+        secundario.atualizarVeiculo("REC0003", AlteracaoVeiculo.preco(new BigDecimal("3300")), 1);
+        primario.addVeiculoEstoque(novoCarro("REC0004", "4000"));
+
+        camadas = new ArmazenamentoEmCamadas(primario, secundario);
+
+        // A placa removida no primário sai do secundário em vez de voltar ao primário
+        assertNull(primario.findVeiculoTipado("REC0002"));
+        assertNull(secundario.findVeiculoTipado("REC0002"));
+        assertNull(camadas.findVeiculoTipado("REC0002"));
+        // A cópia de maior versão vence nas duas camadas
+        assertEquals(0, new BigDecimal("3300").compareTo(primario.findVeiculoTipado("REC0003").preco));
+        assertEquals(2, camadas.findVeiculoTipado("REC0003").versao);
+        assertNotNull(secundario.findVeiculoTipado("REC0004"));
+        assertEquals(0, new BigDecimal("5000").compareTo(camadas.findVeiculoTipado("REC0001").preco));
+        assertEquals(3, camadas.getAllVeiculosTipados().size());
+        assertEquals(3, secundario.getQuantidade());
+    }
+
+    @Test
+    public void remocaoDuranteAInsercaoNaoTrazOVeiculoDeVolta() {
+        aoGravarNoPrimario = () -> assertEquals(ResultadoAtualizacao.Status.REMOVIDO,
+                camadas.removerVeiculo("ORD0001", I_Armazenamento.QUALQUER_VERSAO).status);
+
+        assertTrue(camadas.addVeiculoEstoque(novoCarro("ORD0001", "1000")));
+        camadas.aguardarReplicacao();
+
+        assertNull(camadas.findVeiculoTipado("ORD0001", NivelConsistencia.MEMORIA));
+        assertNull(primario.findVeiculoTipado("ORD0001"));
+        assertNull(secundario.findVeiculoTipado("ORD0001"));
+
+        // A remoção não impede uma nova inserção da placa
+        assertTrue(camadas.addVeiculoEstoque(novoCarro("ORD0001", "2000")));
+        assertNotNull(camadas.findVeiculoTipado("ORD0001", NivelConsistencia.MEMORIA));
+    }
+
+    @Test
+    public void gravacaoAtrasadaNaoSobrescreveUmaVersaoMaior() {
+        // A alteração chega à memória antes da inserção que a precede no primário
+        aoGravarNoPrimario = () -> assertTrue(
+                camadas.atualizarVeiculo("ORD0002", AlteracaoVeiculo.preco(new BigDecimal("1500")), 0).isSucesso());
+        assertTrue(camadas.addVeiculoEstoque(novoCarro("ORD0002", "1000")));
+
+        Veiculo naMemoria = camadas.findVeiculoTipado("ORD0002", NivelConsistencia.MEMORIA);
+        assertEquals(1, naMemoria.versao);
+        assertEquals(0, new BigDecimal("1500").compareTo(naMemoria.preco));
+
+        // A alteração para a versão 3 conclui antes da que grava a versão 2
+        aoGravarNoPrimario = () -> assertTrue(camadas.atualizarVeiculo("ORD0002", AlteracaoVeiculo.venda(), 2).isSucesso());
+        assertTrue(camadas.atualizarVeiculo("ORD0002", AlteracaoVeiculo.preco(new BigDecimal("1800")), 1).isSucesso());
+
+        naMemoria = camadas.findVeiculoTipado("ORD0002", NivelConsistencia.MEMORIA);
+        assertEquals(3, naMemoria.versao);
+        assertTrue(naMemoria.vendido);
+        camadas.aguardarReplicacao();
+        assertMesmoVeiculo(primario.findVeiculoTipado("ORD0002"), secundario.findVeiculoTipado("ORD0002"));
+
+        // Uma alteração cujo veículo é removido antes de voltar às camadas não o traz de volta
+        aoGravarNoPrimario = () -> camadas.removerVeiculo("ORD0002", I_Armazenamento.QUALQUER_VERSAO);
+        assertTrue(camadas.atualizarVeiculo("ORD0002", AlteracaoVeiculo.preco(new BigDecimal("2000")), 3).isSucesso());
+        camadas.aguardarReplicacao();
+        assertNull(camadas.findVeiculoTipado("ORD0002", NivelConsistencia.MEMORIA));
+        assertNull(secundario.findVeiculoTipado("ORD0002"));
+        List<String> placas = new ArrayList<>();
+        camadas.getAllVeiculosTipados().forEach(veiculo -> placas.add(veiculo.placa));
+        assertTrue(placas.isEmpty());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.listarTodas;
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static com.example.concessionaria.BinarioArmazenamentoTest.novaMoto;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa o `ArquivoArmazenamentoParticionado` em arquivos temporários: cada veículo vai para o arquivo do seu tipo
+ * e da partição da sua placa, a placa é única entre os tipos e as listagens paginadas combinam as partições.
+ */
+public class ArquivoArmazenamentoParticionadoTest {
+    private static final int PARTICOES = 3;
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private String prefixo;
+    private ArquivoArmazenamentoParticionado particionado;
+
+    @Before
+    public void preparar() {
+        prefixo = pasta.getRoot().toPath().resolve("estoque").toString();
+        particionado = new ArquivoArmazenamentoParticionado(prefixo, PARTICOES);
+    }
+
+    @After
+    public void limpar() {
+        particionado.fechar();
+    }
+
+    @Test
+    public void gravaCadaVeiculoNaParticaoDoTipoEDaPlaca() {
+        List<ResultadoInsercao> resultados = particionado.addVeiculosEstoque(veiculos(30));
+        assertEquals(30, resultados.stream().filter(ResultadoInsercao::isSucesso).count());
+        particionado.fechar();
+
+        int encontrados = 0;
+        for (String tipo : List.of("Carro", "Motocicleta")) {
+            for (int k = 0; k < PARTICOES; k++) {
+                ArquivoArmazenamento particao = new ArquivoArmazenamento(prefixo + "-" + tipo.toLowerCase(Locale.ROOT) + "-" + k + ".xlsx");
+                try {
+                    for (Veiculo veiculo : particao.getAllVeiculosTipados()) {
+                        assertEquals(tipo, veiculo.getTipo());
+                        assertEquals(k, particionado.particao(veiculo.placa));
+                        encontrados++;
+                    }
+                } finally {
+                    particao.fechar();
+                }
+            }
+        }
+        assertEquals(30, encontrados);
+
+        particionado = new ArquivoArmazenamentoParticionado(prefixo, PARTICOES);
+        assertEquals(30, particionado.getAllVeiculosTipados().size());
+        assertNotNull(particionado.findVeiculoTipado("PRT0007"));
+        assertNull(particionado.findVeiculoTipado("PRT9999"));
+    }
+
+    @Test
+    public void rejeitaPlacaRepetidaEmOutroTipo() {
+        particionado.addVeiculosEstoque(veiculos(5));
+
+        assertFalse(particionado.addVeiculoEstoque(novaMoto("PRT0001", "9000")));
+        List<ResultadoInsercao> resultados = particionado.addVeiculosEstoque(
+                List.of(novoCarro("PRT0100", "1000"), novaMoto("PRT0100", "2000"), novaMoto("PRT0002", "3000")));
+        assertEquals(ResultadoInsercao.Status.INSERIDO, resultados.get(0).status);
+        assertEquals(ResultadoInsercao.Status.PLACA_DUPLICADA, resultados.get(1).status);
+        assertEquals(ResultadoInsercao.Status.PLACA_DUPLICADA, resultados.get(2).status);
+        assertEquals("Carro", particionado.findVeiculoTipado("PRT0100").getTipo());
+        assertEquals(6, particionado.getAllVeiculosTipados().size());
+    }
+
+    @Test
+    public void paginaPorTodasAsParticoes() {
+        particionado.addVeiculosEstoque(veiculos(40));
+        for (int i = 0; i < 40; i += 5) {
+            particionado.removerVeiculo(String.format("PRT%04d", i), I_Armazenamento.QUALQUER_VERSAO);
+        }
+
+        List<String> porPlaca = listarTodas(particionado, OrdenacaoPagina.PLACA, 7);
+        assertEquals(32, porPlaca.size());
+        List<String> esperadas = new ArrayList<>(porPlaca);
+        esperadas.sort(null);
+        assertEquals(esperadas, porPlaca);
+        assertFalse(porPlaca.contains("PRT0005"));
+
+        List<String> porInsercao = listarTodas(particionado, OrdenacaoPagina.INSERCAO, 7);
+        assertEquals(32, porInsercao.size());
+        assertEquals(new HashSet<>(porPlaca), new HashSet<>(porInsercao));
+
+        particionado.fechar();
+        particionado = new ArquivoArmazenamentoParticionado(prefixo, PARTICOES);
+        assertEquals(porPlaca, listarTodas(particionado, OrdenacaoPagina.PLACA, 5));
+    }
+
+    private static List<Veiculo> veiculos(int quantidade) {
+        List<Veiculo> veiculos = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            String placa = String.format("PRT%04d", i);
+            veiculos.add(i % 3 == 0 ? novaMoto(placa, "10000") : novoCarro(placa, "30000"));
+        }
+        return veiculos;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.concessionaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa o `ArquivoArmazenamento` com gravação imediata, em um arquivo temporário: inserções concorrentes pela
+ * thread escritora única e listagens paginadas sobre o retrato do estoque.
+ */
+public class ArquivoArmazenamentoTest {
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private String arquivo;
+    private ArquivoArmazenamento armazenamento;
+
+    @Before
+    public void preparar() {
+        arquivo = pasta.getRoot().toPath().resolve("estoque.xlsx").toString();
+        armazenamento = new ArquivoArmazenamento(arquivo);
+    }
+
+    @After
+    public void limpar() {
+        armazenamento.fechar();
+    }
+
+    @Test
+    public void aceitaUmaUnicaInsercaoConcorrenteDaMesmaPlaca() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String preco = String.valueOf(40000 + i);
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                return armazenamento.addVeiculoEstoque(novoCarro("DUP0001", preco));
+            }));
+        }
+        largada.countDown();
+
+        int aceitas = 0;
+        for (Future<Boolean> resultado : resultados) {
+            if (resultado.get()) {
+                aceitas++;
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, aceitas);
+        assertEquals(1, armazenamento.getAllVeiculosTipados().size());
+
+        armazenamento.fechar();
+        armazenamento = new ArquivoArmazenamento(arquivo);
+        assertEquals(1, armazenamento.getAllVeiculosTipados().size());
+        assertNotNull(armazenamento.findVeiculoTipado("DUP0001"));
+    }
+
+    @Test
+    public void rejeitaPlacaDuplicadaNoLoteENoEstoque() {
+        assertTrue(armazenamento.addVeiculoEstoque(novoCarro("LOT0001", "30000")));
+
+        List<Veiculo> lote = List.of(novoCarro("LOT0002", "31000"), novoCarro("LOT0002", "32000"), novoCarro("LOT0001", "33000"));
+        List<ResultadoInsercao> resultados = armazenamento.addVeiculosEstoque(lote);
+
+        assertEquals(ResultadoInsercao.Status.INSERIDO, resultados.get(0).status);
+        assertEquals(ResultadoInsercao.Status.PLACA_DUPLICADA, resultados.get(1).status);
+        assertEquals(ResultadoInsercao.Status.PLACA_DUPLICADA, resultados.get(2).status);
+        assertEquals(0, new BigDecimal("30000").compareTo(armazenamento.findVeiculoTipado("LOT0001").preco));
+        assertEquals(0, new BigDecimal("31000").compareTo(armazenamento.findVeiculoTipado("LOT0002").preco));
+    }
+
+    @Test
+    public void veiculoQueFalhaNaGravacaoNaoRejeitaOsDemaisDoGrupo() throws Exception {
+        Carro semPreco = novoCarro("ERR0001", "1");
+        semPreco.preco = null;
+        List<ResultadoInsercao> lote = armazenamento.addVeiculosEstoque(
+                List.of(novoCarro("OKA0001", "1000"), semPreco, novoCarro("OKA0002", "2000")));
+        assertEquals(ResultadoInsercao.Status.INSERIDO, lote.get(0).status);
+        assertEquals(ResultadoInsercao.Status.ERRO, lote.get(1).status);
+        assertEquals(ResultadoInsercao.Status.INSERIDO, lote.get(2).status);
+
+        // Pedidos concorrentes podem ser reunidos no mesmo grupo que o veículo inválido
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Carro carro = novoCarro(String.format("OKB%04d", i), "3000");
+            if (i == 0) {
+                carro.preco = null;
+            }
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                return armazenamento.addVeiculoEstoque(carro);
+            }));
+        }
+        largada.countDown();
+        assertFalse(resultados.get(0).get());
+        for (int i = 1; i < threads; i++) {
+            assertTrue(resultados.get(i).get());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        armazenamento.fechar();
+        armazenamento = new ArquivoArmazenamento(arquivo);
+        assertEquals(2 + threads - 1, armazenamento.getAllVeiculosTipados().size());
+        assertNull(armazenamento.findVeiculoTipado("ERR0001"));
+        assertNull(armazenamento.findVeiculoTipado("OKB0000"));
+    }
+
+    @Test
+    public void paginaSemRepetirNemPerderVeiculosAposRemocoes() {
+        List<Veiculo> lote = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            lote.add(novoCarro(String.format("PAG%04d", 59 - i), "20000"));
+        }
+        armazenamento.addVeiculosEstoque(lote);
+        for (int i = 0; i < 60; i += 3) {
+            assertEquals(ResultadoAtualizacao.Status.REMOVIDO,
+                    armazenamento.removerVeiculo(String.format("PAG%04d", i), I_Armazenamento.QUALQUER_VERSAO).status);
+        }
+
+        List<String> porInsercao = listarTodas(armazenamento, OrdenacaoPagina.INSERCAO, 7);
+        assertEquals(40, porInsercao.size());
+        assertEquals("PAG0059", porInsercao.get(0));
+        assertEquals("PAG0058", porInsercao.get(1));
+        assertFalse(porInsercao.contains("PAG0000"));
+
+        List<String> porPlaca = listarTodas(armazenamento, OrdenacaoPagina.PLACA, 7);
+        List<String> esperadas = new ArrayList<>(porInsercao);
+        esperadas.sort(null);
+        assertEquals(esperadas, porPlaca);
+
+        armazenamento.fechar();
+        armazenamento = new ArquivoArmazenamento(arquivo);
+        assertEquals(porPlaca, listarTodas(armazenamento, OrdenacaoPagina.PLACA, 11));
+        assertNull(armazenamento.findVeiculoTipado("PAG0003"));
+    }
+
+    @Test
+    public void releVersaoMaiorQueUmInteiro() {
+        Carro carro = novoCarro("VLG0001", "1000");
+        carro.versao = Integer.MAX_VALUE + 10L;
+        assertTrue(armazenamento.addVeiculoEstoque(carro));
+        armazenamento.fechar();
+
+        armazenamento = new ArquivoArmazenamento(arquivo);
+        assertEquals(Integer.MAX_VALUE + 10L, armazenamento.findVeiculoTipado("VLG0001").versao);
+        ResultadoAtualizacao vendido = armazenamento.atualizarVeiculo("VLG0001", AlteracaoVeiculo.venda(), Integer.MAX_VALUE + 10L);
+        assertTrue(vendido.isSucesso());
+        assertEquals(Integer.MAX_VALUE + 11L, vendido.veiculo.versao);
+    }
+
+    static List<String> listarTodas(I_Armazenamento armazenamento, OrdenacaoPagina ordenacao, int tamanhoPagina) {
+        List<String> placas = new ArrayList<>();
+        String token = null;
+        do {
+            PaginaVeiculos pagina = armazenamento.listarPagina(tamanhoPagina, ordenacao, token);
+            assertTrue(pagina.veiculos.size() <= tamanhoPagina);
+            for (Veiculo veiculo : pagina.veiculos) {
+                placas.add(veiculo.placa);
+            }
+            token = pagina.proximoToken;
+        } while (token != null);
+        return placas;
+    }
+
+    static Carro novoCarro(String placa, String preco) {
+        Carro carro = new Carro();
+        carro.placa = placa;
+        carro.marca = "Fiat";
+        carro.modelo = "Uno";
+        carro.ano_de_fabricacao = "2020";
+        carro.preco = new BigDecimal(preco);
+        carro.numero_de_portas = 4;
+        return carro;
+    }
+}
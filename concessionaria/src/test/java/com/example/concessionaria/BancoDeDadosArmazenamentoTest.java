@@ -0,0 +1,36 @@
+package com.example.concessionaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+/**
+ * Testa a conversão dos tokens de retomada do `BancoDeDadosArmazenamento`, que é feita antes de qualquer consulta
+ * e, portanto, não precisa de um servidor MongoDB.
+ */
+public class BancoDeDadosArmazenamentoTest {
+    private static final String ID = "0123456789abcdef01234567";
+
+    @Test
+    public void converteTokensDeRetomada() {
+        ObjectId id = new ObjectId();
+        String token = BancoDeDadosArmazenamento.tokenRetomada(id);
+        assertEquals(id.toHexString(), token);
+        assertEquals(id, BancoDeDadosArmazenamento.valorRetomada(OrdenacaoPagina.INSERCAO, token));
+
+        assertEquals("ABC1234", BancoDeDadosArmazenamento.tokenRetomada("ABC1234"));
+        assertEquals("ABC1234", BancoDeDadosArmazenamento.valorRetomada(OrdenacaoPagina.PLACA, "ABC1234"));
+        assertNull(BancoDeDadosArmazenamento.valorRetomada(OrdenacaoPagina.INSERCAO, null));
+    }
+
+    @Test
+    public void recusaTokenQueNaoEUmObjectId() {
+        for (String token : new String[] {"abc", "-1", "", ID.substring(1), ID + "0", ID.replace('0', 'g')}) {
+            assertThrows(token, IllegalArgumentException.class,
+                    () -> BancoDeDadosArmazenamento.valorRetomada(OrdenacaoPagina.INSERCAO, token));
+        }
+    }
+}
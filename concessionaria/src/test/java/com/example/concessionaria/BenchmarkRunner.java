@@ -0,0 +1,37 @@
+package com.example.concessionaria;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Executa os benchmarks JMH do projeto e publica os resultados em JSON, para acompanhar regressões entre versões.
+ *
+ * Uso: java com.example.concessionaria.BenchmarkRunner [arquivoResultado] [filtroBenchmarks]
+ *
+ * Sem filtro, executa os benchmarks de armazenamento (`ArmazenamentoBenchmark`); o relatório de listagem é
+ * executado com o filtro `RelatorioBenchmark`.
+ *
+ * A URL do MongoDB usada nos benchmarks vem da propriedade `concessionaria.mongodb.uri` e, por padrão,
+ * aponta para um servidor local (`mongodb://localhost:27017`), de modo que nenhuma execução usa o cluster remoto.
+ */
+public class BenchmarkRunner {
+    private static final String URI_LOCAL = "mongodb://localhost:27017";
+
+    public static void main(String[] args) throws RunnerException {
+        String arquivoResultado = args.length > 0 ? args[0] : "target/jmh-resultados.json";
+        String filtro = args.length > 1 ? args[1] : ArmazenamentoBenchmark.class.getSimpleName();
+        String uri = System.getProperty("concessionaria.mongodb.uri", URI_LOCAL);
+
+        Options opcoes = new OptionsBuilder()
+                .include(filtro)
+                .jvmArgsAppend("-Dconcessionaria.mongodb.uri=" + uri)
+                .resultFormat(ResultFormatType.JSON)
+                .result(arquivoResultado)
+                .build();
+
+        new Runner(opcoes).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.listarTodas;
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa o `BinarioArmazenamento` em arquivos temporários: a leitura do que foi gravado, a compactação e a conversão
+ * de arquivos no formato anterior (`CVB1`).
+ */
+public class BinarioArmazenamentoTest {
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private Path arquivo;
+
+    @Before
+    public void preparar() {
+        arquivo = pasta.getRoot().toPath().resolve("estoque.bin");
+    }
+
+    @Test
+    public void releOsVeiculosGravados() {
+        BinarioArmazenamento binario = new BinarioArmazenamento(arquivo.toString());
+        Motocicleta moto = novaMoto("BIN0002", "15999.90");
+        binario.addVeiculosEstoque(List.of(novoCarro("BIN0001", "45000.25"), moto, novoCarro("BIN0003", "1")));
+        assertTrue(binario.atualizarVeiculo("BIN0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, binario.removerVeiculo("BIN0003", 0).status);
+
+        BinarioArmazenamento reaberto = new BinarioArmazenamento(arquivo.toString());
+        assertEquals(2, reaberto.getAllVeiculosTipados().size());
+        assertEquals(binario.findVeiculoEstoque("BIN0001"), reaberto.findVeiculoEstoque("BIN0001"));
+        assertEquals(moto.toDocument(), reaberto.findVeiculoEstoque("BIN0002"));
+        assertNull(reaberto.findVeiculoTipado("BIN0003"));
+
+        Veiculo vendido = reaberto.findVeiculoTipado("BIN0001");
+        assertTrue(vendido.vendido);
+        assertEquals(1, vendido.versao);
+        assertEquals(new BigDecimal("45000.25"), vendido.preco);
+    }
+
+    @Test
+    public void compactacaoDescartaRegistrosObsoletos() throws IOException {
+        BinarioArmazenamento binario = new BinarioArmazenamento(arquivo.toString());
+        List<Veiculo> lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lote.add(i % 2 == 0 ? novoCarro(String.format("CMP%04d", i), "10000") : novaMoto(String.format("CMP%04d", i), "5000"));
+        }
+        binario.addVeiculosEstoque(lote);
+        for (int i = 0; i < 100; i++) {
+            String placa = String.format("CMP%04d", i);
+            if (i % 4 == 0) {
+                binario.removerVeiculo(placa, 0);
+            } else {
+                binario.atualizarVeiculo(placa, AlteracaoVeiculo.preco(new BigDecimal("9000")), 0);
+            }
+        }
+        long antes = Files.size(arquivo);
+
+        binario.compactar();
+
+        assertTrue(Files.size(arquivo) < antes);
+        assertEquals(75, binario.getAllVeiculosTipados().size());
+        List<String> placas = listarTodas(binario, OrdenacaoPagina.INSERCAO, 10);
+        assertEquals(75, placas.size());
+
+        BinarioArmazenamento reaberto = new BinarioArmazenamento(arquivo.toString());
+        assertEquals(placas, listarTodas(reaberto, OrdenacaoPagina.INSERCAO, 10));
+        assertNull(reaberto.findVeiculoTipado("CMP0004"));
+        Veiculo alterado = reaberto.findVeiculoTipado("CMP0005");
+        assertEquals(1, alterado.versao);
+        assertEquals(0, new BigDecimal("9000").compareTo(alterado.preco));
+        assertEquals(Integer.valueOf(160), ((Motocicleta) alterado).cilindradas);
+    }
+
+    @Test
+    public void converteArquivoNoFormatoAnterior() throws IOException {
+        escreverCvb1(arquivo);
+
+        BinarioArmazenamento binario = new BinarioArmazenamento(arquivo.toString());
+        Veiculo antigo = binario.findVeiculoTipado("OLD0001");
+        assertNotNull(antigo);
+        assertEquals(0, antigo.versao);
+        assertEquals("VW", antigo.marca);
+        assertEquals(new BigDecimal("10000.00"), antigo.preco);
+        assertArrayEquals("CVB2".getBytes(StandardCharsets.US_ASCII), Arrays.copyOf(Files.readAllBytes(arquivo), 4));
+
+        assertTrue(binario.atualizarVeiculo("OLD0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+        Veiculo reaberto = new BinarioArmazenamento(arquivo.toString()).findVeiculoTipado("OLD0001");
+        assertTrue(reaberto.vendido);
+        assertEquals(1, reaberto.versao);
+    }
+
+    static Motocicleta novaMoto(String placa, String preco) {
+        Motocicleta moto = new Motocicleta();
+        moto.placa = placa;
+        moto.marca = "Honda";
+        moto.modelo = "CG";
+        moto.ano_de_fabricacao = "2021";
+        moto.preco = new BigDecimal(preco);
+        moto.cilindradas = 160;
+        return moto;
+    }
+
+    /**
+     * Escreve um arquivo `CVB1` com um único carro: o formato anterior não tem versão nem indicação de venda.
+     */
+    private static void escreverCvb1(Path destino) throws IOException {
+        ByteArrayOutputStream bloco = new ByteArrayOutputStream();
+        DataOutputStream registros = new DataOutputStream(bloco);
+        escreverTexto(registros, "Carro");
+        registros.writeInt(1);
+        escreverTexto(registros, "OLD0001");
+        escreverTexto(registros, "VW");
+        escreverTexto(registros, "Gol");
+        escreverTexto(registros, "2010");
+        registros.writeByte(2);
+        registros.writeLong(1_000_000);
+        registros.writeInt(2);
+
+        ByteArrayOutputStream conteudo = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(conteudo);
+        saida.writeBytes("CVB1");
+        saida.writeInt(bloco.size());
+        bloco.writeTo(saida);
+        Files.write(destino, conteudo.toByteArray());
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeShort(bytes.length);
+        saida.write(bytes);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa o `CacheLRU` (acertos, ausências, expiração, descarte e invalidação durante uma carga) e o
+ * `ArmazenamentoComCache` sobre um `BinarioArmazenamento` em um arquivo temporário.
+ */
+public class CacheLRUTest {
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    @Test
+    public void guardaValoresEAusencias() {
+        CacheLRU<String> cache = new CacheLRU<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        AtomicInteger cargas = new AtomicInteger();
+
+        assertEquals("valor-a", cache.get("a", chave -> {
+            cargas.incrementAndGet();
+            return "valor-" + chave;
+        }));
+        assertEquals("valor-a", cache.get("a", chave -> "outro"));
+        assertNull(cache.get("b", chave -> {
+            cargas.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.get("b", chave -> "carregado de novo"));
+
+        assertEquals(2, cargas.get());
+        assertEquals(2, cache.getAcertos());
+        assertEquals(2, cache.getFalhas());
+
+        cache.invalidar("a");
+        cache.invalidar("b");
+        assertEquals("novo", cache.get("a", chave -> "novo"));
+        assertEquals("existe", cache.get("b", chave -> "existe"));
+    }
+
+    @Test
+    public void expiraEDescartaOsItens() throws InterruptedException {
+        CacheLRU<String> semAusencias = new CacheLRU<>(100, Duration.ofMillis(20), Duration.ZERO);
+        semAusencias.get("a", chave -> "1");
+        assertNull(semAusencias.get("b", chave -> null));
+        assertEquals("2", semAusencias.get("b", chave -> "2"));
+        Thread.sleep(40);
+        assertEquals("3", semAusencias.get("a", chave -> "3"));
+
+        CacheLRU<String> pequeno = new CacheLRU<>(16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        for (int i = 0; i < 200; i++) {
+            pequeno.get("chave" + i, chave -> chave);
+        }
+        assertTrue(pequeno.getExpulsoes() >= 200 - 16);
+        assertEquals("chave199", pequeno.get("chave199", chave -> "recarregado"));
+    }
+
+    @Test
+    public void naoGuardaValorCarregadoAntesDeUmaInvalidacao() throws Exception {
+        CacheLRU<String> cache = new CacheLRU<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        CountDownLatch carregando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        // A carga lê o valor antigo e só termina depois que a chave é invalidada
+        CompletableFuture<String> carga = CompletableFuture.supplyAsync(() -> cache.get("placa", chave -> {
+            carregando.countDown();
+            try {
+                assertTrue(liberar.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "antigo";
+        }));
+        assertTrue(carregando.await(10, TimeUnit.SECONDS));
+        cache.invalidar("placa");
+        liberar.countDown();
+
+        assertEquals("antigo", carga.get(10, TimeUnit.SECONDS));
+        assertEquals("atual", cache.get("placa", chave -> "atual"));
+
+        // O mesmo vale para `limpar`, inclusive para uma ausência
+        CountDownLatch carregandoAusencia = new CountDownLatch(1);
+        CountDownLatch liberarAusencia = new CountDownLatch(1);
+        CompletableFuture<String> ausencia = CompletableFuture.supplyAsync(() -> cache.get("nova", chave -> {
+            carregandoAusencia.countDown();
+            try {
+                assertTrue(liberarAusencia.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(carregandoAusencia.await(10, TimeUnit.SECONDS));
+        cache.limpar();
+        liberarAusencia.countDown();
+
+        assertNull(ausencia.get(10, TimeUnit.SECONDS));
+        assertEquals("inserida", cache.get("nova", chave -> "inserida"));
+    }
+
+    @Test
+    public void armazenamentoComCacheDevolveCopiasEInvalidaNasGravacoes() {
+        BinarioArmazenamento binario = new BinarioArmazenamento(pasta.getRoot().toPath().resolve("estoque.bin").toString());
+        ArmazenamentoComCache cache = new ArmazenamentoComCache(binario);
+
+        // A ausência em cache não esconde o veículo inserido depois
+        assertNull(cache.findVeiculoTipado("CCH0001"));
+        assertTrue(cache.addVeiculoEstoque(novoCarro("CCH0001", "1000")));
+        Veiculo lido = cache.findVeiculoTipado("CCH0001");
+        lido.preco = new BigDecimal("1");
+        lido.vendido = true;
+        Veiculo relido = cache.findVeiculoTipado("CCH0001");
+        assertEquals(0, new BigDecimal("1000").compareTo(relido.preco));
+        assertFalse(relido.vendido);
+        cache.findVeiculoEstoque("CCH0001").put("preco", 1);
+        assertEquals(0, new BigDecimal("1000").compareTo(new BigDecimal(cache.findVeiculoEstoque("CCH0001").get("preco").toString())));
+
+        assertTrue(cache.atualizarVeiculo("CCH0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+        assertTrue(cache.findVeiculoTipado("CCH0001").vendido);
+        assertTrue(cache.findVeiculoEstoque("CCH0001").getBoolean("vendido"));
+
+        // Uma gravação direta no armazenamento decorado só aparece depois de uma gravação pelo cache
+        binario.atualizarVeiculo("CCH0001", AlteracaoVeiculo.preco(new BigDecimal("2000")), 1);
+        assertEquals(1, cache.findVeiculoTipado("CCH0001").versao);
+        assertEquals(ResultadoAtualizacao.Status.CONFLITO_VERSAO, cache.removerVeiculo("CCH0001", 1).status);
+        assertEquals(2, cache.findVeiculoTipado("CCH0001").versao);
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, cache.removerVeiculo("CCH0001", 2).status);
+        assertNull(cache.findVeiculoTipado("CCH0001"));
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.concessionaria;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+
+/**
+ * Teste de carga do `ServidorConcessionaria`: para cada nível de concorrência, abre o número informado de clientes
+ * HTTP simultâneos (cada um com uma requisição em andamento por vez) e mede a vazão, a latência e as rejeições por
+ * contrapressão (503). O servidor atende um armazenamento em memória que simula a ida e volta ao MongoDB com uma
+ * latência fixa, de modo que nenhuma execução depende de um servidor real.
+ *
+ * Uso: java com.example.concessionaria.CargaServidor [latenciaMs] [segundosPorNivel] [niveis] [limiteSimultaneas]
+ *
+ * Por exemplo, `CargaServidor 2 5 1,10,100,1000,4000 1024`. Nove em cada dez requisições buscam uma placa
+ * existente; a décima adiciona um veículo novo.
+ */
+public class CargaServidor {
+    private static final int VEICULOS_INICIAIS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        long latenciaMs = args.length > 0 ? Long.parseLong(args[0]) : 2;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String niveis = args.length > 2 ? args[2] : "1,10,100,1000,2000";
+        int limite = args.length > 3 ? Integer.parseInt(args[3]) : ServidorConcessionaria.LIMITE_PADRAO;
+
+        MongoSimulado armazenamento = new MongoSimulado(TimeUnit.MILLISECONDS.toNanos(latenciaMs));
+        List<Veiculo> iniciais = new ArrayList<>(VEICULOS_INICIAIS);
+        for (int i = 0; i < VEICULOS_INICIAIS; i++) {
+            iniciais.add(carro(String.format("CRG%05d", i)));
+        }
+        armazenamento.addVeiculosEstoque(iniciais);
+
+        ServidorConcessionaria servidor = new ServidorConcessionaria(new Concessionaria(armazenamento),
+                new InetSocketAddress("127.0.0.1", 0), limite);
+        servidor.iniciar();
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String base = "http://127.0.0.1:" + servidor.getPorta();
+
+        System.out.printf("latencia simulada=%dms, limite=%d, %ds por nivel%n", latenciaMs, limite, segundos);
+        System.out.printf("%8s %10s %10s %8s %8s %8s %8s%n", "clientes", "req/s", "ok", "503", "falhas", "p50 ms", "p99 ms");
+        try {
+            for (String nivel : niveis.split(",")) {
+                executarNivel(cliente, base, Integer.parseInt(nivel.trim()), segundos);
+            }
+        } finally {
+            servidor.parar(1);
+        }
+    }
+
+    private static void executarNivel(HttpClient cliente, String base, int clientes, int segundos) throws InterruptedException {
+        HistogramaLatencia latencias = new HistogramaLatencia();
+        LongAdder ok = new LongAdder();
+        LongAdder rejeitadas = new LongAdder();
+        LongAdder falhas = new LongAdder();
+        AtomicLong novas = new AtomicLong();
+        CountDownLatch concluidos = new CountDownLatch(clientes);
+
+        long inicio = System.nanoTime();
+        long fim = inicio + TimeUnit.SECONDS.toNanos(segundos);
+        for (int i = 0; i < clientes; i++) {
+            proximaRequisicao(cliente, base, fim, novas, latencias, ok, rejeitadas, falhas, concluidos);
+        }
+        concluidos.await();
+        double decorrido = (System.nanoTime() - inicio) / 1e9;
+
+        long total = ok.sum() + rejeitadas.sum();
+        System.out.printf("%8d %10.0f %10d %8d %8d %8.2f %8.2f%n", clientes, total / decorrido, ok.sum(),
+                rejeitadas.sum(), falhas.sum(), latencias.getPercentilMs(50), latencias.getPercentilMs(99));
+    }
+
+    /**
+     * Envia a próxima requisição de um cliente assim que a anterior termina, até o fim do nível.
+     */
+    private static void proximaRequisicao(HttpClient cliente, String base, long fim, AtomicLong novas,
+                                          HistogramaLatencia latencias, LongAdder ok, LongAdder rejeitadas,
+                                          LongAdder falhas, CountDownLatch concluidos) {
+        if (System.nanoTime() >= fim) {
+            concluidos.countDown();
+            return;
+        }
+
+        HttpRequest requisicao;
+        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+            String placa = String.format("NOV%07d", novas.incrementAndGet());
+            requisicao = HttpRequest.newBuilder(URI.create(base + "/veiculos"))
+                    .POST(HttpRequest.BodyPublishers.ofString(carro(placa).toDocument().toJson()))
+                    .build();
+        } else {
+            String placa = String.format("CRG%05d", ThreadLocalRandom.current().nextInt(VEICULOS_INICIAIS));
+            requisicao = HttpRequest.newBuilder(URI.create(base + "/veiculos/" + placa)).GET().build();
+        }
+
+        long inicio = System.nanoTime();
+        cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+            if (erro != null) {
+                falhas.increment();
+            } else if (resposta.statusCode() == 503) {
+                rejeitadas.increment();
+            } else {
+                latencias.registrar(System.nanoTime() - inicio);
+                ok.increment();
+            }
+            proximaRequisicao(cliente, base, fim, novas, latencias, ok, rejeitadas, falhas, concluidos);
+        });
+    }
+
+    private static Carro carro(String placa) {
+        Carro carro = new Carro();
+        carro.placa = placa;
+        carro.marca = "Fiat";
+        carro.modelo = "Uno";
+        carro.ano_de_fabricacao = "2015";
+        carro.numero_de_portas = 4;
+        carro.preco = new BigDecimal("32500");
+        return carro;
+    }
+
+    /**
+     * Armazenamento em memória que espera uma latência fixa em cada operação, como a ida e volta a um MongoDB local.
+     */
+    static class MongoSimulado implements I_Armazenamento {
+        private final EstoqueEmMemoria estoque = new EstoqueEmMemoria();
+        private final long latenciaNanos;
+
+        MongoSimulado(long latenciaNanos) {
+            this.latenciaNanos = latenciaNanos;
+        }
+
+        private void idaEVolta() {
+            if (latenciaNanos > 0) {
+                LockSupport.parkNanos(latenciaNanos);
+            }
+        }
+
+        @Override
+        public boolean addVeiculoEstoque(Veiculo veiculo) {
+            idaEVolta();
+            return estoque.adicionar(veiculo);
+        }
+
+        @Override
+        public List<ResultadoInsercao> addVeiculosEstoque(Collection<Veiculo> veiculos) {
+            idaEVolta();
+            return veiculos.stream()
+                    .map(v -> estoque.adicionar(v) ? ResultadoInsercao.inserido(v.placa) : ResultadoInsercao.placaDuplicada(v.placa))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public Document findVeiculoEstoque(String placa) {
+            Veiculo veiculo = findVeiculoTipado(placa);
+            return veiculo == null ? null : veiculo.toDocument();
+        }
+
+        @Override
+        public List<Document> getAllVeiculos() {
+            return streamVeiculos().collect(Collectors.toList());
+        }
+
+        @Override
+        public Stream<Document> streamVeiculos() {
+            return streamVeiculosTipados().map(Veiculo::toDocument);
+        }
+
+        @Override
+        public Veiculo findVeiculoTipado(String placa) {
+            idaEVolta();
+            return estoque.buscar(placa);
+        }
+
+        @Override
+        public List<Veiculo> getAllVeiculosTipados() {
+            idaEVolta();
+            return estoque.listar();
+        }
+
+        @Override
+        public Stream<Veiculo> streamVeiculosTipados() {
+            return getAllVeiculosTipados().stream();
+        }
+
+        @Override
+        public PaginaVeiculos listarPagina(int tamanhoPagina, OrdenacaoPagina ordenacao, String tokenRetomada) {
+            idaEVolta();
+            return estoque.listarPagina(tamanhoPagina, ordenacao, tokenRetomada);
+        }
+
+        @Override
+        public List<Document> consultarVeiculos(ConsultaVeiculos consulta) {
+            idaEVolta();
+            return estoque.consultar(consulta);
+        }
+
+        @Override
+        public List<EstatisticaPrecos> agregarPrecos(AgrupamentoEstoque agrupamento, ConsultaVeiculos filtro) {
+            idaEVolta();
+            return estoque.agregar(agrupamento, filtro);
+        }
+
+        @Override
+        public ResultadoAtualizacao atualizarVeiculo(String placa, AlteracaoVeiculo alteracao, long versaoEsperada) {
+            idaEVolta();
+            return estoque.atualizar(placa, alteracao, versaoEsperada);
+        }
+
+        @Override
+        public ResultadoAtualizacao removerVeiculo(String placa, long versaoEsperada) {
+            idaEVolta();
+            return estoque.remover(placa, versaoEsperada);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.listarTodas;
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static com.example.concessionaria.BinarioArmazenamentoTest.novaMoto;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa o `ColunarArmazenamento` em arquivos temporários: a reabertura do arquivo mapeado, o crescimento e a
+ * compactação, as listagens paginadas, a conversão do formato anterior (`CVC1`) e a recuperação de uma linha com
+ * alteração interrompida.
+ */
+public class ColunarArmazenamentoTest {
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private Path arquivo;
+    private final List<ColunarArmazenamento> abertos = new ArrayList<>();
+
+    @Before
+    public void preparar() {
+        arquivo = pasta.getRoot().toPath().resolve("estoque.col");
+    }
+
+    @After
+    public void limpar() {
+        abertos.forEach(ColunarArmazenamento::fechar);
+    }
+
+    private ColunarArmazenamento abrir() {
+        ColunarArmazenamento colunar = new ColunarArmazenamento(arquivo.toString());
+        abertos.add(colunar);
+        return colunar;
+    }
+
+    @Test
+    public void releOsVeiculosGravados() {
+        ColunarArmazenamento colunar = abrir();
+        Motocicleta moto = novaMoto("COL0002", "15999.90");
+        colunar.addVeiculosEstoque(List.of(novoCarro("COL0001", "45000.25"), moto, novoCarro("COL0003", "1")));
+        assertTrue(colunar.atualizarVeiculo("COL0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, colunar.removerVeiculo("COL0003", 0).status);
+        colunar.fechar();
+
+        ColunarArmazenamento reaberto = abrir();
+        assertEquals(2, reaberto.getQuantidade());
+        assertEquals(moto.toDocument(), reaberto.findVeiculoEstoque("COL0002"));
+        assertNull(reaberto.findVeiculoTipado("COL0003"));
+        Veiculo vendido = reaberto.findVeiculoTipado("COL0001");
+        assertTrue(vendido.vendido);
+        assertEquals(1, vendido.versao);
+        assertEquals(0, new BigDecimal("45000.25").compareTo(vendido.preco));
+        assertTrue(reaberto.addVeiculoEstoque(novoCarro("COL0003", "2")));
+    }
+
+    @Test
+    public void paginaAposCrescimentoRemocoesECompactacao() throws IOException {
+        ColunarArmazenamento colunar = abrir();
+        List<Veiculo> lote = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lote.add(novoCarro(String.format("GRW%04d", 2999 - i), "10000"));
+        }
+        colunar.addVeiculosEstoque(lote);
+        // A listagem por placa começa antes das remoções: o índice ordenado passa a ser mantido pelas alterações
+        assertEquals(3000, listarTodas(colunar, OrdenacaoPagina.PLACA, 500).size());
+        for (int i = 0; i < 3000; i += 2) {
+            colunar.removerVeiculo(String.format("GRW%04d", i), 0);
+        }
+
+        List<String> porInsercao = listarTodas(colunar, OrdenacaoPagina.INSERCAO, 97);
+        List<String> porPlaca = listarTodas(colunar, OrdenacaoPagina.PLACA, 97);
+        assertEquals(1500, porInsercao.size());
+        assertEquals("GRW2999", porInsercao.get(0));
+        List<String> esperadas = new ArrayList<>(porInsercao);
+        esperadas.sort(null);
+        assertEquals(esperadas, porPlaca);
+
+        colunar.compactar();
+        long tamanhoCompactado = Files.size(arquivo);
+        assertEquals(porInsercao, listarTodas(colunar, OrdenacaoPagina.INSERCAO, 97));
+        assertEquals(porPlaca, listarTodas(colunar, OrdenacaoPagina.PLACA, 97));
+        colunar.fechar();
+
+        ColunarArmazenamento reaberto = abrir();
+        assertEquals(tamanhoCompactado, Files.size(arquivo));
+        assertEquals(1500, reaberto.getQuantidade());
+        assertEquals(porPlaca, listarTodas(reaberto, OrdenacaoPagina.PLACA, 250));
+        assertNull(reaberto.findVeiculoTipado("GRW0000"));
+        assertNotNull(reaberto.findVeiculoTipado("GRW0001"));
+    }
+
+    @Test
+    public void converteArquivoNoFormatoAnterior() throws IOException {
+        escreverCvc1(arquivo);
+
+        ColunarArmazenamento colunar = abrir();
+        Veiculo antigo = colunar.findVeiculoTipado("OLD0001");
+        assertNotNull(antigo);
+        assertEquals(0, antigo.versao);
+        assertFalse(antigo.vendido);
+        assertEquals("VW", antigo.marca);
+        assertEquals("Gol", antigo.modelo);
+        assertEquals(0, new BigDecimal("123.45").compareTo(antigo.preco));
+        assertEquals(0x43564332, ByteBuffer.wrap(Files.readAllBytes(arquivo), 0, 4).getInt());
+
+        assertTrue(colunar.atualizarVeiculo("OLD0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+        assertTrue(colunar.addVeiculoEstoque(novoCarro("NEW0001", "10")));
+        colunar.fechar();
+        ColunarArmazenamento reaberto = abrir();
+        assertTrue(reaberto.findVeiculoTipado("OLD0001").vendido);
+        assertEquals(2, reaberto.getQuantidade());
+    }
+
+    @Test
+    public void removeNaAberturaALinhaComAlteracaoInterrompida() throws IOException {
+        ColunarArmazenamento colunar = abrir();
+        colunar.addVeiculosEstoque(List.of(novoCarro("TRN0001", "1"), novoCarro("TRN0002", "2"), novoCarro("TRN0003", "3")));
+        colunar.fechar();
+
+        // Versão negativa na segunda linha: o processo caiu no meio da regravação das suas colunas
+        try (RandomAccessFile bruto = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            bruto.seek(inicioVersoes(1024) + Long.BYTES);
+            bruto.writeLong(-1);
+        }
+
+        ColunarArmazenamento recuperado = abrir();
+        assertNull(recuperado.findVeiculoTipado("TRN0002"));
+        assertNotNull(recuperado.findVeiculoTipado("TRN0001"));
+        assertEquals(2, recuperado.getQuantidade());
+        assertTrue(recuperado.addVeiculoEstoque(novoCarro("TRN0002", "4")));
+        recuperado.fechar();
+
+        ColunarArmazenamento reaberto = abrir();
+        assertEquals(3, reaberto.getQuantidade());
+        assertEquals(0, new BigDecimal("4").compareTo(reaberto.findVeiculoTipado("TRN0002").preco));
+    }
+
+    /**
+     * Posição da coluna de versões: cabeçalho, preços, placas, marcas, modelos, específicos, índice (o dobro da
+     * capacidade), anos e tipos.
+     */
+    private static long inicioVersoes(int capacidade) {
+        return 32L + capacidade * (8L + 16 + 4 + 4 + 4) + capacidade * 2L * 4 + capacidade * 2L + capacidade;
+    }
+
+    /**
+     * Escreve um arquivo `CVC1` com um único carro. O formato anterior não tem as colunas de versão e situação.
+     */
+    private static void escreverCvc1(Path destino) throws IOException {
+        int capacidade = 4;
+        int capacidadeIndice = 8;
+        int capacidadeDicionario = 64;
+        int precos = 32;
+        int placas = precos + capacidade * 8;
+        int marcas = placas + capacidade * 16;
+        int modelos = marcas + capacidade * 4;
+        int especificos = modelos + capacidade * 4;
+        int indice = especificos + capacidade * 4;
+        int anos = indice + capacidadeIndice * 4;
+        int tipos = anos + capacidade * 2;
+        int textos = tipos + capacidade;
+
+        ByteBuffer dados = ByteBuffer.allocate(textos + capacidadeDicionario);
+        dados.putInt(0, 0x43564331);
+        dados.putInt(4, capacidade);
+        dados.putInt(8, 1);
+        dados.putInt(12, 4 + 5);
+        dados.putInt(16, capacidadeDicionario);
+        dados.putShort(textos, (short) 2);
+        dados.put(textos + 2, "VW".getBytes(StandardCharsets.UTF_8));
+        dados.putShort(textos + 4, (short) 3);
+        dados.put(textos + 6, "Gol".getBytes(StandardCharsets.UTF_8));
+
+        byte[] placa = "OLD0001".getBytes(StandardCharsets.UTF_8);
+        dados.putLong(precos, 12345);
+        dados.put(placas, (byte) placa.length);
+        dados.put(placas + 1, placa);
+        dados.putInt(marcas, 0);
+        dados.putInt(modelos, 1);
+        dados.putInt(especificos, 2);
+        dados.putShort(anos, (short) 2010);
+        dados.put(tipos, (byte) 0);
+        int hash = "OLD0001".hashCode();
+        hash ^= hash >>> 16;
+        dados.putInt(indice + (hash & (capacidadeIndice - 1)) * 4, 1);
+        Files.write(destino, dados.array());
+    }
+}
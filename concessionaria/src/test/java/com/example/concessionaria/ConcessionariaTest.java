@@ -0,0 +1,62 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa as operações assíncronas da `Concessionaria` sobre um `BinarioArmazenamento` em um arquivo temporário: o
+ * componente assíncrono é criado uma única vez, na primeira operação, e grava no mesmo estoque das síncronas.
+ */
+public class ConcessionariaTest {
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private BinarioArmazenamento armazenamento;
+
+    @Before
+    public void preparar() {
+        armazenamento = new BinarioArmazenamento(pasta.getRoot().toPath().resolve("estoque.bin").toString());
+    }
+
+    @Test
+    public void operacoesAssincronasUsamOMesmoEstoque() {
+        Concessionaria concessionaria = new Concessionaria(armazenamento);
+
+        assertTrue(concessionaria.AdicionaVeiculoEstoqueAsync(novoCarro("ASY0001", "1000")).join());
+        assertFalse(concessionaria.AdicionaVeiculoEstoqueAsync(novoCarro("ASY0001", "2000")).join());
+        List<ResultadoInsercao> resultados = concessionaria.AdicionaVeiculosEstoqueAsync(
+                List.of(novoCarro("ASY0002", "1000"), novoCarro("ASY0001", "3000"))).join();
+        assertEquals(List.of(ResultadoInsercao.Status.INSERIDO, ResultadoInsercao.Status.PLACA_DUPLICADA),
+                resultados.stream().map(resultado -> resultado.status).collect(Collectors.toList()));
+
+        assertEquals("ASY0002", concessionaria.EncontraVeiculoEstoqueAsync("ASY0002").join().placa);
+        assertNull(concessionaria.EncontraVeiculoEstoqueAsync("ASY9999").join());
+        assertEquals(2, armazenamento.getAllVeiculosTipados().size());
+        concessionaria.ListarTodosVeiculosAsync().join();
+
+        // Criado na primeira operação e reaproveitado nas seguintes
+        assertSame(concessionaria.getArmazenamentoAssincrono(), concessionaria.getArmazenamentoAssincrono());
+    }
+
+    @Test
+    public void usaOComponenteAssincronoInformado() {
+        ArmazenamentoAssincronoExecutor assincrono = new ArmazenamentoAssincronoExecutor(armazenamento);
+        Concessionaria concessionaria = new Concessionaria(armazenamento, assincrono);
+
+        assertSame(assincrono, concessionaria.getArmazenamentoAssincrono());
+        assertTrue(concessionaria.AdicionaVeiculoEstoqueAsync(novoCarro("ASY0003", "1000")).join());
+        assertEquals("ASY0003", armazenamento.findVeiculoTipado("ASY0003").placa);
+    }
+}
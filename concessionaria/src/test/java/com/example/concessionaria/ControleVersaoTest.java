@@ -0,0 +1,170 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Testa o controle de versão das alterações e remoções em cada armazenamento baseado em arquivo (e nas camadas e no
+ * cache sobre eles): uma versão desatualizada é recusada com o veículo atual, e atualizações concorrentes que repetem
+ * a tentativa no conflito não se perdem.
+ */
+@RunWith(Parameterized.class)
+public class ControleVersaoTest {
+    /**
+     * Abre um armazenamento na pasta informada e registra como fechá-lo.
+     */
+    interface Fabrica {
+        I_Armazenamento abrir(Path pasta, List<Runnable> fechamentos);
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> armazenamentos() {
+        return Arrays.asList(new Object[][] {
+                {"xlsx", (Fabrica) (pasta, fechamentos) -> {
+                    ArquivoArmazenamento arquivo = new ArquivoArmazenamento(pasta.resolve("estoque.xlsx").toString());
+                    fechamentos.add(arquivo::fechar);
+                    return arquivo;
+                }},
+                {"xlsx com gravação adiada", (Fabrica) (pasta, fechamentos) -> {
+                    ArquivoArmazenamento arquivo = new ArquivoArmazenamento(pasta.resolve("estoque.xlsx").toString(),
+                            new ConfiguracaoGravacaoAdiada(1_000_000, 3_600_000));
+                    fechamentos.add(arquivo::fechar);
+                    return arquivo;
+                }},
+                {"particionado", (Fabrica) (pasta, fechamentos) -> {
+                    ArquivoArmazenamentoParticionado particionado = new ArquivoArmazenamentoParticionado(pasta.resolve("estoque").toString(), 2);
+                    fechamentos.add(particionado::fechar);
+                    return particionado;
+                }},
+                {"binario", (Fabrica) (pasta, fechamentos) -> new BinarioArmazenamento(pasta.resolve("estoque.bin").toString())},
+                {"colunar", (Fabrica) (pasta, fechamentos) -> {
+                    ColunarArmazenamento colunar = new ColunarArmazenamento(pasta.resolve("estoque.col").toString());
+                    fechamentos.add(colunar::fechar);
+                    return colunar;
+                }},
+                {"camadas", (Fabrica) (pasta, fechamentos) -> {
+                    ColunarArmazenamento secundario = new ColunarArmazenamento(pasta.resolve("estoque.col").toString());
+                    ArmazenamentoEmCamadas camadas = new ArmazenamentoEmCamadas(
+                            new BinarioArmazenamento(pasta.resolve("estoque.bin").toString()), secundario);
+                    fechamentos.add(secundario::fechar);
+                    fechamentos.add(camadas::fechar);
+                    return camadas;
+                }},
+                {"cache", (Fabrica) (pasta, fechamentos) ->
+                        new ArmazenamentoComCache(new BinarioArmazenamento(pasta.resolve("estoque.bin").toString()))},
+        });
+    }
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private final Fabrica fabrica;
+    private final List<Runnable> fechamentos = new ArrayList<>();
+    private I_Armazenamento armazenamento;
+
+    public ControleVersaoTest(String nome, Fabrica fabrica) {
+        this.fabrica = fabrica;
+    }
+
+    @Before
+    public void preparar() {
+        armazenamento = fabrica.abrir(pasta.getRoot().toPath(), fechamentos);
+    }
+
+    @After
+    public void limpar() {
+        // Fecha na ordem inversa da abertura
+        for (int i = fechamentos.size() - 1; i >= 0; i--) {
+            fechamentos.get(i).run();
+        }
+    }
+
+    @Test
+    public void recusaAlteracaoERemocaoComVersaoDesatualizada() {
+        assertTrue(armazenamento.addVeiculoEstoque(novoCarro("VER0001", "10000")));
+        assertEquals(0, armazenamento.findVeiculoTipado("VER0001").versao);
+
+        ResultadoAtualizacao alterado = armazenamento.atualizarVeiculo("VER0001", AlteracaoVeiculo.preco(new BigDecimal("11000")), 0);
+        assertEquals(ResultadoAtualizacao.Status.ATUALIZADO, alterado.status);
+        assertEquals(1, alterado.veiculo.versao);
+
+        ResultadoAtualizacao conflito = armazenamento.atualizarVeiculo("VER0001", AlteracaoVeiculo.preco(new BigDecimal("12000")), 0);
+        assertEquals(ResultadoAtualizacao.Status.CONFLITO_VERSAO, conflito.status);
+        assertEquals(1, conflito.veiculo.versao);
+        assertEquals(0, new BigDecimal("11000").compareTo(armazenamento.findVeiculoTipado("VER0001").preco));
+
+        assertEquals(ResultadoAtualizacao.Status.CONFLITO_VERSAO, armazenamento.removerVeiculo("VER0001", 0).status);
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, armazenamento.removerVeiculo("VER0001", 1).status);
+        assertNull(armazenamento.findVeiculoTipado("VER0001"));
+        assertEquals(ResultadoAtualizacao.Status.NAO_ENCONTRADO, armazenamento.removerVeiculo("VER0001", 1).status);
+        assertEquals(ResultadoAtualizacao.Status.NAO_ENCONTRADO,
+                armazenamento.atualizarVeiculo("VER0001", AlteracaoVeiculo.venda(), I_Armazenamento.QUALQUER_VERSAO).status);
+    }
+
+    @Test
+    public void reinsercaoRecomecaAVersao() {
+        armazenamento.addVeiculoEstoque(novoCarro("VER0002", "10000"));
+        armazenamento.atualizarVeiculo("VER0002", AlteracaoVeiculo.venda(), 0);
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, armazenamento.removerVeiculo("VER0002", 1).status);
+        assertTrue(armazenamento.addVeiculoEstoque(novoCarro("VER0002", "20000")));
+
+        // A versão lida antes da remoção não vale para o veículo reinserido
+        Veiculo reinserido = armazenamento.findVeiculoTipado("VER0002");
+        assertEquals(0, reinserido.versao);
+        assertEquals(ResultadoAtualizacao.Status.CONFLITO_VERSAO,
+                armazenamento.atualizarVeiculo("VER0002", AlteracaoVeiculo.venda(), 1).status);
+        assertTrue(armazenamento.atualizarVeiculo("VER0002", AlteracaoVeiculo.venda(), 0).isSucesso());
+    }
+
+    @Test
+    public void atualizacoesConcorrentesNaoSePerdem() throws Exception {
+        armazenamento.addVeiculoEstoque(novoCarro("VER0003", "1000"));
+        int threads = 4;
+        int porThread = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < porThread; i++) {
+                    ResultadoAtualizacao resultado;
+                    do {
+                        Veiculo atual = armazenamento.findVeiculoTipado("VER0003");
+                        resultado = armazenamento.atualizarVeiculo("VER0003", AlteracaoVeiculo.preco(atual.preco.add(BigDecimal.ONE)), atual.versao);
+                        assertTrue(resultado.toString(), resultado.isSucesso() || resultado.status == ResultadoAtualizacao.Status.CONFLITO_VERSAO);
+                    } while (!resultado.isSucesso());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Veiculo veiculo = armazenamento.findVeiculoTipado("VER0003");
+        assertEquals(threads * porThread, veiculo.versao);
+        assertEquals(0, new BigDecimal(1000 + threads * porThread).compareTo(veiculo.preco));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa a gravação adiada do `ArquivoArmazenamento`. Uma queda é simulada copiando o workbook e o diário enquanto
+ * o armazenamento ainda está aberto, antes de qualquer regravação do workbook: a cópia é o que sobraria no disco.
+ */
+public class GravacaoAdiadaTest {
+    // Limites que nunca são atingidos durante o teste: o workbook só é regravado no encerramento
+    private static final ConfiguracaoGravacaoAdiada SEM_REGRAVACAO = new ConfiguracaoGravacaoAdiada(1_000_000, 3_600_000);
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private Path arquivo;
+    private ArquivoArmazenamento adiado;
+
+    @Before
+    public void preparar() {
+        arquivo = pasta.getRoot().toPath().resolve("estoque.xlsx");
+    }
+
+    @After
+    public void limpar() {
+        if (adiado != null) {
+            adiado.fechar();
+        }
+    }
+
+    @Test
+    public void reaplicaODiarioDeUmaExecucaoInterrompida() throws IOException {
+        adiado = new ArquivoArmazenamento(arquivo.toString(), SEM_REGRAVACAO);
+        assertTrue(adiado.addVeiculoEstoque(novoCarro("JRN0001", "10000")));
+        assertTrue(adiado.addVeiculoEstoque(novoCarro("JRN0002", "20000")));
+        assertTrue(adiado.atualizarVeiculo("JRN0001", AlteracaoVeiculo.preco(new BigDecimal("11000")), 0).isSucesso());
+        assertFalse(Files.exists(arquivo));
+
+        ArquivoArmazenamento recuperado = abrirCopia("queda.xlsx");
+        try {
+            assertEquals(2, recuperado.getAllVeiculosTipados().size());
+            Veiculo alterado = recuperado.findVeiculoTipado("JRN0001");
+            assertEquals(1, alterado.versao);
+            assertEquals(0, new BigDecimal("11000").compareTo(alterado.preco));
+        } finally {
+            recuperado.fechar();
+        }
+    }
+
+    @Test
+    public void reaplicaRemocaoSeguidaDeReinsercaoSobreOWorkbook() throws IOException {
+        ArquivoArmazenamento imediato = new ArquivoArmazenamento(arquivo.toString());
+        imediato.addVeiculoEstoque(novoCarro("REI0001", "10000"));
+        imediato.addVeiculoEstoque(novoCarro("REI0002", "20000"));
+        imediato.addVeiculoEstoque(novoCarro("REI0003", "30000"));
+        imediato.fechar();
+
+        adiado = new ArquivoArmazenamento(arquivo.toString(), SEM_REGRAVACAO);
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, adiado.removerVeiculo("REI0002", 0).status);
+        assertTrue(adiado.addVeiculoEstoque(novoCarro("REI0002", "25000")));
+        assertEquals(ResultadoAtualizacao.Status.REMOVIDO, adiado.removerVeiculo("REI0003", 0).status);
+        assertTrue(adiado.atualizarVeiculo("REI0001", AlteracaoVeiculo.venda(), 0).isSucesso());
+
+        ArquivoArmazenamento recuperado = abrirCopia("queda.xlsx");
+        try {
+            verificarEstadoFinal(recuperado);
+        } finally {
+            recuperado.fechar();
+        }
+
+        // O encerramento regrava o workbook e esvazia o diário
+        adiado.fechar();
+        adiado = null;
+        assertEquals(0, Files.size(Path.of(arquivo + ".journal")));
+        ArquivoArmazenamento reaberto = new ArquivoArmazenamento(arquivo.toString());
+        try {
+            verificarEstadoFinal(reaberto);
+        } finally {
+            reaberto.fechar();
+        }
+    }
+
+    private static void verificarEstadoFinal(ArquivoArmazenamento armazenamento) {
+        assertEquals(2, armazenamento.getAllVeiculosTipados().size());
+        Veiculo reinserido = armazenamento.findVeiculoTipado("REI0002");
+        assertNotNull(reinserido);
+        assertEquals(0, reinserido.versao);
+        assertEquals(0, new BigDecimal("25000").compareTo(reinserido.preco));
+        assertNull(armazenamento.findVeiculoTipado("REI0003"));
+        Veiculo vendido = armazenamento.findVeiculoTipado("REI0001");
+        assertTrue(vendido.vendido);
+        assertEquals(1, vendido.versao);
+    }
+
+    /**
+     * Copia o workbook (se já existir) e o diário do armazenamento aberto e abre a cópia, reaplicando o diário.
+     */
+    private ArquivoArmazenamento abrirCopia(String nome) throws IOException {
+        Path copia = pasta.getRoot().toPath().resolve(nome);
+        if (Files.exists(arquivo)) {
+            Files.copy(arquivo, copia);
+        }
+        Files.copy(Path.of(arquivo + ".journal"), Path.of(copia + ".journal"));
+        return new ArquivoArmazenamento(copia.toString(), SEM_REGRAVACAO);
+    }
+}
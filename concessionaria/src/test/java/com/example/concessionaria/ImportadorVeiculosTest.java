@@ -0,0 +1,114 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa o `ImportadorVeiculos` com arquivos CSV temporários: os veículos válidos são gravados, e as linhas inválidas,
+ * as placas repetidas no arquivo e as que já existem no estoque vão para o arquivo de rejeitados com o motivo.
+ */
+public class ImportadorVeiculosTest {
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private BinarioArmazenamento destino;
+    private Path rejeitados;
+
+    @Before
+    public void preparar() {
+        destino = new BinarioArmazenamento(pasta.getRoot().toPath().resolve("estoque.bin").toString());
+        rejeitados = pasta.getRoot().toPath().resolve("rejeitados.csv");
+    }
+
+    @Test
+    public void gravaOsValidosERegistraOsRejeitados() throws IOException {
+        assertTrue(destino.addVeiculoEstoque(novoCarro("EXI0001", "50000")));
+        Path arquivo = escrever("veiculos.csv",
+                "tipo,placa,marca,modelo,Ano de Fabricação,preco,Número de Portas,cilindradas",
+                "Carro,IMP0001,Fiat,\"Uno, Mille\",2015,32500.50,4,",
+                "Motocicleta,IMP0002,Honda,CB 500,2020,28000,,500",
+                "Carro,IMP0003,Fiat,Uno,2015,abc,4,",
+                "Carro,IMP0004,Fiat,Uno,2015,-1,4,",
+                "Carro,IMP0001,VW,Gol,2016,1000,2,",
+                "Carro,EXI0001,VW,Gol,2016,1000,2,",
+                "Carro,IMP0005,Fiat,Uno,1800,1000,4,");
+
+        ResultadoImportacao resultado = importar(arquivo);
+
+        assertEquals(7, resultado.linhasLidas);
+        assertEquals(2, resultado.gravados);
+        assertEquals(5, resultado.rejeitados);
+        assertEquals(3, destino.getAllVeiculosTipados().size());
+        Veiculo primeiro = destino.findVeiculoTipado("IMP0001");
+        assertEquals("Uno, Mille", primeiro.modelo);
+        assertEquals(0, new BigDecimal("32500.50").compareTo(primeiro.preco));
+        assertEquals(Integer.valueOf(500), ((Motocicleta) destino.findVeiculoTipado("IMP0002")).cilindradas);
+        assertEquals(0, new BigDecimal("50000").compareTo(destino.findVeiculoTipado("EXI0001").preco));
+        assertNull(destino.findVeiculoTipado("IMP0003"));
+
+        Map<String, String> motivos = lerMotivos();
+        assertEquals(5, motivos.size());
+        assertEquals("Valor inválido em preco: abc", motivos.get("Carro,IMP0003,Fiat,Uno,2015,abc,4,"));
+        assertTrue(motivos.get("Carro,IMP0004,Fiat,Uno,2015,-1,4,").startsWith("Preço deve ser maior que zero"));
+        assertEquals("Placa repetida no arquivo", motivos.get("Carro,IMP0001,VW,Gol,2016,1000,2,"));
+        assertEquals("Placa já existe no estoque", motivos.get("Carro,EXI0001,VW,Gol,2016,1000,2,"));
+        assertTrue(motivos.get("Carro,IMP0005,Fiat,Uno,1800,1000,4,").startsWith("Ano de fabricação inválido"));
+    }
+
+    @Test
+    public void reimportarOMesmoArquivoRejeitaTodasAsPlacas() throws IOException {
+        Path arquivo = escrever("veiculos.csv",
+                "tipo;placa;marca;modelo;ano_de_fabricacao;preco;numero_de_portas;cilindradas",
+                "Carro;DUP0001;Fiat;Uno;2015;1000;4;",
+                "Carro;DUP0002;Fiat;Uno;2015;1000;4;");
+
+        assertEquals(2, importar(arquivo).gravados);
+        ResultadoImportacao repetida = importar(arquivo);
+
+        assertEquals(0, repetida.gravados);
+        assertEquals(2, repetida.rejeitados);
+        assertEquals(2, destino.getAllVeiculosTipados().size());
+        assertTrue(lerMotivos().values().stream().allMatch("Placa já existe no estoque"::equals));
+    }
+
+    private ResultadoImportacao importar(Path arquivo) throws IOException {
+        // Lotes e blocos pequenos, para que as repetições caiam em lotes diferentes
+        ConfiguracaoImportacao configuracao = new ConfiguracaoImportacao(2, 2);
+        configuracao.linhasPorBloco = 2;
+        return new ImportadorVeiculos(destino, configuracao).importar(arquivo.toString(), rejeitados.toString());
+    }
+
+    private Path escrever(String nome, String... linhas) throws IOException {
+        return Files.write(pasta.getRoot().toPath().resolve(nome), List.of(linhas), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lê o arquivo de rejeitados, associando o registro original de cada linha ao motivo da rejeição.
+     */
+    private Map<String, String> lerMotivos() throws IOException {
+        List<String> linhas = Files.readAllLines(rejeitados, StandardCharsets.UTF_8);
+        assertEquals("linha,placa,motivo,registro", linhas.get(0));
+        Map<String, String> motivos = new LinkedHashMap<>();
+        for (String linha : linhas.subList(1, linhas.size())) {
+            List<String> valores = ImportadorVeiculos.dividirCsv(linha, ',');
+            motivos.put(valores.get(3), valores.get(2));
+        }
+        return motivos;
+    }
+}
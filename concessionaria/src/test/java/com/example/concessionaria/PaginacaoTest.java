@@ -0,0 +1,124 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.listarTodas;
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Testa a listagem paginada com token de retomada em cada armazenamento baseado em arquivo (os mesmos do
+ * `ControleVersaoTest`): as páginas não repetem nem perdem veículos, a retomada continua depois de gravações entre
+ * as páginas e os tokens malformados são recusados.
+ */
+@RunWith(Parameterized.class)
+public class PaginacaoTest {
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> armazenamentos() {
+        return ControleVersaoTest.armazenamentos();
+    }
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private final ControleVersaoTest.Fabrica fabrica;
+    private final List<Runnable> fechamentos = new ArrayList<>();
+    private I_Armazenamento armazenamento;
+
+    public PaginacaoTest(String nome, ControleVersaoTest.Fabrica fabrica) {
+        this.fabrica = fabrica;
+    }
+
+    @Before
+    public void preparar() {
+        armazenamento = fabrica.abrir(pasta.getRoot().toPath(), fechamentos);
+        List<Veiculo> lote = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            lote.add(novoCarro(String.format("PGT%04d", 22 - i), "1000"));
+        }
+        armazenamento.addVeiculosEstoque(lote);
+    }
+
+    @After
+    public void limpar() {
+        // Fecha na ordem inversa da abertura
+        for (int i = fechamentos.size() - 1; i >= 0; i--) {
+            fechamentos.get(i).run();
+        }
+    }
+
+    @Test
+    public void percorreTodasAsPaginasEmCadaOrdem() {
+        for (int i = 0; i < 23; i += 4) {
+            armazenamento.removerVeiculo(String.format("PGT%04d", i), I_Armazenamento.QUALQUER_VERSAO);
+        }
+
+        List<String> porPlaca = listarTodas(armazenamento, OrdenacaoPagina.PLACA, 4);
+        assertEquals(17, porPlaca.size());
+        List<String> esperadas = new ArrayList<>(porPlaca);
+        esperadas.sort(null);
+        assertEquals(esperadas, porPlaca);
+        assertFalse(porPlaca.contains("PGT0004"));
+
+        // O particionado percorre uma partição depois da outra, então só o conjunto é comparado
+        List<String> porInsercao = listarTodas(armazenamento, OrdenacaoPagina.INSERCAO, 4);
+        assertEquals(17, porInsercao.size());
+        assertEquals(new HashSet<>(porPlaca), new HashSet<>(porInsercao));
+
+        // Uma página que termina junto com o estoque não aponta para outra
+        assertNull(armazenamento.listarPagina(17, OrdenacaoPagina.PLACA, null).proximoToken);
+    }
+
+    @Test
+    public void retomaDepoisDeGravacoesEntreAsPaginas() {
+        PaginaVeiculos primeira = armazenamento.listarPagina(5, OrdenacaoPagina.PLACA, null);
+        assertEquals("PGT0004", primeira.proximoToken);
+
+        // Placas antes do token ficam para trás; as depois dele aparecem nas próximas páginas
+        assertTrue(armazenamento.addVeiculoEstoque(novoCarro("PGT0002A", "1000")));
+        assertTrue(armazenamento.addVeiculoEstoque(novoCarro("PGT0010A", "1000")));
+        armazenamento.removerVeiculo("PGT0005", I_Armazenamento.QUALQUER_VERSAO);
+
+        List<String> restantes = new ArrayList<>();
+        String token = primeira.proximoToken;
+        do {
+            PaginaVeiculos pagina = armazenamento.listarPagina(5, OrdenacaoPagina.PLACA, token);
+            pagina.veiculos.forEach(veiculo -> restantes.add(veiculo.placa));
+            token = pagina.proximoToken;
+        } while (token != null);
+
+        assertEquals("PGT0006", restantes.get(0));
+        assertTrue(restantes.contains("PGT0010A"));
+        assertFalse(restantes.contains("PGT0002A"));
+        assertEquals(18, restantes.size());
+
+        // A retomada por placa aceita uma placa que não está no estoque
+        PaginaVeiculos depoisDoFim = armazenamento.listarPagina(5, OrdenacaoPagina.PLACA, "ZZZ9999");
+        assertTrue(depoisDoFim.veiculos.isEmpty());
+        assertNull(depoisDoFim.proximoToken);
+    }
+
+    @Test
+    public void recusaTokensMalformados() {
+        assertThrows(IllegalArgumentException.class, () -> armazenamento.listarPagina(0, OrdenacaoPagina.PLACA, null));
+        for (String token : List.of("abc", "-1", "", "1:2:3", "-1:0")) {
+            assertThrows(token, IllegalArgumentException.class,
+                    () -> armazenamento.listarPagina(5, OrdenacaoPagina.INSERCAO, token));
+        }
+    }
+}
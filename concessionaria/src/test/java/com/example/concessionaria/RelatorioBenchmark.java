@@ -0,0 +1,130 @@
+package com.example.concessionaria;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JMH da listagem de veículos: o caminho anterior da `Concessionaria` (um `println` por campo em um
+ * `PrintStream` com auto-flush e um `DecimalFormat` novo por preço) comparado ao `RelatorioVeiculos` nos formatos
+ * texto, CSV e JSON por linha. A saída é descartada, de modo que só o custo de formatação e escrita é medido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RelatorioBenchmark {
+    @Param({"10000", "100000"})
+    public int quantidade;
+
+    private List<Veiculo> veiculos;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        veiculos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            veiculos.add(novoVeiculo(i));
+        }
+        // Mesmo comportamento do System.out: auto-flush a cada println
+        console = new PrintStream(OutputStream.nullOutputStream(), true);
+    }
+
+    @Benchmark
+    public void listagemPrintln() {
+        for (Veiculo veiculo : veiculos) {
+            imprimirCampoACampo(veiculo);
+        }
+    }
+
+    @Benchmark
+    public long relatorioTexto() throws IOException {
+        return escrever(FormatoRelatorio.TEXTO);
+    }
+
+    @Benchmark
+    public long relatorioCsv() throws IOException {
+        return escrever(FormatoRelatorio.CSV);
+    }
+
+    @Benchmark
+    public long relatorioJsonLinhas() throws IOException {
+        return escrever(FormatoRelatorio.JSON_LINHAS);
+    }
+
+    private long escrever(FormatoRelatorio formato) throws IOException {
+        try (RelatorioVeiculos relatorio = new RelatorioVeiculos(OutputStream.nullOutputStream(), formato)) {
+            return relatorio.escreverTodos(veiculos.stream());
+        }
+    }
+
+    /**
+     * Reproduz a impressão anterior da `Concessionaria`.
+     */
+    private void imprimirCampoACampo(Veiculo veiculo) {
+        console.println("---------------------------------");
+        imprimirCampo("Tipo", veiculo.getTipo());
+        imprimirCampo("Placa", veiculo.placa);
+        imprimirCampo("Marca", veiculo.marca);
+        imprimirCampo("Modelo", veiculo.modelo);
+        imprimirCampo("Ano de Fabricação", veiculo.ano_de_fabricacao);
+        imprimirCampo("Preço", veiculo.preco);
+        if (veiculo instanceof Carro) {
+            imprimirCampo("Número de Portas", ((Carro) veiculo).numero_de_portas);
+        } else if (veiculo instanceof Motocicleta) {
+            imprimirCampo("Cilindradas", ((Motocicleta) veiculo).cilindradas);
+        }
+        console.println("---------------------------------");
+    }
+
+    private void imprimirCampo(String rotulo, Object valor) {
+        if (valor != null) {
+            String texto = valor instanceof BigDecimal
+                    ? "R$" + new DecimalFormat("#,##0.00").format(valor)
+                    : String.valueOf(valor);
+            console.println(rotulo + ": " + texto);
+        }
+    }
+
+    private static Veiculo novoVeiculo(int sequencia) {
+        if (sequencia % 3 == 0) {
+            Motocicleta moto = new Motocicleta();
+            moto.placa = String.format("REL%07d", sequencia);
+            moto.ano_de_fabricacao = String.valueOf(2015 + sequencia % 9);
+            moto.marca = "Marca" + (sequencia % 10);
+            moto.modelo = "Modelo" + (sequencia % 50);
+            moto.cilindradas = 150 + (sequencia % 8) * 125;
+            moto.preco = new BigDecimal(15000 + sequencia % 90000);
+            return moto;
+        }
+
+        Carro carro = new Carro();
+        carro.placa = String.format("REL%07d", sequencia);
+        carro.ano_de_fabricacao = String.valueOf(2015 + sequencia % 9);
+        carro.marca = "Marca" + (sequencia % 10);
+        carro.modelo = "Modelo" + (sequencia % 50);
+        carro.numero_de_portas = sequencia % 2 == 0 ? 4 : 2;
+        carro.preco = new BigDecimal(40000 + sequencia % 200000);
+        return carro;
+    }
+}
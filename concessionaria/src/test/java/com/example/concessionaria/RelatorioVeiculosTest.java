@@ -0,0 +1,106 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static com.example.concessionaria.BinarioArmazenamentoTest.novaMoto;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa a saída do `RelatorioVeiculos` em cada formato, com valores que precisam de aspas ou escape, e a exportação
+ * da `Concessionaria`, inclusive de um estoque vazio.
+ */
+public class RelatorioVeiculosTest {
+    private static final String CABECALHO_CSV = "tipo,placa,marca,modelo,ano_de_fabricacao,preco,numero_de_portas,cilindradas,versao,vendido";
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    @Test
+    public void escreveTexto() throws IOException {
+        String saida = escrever(FormatoRelatorio.TEXTO, veiculos());
+
+        String separador = "---------------------------------\n";
+        assertEquals(separador
+                + "Tipo: Carro\nPlaca: REL0001\nMarca: Fiat\nModelo: Uno \"Mille\", 1.0\nAno de Fabricação: 2020\n"
+                + "Preço: " + RelatorioVeiculos.formatarPreco(new BigDecimal("40400.5")) + "\n"
+                + "Número de Portas: 4\n"
+                + separador
+                + separador
+                + "Tipo: Motocicleta\nPlaca: REL0002\nMarca: Honda\nModelo: CG\nAno de Fabricação: 2021\n"
+                + "Preço: " + RelatorioVeiculos.formatarPreco(new BigDecimal("15999.90")) + "\n"
+                + "Cilindradas: 160\n"
+                + separador, saida);
+    }
+
+    @Test
+    public void escreveCsvComCabecalhoEAspas() throws IOException {
+        assertEquals(CABECALHO_CSV + "\n"
+                + "Carro,REL0001,Fiat,\"Uno \"\"Mille\"\", 1.0\",2020,40400.50,4,,3,true\n"
+                + "Motocicleta,REL0002,Honda,CG,2021,15999.90,,160,0,false\n",
+                escrever(FormatoRelatorio.CSV, veiculos()));
+
+        // O cabeçalho é escrito mesmo sem veículos
+        assertEquals(CABECALHO_CSV + "\n", escrever(FormatoRelatorio.CSV, List.of()));
+    }
+
+    @Test
+    public void escreveUmObjetoJsonPorLinha() throws IOException {
+        String saida = escrever(FormatoRelatorio.JSON_LINHAS, veiculos());
+
+        assertEquals("{\"tipo\":\"Carro\",\"placa\":\"REL0001\",\"marca\":\"Fiat\",\"modelo\":\"Uno \\\"Mille\\\", 1.0\","
+                + "\"ano_de_fabricacao\":\"2020\",\"preco\":40400.50,\"numero_de_portas\":4,\"versao\":3,\"vendido\":true}\n"
+                + "{\"tipo\":\"Motocicleta\",\"placa\":\"REL0002\",\"marca\":\"Honda\",\"modelo\":\"CG\","
+                + "\"ano_de_fabricacao\":\"2021\",\"preco\":15999.90,\"cilindradas\":160,\"versao\":0,\"vendido\":false}\n",
+                saida);
+        // Cada linha é um documento válido, com o valor original
+        String[] linhas = saida.split("\n");
+        assertEquals("Uno \"Mille\", 1.0", Document.parse(linhas[0]).getString("modelo"));
+        assertEquals(Integer.valueOf(160), Document.parse(linhas[1]).getInteger("cilindradas"));
+    }
+
+    @Test
+    public void exportaOEstoqueDaConcessionaria() throws IOException {
+        BinarioArmazenamento armazenamento = new BinarioArmazenamento(pasta.getRoot().toPath().resolve("estoque.bin").toString());
+        Concessionaria concessionaria = new Concessionaria(armazenamento);
+
+        ByteArrayOutputStream vazio = new ByteArrayOutputStream();
+        assertEquals(0, concessionaria.ExportarVeiculos(vazio, FormatoRelatorio.CSV));
+        assertEquals(CABECALHO_CSV + "\n", vazio.toString(StandardCharsets.UTF_8));
+
+        concessionaria.AdicionaVeiculosEstoque(veiculos());
+        ByteArrayOutputStream exportado = new ByteArrayOutputStream();
+        assertEquals(2, concessionaria.ExportarVeiculos(exportado, FormatoRelatorio.CSV));
+        String[] linhas = exportado.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, linhas.length);
+        assertEquals(CABECALHO_CSV, linhas[0]);
+        assertEquals(List.of("Carro", "REL0001", "Fiat", "Uno \"Mille\", 1.0", "2020", "40400.50", "4", "", "3", "true"),
+                ImportadorVeiculos.dividirCsv(linhas[1], ','));
+    }
+
+    private static String escrever(FormatoRelatorio formato, List<Veiculo> veiculos) throws IOException {
+        StringWriter destino = new StringWriter();
+        try (RelatorioVeiculos relatorio = new RelatorioVeiculos(destino, formato)) {
+            assertEquals(veiculos.size(), relatorio.escreverTodos(veiculos.stream()));
+        }
+        return destino.toString();
+    }
+
+    private static List<Veiculo> veiculos() {
+        Carro carro = novoCarro("REL0001", "40400.50");
+        carro.modelo = "Uno \"Mille\", 1.0";
+        carro.versao = 3;
+        carro.vendido = true;
+        return List.of(carro, novaMoto("REL0002", "15999.90"));
+    }
+}
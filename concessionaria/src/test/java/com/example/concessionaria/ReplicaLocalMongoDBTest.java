@@ -0,0 +1,101 @@
+package com.example.concessionaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+
+import java.math.BigDecimal;
+import java.util.function.BooleanSupplier;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testa a `ReplicaLocalMongoDB` contra um MongoDB local em replica set de um único nó. O teste só é executado
+ * quando a propriedade `concessionaria.mongodb.uri` é informada, por exemplo:
+ * `mvn test -Dconcessionaria.mongodb.uri=mongodb://localhost:27017/?replicaSet=rs0`.
+ */
+public class ReplicaLocalMongoDBTest {
+    private static final String COLECAO_TESTE = "veiculos_replica_teste";
+    private static final long TIMEOUT_MS = 10_000;
+
+    private MongoCollection<Document> colecao;
+    private ReplicaLocalMongoDB replica;
+
+    @Before
+    public void preparar() {
+        assumeTrue("MongoDB local não configurado", System.getProperty("concessionaria.mongodb.uri") != null);
+        colecao = MongoDBConnection.getInstance().getCollection(COLECAO_TESTE);
+        colecao.drop();
+        replica = new ReplicaLocalMongoDB(COLECAO_TESTE);
+    }
+
+    @After
+    public void limpar() {
+        if (replica != null) {
+            replica.fechar();
+            colecao.drop();
+        }
+    }
+
+    @Test
+    public void acompanhaInsercoesAtualizacoesERemocoes() throws InterruptedException {
+        replica.iniciar();
+        assertTrue(replica.aguardarSincronizacao(TIMEOUT_MS));
+
+        // A placa recém-gravada é lida do MongoDB até que o evento chegue
+        assertTrue(replica.addVeiculoEstoque(novoCarro("REP0001", "40000")));
+        assertNotNull(replica.findVeiculoTipado("REP0001"));
+        aguardar(() -> replica.getQuantidade() == 1);
+
+        long diretas = replica.getLeiturasDiretas();
+        assertEquals("REP0001", replica.findVeiculoTipado("REP0001").placa);
+        assertEquals(diretas, replica.getLeiturasDiretas());
+
+        colecao.updateOne(Filters.eq("placa", "REP0001"), Updates.set("preco", new Decimal128(new BigDecimal("45000"))));
+        aguardar(() -> new BigDecimal("45000").compareTo(replica.findVeiculoTipado("REP0001").preco) == 0);
+
+        colecao.deleteOne(Filters.eq("placa", "REP0001"));
+        aguardar(() -> replica.getQuantidade() == 0);
+        assertNull(replica.findVeiculoTipado("REP0001"));
+        assertNotNull(replica.getTokenRetomada());
+    }
+
+    @Test
+    public void carregaVeiculosExistentes() throws InterruptedException {
+        colecao.insertOne(novoCarro("REP0002", "50000").toDocument());
+
+        replica.iniciar();
+        assertTrue(replica.aguardarSincronizacao(TIMEOUT_MS));
+        assertEquals(1, replica.getAllVeiculosTipados().size());
+        assertEquals(1, replica.listarPagina(10, OrdenacaoPagina.PLACA, null).veiculos.size());
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condicao.getAsBoolean()) {
+            assertTrue("Tempo esgotado aguardando a réplica", System.currentTimeMillis() < limite);
+            Thread.sleep(20);
+        }
+    }
+
+    private static Carro novoCarro(String placa, String preco) {
+        Carro carro = new Carro();
+        carro.placa = placa;
+        carro.marca = "Fiat";
+        carro.modelo = "Uno";
+        carro.ano_de_fabricacao = "2020";
+        carro.numero_de_portas = 4;
+        carro.preco = new BigDecimal(preco);
+        return carro;
+    }
+}
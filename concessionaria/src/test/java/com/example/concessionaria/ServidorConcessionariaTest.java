@@ -0,0 +1,166 @@
+package com.example.concessionaria;
+
+import static com.example.concessionaria.ArquivoArmazenamentoTest.novoCarro;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testa as rotas do `ServidorConcessionaria` por HTTP, sobre um `BinarioArmazenamento` em um arquivo temporário:
+ * os status de cada rota, a validação dos veículos recebidos e o controle de versão por `ETag` e `If-Match`.
+ */
+public class ServidorConcessionariaTest {
+    private static final String CARRO = "{\"tipo\":\"Carro\",\"placa\":\"%s\",\"marca\":\"Fiat\",\"modelo\":\"Uno\","
+            + "\"ano_de_fabricacao\":\"2020\",\"preco\":%s,\"numero_de_portas\":4}";
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private BinarioArmazenamento armazenamento;
+    private ServidorConcessionaria servidor;
+    private HttpClient cliente;
+    private String base;
+
+    @Before
+    public void preparar() throws IOException {
+        armazenamento = new BinarioArmazenamento(pasta.getRoot().toPath().resolve("estoque.bin").toString());
+        servidor = new ServidorConcessionaria(new Concessionaria(armazenamento), new InetSocketAddress("127.0.0.1", 0), 16);
+        servidor.iniciar();
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        base = "http://127.0.0.1:" + servidor.getPorta();
+    }
+
+    @After
+    public void limpar() {
+        servidor.parar(0);
+    }
+
+    @Test
+    public void adicionaVeiculoValidoERecusaPlacaRepetida() throws Exception {
+        HttpResponse<String> criado = enviar("POST", "/veiculos", String.format(CARRO, "SRV0001", "45000.50"), null);
+        assertEquals(201, criado.statusCode());
+        assertEquals("INSERIDO", Document.parse(criado.body()).getString("status"));
+        assertNotNull(armazenamento.findVeiculoTipado("SRV0001"));
+
+        HttpResponse<String> repetido = enviar("POST", "/veiculos", String.format(CARRO, "SRV0001", "1000"), null);
+        assertEquals(409, repetido.statusCode());
+        assertEquals("PLACA_DUPLICADA", Document.parse(repetido.body()).getString("status"));
+    }
+
+    @Test
+    public void recusaVeiculoInvalidoSemEnviarAoArmazenamento() throws Exception {
+        String semPreco = "{\"tipo\":\"Carro\",\"placa\":\"SRV0002\",\"marca\":\"Fiat\",\"modelo\":\"Uno\","
+                + "\"ano_de_fabricacao\":\"2020\",\"numero_de_portas\":4}";
+        String semPlaca = "{\"tipo\":\"Carro\",\"marca\":\"Fiat\",\"modelo\":\"Uno\",\"ano_de_fabricacao\":\"2020\","
+                + "\"preco\":1000,\"numero_de_portas\":4}";
+
+        assertEquals(400, enviar("POST", "/veiculos", semPreco, null).statusCode());
+        assertEquals(400, enviar("POST", "/veiculos", semPlaca, null).statusCode());
+        assertEquals(400, enviar("POST", "/veiculos", "{\"tipo\":\"Caminhao\",\"placa\":\"SRV0003\"}", null).statusCode());
+        assertEquals(400, enviar("POST", "/veiculos", "{nao e json", null).statusCode());
+        assertNull(armazenamento.findVeiculoTipado("SRV0002"));
+        assertTrue(armazenamento.getAllVeiculosTipados().isEmpty());
+    }
+
+    @Test
+    public void loteRetornaOResultadoDeCadaVeiculo() throws Exception {
+        String lote = "[" + String.format(CARRO, "LTE0001", "1000") + ","
+                + "{\"tipo\":\"Carro\",\"placa\":\"LTE0002\",\"marca\":\"Fiat\"},"
+                + String.format(CARRO, "LTE0001", "2000") + ","
+                + "{\"tipo\":\"Caminhao\",\"placa\":\"LTE0003\"},"
+                + String.format(CARRO, "LTE0004", "3000") + "]";
+
+        HttpResponse<String> resposta = enviar("POST", "/veiculos/lote", lote, null);
+
+        assertEquals(200, resposta.statusCode());
+        List<Document> resultados = Document.parse("{\"r\":" + resposta.body() + "}").getList("r", Document.class);
+        List<String> status = new ArrayList<>();
+        resultados.forEach(resultado -> status.add(resultado.getString("status")));
+        assertEquals(List.of("INSERIDO", "ERRO", "PLACA_DUPLICADA", "ERRO", "INSERIDO"), status);
+        assertEquals("LTE0002", resultados.get(1).getString("placa"));
+        assertEquals(2, armazenamento.getAllVeiculosTipados().size());
+    }
+
+    @Test
+    public void buscaAlteraVendeERemoveComControleDeVersao() throws Exception {
+        armazenamento.addVeiculoEstoque(novoCarro("VRS0001", "30000"));
+
+        HttpResponse<String> lido = enviar("GET", "/veiculos/VRS0001", null, null);
+        assertEquals(200, lido.statusCode());
+        assertEquals("\"0\"", lido.headers().firstValue("ETag").orElse(null));
+        assertEquals(404, enviar("GET", "/veiculos/NAO0001", null, null).statusCode());
+
+        HttpResponse<String> alterado = enviar("PATCH", "/veiculos/VRS0001", "{\"preco\":31000}", "\"0\"");
+        assertEquals(200, alterado.statusCode());
+        assertEquals("\"1\"", alterado.headers().firstValue("ETag").orElse(null));
+
+        HttpResponse<String> conflito = enviar("PATCH", "/veiculos/VRS0001", "{\"preco\":32000}", "\"0\"");
+        assertEquals(412, conflito.statusCode());
+        assertEquals("\"1\"", conflito.headers().firstValue("ETag").orElse(null));
+        assertEquals(400, enviar("PATCH", "/veiculos/VRS0001", "{\"preco\":-5}", null).statusCode());
+        assertEquals(404, enviar("PATCH", "/veiculos/NAO0001", "{\"preco\":1}", null).statusCode());
+
+        assertEquals(200, enviar("POST", "/veiculos/VRS0001/venda", "", "\"1\"").statusCode());
+        assertEquals(409, enviar("POST", "/veiculos/VRS0001/venda", "", null).statusCode());
+
+        assertEquals(412, enviar("DELETE", "/veiculos/VRS0001", null, "\"1\"").statusCode());
+        assertEquals(400, enviar("DELETE", "/veiculos/VRS0001", null, "abc").statusCode());
+        assertEquals(200, enviar("DELETE", "/veiculos/VRS0001", null, "W/\"2\"").statusCode());
+        assertEquals(404, enviar("GET", "/veiculos/VRS0001", null, null).statusCode());
+        assertEquals(404, enviar("DELETE", "/veiculos/VRS0001", null, null).statusCode());
+    }
+
+    @Test
+    public void listaPaginasComOTokenDaProxima() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            armazenamento.addVeiculoEstoque(novoCarro(String.format("PGN%04d", 4 - i), "1000"));
+        }
+
+        List<String> placas = new ArrayList<>();
+        String token = null;
+        int paginas = 0;
+        do {
+            String caminho = "/veiculos?tamanho=2&ordenacao=placa" + (token == null ? "" : "&token=" + token);
+            HttpResponse<String> pagina = enviar("GET", caminho, null, null);
+            assertEquals(200, pagina.statusCode());
+            for (String linha : pagina.body().split("\n")) {
+                if (!linha.isEmpty()) {
+                    placas.add(Document.parse(linha).getString("placa"));
+                }
+            }
+            token = pagina.headers().firstValue("X-Proximo-Token").orElse(null);
+            paginas++;
+        } while (token != null);
+
+        assertEquals(List.of("PGN0000", "PGN0001", "PGN0002", "PGN0003", "PGN0004"), placas);
+        assertEquals(3, paginas);
+        assertEquals(400, enviar("GET", "/veiculos?tamanho=0", null, null).statusCode());
+        assertEquals(405, enviar("PUT", "/veiculos/lote", "[]", null).statusCode());
+    }
+
+    private HttpResponse<String> enviar(String metodo, String caminho, String corpo, String versao) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(base + caminho))
+                .method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corpo));
+        if (versao != null) {
+            requisicao.header("If-Match", versao);
+        }
+        return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}